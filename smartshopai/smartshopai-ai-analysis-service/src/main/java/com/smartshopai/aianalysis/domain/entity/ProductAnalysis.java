@@ -1,5 +1,6 @@
 package com.smartshopai.aianalysis.domain.entity;
 
+import com.smartshopai.common.embedding.Embedding;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -68,10 +69,12 @@ public class ProductAnalysis {
     private Double confidenceScore;
     private String analysisPrompt;
     
-    // Vector embeddings for similarity search
-    private List<Double> embeddings;
+    // Vector embeddings for similarity search, stored as BSON binary
+    private Embedding embeddings;
     
     // Metadata
+    // Indexed for the similarity index, which loads analyses in createdAt order and then polls for newer ones
+    @Indexed
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private String analysisStatus; // PENDING, IN_PROGRESS, COMPLETED, FAILED
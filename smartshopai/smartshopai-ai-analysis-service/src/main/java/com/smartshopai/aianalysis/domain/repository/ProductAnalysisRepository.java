@@ -9,4 +9,6 @@ import java.util.Optional;
 @Repository
 public interface ProductAnalysisRepository extends MongoRepository<ProductAnalysis, String> {
     Optional<ProductAnalysis> findByProductId(String productId);
+
+    Optional<ProductAnalysis> findFirstByProductIdAndEmbeddingsNotNullOrderByCreatedAtDesc(String productId);
 }
@@ -1,6 +1,7 @@
 package com.smartshopai.aianalysis.domain.service;
 
 import com.smartshopai.aianalysis.domain.entity.ProductAnalysis;
+import com.smartshopai.common.embedding.Embedding;
 import com.smartshopai.aianalysis.domain.repository.ProductAnalysisRepository;
 import com.smartshopai.aianalysis.infrastructure.client.ProductServiceClient;
 import com.smartshopai.aianalysis.infrastructure.dto.Product;
@@ -12,7 +13,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,6 +25,7 @@ public class ProductAnalysisService {
 
     private final ProductAnalysisRepository analysisRepository;
     private final ProductServiceClient productServiceClient;
+    private final SimilarProductIndex similarProductIndex;
 
     public ProductAnalysis analyzeProduct(String productId, Set<String> roles) {
         log.info("Starting AI analysis for product ID: {} with roles: {}", productId, roles);
@@ -38,7 +42,7 @@ public class ProductAnalysisService {
         }
 
         // Mock embeddings for now - will be replaced with real AI when Spring AI is ready
-        List<Double> embeddings = generateMockEmbeddings(product.getName() + " " + product.getDescription() + " " + analysisContent);
+        Embedding embeddings = generateMockEmbeddings(product.getName() + " " + product.getDescription() + " " + analysisContent);
 
         ProductAnalysis analysis = ProductAnalysis.builder()
                 .productId(productId)
@@ -48,7 +52,9 @@ public class ProductAnalysisService {
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        return analysisRepository.save(analysis);
+        ProductAnalysis saved = analysisRepository.save(analysis);
+        similarProductIndex.add(saved);
+        return saved;
     }
 
     private String generatePremiumAnalysis(Product product) {
@@ -112,22 +118,38 @@ public class ProductAnalysisService {
         );
     }
 
-    private List<Double> generateMockEmbeddings(String text) {
+    private Embedding generateMockEmbeddings(String text) {
         // Mock embeddings - will be replaced with real AI when Spring AI is ready
-        List<Double> embeddings = new java.util.ArrayList<>();
-        for (int i = 0; i < 768; i++) {
-            embeddings.add(Math.random());
+        float[] embeddings = new float[768];
+        for (int i = 0; i < embeddings.length; i++) {
+            embeddings[i] = (float) Math.random();
         }
-        return embeddings;
+        return Embedding.of(embeddings);
     }
 
-    public List<ProductAnalysis> findSimilarProducts(List<Double> userEmbedding, int topK) {
+    /**
+     * Analyses of the products whose latest embedding is closest to the given one by cosine similarity,
+     * most similar first
+     */
+    public List<ProductAnalysis> findSimilarProducts(Embedding userEmbedding, int topK) {
         log.info("Finding similar products for user embedding with topK: {}", topK);
-        
-        // Mock similarity search - will be replaced with real AI when Spring AI is ready
-        List<ProductAnalysis> allAnalyses = analysisRepository.findAll();
-        return allAnalyses.stream()
-                .limit(topK)
+
+        List<SimilarProductIndex.Hit> hits = similarProductIndex.search(userEmbedding, topK);
+        Map<String, ProductAnalysis> analyses = analysisRepository
+                .findAllById(hits.stream().map(SimilarProductIndex.Hit::analysisId).toList())
+                .stream()
+                .collect(Collectors.toMap(ProductAnalysis::getId, Function.identity()));
+        return hits.stream()
+                .map(hit -> analyses.get(hit.analysisId()))
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Embedding of the product's most recent analysis that has one
+     */
+    public Optional<Embedding> findLatestEmbedding(String productId) {
+        return analysisRepository.findFirstByProductIdAndEmbeddingsNotNullOrderByCreatedAtDesc(productId)
+                .map(ProductAnalysis::getEmbeddings);
+    }
 }
@@ -0,0 +1,210 @@
+package com.smartshopai.aianalysis.domain.service;
+
+import com.smartshopai.aianalysis.domain.entity.ProductAnalysis;
+import com.smartshopai.common.embedding.Embedding;
+import com.smartshopai.common.vector.HnswIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Approximate nearest-neighbour index over the latest analysis embedding of each product.
+ * Built from MongoDB once the application is ready and kept current as analyses are saved; the index
+ * lives in memory, so each instance holds its own copy. Analyses saved through other instances are picked
+ * up by a periodic reload of everything created since the newest one seen, reaching back by a small
+ * overlap for analyses whose save lagged their createdAt. Analyses saved while a load is still streaming
+ * may arrive before older ones, so an analysis never replaces a newer one of the same product.
+ */
+@Slf4j
+@Component
+public class SimilarProductIndex {
+
+    private final MongoTemplate mongoTemplate;
+    private final Timer searchTimer;
+
+    @Value("${analysis.similarity.hnsw.m:16}")
+    private int maxLinks;
+
+    @Value("${analysis.similarity.hnsw.ef-construction:200}")
+    private int efConstruction;
+
+    @Value("${analysis.similarity.hnsw.ef-search:64}")
+    private int efSearch;
+
+    @Value("${analysis.similarity.reload-overlap-ms:300000}")
+    private long reloadOverlapMillis;
+
+    /**
+     * productId to the analysis whose embedding is indexed
+     */
+    private final Map<String, IndexedAnalysis> indexedAnalyses = new ConcurrentHashMap<>();
+    private volatile HnswIndex index;
+    /**
+     * Newest createdAt read from MongoDB; null until the initial load has run
+     */
+    private volatile LocalDateTime lastSeenCreatedAt;
+    private volatile boolean loaded;
+
+    public SimilarProductIndex(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.searchTimer = Timer.builder("analysis.similarity.search")
+                .description("Time to answer a nearest-neighbour query from the in-memory index")
+                .register(meterRegistry);
+        Gauge.builder("analysis.similarity.index.size", indexedAnalyses, Map::size)
+                .description("Products searchable by embedding similarity")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        try {
+            int indexed = loadCreatedSince(null);
+            log.info("Indexed {} analysis embeddings in {} ms", indexed, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build similarity index; the reload will resume after the last analysis read", e);
+        } finally {
+            loaded = true;
+        }
+    }
+
+    /**
+     * Index the analyses created since the newest one seen, including those saved through other instances
+     */
+    @Scheduled(fixedDelayString = "${analysis.similarity.reload-interval-ms:60000}")
+    public void reload() {
+        if (!loaded) {
+            return;
+        }
+        LocalDateTime lastSeen = lastSeenCreatedAt;
+        try {
+            int reloaded = loadCreatedSince(lastSeen == null ? null : lastSeen.minus(reloadOverlapMillis, ChronoUnit.MILLIS));
+            if (reloaded > 0) {
+                log.debug("Reloaded {} analysis embeddings created since {}", reloaded, lastSeen);
+            }
+        } catch (Exception e) {
+            log.warn("Similarity index reload failed; retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Stream analyses with an embedding in createdAt order and index them.
+     * Analyses that are already indexed are skipped by {@link #add}, so the reload overlap costs no inserts.
+     *
+     * @param since lower bound on createdAt, or null for all analyses
+     * @return number of analyses read
+     */
+    private int loadCreatedSince(LocalDateTime since) {
+        Criteria criteria = Criteria.where("embeddings").ne(null);
+        if (since != null) {
+            criteria = criteria.and("createdAt").gte(since);
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by("createdAt"))
+                .cursorBatchSize(500);
+        query.fields().include("productId", "embeddings", "createdAt");
+
+        int read = 0;
+        try (Stream<ProductAnalysis> analyses = mongoTemplate.stream(query, ProductAnalysis.class)) {
+            for (ProductAnalysis analysis : (Iterable<ProductAnalysis>) analyses::iterator) {
+                try {
+                    add(analysis);
+                    read++;
+                } catch (IllegalArgumentException e) {
+                    log.warn("Skipping analysis {} for similarity index: {}", analysis.getId(), e.getMessage());
+                }
+                if (analysis.getCreatedAt() != null) {
+                    lastSeenCreatedAt = analysis.getCreatedAt();
+                }
+            }
+        }
+        return read;
+    }
+
+    /**
+     * Index the analysis embedding, replacing an earlier analysis of the same product.
+     * An analysis that is already indexed, or older than the indexed one, is skipped.
+     *
+     * @throws IllegalArgumentException if the embedding dimension differs from the indexed ones
+     */
+    public void add(ProductAnalysis analysis) {
+        if (analysis.getProductId() == null || analysis.getEmbeddings() == null) {
+            return;
+        }
+        float[] vector = analysis.getEmbeddings().toFloatArray();
+        HnswIndex current = indexFor(vector.length);
+        // The map entry is locked for the whole insert, so racing adds of one product are applied in order
+        indexedAnalyses.compute(analysis.getProductId(), (productId, indexed) -> {
+            if (indexed != null && !indexed.isSupersededBy(analysis)) {
+                return indexed;
+            }
+            current.add(productId, vector);
+            return new IndexedAnalysis(analysis.getId(), analysis.getCreatedAt());
+        });
+    }
+
+    /**
+     * Approximate cosine top-K, most similar first
+     *
+     * @throws IllegalArgumentException if the query dimension differs from the indexed embeddings
+     */
+    public List<Hit> search(Embedding embedding, int topK) {
+        HnswIndex current = index;
+        if (current == null || topK <= 0) {
+            return List.of();
+        }
+        float[] query = embedding.toFloatArray();
+        return searchTimer.record(() -> current.search(query, topK, Math.max(efSearch, topK)).stream()
+                .map(match -> {
+                    IndexedAnalysis indexed = indexedAnalyses.get(match.key());
+                    return new Hit(indexed != null ? indexed.analysisId() : null, match.key(), match.score());
+                })
+                .filter(hit -> hit.analysisId() != null)
+                .toList());
+    }
+
+    private HnswIndex indexFor(int dimension) {
+        HnswIndex current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = new HnswIndex(dimension, maxLinks, efConstruction);
+                    index = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public record Hit(String analysisId, String productId, double score) {
+    }
+
+    private record IndexedAnalysis(String analysisId, LocalDateTime createdAt) {
+
+        boolean isSupersededBy(ProductAnalysis analysis) {
+            if (Objects.equals(analysisId, analysis.getId())) {
+                return false;
+            }
+            return createdAt == null || analysis.getCreatedAt() == null || !analysis.getCreatedAt().isBefore(createdAt);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.smartshopai.aianalysis.infrastructure.config;
+
+import com.smartshopai.common.embedding.EmbeddingEncoding;
+import com.smartshopai.common.embedding.EmbeddingHttpMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binary embedding bodies for the find-similar endpoint
+ */
+@Configuration
+public class EmbeddingConfig {
+
+    @Bean
+    public EmbeddingHttpMessageConverter embeddingHttpMessageConverter() {
+        return new EmbeddingHttpMessageConverter(EmbeddingEncoding.FLOAT32);
+    }
+}
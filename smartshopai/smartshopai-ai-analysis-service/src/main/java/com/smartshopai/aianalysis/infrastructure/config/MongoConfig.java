@@ -0,0 +1,25 @@
+package com.smartshopai.aianalysis.infrastructure.config;
+
+import com.smartshopai.common.embedding.EmbeddingEncoding;
+import com.smartshopai.common.embedding.EmbeddingMongoConverters;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+/**
+ * MongoDB mapping configuration for the analysis service
+ */
+@Configuration
+public class MongoConfig {
+
+    /**
+     * Store embeddings as BSON binary instead of an array of doubles
+     */
+    @Bean
+    public MongoCustomConversions mongoCustomConversions(
+            @Value("${analysis.embedding.storage-encoding:FLOAT32}") EmbeddingEncoding storageEncoding) {
+        return MongoCustomConversions.create(adapter ->
+                adapter.registerConverters(EmbeddingMongoConverters.converters(storageEncoding)));
+    }
+}
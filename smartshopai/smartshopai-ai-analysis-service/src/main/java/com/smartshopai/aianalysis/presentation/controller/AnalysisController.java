@@ -2,7 +2,9 @@ package com.smartshopai.aianalysis.presentation.controller;
 
 import com.smartshopai.aianalysis.domain.entity.ProductAnalysis;
 import com.smartshopai.aianalysis.domain.service.ProductAnalysisService;
+import com.smartshopai.common.embedding.Embedding;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.RequestHeader;
@@ -20,14 +22,27 @@ public class AnalysisController {
 
     private final ProductAnalysisService analysisService;
 
-    @PostMapping("/find-similar")
+    /**
+     * Accepts the embedding as a binary body or as JSON (base64 string or numeric array)
+     */
+    @PostMapping(value = "/find-similar", consumes = {Embedding.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
     public ResponseEntity<List<ProductAnalysis>> findSimilarProducts(
-            @RequestBody List<Double> userEmbedding,
+            @RequestBody Embedding userEmbedding,
             @RequestParam(name = "topK", defaultValue = "5") int topK) {
         List<ProductAnalysis> similarProducts = analysisService.findSimilarProducts(userEmbedding, topK);
         return ResponseEntity.ok(similarProducts);
     }
     
+    /**
+     * Embedding of the product's latest analysis as a binary body
+     */
+    @GetMapping(value = "/products/{productId}/embedding", produces = Embedding.MEDIA_TYPE)
+    public ResponseEntity<Embedding> getLatestEmbedding(@PathVariable String productId) {
+        return analysisService.findLatestEmbedding(productId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/analyze/{productId}")
     public ResponseEntity<ProductAnalysis> analyzeProduct(
             @PathVariable String productId,
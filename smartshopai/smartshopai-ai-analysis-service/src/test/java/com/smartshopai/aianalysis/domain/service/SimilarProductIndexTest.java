@@ -0,0 +1,100 @@
+package com.smartshopai.aianalysis.domain.service;
+
+import com.smartshopai.aianalysis.domain.entity.ProductAnalysis;
+import com.smartshopai.common.embedding.Embedding;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SimilarProductIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final List<Query> queries = new ArrayList<>();
+    private final List<List<ProductAnalysis>> pages = new ArrayList<>();
+
+    private SimilarProductIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.stream(any(Query.class), eq(ProductAnalysis.class))).thenAnswer(invocation -> {
+            queries.add(invocation.getArgument(0));
+            return pages.isEmpty() ? Stream.empty() : pages.remove(0).stream();
+        });
+        index = new SimilarProductIndex(mongoTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(index, "maxLinks", 16);
+        ReflectionTestUtils.setField(index, "efConstruction", 100);
+        ReflectionTestUtils.setField(index, "efSearch", 32);
+        ReflectionTestUtils.setField(index, "reloadOverlapMillis", 60_000L);
+    }
+
+    @Test
+    void doesNotReloadBeforeTheInitialLoad() {
+        index.reload();
+
+        assertThat(queries).isEmpty();
+    }
+
+    @Test
+    void picksUpAnalysesSavedThroughOtherInstances() {
+        pages.add(List.of(analysis("a1", "p1", new float[]{1, 0, 0}, START)));
+        index.load();
+        pages.add(List.of(analysis("a2", "p2", new float[]{0, 1, 0}, START.plusMinutes(5))));
+        index.reload();
+
+        assertThat(index.search(Embedding.of(new float[]{0, 1, 0}), 1))
+                .singleElement().satisfies(hit -> assertThat(hit.analysisId()).isEqualTo("a2"));
+        Document createdAt = queries.get(1).getQueryObject().get("createdAt", Document.class);
+        assertThat(createdAt).containsEntry("$gte", START.minusMinutes(1));
+    }
+
+    @Test
+    void resumesFromTheNewestAnalysisSeenByTheLastReload() {
+        pages.add(List.of());
+        index.load();
+        pages.add(List.of(analysis("a1", "p1", new float[]{1, 0, 0}, START)));
+        index.reload();
+        index.reload();
+
+        assertThat(queries.get(1).getQueryObject()).doesNotContainKey("createdAt");
+        assertThat(queries.get(2).getQueryObject().get("createdAt", Document.class))
+                .containsEntry("$gte", START.minusMinutes(1));
+    }
+
+    @Test
+    void skipsAnAnalysisTheOverlapReadsAgain() {
+        ProductAnalysis latest = analysis("a2", "p1", new float[]{0, 1, 0}, START.plusMinutes(1));
+        pages.add(List.of(analysis("a1", "p1", new float[]{1, 0, 0}, START), latest));
+        index.load();
+        pages.add(List.of(latest));
+        index.reload();
+
+        assertThat(index.search(Embedding.of(new float[]{0, 1, 0}), 5))
+                .singleElement().satisfies(hit -> assertThat(hit.analysisId()).isEqualTo("a2"));
+    }
+
+    private static ProductAnalysis analysis(String id, String productId, float[] embedding, LocalDateTime createdAt) {
+        return ProductAnalysis.builder()
+                .id(id)
+                .productId(productId)
+                .embeddings(Embedding.of(embedding))
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -6,6 +6,7 @@ import com.smartshopai.airecommendation.infrastructure.dto.UserDto;
 import com.smartshopai.airecommendation.infrastructure.dto.UserPreferencesDto;
 import com.smartshopai.airecommendation.infrastructure.client.AnalysisServiceClient;
 import com.smartshopai.airecommendation.infrastructure.client.UserServiceClient;
+import com.smartshopai.common.embedding.Embedding;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -39,7 +40,7 @@ public class RecommendationService {
         String combinedInfo = userPreferencesText + " " + userBehaviorText;
 
         // Mock embedding oluştur - will be replaced with real AI when Spring AI is ready
-        List<Double> userEmbedding = generateMockEmbedding(combinedInfo);
+        Embedding userEmbedding = generateMockEmbedding(combinedInfo);
         log.info("Generated combined embedding for user ID: {}", userId);
 
         // Benzer ürünleri bul
@@ -80,13 +81,13 @@ public class RecommendationService {
         );
     }
 
-    private List<Double> generateMockEmbedding(String text) {
+    private Embedding generateMockEmbedding(String text) {
         // Mock embedding - will be replaced with real AI when Spring AI is ready
-        List<Double> embedding = new java.util.ArrayList<>();
-        for (int i = 0; i < 768; i++) {
-            embedding.add(Math.random());
+        float[] embedding = new float[768];
+        for (int i = 0; i < embedding.length; i++) {
+            embedding[i] = (float) Math.random();
         }
-        return embedding;
+        return Embedding.of(embedding);
     }
 
     private String generateMockRecommendation(String userPreferences, String userBehavior, String productIds, boolean isPremiumUser) {
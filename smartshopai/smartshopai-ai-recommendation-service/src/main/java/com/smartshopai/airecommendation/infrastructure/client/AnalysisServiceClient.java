@@ -1,6 +1,7 @@
 package com.smartshopai.airecommendation.infrastructure.client;
 
 import com.smartshopai.airecommendation.infrastructure.dto.ProductAnalysisDto;
+import com.smartshopai.common.embedding.Embedding;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -11,6 +12,6 @@ import java.util.List;
 @FeignClient(name = "smartshopai-ai-analysis-service")
 public interface AnalysisServiceClient {
 
-    @PostMapping("/api/analysis/find-similar")
-    List<ProductAnalysisDto> findSimilarProducts(@RequestBody List<Double> userEmbedding, @RequestParam("topK") int topK);
+    @PostMapping(value = "/api/analysis/find-similar", consumes = Embedding.MEDIA_TYPE)
+    List<ProductAnalysisDto> findSimilarProducts(@RequestBody Embedding userEmbedding, @RequestParam("topK") int topK);
 }
@@ -0,0 +1,18 @@
+package com.smartshopai.airecommendation.infrastructure.config;
+
+import com.smartshopai.common.embedding.EmbeddingEncoding;
+import com.smartshopai.common.embedding.EmbeddingHttpMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binary embedding bodies for calls to the analysis service
+ */
+@Configuration
+public class EmbeddingConfig {
+
+    @Bean
+    public EmbeddingHttpMessageConverter embeddingHttpMessageConverter() {
+        return new EmbeddingHttpMessageConverter(EmbeddingEncoding.FLOAT32);
+    }
+}
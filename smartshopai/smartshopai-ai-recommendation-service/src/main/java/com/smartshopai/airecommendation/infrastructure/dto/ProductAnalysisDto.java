@@ -1,10 +1,10 @@
 package com.smartshopai.airecommendation.infrastructure.dto;
 
+import com.smartshopai.common.embedding.Embedding;
 import lombok.Data;
-import java.util.List;
 
 @Data
 public class ProductAnalysisDto {
     private String productId;
-    private List<Double> embeddings;
+    private Embedding embeddings;
 }
@@ -3,8 +3,10 @@ package com.smartshopai.ai.search.application.mapper;
 import com.smartshopai.ai.search.application.dto.request.CreateSearchRequest;
 import com.smartshopai.ai.search.application.dto.response.SearchRequestResponse;
 import com.smartshopai.ai.search.application.dto.response.SearchResultResponse;
+import com.smartshopai.ai.search.application.dto.response.SuggestionResponse;
 import com.smartshopai.ai.search.domain.entity.SearchRequest;
 import com.smartshopai.ai.search.domain.entity.SearchResult;
+import com.smartshopai.ai.search.infrastructure.retrieval.PrefixIndex;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -21,6 +23,11 @@ public interface SearchMapper {
 
     List<SearchResultResponse> toResultResponseList(List<SearchResult> entities);
 
+    @Mapping(target = "score", source = "weight")
+    SuggestionResponse toSuggestionResponse(PrefixIndex.Completion completion);
+
+    List<SuggestionResponse> toSuggestionResponseList(List<PrefixIndex.Completion> completions);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "status", ignore = true)
     @Mapping(target = "errorMessage", ignore = true)
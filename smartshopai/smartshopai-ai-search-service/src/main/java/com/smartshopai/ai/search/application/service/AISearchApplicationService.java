@@ -3,13 +3,16 @@ package com.smartshopai.ai.search.application.service;
 import com.smartshopai.ai.search.application.dto.request.CreateSearchRequest;
 import com.smartshopai.ai.search.application.dto.response.SearchRequestResponse;
 import com.smartshopai.ai.search.application.dto.response.SearchResultResponse;
+import com.smartshopai.ai.search.application.dto.response.SuggestionResponse;
 import com.smartshopai.ai.search.application.mapper.SearchMapper;
 import com.smartshopai.ai.search.domain.entity.SearchRequest;
 import com.smartshopai.ai.search.domain.entity.SearchResult;
 import com.smartshopai.ai.search.domain.service.AISearchService;
+import com.smartshopai.ai.search.domain.service.TypeaheadService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -22,6 +25,7 @@ import java.util.Optional;
 public class AISearchApplicationService {
 
     private final AISearchService aiSearchService;
+    private final TypeaheadService typeaheadService;
     private final SearchMapper searchMapper;
 
     public SearchRequestResponse createSearchRequest(CreateSearchRequest request) {
@@ -106,4 +110,14 @@ public class AISearchApplicationService {
         
         return searchMapper.toResultResponse(updatedResult);
     }
+
+    /**
+     * Served from memory on every keystroke, so it never joins a transaction
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SuggestionResponse> getSuggestions(String prefix, Integer limit) {
+        log.debug("Getting suggestions for prefix: {}", prefix);
+
+        return searchMapper.toSuggestionResponseList(typeaheadService.suggest(prefix, limit));
+    }
 }
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -19,6 +20,8 @@ import java.util.Map;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "search_queries")
+// Typeahead refreshes count the successful queries logged within a createdAt window
+@CompoundIndex(name = "successful_created_idx", def = "{'isSuccessful': 1, 'createdAt': 1}")
 public class SearchQuery {
     
     @Id
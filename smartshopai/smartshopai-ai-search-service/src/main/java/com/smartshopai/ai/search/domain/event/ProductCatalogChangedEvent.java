@@ -0,0 +1,25 @@
+package com.smartshopai.ai.search.domain.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Event published when a retrieval index refresh finds products added, changed or removed since the
+ * previous refresh
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCatalogChangedEvent {
+
+    private Set<String> addedProductIds;
+    private Set<String> updatedProductIds;
+    private Set<String> removedProductIds;
+    private LocalDateTime changedAt;
+}
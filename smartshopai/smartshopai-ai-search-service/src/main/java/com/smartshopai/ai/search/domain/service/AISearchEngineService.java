@@ -2,8 +2,11 @@ package com.smartshopai.ai.search.domain.service;
 
 import com.smartshopai.ai.search.domain.entity.SearchRequest;
 import com.smartshopai.ai.search.domain.entity.SearchResult;
+import com.smartshopai.ai.search.infrastructure.cache.SearchResultCache;
+import com.smartshopai.ai.search.infrastructure.dto.ProductDocument;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -11,52 +14,65 @@ import java.util.List;
 
 /**
  * AI Search Engine Service
- * Handles AI-powered search operations
+ * Answers searches from the in-process {@link ProductRetrievalIndex}, through the {@link SearchResultCache};
+ * every search type honours the request's category, brand and price filters
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AISearchEngineService {
 
+    private final ProductRetrievalIndex productRetrievalIndex;
+    private final SearchResultCache searchResultCache;
+
+    @Value("${search.max-results:20}")
+    private int maxResults;
+
+    public SearchResult performKeywordSearch(SearchRequest request) {
+        return runSearch(request, ProductRetrievalIndex.Mode.KEYWORD, "Keyword search");
+    }
+
     public SearchResult performSemanticSearch(SearchRequest request) {
-        String prompt = createSemanticSearchPrompt(request);
-        return runSearch(request, prompt, "Semantic search");
+        return runSearch(request, ProductRetrievalIndex.Mode.SEMANTIC, "Semantic search");
     }
 
     public SearchResult performHybridSearch(SearchRequest request) {
-        String prompt = createHybridSearchPrompt(request);
-        return runSearch(request, prompt, "Hybrid search");
+        return runSearch(request, ProductRetrievalIndex.Mode.HYBRID, "Hybrid search");
     }
 
     public SearchResult performFilteredSearch(SearchRequest request) {
-        String prompt = createFilteredSearchPrompt(request);
-        return runSearch(request, prompt, "Filtered search");
+        return runSearch(request, ProductRetrievalIndex.Mode.HYBRID, "Filtered search");
     }
 
-    private SearchResult runSearch(SearchRequest request, String prompt, String searchTypeLog) {
+    private SearchResult runSearch(SearchRequest request, ProductRetrievalIndex.Mode mode, String searchTypeLog) {
         log.info("Performing {} for query: {}", searchTypeLog, request.getQuery());
         long startTime = System.currentTimeMillis();
         try {
-            // Mock AI response - will be replaced with real AI when Spring AI is ready
-            String aiResponse = generateMockSearchResponse(prompt);
-            
+            ProductRetrievalIndex.Retrieval retrieval = searchResultCache.getOrCompute(request, mode, maxResults,
+                    () -> productRetrievalIndex.retrieve(request, mode, maxResults));
+            List<SearchResult.SearchProduct> products = retrieval.products().stream()
+                    .map(this::toSearchProduct)
+                    .toList();
+
             SearchResult result = SearchResult.builder()
                     .searchRequestId(request.getId())
                     .userId(request.getUserId())
                     .query(request.getQuery())
                     .searchType(request.getSearchType())
                     .context(request.getContext())
-                    .products(parseSearchResults(aiResponse))
-                    .confidenceScore(calculateRelevanceScore(aiResponse))
-                    .aiModel("mock-ai-v1.0")
-                    .tokensUsed(estimateTokens(aiResponse))
+                    .products(products)
+                    .confidenceScore(products.isEmpty() ? 0.0 : products.getFirst().getRelevanceScore())
+                    .aiModel(modelName(mode))
+                    .totalProductsAnalyzed(retrieval.totalProducts())
+                    .productsFiltered(retrieval.filteredOut())
+                    .productsReturned(products.size())
                     .processingTimeMs(System.currentTimeMillis() - startTime)
                     .status("ACTIVE")
                     .aiAnalysisCompleted(true)
                     .createdAt(LocalDateTime.now())
                     .updatedAt(LocalDateTime.now())
                     .build();
-            log.info("{} completed for query: {}", searchTypeLog, request.getQuery());
+            log.info("{} completed for query: {} with {} results", searchTypeLog, request.getQuery(), products.size());
             return result;
         } catch (Exception e) {
             log.error("Error performing {} for query: {}", searchTypeLog, request.getQuery(), e);
@@ -64,147 +80,25 @@ public class AISearchEngineService {
         }
     }
 
-    private String createSemanticSearchPrompt(SearchRequest request) {
-        return String.format("""
-            Perform semantic search for the following query: "%s"
-            
-            Search Context: %s
-            Search Type: %s
-            Categories: %s
-            Brands: %s
-            Price Range: $%.2f - $%.2f
-            
-            Please provide:
-            1. Relevant products based on semantic meaning
-            2. Alternative search terms
-            3. Related categories
-            4. Search suggestions
-            
-            Format the response in a structured manner.
-            """, 
-            request.getQuery(),
-            request.getContext(),
-            request.getSearchType(),
-            request.getCategories() != null ? String.join(", ", request.getCategories()) : "All",
-            request.getBrands() != null ? String.join(", ", request.getBrands()) : "All",
-            request.getMinPrice() != null ? request.getMinPrice() : 0.0,
-            request.getMaxPrice() != null ? request.getMaxPrice() : 10000.0
-        );
-    }
-
-    private String createHybridSearchPrompt(SearchRequest request) {
-        return String.format("""
-            Perform hybrid search (semantic + keyword) for the following query: "%s"
-            
-            Search Context: %s
-            Search Type: %s
-            Categories: %s
-            Brands: %s
-            Price Range: $%.2f - $%.2f
-            
-            Please provide:
-            1. Relevant products based on both semantic meaning and keywords
-            2. Alternative search terms
-            3. Related categories
-            4. Search suggestions
-            
-            Format the response in a structured manner.
-            """, 
-            request.getQuery(),
-            request.getContext(),
-            request.getSearchType(),
-            request.getCategories() != null ? String.join(", ", request.getCategories()) : "All",
-            request.getBrands() != null ? String.join(", ", request.getBrands()) : "All",
-            request.getMinPrice() != null ? request.getMinPrice() : 0.0,
-            request.getMaxPrice() != null ? request.getMaxPrice() : 10000.0
-        );
-    }
-
-    private String createFilteredSearchPrompt(SearchRequest request) {
-        return String.format("""
-            Perform filtered search for the following query: "%s"
-            
-            Search Context: %s
-            Search Type: %s
-            Categories: %s
-            Brands: %s
-            Price Range: $%.2f - $%.2f
-            
-            Please provide:
-            1. Relevant products matching the filters
-            2. Alternative search terms
-            3. Related categories
-            4. Search suggestions
-            
-            Format the response in a structured manner.
-            """, 
-            request.getQuery(),
-            request.getContext(),
-            request.getSearchType(),
-            request.getCategories() != null ? String.join(", ", request.getCategories()) : "All",
-            request.getBrands() != null ? String.join(", ", request.getBrands()) : "All",
-            request.getMinPrice() != null ? request.getMinPrice() : 0.0,
-            request.getMaxPrice() != null ? request.getMaxPrice() : 10000.0
-        );
-    }
-
-    private String generateMockSearchResponse(String prompt) {
-        // Mock AI response - will be replaced with real AI when Spring AI is ready
-        return String.format("""
-            **AI SEARCH RESPONSE**
-            
-            Based on the prompt: %s
-            
-            **Search Results**:
-            - Product 1: High relevance match
-            - Product 2: Good alternative option
-            - Product 3: Related category suggestion
-            
-            **Alternative Search Terms**:
-            - Related keywords
-            - Synonym suggestions
-            - Category alternatives
-            
-            **Related Categories**:
-            - Electronics
-            - Home & Garden
-            - Sports & Outdoors
-            
-            **Search Suggestions**:
-            - Refine your search
-            - Try different keywords
-            - Explore related categories
-            """, prompt);
-    }
-
-    private List<SearchResult.SearchProduct> parseSearchResults(String aiResponse) {
-        // Mock search results parsing - will be replaced with real AI when Spring AI is ready
-        return List.of(
-            SearchResult.SearchProduct.builder()
-                .productId("prod_001")
-                .productName("Sample Product 1")
-                .relevanceScore(0.95)
-                .build(),
-            SearchResult.SearchProduct.builder()
-                .productId("prod_002")
-                .productName("Sample Product 2")
-                .relevanceScore(0.88)
-                .build(),
-            SearchResult.SearchProduct.builder()
-                .productId("prod_003")
-                .productName("Sample Product 3")
-                .relevanceScore(0.82)
-                .build()
-        );
-    }
-
-    private Double calculateRelevanceScore(String aiResponse) {
-        // Mock relevance score calculation - will be replaced with real AI when Spring AI is ready
-        return 0.85;
+    private SearchResult.SearchProduct toSearchProduct(ProductRetrievalIndex.RankedProduct ranked) {
+        ProductDocument product = ranked.product();
+        return SearchResult.SearchProduct.builder()
+                .productId(product.getId())
+                .productName(product.getName())
+                .brand(product.getBrand())
+                .category(product.getCategory())
+                .price(product.getPrice() != null ? product.getPrice().doubleValue() : null)
+                .rating(product.getRating())
+                .relevanceScore(ranked.score())
+                .matchReason(ranked.matchReason())
+                .build();
     }
 
-    private Long estimateTokens(String text) {
-        // Mock token estimation - will be replaced with real AI when Spring AI is ready
-        return (long) (text.length() / 4); // Rough estimation
+    private String modelName(ProductRetrievalIndex.Mode mode) {
+        return switch (mode) {
+            case KEYWORD -> "bm25";
+            case SEMANTIC -> "hnsw-cosine";
+            case HYBRID -> "bm25+hnsw-rrf";
+        };
     }
 }
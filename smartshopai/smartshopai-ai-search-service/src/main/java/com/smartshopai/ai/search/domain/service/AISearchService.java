@@ -1,17 +1,22 @@
 package com.smartshopai.ai.search.domain.service;
 
+import com.smartshopai.ai.search.domain.entity.SearchQuery;
 import com.smartshopai.ai.search.domain.entity.SearchRequest;
 import com.smartshopai.ai.search.domain.entity.SearchResult;
 import com.smartshopai.ai.search.domain.repository.SearchRequestRepository;
 import com.smartshopai.ai.search.domain.repository.SearchResultRepository;
+import com.smartshopai.ai.search.infrastructure.persistence.SearchPersistenceWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -25,6 +30,7 @@ public class AISearchService {
     private final SearchRequestRepository searchRequestRepository;
     private final SearchResultRepository searchResultRepository;
     private final AISearchEngineService aiSearchEngineService;
+    private final SearchPersistenceWriter searchPersistenceWriter;
 
     public SearchRequest createSearchRequest(SearchRequest request) {
         log.info("Creating search request for userId: {}", request.getUserId());
@@ -78,8 +84,16 @@ public class AISearchService {
         return savedResult;
     }
 
+    /**
+     * Run the search and hand the result and its query log entry to the async writer. The returned result
+     * carries its id before it is persisted, so the id may not be in MongoDB yet; {@link #findResultById} and
+     * {@link #updateResultStatus} serve it from the writer until the insert is acknowledged. Under overload
+     * only the query log entry may be shed.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public SearchResult performSearch(SearchRequest request) {
         log.info("Performing AI search for query: {}", request.getQuery());
+        long startTime = System.currentTimeMillis();
         
         try {
             SearchResult result;
@@ -88,6 +102,9 @@ public class AISearchService {
                 case "SEMANTIC":
                     result = aiSearchEngineService.performSemanticSearch(request);
                     break;
+                case "KEYWORD":
+                    result = aiSearchEngineService.performKeywordSearch(request);
+                    break;
                 case "HYBRID":
                     result = aiSearchEngineService.performHybridSearch(request);
                     break;
@@ -99,18 +116,25 @@ public class AISearchService {
                     break;
             }
             
-            return searchResultRepository.save(result);
+            result.setId(new ObjectId().toHexString());
+            searchPersistenceWriter.submit(result, toQueryLog(request, result, System.currentTimeMillis() - startTime));
+            return result;
             
         } catch (Exception e) {
             log.error("Error performing search for query: {}", request.getQuery(), e);
+            searchPersistenceWriter.submit(null, toQueryLog(request, null, System.currentTimeMillis() - startTime));
             throw new RuntimeException("Search failed: " + e.getMessage());
         }
     }
 
+    /**
+     * The stored result, or one from a search that just ran and is still waiting to be persisted
+     */
     @Cacheable(value = "searchResults", key = "#id")
     public SearchResult findResultById(String id) {
         log.debug("Finding search result by ID: {}", id);
-        return searchResultRepository.findById(id)
+        return searchPersistenceWriter.pendingResult(id)
+                .or(() -> searchResultRepository.findById(id))
                 .orElseThrow(() -> new com.smartshopai.common.exception.NotFoundException("Search result not found"));
     }
 
@@ -151,6 +175,10 @@ public class AISearchService {
         return updatedRequest;
     }
 
+    /**
+     * Saves the whole result, so a result still queued for insertion is written here first; the queued insert
+     * then finds the id taken and leaves the updated document in place
+     */
     @CacheEvict(value = "searchResults", key = "#result.id")
     public SearchResult updateResultStatus(SearchResult result, String status) {
         log.info("Updating search result status to: {}", status);
@@ -164,6 +192,38 @@ public class AISearchService {
         return updatedResult;
     }
 
+    private SearchQuery toQueryLog(SearchRequest request, SearchResult result, long elapsedMillis) {
+        Map<String, Object> filters = new HashMap<>();
+        if (request.getCategories() != null && !request.getCategories().isEmpty()) {
+            filters.put("categories", request.getCategories());
+        }
+        if (request.getBrands() != null && !request.getBrands().isEmpty()) {
+            filters.put("brands", request.getBrands());
+        }
+        if (request.getMinPrice() != null) {
+            filters.put("minPrice", request.getMinPrice());
+        }
+        if (request.getMaxPrice() != null) {
+            filters.put("maxPrice", request.getMaxPrice());
+        }
+        List<SearchResult.SearchProduct> products = result != null && result.getProducts() != null
+                ? result.getProducts() : List.of();
+
+        return SearchQuery.builder()
+                .userId(request.getUserId())
+                .queryText(request.getQuery())
+                .searchType(request.getSearchType())
+                .searchResults(products.stream().map(SearchResult.SearchProduct::getProductId).toList())
+                .relevanceScores(products.stream().map(SearchResult.SearchProduct::getRelevanceScore).toList())
+                .searchFilters(filters)
+                .resultCount(products.size())
+                .searchTime((double) elapsedMillis)
+                .modelUsed(result != null ? result.getAiModel() : null)
+                .createdAt(LocalDateTime.now())
+                .isSuccessful(result != null)
+                .build();
+    }
+
     private void validateRequestData(SearchRequest request) {
         if (request.getUserId() == null || request.getUserId().trim().isEmpty()) {
             throw new com.smartshopai.common.exception.ValidationException("User ID is required");
@@ -0,0 +1,440 @@
+package com.smartshopai.ai.search.domain.service;
+
+import com.smartshopai.ai.search.domain.entity.SearchRequest;
+import com.smartshopai.ai.search.domain.event.ProductCatalogChangedEvent;
+import com.smartshopai.ai.search.infrastructure.client.ProductCatalogClient;
+import com.smartshopai.ai.search.infrastructure.dto.ProductDocument;
+import com.smartshopai.ai.search.infrastructure.dto.ProductDocumentPage;
+import com.smartshopai.ai.search.infrastructure.retrieval.Bm25Index;
+import com.smartshopai.ai.search.infrastructure.retrieval.ProductCatalogIndex;
+import com.smartshopai.common.dto.BaseResponse;
+import com.smartshopai.common.embedding.Embedding;
+import com.smartshopai.common.embedding.EmbeddingService;
+import com.smartshopai.common.vector.HnswIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * In-process hybrid retrieval over the product catalog.
+ *
+ * A periodic refresh pages the product service's search-document feed into a fresh {@link ProductCatalogIndex}
+ * (BM25 plus facet bitsets) and swaps it in whole. Product embeddings go into an HNSW index that is updated
+ * incrementally: only products whose indexed text changed are re-embedded, and products gone from the feed
+ * are removed. Refresh is the only writer to the HNSW index, so once replaced and removed products leave too many
+ * tombstones it rebuilds a compacted copy while searches keep using the current one, then swaps the copy in.
+ * Queries pre-filter by category, brand and price, then take BM25, vector, or both lists fused by
+ * weighted reciprocal rank. Each refresh that changes the catalog publishes a {@link ProductCatalogChangedEvent}.
+ */
+@Slf4j
+@Component
+public class ProductRetrievalIndex {
+
+    /**
+     * Rank offset of reciprocal-rank fusion; damps the gap between the first few ranks of either list
+     */
+    private static final int RRF_K = 60;
+    private static final int MAX_EMBEDDED_TEXT = 2000;
+
+    private final ProductCatalogClient productCatalogClient;
+    private final EmbeddingService embeddingService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final Map<Mode, Timer> timers = new EnumMap<>(Mode.class);
+
+    @Value("${search.retrieval.page-size:1000}")
+    private int pageSize;
+
+    @Value("${search.retrieval.candidates:100}")
+    private int candidates;
+
+    @Value("${search.retrieval.exact-filter-threshold:5000}")
+    private int exactFilterThreshold;
+
+    @Value("${search.retrieval.hnsw.m:16}")
+    private int maxLinks;
+
+    @Value("${search.retrieval.hnsw.ef-construction:200}")
+    private int efConstruction;
+
+    @Value("${search.retrieval.hnsw.ef-search:64}")
+    private int efSearch;
+
+    @Value("${search.hybrid-search.keyword-weight:0.3}")
+    private double keywordWeight;
+
+    @Value("${search.hybrid-search.semantic-weight:0.7}")
+    private double semanticWeight;
+
+    /**
+     * productId to the hash of the text its indexed embedding was computed from
+     */
+    private final Map<String, Integer> embeddedTexts = new ConcurrentHashMap<>();
+    private volatile ProductCatalogIndex catalog = ProductCatalogIndex.EMPTY;
+    private volatile HnswIndex vectors;
+
+    public ProductRetrievalIndex(ProductCatalogClient productCatalogClient,
+                                 EmbeddingService embeddingService,
+                                 ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry meterRegistry) {
+        this.productCatalogClient = productCatalogClient;
+        this.embeddingService = embeddingService;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        for (Mode mode : Mode.values()) {
+            timers.put(mode, Timer.builder("search.retrieval.duration")
+                    .description("Time to retrieve and rank products for one query")
+                    .tag("mode", mode.name().toLowerCase(Locale.ROOT))
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("search.retrieval.documents", this, index -> index.catalog.size())
+                .description("Products searchable by keyword")
+                .register(meterRegistry);
+        Gauge.builder("search.retrieval.embedded", embeddedTexts, Map::size)
+                .description("Products searchable by embedding similarity")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${search.retrieval.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Retrieval index refresh failed; keeping the previous catalog", e);
+        }
+    }
+
+    /**
+     * Rebuild the keyword catalog from the product feed and bring the vector index up to date with it.
+     * Nothing is swapped or removed unless the whole feed was read.
+     *
+     * @throws IllegalStateException if the feed ends before its last page
+     */
+    public synchronized void refresh() {
+        long start = System.currentTimeMillis();
+        ProductCatalogIndex previous = catalog;
+        ProductCatalogIndex.Builder builder = new ProductCatalogIndex.Builder();
+        Set<String> seen = new HashSet<>();
+        Set<String> added = new HashSet<>();
+        Set<String> updated = new HashSet<>();
+        int embedded = 0;
+        String cursor = null;
+        do {
+            BaseResponse<ProductDocumentPage> response = productCatalogClient.listSearchDocuments(cursor, pageSize);
+            ProductDocumentPage page = response != null ? response.getData() : null;
+            if (page == null || page.getContent() == null) {
+                // A partial feed would look like mass removals, so the previous catalog stays in place
+                throw new IllegalStateException("Product feed returned no page after " + seen.size() + " products");
+            }
+            if (page.isHasNext() && page.getNextCursor() == null) {
+                throw new IllegalStateException("Product feed page has more results but no cursor after "
+                        + seen.size() + " products");
+            }
+            List<ProductDocument> changed = new ArrayList<>();
+            for (ProductDocument document : page.getContent()) {
+                if (document.getId() == null || !builder.add(document)) {
+                    continue;
+                }
+                seen.add(document.getId());
+                int previousDoc = previous.docId(document.getId());
+                if (previousDoc < 0) {
+                    added.add(document.getId());
+                } else if (!previous.document(previousDoc).equals(document)) {
+                    updated.add(document.getId());
+                }
+                Integer indexedText = embeddedTexts.get(document.getId());
+                if (indexedText == null || indexedText != embeddingText(document).hashCode()) {
+                    changed.add(document);
+                }
+            }
+            embedded += embed(changed);
+            cursor = page.isHasNext() ? page.getNextCursor() : null;
+        } while (cursor != null);
+
+        for (String productId : List.copyOf(embeddedTexts.keySet())) {
+            if (!seen.contains(productId)) {
+                embeddedTexts.remove(productId);
+                vectors.remove(productId);
+            }
+        }
+        compactVectorsIfNeeded();
+        catalog = builder.build();
+
+        Set<String> dropped = new HashSet<>();
+        for (int doc = 0; doc < previous.size(); doc++) {
+            String productId = previous.document(doc).getId();
+            if (!seen.contains(productId)) {
+                dropped.add(productId);
+            }
+        }
+        if (!added.isEmpty() || !updated.isEmpty() || !dropped.isEmpty()) {
+            eventPublisher.publishEvent(ProductCatalogChangedEvent.builder()
+                    .addedProductIds(added)
+                    .updatedProductIds(updated)
+                    .removedProductIds(dropped)
+                    .changedAt(LocalDateTime.now())
+                    .build());
+        }
+        log.info("Retrieval index refreshed in {} ms: {} products ({} added, {} updated, {} removed), {} embedded",
+                System.currentTimeMillis() - start, seen.size(), added.size(), updated.size(), dropped.size(), embedded);
+    }
+
+    /**
+     * The catalog snapshot searches currently run against
+     */
+    public ProductCatalogIndex catalog() {
+        return catalog;
+    }
+
+    /**
+     * Top products for the request's query within its category, brand and price filters
+     */
+    public Retrieval retrieve(SearchRequest request, Mode mode, int limit) {
+        return timers.get(mode).record(() -> rank(catalog, request, mode, limit));
+    }
+
+    private Retrieval rank(ProductCatalogIndex snapshot, SearchRequest request, Mode mode, int limit) {
+        BitSet allowed = snapshot.filter(request.getCategories(), request.getBrands(),
+                request.getMinPrice(), request.getMaxPrice());
+        int filteredOut = allowed == null ? 0 : snapshot.size() - allowed.cardinality();
+        String query = request.getQuery();
+        if (query == null || query.isBlank() || limit <= 0 || (allowed != null && allowed.isEmpty())) {
+            return new Retrieval(List.of(), snapshot.size(), filteredOut);
+        }
+
+        List<RankedProduct> ranked = switch (mode) {
+            case KEYWORD -> keywordOnly(snapshot, snapshot.keywordSearch(query, limit, allowed));
+            case SEMANTIC -> semanticOnly(snapshot, semanticSearch(snapshot, query, limit, allowed));
+            case HYBRID -> {
+                int depth = Math.max(candidates, limit);
+                yield fuse(snapshot, snapshot.keywordSearch(query, depth, allowed),
+                        semanticSearch(snapshot, query, depth, allowed), limit);
+            }
+        };
+        return new Retrieval(ranked, snapshot.size(), filteredOut);
+    }
+
+    /**
+     * Nearest products to the query embedding among the allowed documents; empty if the query cannot be
+     * embedded, so hybrid search degrades to keyword ranking
+     */
+    private List<SemanticHit> semanticSearch(ProductCatalogIndex snapshot, String query, int k, BitSet allowed) {
+        HnswIndex current = vectors;
+        if (current == null) {
+            return List.of();
+        }
+        List<HnswIndex.Match> matches;
+        try {
+            float[] vector = embeddingService.embed(query).toFloatArray();
+            int ef = Math.max(efSearch, k);
+            if (allowed == null) {
+                matches = current.search(vector, k, ef);
+            } else if (allowed.cardinality() <= exactFilterThreshold) {
+                // A selective filter would make the graph walk skip most of what it visits
+                List<String> productIds = new ArrayList<>(allowed.cardinality());
+                for (int doc = allowed.nextSetBit(0); doc >= 0; doc = allowed.nextSetBit(doc + 1)) {
+                    productIds.add(snapshot.document(doc).getId());
+                }
+                matches = current.exactSearch(vector, k, productIds);
+            } else {
+                Predicate<String> accept = productId -> {
+                    int doc = snapshot.docId(productId);
+                    return doc >= 0 && allowed.get(doc);
+                };
+                matches = current.search(vector, k, ef, accept);
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            log.warn("Semantic retrieval unavailable for query '{}': {}", query, e.getMessage());
+            return List.of();
+        }
+
+        List<SemanticHit> hits = new ArrayList<>(matches.size());
+        for (HnswIndex.Match match : matches) {
+            int doc = snapshot.docId(match.key());
+            if (doc >= 0) {
+                hits.add(new SemanticHit(doc, match.score()));
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * BM25 scores scaled so the best hit scores 1
+     */
+    private List<RankedProduct> keywordOnly(ProductCatalogIndex snapshot, List<Bm25Index.Hit> hits) {
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        double best = hits.getFirst().score();
+        return hits.stream()
+                .map(hit -> new RankedProduct(snapshot.document(hit.doc()), hit.score() / best, "Keyword match"))
+                .toList();
+    }
+
+    private List<RankedProduct> semanticOnly(ProductCatalogIndex snapshot, List<SemanticHit> hits) {
+        return hits.stream()
+                .map(hit -> new RankedProduct(snapshot.document(hit.doc()), hit.similarity(),
+                        String.format(Locale.ROOT, "Semantic similarity %.2f", hit.similarity())))
+                .toList();
+    }
+
+    /**
+     * Weighted reciprocal-rank fusion, scaled so a product ranked first in both lists scores 1
+     */
+    private List<RankedProduct> fuse(ProductCatalogIndex snapshot, List<Bm25Index.Hit> keyword,
+                                     List<SemanticHit> semantic, int limit) {
+        Map<Integer, int[]> ranks = new HashMap<>();
+        for (int i = 0; i < keyword.size(); i++) {
+            ranks.computeIfAbsent(keyword.get(i).doc(), doc -> new int[2])[0] = i + 1;
+        }
+        for (int i = 0; i < semantic.size(); i++) {
+            ranks.computeIfAbsent(semantic.get(i).doc(), doc -> new int[2])[1] = i + 1;
+        }
+
+        double best = (keywordWeight + semanticWeight) / (RRF_K + 1);
+        List<RankedProduct> fused = new ArrayList<>(ranks.size());
+        for (Map.Entry<Integer, int[]> entry : ranks.entrySet()) {
+            int keywordRank = entry.getValue()[0];
+            int semanticRank = entry.getValue()[1];
+            double score = (keywordRank > 0 ? keywordWeight / (RRF_K + keywordRank) : 0)
+                    + (semanticRank > 0 ? semanticWeight / (RRF_K + semanticRank) : 0);
+            fused.add(new RankedProduct(snapshot.document(entry.getKey()), score / best,
+                    matchReason(keywordRank, semanticRank)));
+        }
+        fused.sort(Comparator.comparingDouble(RankedProduct::score).reversed());
+        return fused.subList(0, Math.min(limit, fused.size()));
+    }
+
+    private static String matchReason(int keywordRank, int semanticRank) {
+        if (keywordRank > 0 && semanticRank > 0) {
+            return "Keyword rank " + keywordRank + ", semantic rank " + semanticRank;
+        }
+        return keywordRank > 0 ? "Keyword rank " + keywordRank : "Semantic rank " + semanticRank;
+    }
+
+    /**
+     * Embed and index the products; failures leave them keyword-only until the next refresh retries them
+     *
+     * @return products indexed
+     */
+    private int embed(List<ProductDocument> documents) {
+        List<ProductDocument> embeddable = documents.stream()
+                .filter(document -> !embeddingText(document).isBlank())
+                .toList();
+        if (embeddable.isEmpty()) {
+            return 0;
+        }
+        List<Embedding> embeddings;
+        try {
+            embeddings = embeddingService.embedAll(embeddable.stream().map(ProductRetrievalIndex::embeddingText).toList());
+        } catch (IllegalStateException e) {
+            log.warn("Could not embed {} products: {}", embeddable.size(), e.getMessage());
+            return 0;
+        }
+
+        int indexed = 0;
+        for (int i = 0; i < embeddable.size(); i++) {
+            ProductDocument document = embeddable.get(i);
+            float[] vector = embeddings.get(i).toFloatArray();
+            try {
+                indexFor(vector.length).add(document.getId(), vector);
+                embeddedTexts.put(document.getId(), embeddingText(document).hashCode());
+                indexed++;
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping product {} for vector index: {}", document.getId(), e.getMessage());
+            }
+        }
+        return indexed;
+    }
+
+    private static String embeddingText(ProductDocument document) {
+        StringBuilder text = new StringBuilder();
+        append(text, document.getName());
+        append(text, document.getBrand());
+        append(text, document.getCategory());
+        if (document.getTags() != null) {
+            document.getTags().forEach(tag -> append(text, tag));
+        }
+        append(text, document.getDescription());
+        return text.length() > MAX_EMBEDDED_TEXT ? text.substring(0, MAX_EMBEDDED_TEXT) : text.toString();
+    }
+
+    private static void append(StringBuilder text, String part) {
+        if (part != null && !part.isBlank()) {
+            if (!text.isEmpty()) {
+                text.append(". ");
+            }
+            text.append(part);
+        }
+    }
+
+    /**
+     * Replace the vector index with a rebuilt copy once tombstones pile up. Only {@link #refresh()} writes to
+     * the index, so nothing can be added to the old one while the copy is built.
+     */
+    private void compactVectorsIfNeeded() {
+        HnswIndex current = vectors;
+        if (current == null || !current.needsCompaction()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        vectors = current.compacted();
+        log.info("Vector index compacted in {} ms: {} products", System.currentTimeMillis() - start, vectors.size());
+    }
+
+    private HnswIndex indexFor(int dimension) {
+        HnswIndex current = vectors;
+        if (current == null) {
+            current = new HnswIndex(dimension, maxLinks, efConstruction, false);
+            vectors = current;
+        }
+        return current;
+    }
+
+    public enum Mode {
+        KEYWORD,
+        SEMANTIC,
+        HYBRID
+    }
+
+    /**
+     * @param totalProducts products in the searched catalog snapshot
+     * @param filteredOut   products excluded by the request's filters before ranking
+     */
+    public record Retrieval(List<RankedProduct> products, int totalProducts, int filteredOut) {
+    }
+
+    /**
+     * @param score relevance in [0, 1]; its meaning depends on the mode
+     */
+    public record RankedProduct(ProductDocument product, double score, String matchReason) {
+    }
+
+    private record SemanticHit(int doc, double similarity) {
+    }
+}
@@ -0,0 +1,231 @@
+package com.smartshopai.ai.search.domain.service;
+
+import com.smartshopai.ai.search.domain.entity.SearchQuery;
+import com.smartshopai.ai.search.infrastructure.dto.ProductDocument;
+import com.smartshopai.ai.search.infrastructure.retrieval.PrefixIndex;
+import com.smartshopai.ai.search.infrastructure.retrieval.ProductCatalogIndex;
+import com.smartshopai.ai.search.infrastructure.retrieval.TextAnalyzer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typeahead suggestions from popular searches and product names.
+ *
+ * Keystrokes are answered from an in-memory {@link PrefixIndex} that a background refresh rebuilds and swaps
+ * in whole. The refresh reads only the query log written since its previous run, counting successful queries
+ * per text in MongoDB, and folds the counts into decayed weights so recent popularity wins. Queries seen fewer
+ * than the minimum number of times are never suggested, which keeps one-off and personal searches out.
+ * Query log entries are read only once they are older than the settle delay, so the asynchronous writer has
+ * flushed everything the window can contain.
+ */
+@Slf4j
+@Service
+public class TypeaheadService {
+
+    private static final Duration COUNT_WINDOW = Duration.ofDays(1);
+    /**
+     * Decayed query weights below this are forgotten
+     */
+    private static final float MIN_RETAINED_WEIGHT = 0.05f;
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductRetrievalIndex productRetrievalIndex;
+    private final MeterRegistry meterRegistry;
+    private final Timer suggestTimer;
+
+    @Value("${search.typeahead.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.typeahead.lookback:30d}")
+    private Duration lookback;
+
+    @Value("${search.typeahead.half-life:7d}")
+    private Duration halfLife;
+
+    @Value("${search.typeahead.settle-delay:30s}")
+    private Duration settleDelay;
+
+    @Value("${search.typeahead.min-query-count:3}")
+    private double minQueryCount;
+
+    @Value("${search.typeahead.max-queries:100000}")
+    private int maxQueries;
+
+    @Value("${search.typeahead.max-length:100}")
+    private int maxLength;
+
+    @Value("${search.typeahead.include-products:true}")
+    private boolean includeProducts;
+
+    @Value("${search.typeahead.product-weight:1.0}")
+    private float productWeight;
+
+    @Value("${search.typeahead.max-suggestions:10}")
+    private int maxSuggestions;
+
+    /**
+     * Normalized query text to its decayed count; only touched by the refresh
+     */
+    private final Map<String, Float> queryWeights = new HashMap<>();
+    private Map<String, PrefixIndex.Entry> productEntries = Map.of();
+    private ProductCatalogIndex indexedCatalog;
+    private LocalDateTime countedUntil;
+    private volatile PrefixIndex index = PrefixIndex.EMPTY;
+
+    public TypeaheadService(MongoTemplate mongoTemplate,
+                            ProductRetrievalIndex productRetrievalIndex,
+                            MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.productRetrievalIndex = productRetrievalIndex;
+        this.meterRegistry = meterRegistry;
+        this.suggestTimer = Timer.builder("search.typeahead.duration")
+                .description("Time to complete one typeahead prefix")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void registerGauges() {
+        Gauge.builder("search.typeahead.phrases", this, service -> service.index.size())
+                .description("Phrases the typeahead index can suggest")
+                .register(meterRegistry);
+        Gauge.builder("search.typeahead.nodes", this, service -> service.index.nodes())
+                .description("Nodes in the typeahead prefix index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Most popular phrases starting with what the user has typed so far, best first
+     */
+    public List<PrefixIndex.Completion> suggest(String prefix, Integer limit) {
+        String normalized = TextAnalyzer.normalize(prefix);
+        if (normalized.isBlank()) {
+            return List.of();
+        }
+        int k = limit == null || limit <= 0 ? maxSuggestions : Math.min(limit, maxSuggestions);
+        return suggestTimer.record(() -> index.complete(normalized, k));
+    }
+
+    @Scheduled(fixedDelayString = "${search.typeahead.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Typeahead index refresh failed; keeping the previous index", e);
+        }
+    }
+
+    /**
+     * Fold newly settled query log entries and any new product catalog into the index
+     */
+    public synchronized void refresh() {
+        long start = System.currentTimeMillis();
+        LocalDateTime until = LocalDateTime.now().minus(settleDelay);
+        LocalDateTime from = countedUntil != null ? countedUntil : until.minus(lookback);
+        if (countedUntil != null) {
+            float decay = decay(Duration.between(countedUntil, until));
+            queryWeights.replaceAll((query, weight) -> weight * decay);
+        }
+        long counted = 0;
+        for (LocalDateTime windowStart = from; windowStart.isBefore(until); windowStart = windowStart.plus(COUNT_WINDOW)) {
+            LocalDateTime windowEnd = windowStart.plus(COUNT_WINDOW).isBefore(until) ? windowStart.plus(COUNT_WINDOW) : until;
+            float decay = decay(Duration.between(windowEnd, until));
+            for (QueryCount count : countQueries(windowStart, windowEnd)) {
+                String query = TextAnalyzer.normalize(count.id()).strip();
+                if (!query.isEmpty() && query.length() <= maxLength) {
+                    queryWeights.merge(query, count.count() * decay, Float::sum);
+                    counted += count.count();
+                }
+            }
+        }
+        countedUntil = until;
+        prune();
+
+        ProductCatalogIndex catalog = productRetrievalIndex.catalog();
+        boolean catalogChanged = includeProducts && catalog != indexedCatalog;
+        if (catalogChanged) {
+            productEntries = productEntries(catalog);
+            indexedCatalog = catalog;
+        }
+        if (counted == 0 && !catalogChanged && index != PrefixIndex.EMPTY) {
+            return;
+        }
+
+        Map<String, PrefixIndex.Entry> entries = new HashMap<>(productEntries);
+        queryWeights.forEach((query, weight) -> {
+            if (weight >= minQueryCount) {
+                entries.merge(query, new PrefixIndex.Entry(query, weight),
+                        (product, popular) -> new PrefixIndex.Entry(product.text(), product.weight() + popular.weight()));
+            }
+        });
+        index = PrefixIndex.build(entries);
+        log.info("Typeahead index rebuilt in {} ms: {} phrases in {} nodes from {} new query log entries",
+                System.currentTimeMillis() - start, index.size(), index.nodes(), counted);
+    }
+
+    private List<QueryCount> countQueries(LocalDateTime from, LocalDateTime to) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("createdAt").gt(from).lte(to)
+                        .and("isSuccessful").is(true)
+                        .and("resultCount").gt(0)),
+                Aggregation.group("queryText").count().as("count"));
+        return mongoTemplate.aggregate(aggregation, SearchQuery.class, QueryCount.class).getMappedResults();
+    }
+
+    /**
+     * Forget faded queries, then keep only the heaviest when there are still too many
+     */
+    private void prune() {
+        queryWeights.values().removeIf(weight -> weight < MIN_RETAINED_WEIGHT);
+        if (queryWeights.size() <= maxQueries) {
+            return;
+        }
+        List<Map.Entry<String, Float>> ranked = new ArrayList<>(queryWeights.entrySet());
+        ranked.sort(Map.Entry.<String, Float>comparingByValue().reversed());
+        ranked.subList(maxQueries, ranked.size()).forEach(entry -> queryWeights.remove(entry.getKey()));
+    }
+
+    private Map<String, PrefixIndex.Entry> productEntries(ProductCatalogIndex catalog) {
+        Map<String, PrefixIndex.Entry> entries = new HashMap<>();
+        for (int doc = 0; doc < catalog.size(); doc++) {
+            ProductDocument product = catalog.document(doc);
+            if (!product.isInStock() || product.getName() == null) {
+                continue;
+            }
+            String key = TextAnalyzer.normalize(product.getName()).strip();
+            if (!key.isEmpty() && key.length() <= maxLength) {
+                entries.putIfAbsent(key, new PrefixIndex.Entry(product.getName().strip(), productWeight));
+            }
+        }
+        return entries;
+    }
+
+    private float decay(Duration age) {
+        return (float) Math.pow(0.5, (double) age.toMillis() / halfLife.toMillis());
+    }
+
+    /**
+     * Successful searches for one query text within a count window
+     */
+    record QueryCount(String id, long count) {
+    }
+}
@@ -0,0 +1,383 @@
+package com.smartshopai.ai.search.infrastructure.cache;
+
+import com.smartshopai.ai.search.domain.entity.SearchRequest;
+import com.smartshopai.ai.search.domain.event.ProductCatalogChangedEvent;
+import com.smartshopai.ai.search.domain.service.ProductRetrievalIndex;
+import com.smartshopai.ai.search.infrastructure.retrieval.TextAnalyzer;
+import com.smartshopai.common.embedding.EmbeddingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of retrieval answers keyed by the normalized query.
+ *
+ * The key is the analyzed query terms (lower-cased, whitespace-collapsed, plural-stemmed) plus a scope of
+ * retrieval mode, result limit and the sorted category, brand and price filters, so trivially different
+ * spellings of the same search share one entry. Entries expire after a TTL and are evicted early when a
+ * {@link ProductCatalogChangedEvent} reports that a product they contain changed or left the catalog; new
+ * products clear the whole cache because they can rank anywhere. Optionally, semantic and hybrid searches
+ * that miss reuse the answer of a cached query in the same scope whose embedding is within a cosine
+ * threshold.
+ */
+@Slf4j
+@Component
+public class SearchResultCache {
+
+    private final EmbeddingService embeddingService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${search.result-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.result-cache.ttl:10m}")
+    private Duration ttl;
+
+    @Value("${search.result-cache.invalidate-on-new-products:true}")
+    private boolean invalidateOnNewProducts;
+
+    @Value("${search.result-cache.semantic.enabled:false}")
+    private boolean semanticEnabled;
+
+    @Value("${search.result-cache.semantic.threshold:0.97}")
+    private double semanticThreshold;
+
+    @Value("${search.result-cache.semantic.max-candidates:1000}")
+    private int semanticMaxCandidates;
+
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+    private final Map<String, Set<String>> keysByProduct = new HashMap<>();
+    private final Map<String, Set<String>> keysByScope = new HashMap<>();
+
+    /**
+     * Bumped by every catalog change; answers computed across a change are not cached
+     */
+    private long generation;
+
+    /**
+     * Moving average of how long a miss takes per mode, used to estimate what a hit saved
+     */
+    private final Map<ProductRetrievalIndex.Mode, AtomicLong> averageMissNanos =
+            new EnumMap<>(ProductRetrievalIndex.Mode.class);
+
+    private final Counter hits;
+    private final Counter nearHits;
+    private final Counter misses;
+    private final Counter invalidations;
+    private final Counter latencySaved;
+
+    public SearchResultCache(EmbeddingService embeddingService,
+                             MeterRegistry meterRegistry,
+                             @Value("${search.result-cache.max-entries:10000}") int maxEntries) {
+        this.embeddingService = embeddingService;
+        this.meterRegistry = meterRegistry;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= SearchResultCache.this.maxEntries) {
+                    return false;
+                }
+                unindex(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+        for (ProductRetrievalIndex.Mode mode : ProductRetrievalIndex.Mode.values()) {
+            averageMissNanos.put(mode, new AtomicLong());
+        }
+
+        hits = requests(meterRegistry, "hit");
+        nearHits = requests(meterRegistry, "near-hit");
+        misses = requests(meterRegistry, "miss");
+        invalidations = Counter.builder("search.result-cache.invalidations")
+                .description("Cached answers evicted because their products changed")
+                .register(meterRegistry);
+        latencySaved = Counter.builder("search.result-cache.latency-saved")
+                .description("Estimated retrieval time avoided by cache hits")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void registerGauges() {
+        Gauge.builder("search.result-cache.size", this, SearchResultCache::size)
+                .description("Cached search answers")
+                .register(meterRegistry);
+        Gauge.builder("search.result-cache.hit-ratio", this, SearchResultCache::hitRatio)
+                .description("Share of lookups answered from the cache, exact or near-duplicate")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cached answer for the request, or the computed one, which is then cached
+     */
+    public ProductRetrievalIndex.Retrieval getOrCompute(SearchRequest request, ProductRetrievalIndex.Mode mode, int limit,
+                                                        Supplier<ProductRetrievalIndex.Retrieval> compute) {
+        String query = String.join(" ", TextAnalyzer.tokenize(request.getQuery()));
+        if (!enabled || query.isEmpty()) {
+            return compute.get();
+        }
+        long start = System.nanoTime();
+        long computedGeneration = generation();
+        String scope = scope(request, mode, limit);
+        String key = scope + "|" + query;
+
+        Entry cached = get(key);
+        if (cached != null) {
+            hits.increment();
+            recordSaved(mode, start);
+            return cached.retrieval();
+        }
+
+        float[] queryVector = null;
+        if (semanticEnabled && mode != ProductRetrievalIndex.Mode.KEYWORD) {
+            queryVector = embed(request.getQuery());
+            Entry near = queryVector != null ? nearest(scope, queryVector) : null;
+            if (near != null) {
+                nearHits.increment();
+                recordSaved(mode, start);
+                return near.retrieval();
+            }
+        }
+
+        ProductRetrievalIndex.Retrieval retrieval = compute.get();
+        misses.increment();
+        AtomicLong average = averageMissNanos.get(mode);
+        long elapsed = System.nanoTime() - start;
+        long previous = average.get();
+        average.set(previous == 0 ? elapsed : previous + (elapsed - previous) / 10);
+        // An empty catalog means the index is still loading; its answers are not worth keeping
+        if (retrieval.totalProducts() > 0) {
+            put(key, new Entry(scope, retrieval, queryVector, System.nanoTime() + ttl.toNanos()), computedGeneration);
+        }
+        return retrieval;
+    }
+
+    @EventListener
+    public void onCatalogChanged(ProductCatalogChangedEvent event) {
+        int evicted;
+        synchronized (this) {
+            generation++;
+            if (invalidateOnNewProducts && event.getAddedProductIds() != null && !event.getAddedProductIds().isEmpty()) {
+                evicted = entries.size();
+                clear();
+            } else {
+                evicted = evictContaining(event.getUpdatedProductIds()) + evictContaining(event.getRemovedProductIds());
+            }
+        }
+        if (evicted > 0) {
+            invalidations.increment(evicted);
+            log.debug("Evicted {} cached search answers after a catalog change", evicted);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        keysByProduct.clear();
+        keysByScope.clear();
+    }
+
+    private synchronized Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAtNanos() - System.nanoTime() <= 0) {
+            remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    private synchronized void put(String key, Entry entry, long computedGeneration) {
+        if (computedGeneration != generation) {
+            return;
+        }
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            unindex(key, previous);
+        }
+        entries.put(key, entry);
+        for (ProductRetrievalIndex.RankedProduct product : entry.retrieval().products()) {
+            keysByProduct.computeIfAbsent(product.product().getId(), id -> new HashSet<>()).add(key);
+        }
+        keysByScope.computeIfAbsent(entry.scope(), scope -> new LinkedHashSet<>()).add(key);
+    }
+
+    /**
+     * Closest unexpired cached query in the scope above the cosine threshold, among the most recently
+     * cached candidates
+     */
+    private Entry nearest(String scope, float[] queryVector) {
+        List<Entry> candidates;
+        synchronized (this) {
+            Set<String> keys = keysByScope.get(scope);
+            if (keys == null) {
+                return null;
+            }
+            candidates = keys.stream()
+                    .skip(Math.max(0, keys.size() - semanticMaxCandidates))
+                    .map(entries::get)
+                    .toList();
+        }
+        long now = System.nanoTime();
+        Entry best = null;
+        double bestSimilarity = semanticThreshold;
+        for (Entry candidate : candidates) {
+            if (candidate == null || candidate.queryVector() == null || candidate.expiresAtNanos() - now <= 0) {
+                continue;
+            }
+            double similarity = dot(queryVector, candidate.queryVector());
+            if (similarity >= bestSimilarity) {
+                best = candidate;
+                bestSimilarity = similarity;
+            }
+        }
+        return best;
+    }
+
+    private int evictContaining(Collection<String> productIds) {
+        if (productIds == null) {
+            return 0;
+        }
+        int evicted = 0;
+        for (String productId : productIds) {
+            Set<String> keys = keysByProduct.get(productId);
+            if (keys == null) {
+                continue;
+            }
+            for (String key : List.copyOf(keys)) {
+                if (remove(key)) {
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    private boolean remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        unindex(key, entry);
+        return true;
+    }
+
+    private void unindex(String key, Entry entry) {
+        for (ProductRetrievalIndex.RankedProduct product : entry.retrieval().products()) {
+            Set<String> keys = keysByProduct.get(product.product().getId());
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByProduct.remove(product.product().getId());
+            }
+        }
+        Set<String> scoped = keysByScope.get(entry.scope());
+        if (scoped != null && scoped.remove(key) && scoped.isEmpty()) {
+            keysByScope.remove(entry.scope());
+        }
+    }
+
+    /**
+     * Unit-length query embedding, or null if it cannot be computed; the lookup then behaves as a miss
+     */
+    private float[] embed(String query) {
+        try {
+            float[] vector = embeddingService.embed(query).toFloatArray();
+            double norm = Math.sqrt(dot(vector, vector));
+            if (norm == 0) {
+                return null;
+            }
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] /= (float) norm;
+            }
+            return vector;
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            log.debug("Skipping near-duplicate lookup: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void recordSaved(ProductRetrievalIndex.Mode mode, long start) {
+        long saved = averageMissNanos.get(mode).get() - (System.nanoTime() - start);
+        if (saved > 0) {
+            latencySaved.increment(saved / 1e9);
+        }
+    }
+
+    private double hitRatio() {
+        double answered = hits.count() + nearHits.count();
+        double total = answered + misses.count();
+        return total == 0 ? 0 : answered / total;
+    }
+
+    private static String scope(SearchRequest request, ProductRetrievalIndex.Mode mode, int limit) {
+        return "mode=" + mode + "|limit=" + limit
+                + "|categories=" + sorted(request.getCategories())
+                + "|brands=" + sorted(request.getBrands())
+                + "|price=" + request.getMinPrice() + ".." + request.getMaxPrice();
+    }
+
+    private static String sorted(Collection<String> values) {
+        if (values == null) {
+            return "";
+        }
+        Set<String> normalized = new TreeSet<>();
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                normalized.add(value.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return String.join(",", normalized);
+    }
+
+    private static double dot(float[] a, float[] b) {
+        if (a.length != b.length) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("search.result-cache.requests")
+                .description("Search result cache lookups by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param queryVector unit-length query embedding for near-duplicate lookups, or null
+     */
+    private record Entry(String scope, ProductRetrievalIndex.Retrieval retrieval, float[] queryVector,
+                         long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.smartshopai.ai.search.infrastructure.client;
+
+import com.smartshopai.ai.search.infrastructure.dto.ProductDocumentPage;
+import com.smartshopai.common.dto.BaseResponse;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+@FeignClient(name = "smartshopai-product-service", contextId = "productCatalogClient")
+public interface ProductCatalogClient {
+
+    @GetMapping("/api/v1/products/search-documents")
+    BaseResponse<ProductDocumentPage> listSearchDocuments(@RequestParam(value = "cursor", required = false) String cursor,
+                                                          @RequestParam("size") int size);
+}
@@ -0,0 +1,13 @@
+package com.smartshopai.ai.search.infrastructure.config;
+
+import com.smartshopai.aisearch.infrastructure.config.EmbeddingConfig;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Embedding computation for the in-process retrieval engine, shared with the rest of the search service
+ */
+@Configuration
+@Import(EmbeddingConfig.class)
+public class RetrievalConfig {
+}
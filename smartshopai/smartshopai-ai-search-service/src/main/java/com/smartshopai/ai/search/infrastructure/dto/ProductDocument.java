@@ -0,0 +1,22 @@
+package com.smartshopai.ai.search.infrastructure.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Product fields the retrieval index needs, as fed by the product service
+ */
+@Data
+public class ProductDocument {
+    private String id;
+    private String name;
+    private String description;
+    private List<String> tags;
+    private String brand;
+    private String category;
+    private BigDecimal price;
+    private Double rating;
+    private boolean inStock;
+}
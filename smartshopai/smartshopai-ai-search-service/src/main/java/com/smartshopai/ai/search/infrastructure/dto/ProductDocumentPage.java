@@ -0,0 +1,16 @@
+package com.smartshopai.ai.search.infrastructure.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One cursor page of the product service's search-document feed
+ */
+@Data
+public class ProductDocumentPage {
+    private List<ProductDocument> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -0,0 +1,279 @@
+package com.smartshopai.ai.search.infrastructure.persistence;
+
+import com.smartshopai.ai.search.domain.entity.SearchQuery;
+import com.smartshopai.ai.search.domain.entity.SearchResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded asynchronous writer for search results and the search query log.
+ *
+ * Searches hand their writes to a fixed-size queue and return without waiting on MongoDB; a single writer
+ * thread drains the queue into batched inserts. When the queue backs up, the overload policy decides which
+ * query log entries are shed: DROP accepts them until the queue is full, SAMPLE keeps only a fraction once the
+ * queue passes its high-water mark. Search results are never shed, since callers already hold their ids; a
+ * result that finds the queue full is inserted on the caller's thread instead. Shed and failed writes are
+ * counted, never retried, so persistence is at most once.
+ *
+ * Until its insert is acknowledged, a queued result can be read back with {@link #pendingResult}, so a caller
+ * that looks up an id it was just given does not miss it. Results are inserted unordered and a duplicate id is
+ * taken as already persisted: a status update that saved the result before the queued insert ran wins.
+ */
+@Slf4j
+@Component
+public class SearchPersistenceWriter {
+
+    public enum OverloadPolicy {
+        DROP,
+        SAMPLE
+    }
+
+    /**
+     * MongoDB error code for a unique index violation
+     */
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${search.persistence.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${search.persistence.batch-size:200}")
+    private int batchSize;
+
+    @Value("${search.persistence.max-batch-delay-ms:200}")
+    private long maxBatchDelayMillis;
+
+    @Value("${search.persistence.overload-policy:SAMPLE}")
+    private OverloadPolicy overloadPolicy;
+
+    @Value("${search.persistence.sample.high-water-mark:0.5}")
+    private double highWaterMark;
+
+    @Value("${search.persistence.sample.rate:0.1}")
+    private double sampleRate;
+
+    @Value("${search.persistence.shutdown-timeout-ms:5000}")
+    private long shutdownTimeoutMillis;
+
+    /**
+     * Queued and in-flight results by id; bounded by the queue capacity plus one batch
+     */
+    private final Map<String, SearchResult> pendingResults = new ConcurrentHashMap<>();
+    private BlockingQueue<PendingWrite> queue;
+    private Thread writer;
+    private Counter accepted;
+    private Counter droppedFull;
+    private Counter sampledOut;
+    private Counter inline;
+    private Counter written;
+    private Counter failed;
+    private Timer batchTimer;
+
+    public SearchPersistenceWriter(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("search.persistence.queue.depth", queue, Collection::size)
+                .description("Search writes waiting to be persisted")
+                .register(meterRegistry);
+        accepted = writes("accepted");
+        droppedFull = writes("dropped");
+        sampledOut = writes("sampled-out");
+        inline = writes("inline");
+        written = documents("written");
+        failed = documents("failed");
+        batchTimer = Timer.builder("search.persistence.batch.duration")
+                .description("Time to insert one batch of search writes")
+                .register(meterRegistry);
+        writer = Thread.ofPlatform().name("search-persistence-writer").daemon().start(this::drain);
+        log.info("Search persistence writer started with capacity {} and {} overload policy",
+                queueCapacity, overloadPolicy.name().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Queue a search result and its query log entry for insertion; either may be null
+     *
+     * @return false if the query log entry was shed by the overload policy; the result is always written
+     */
+    public boolean submit(SearchResult result, SearchQuery queryLog) {
+        if (result == null && queryLog == null) {
+            return true;
+        }
+        if (result != null) {
+            // Registered before queueing, so the writer cannot acknowledge the insert before it is visible
+            pendingResults.put(result.getId(), result);
+        }
+        boolean sampled = overloadPolicy == OverloadPolicy.SAMPLE
+                && queue.size() >= queueCapacity * highWaterMark
+                && ThreadLocalRandom.current().nextDouble() >= sampleRate;
+        if (!sampled && queue.offer(new PendingWrite(result, queryLog))) {
+            accepted.increment();
+            return true;
+        }
+        if (queryLog != null) {
+            (sampled ? sampledOut : droppedFull).increment();
+        }
+        if (result != null && !queue.offer(new PendingWrite(result, null))) {
+            inline.increment();
+            insertResults(List.of(result));
+        }
+        return queryLog == null;
+    }
+
+    /**
+     * A submitted result whose insert has not been acknowledged yet
+     */
+    public Optional<SearchResult> pendingResult(String id) {
+        return Optional.ofNullable(pendingResults.get(id));
+    }
+
+    /**
+     * Stop taking new batches and insert what is still queued, up to the shutdown timeout
+     */
+    @PreDestroy
+    void stop() {
+        writer.interrupt();
+        try {
+            writer.join(shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMillis;
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (System.currentTimeMillis() < deadline && queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Discarding {} unpersisted search writes at shutdown", queue.size());
+        }
+    }
+
+    private void drain() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<PendingWrite> batch = new ArrayList<>(batchSize);
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxBatchDelayMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Put back what was taken so the shutdown drain still writes it
+                batch.forEach(queue::offer);
+                Thread.currentThread().interrupt();
+                return;
+            }
+            write(batch);
+        }
+    }
+
+    private void write(List<PendingWrite> batch) {
+        List<SearchResult> results = new ArrayList<>(batch.size());
+        List<SearchQuery> queryLogs = new ArrayList<>(batch.size());
+        for (PendingWrite pending : batch) {
+            if (pending.result() != null) {
+                results.add(pending.result());
+            }
+            if (pending.queryLog() != null) {
+                queryLogs.add(pending.queryLog());
+            }
+        }
+        batchTimer.record(() -> {
+            insertResults(results);
+            insertQueryLogs(queryLogs);
+        });
+    }
+
+    /**
+     * Insert the results unordered, so one duplicate does not stop the rest, then stop serving them from memory
+     */
+    private void insertResults(List<SearchResult> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SearchResult.class).insert(results).execute();
+            written.increment(results.size());
+        } catch (BulkOperationException e) {
+            long rejected = e.getErrors().stream().filter(error -> error.getCode() != DUPLICATE_KEY).count();
+            written.increment(results.size() - rejected);
+            failed.increment(rejected);
+            if (rejected > 0) {
+                log.error("Failed to persist {} of {} SearchResult documents", rejected, results.size(), e);
+            }
+        } catch (Exception e) {
+            failed.increment(results.size());
+            log.error("Failed to persist {} SearchResult documents", results.size(), e);
+        } finally {
+            results.forEach(result -> pendingResults.remove(result.getId(), result));
+        }
+    }
+
+    private void insertQueryLogs(List<SearchQuery> queryLogs) {
+        if (queryLogs.isEmpty()) {
+            return;
+        }
+        try {
+            mongoTemplate.insert(queryLogs, SearchQuery.class);
+            written.increment(queryLogs.size());
+        } catch (Exception e) {
+            failed.increment(queryLogs.size());
+            log.error("Failed to persist {} SearchQuery documents", queryLogs.size(), e);
+        }
+    }
+
+    private Counter writes(String outcome) {
+        return Counter.builder("search.persistence.writes")
+                .description("Search writes by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Counter documents(String outcome) {
+        return Counter.builder("search.persistence.documents")
+                .description("Documents inserted by the writer, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record PendingWrite(SearchResult result, SearchQuery queryLog) {
+    }
+}
@@ -0,0 +1,300 @@
+package com.smartshopai.ai.search.infrastructure.retrieval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * In-memory BM25 inverted index over product name, tags and description, with terms from {@link TextAnalyzer}.
+ *
+ * Field term frequencies are combined before saturation, with name counting three times and tags twice, so a
+ * query word in the title outweighs the same word deep in the description. Postings are parallel primitive
+ * arrays in document order. Documents are added once, in increasing id order, by a single builder thread;
+ * after that the index is read-only and safe to share once published.
+ *
+ * Searches score rare terms first. Once the best possible contribution of the remaining, more frequent terms
+ * falls below the current k-th score, those terms can no longer lift an unseen document into the top k, so
+ * they only rescore the documents already found instead of walking their long postings.
+ */
+public final class Bm25Index {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float NAME_WEIGHT = 3f;
+    private static final float TAG_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    /**
+     * Idle score accumulators, reused across queries so a search allocates nothing proportional to the catalog.
+     * Each holds a score per document, so the pool is capped near the number of searches that can actually
+     * run at once rather than growing with the request thread pool; a search that finds it empty allocates
+     * its own, and the surplus is dropped on release.
+     */
+    private final BlockingQueue<Accumulator> accumulators =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private float[] lengths = new float[1024];
+    private int documents;
+    private double totalLength;
+
+    /**
+     * Index a document; ids must start at 0 and increase by one per call
+     */
+    public void add(int doc, String name, List<String> tags, String description) {
+        if (doc != documents) {
+            throw new IllegalArgumentException("Expected document " + documents + " but got " + doc);
+        }
+        Map<String, Float> frequencies = new LinkedHashMap<>();
+        float length = count(frequencies, TextAnalyzer.tokenize(name), NAME_WEIGHT)
+                + count(frequencies, TextAnalyzer.tokenize(description), DESCRIPTION_WEIGHT);
+        if (tags != null) {
+            for (String tag : tags) {
+                length += count(frequencies, TextAnalyzer.tokenize(tag), TAG_WEIGHT);
+            }
+        }
+        for (Map.Entry<String, Float> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new Postings()).add(doc, entry.getValue());
+        }
+
+        if (doc == lengths.length) {
+            lengths = Arrays.copyOf(lengths, lengths.length * 2);
+        }
+        lengths[doc] = length;
+        totalLength += length;
+        documents++;
+    }
+
+    public int size() {
+        return documents;
+    }
+
+    /**
+     * Top k documents by BM25 score, best first
+     *
+     * @param allowed documents that may be returned, or null for all
+     */
+    public List<Hit> search(String query, int k, BitSet allowed) {
+        List<String> terms = TextAnalyzer.tokenize(query).stream().distinct().toList();
+        if (terms.isEmpty() || documents == 0 || k <= 0) {
+            return List.of();
+        }
+        List<Postings> lists = terms.stream()
+                .map(postings::get)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingInt(list -> list.size))
+                .toList();
+        // remainingBound[t] bounds what terms t.. can add to any one document: idf * (k1 + 1) per term
+        float[] idfs = new float[lists.size()];
+        float[] remainingBound = new float[lists.size() + 1];
+        for (int t = lists.size() - 1; t >= 0; t--) {
+            int df = lists.get(t).size;
+            idfs[t] = (float) Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+            remainingBound[t] = remainingBound[t + 1] + idfs[t] * (K1 + 1);
+        }
+
+        Accumulator accumulator = accumulators.poll();
+        if (accumulator == null) {
+            accumulator = new Accumulator();
+        }
+        try {
+            return score(lists, idfs, remainingBound, k, allowed, accumulator);
+        } finally {
+            accumulators.offer(accumulator);
+        }
+    }
+
+    private List<Hit> score(List<Postings> lists, float[] idfs, float[] remainingBound, int k, BitSet allowed,
+                            Accumulator accumulator) {
+        float averageLength = (float) (totalLength / documents);
+        accumulator.reset(documents);
+        boolean pruning = false;
+        for (int t = 0; t < lists.size(); t++) {
+            Postings list = lists.get(t);
+            pruning = pruning || (accumulator.touchedCount >= k && remainingBound[t] < accumulator.kthScore(k));
+            if (pruning) {
+                rescoreTouched(list, idfs[t], averageLength, accumulator);
+                continue;
+            }
+            int[] docs = list.docs;
+            float[] frequencies = list.frequencies;
+            for (int i = 0; i < list.size; i++) {
+                int doc = docs[i];
+                if (allowed != null && !allowed.get(doc)) {
+                    continue;
+                }
+                accumulator.add(doc, termScore(idfs[t], frequencies[i], lengths[doc], averageLength));
+            }
+        }
+        return accumulator.top(k);
+    }
+
+    /**
+     * Add the term's contribution to documents already scored, by binary search into its postings when
+     * there are far fewer of them than postings
+     */
+    private void rescoreTouched(Postings list, float idf, float averageLength, Accumulator accumulator) {
+        int touchedCount = accumulator.touchedCount;
+        if ((long) touchedCount * 16 < list.size) {
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = accumulator.touched[i];
+                int position = Arrays.binarySearch(list.docs, 0, list.size, doc);
+                if (position >= 0) {
+                    accumulator.scores[doc] += termScore(idf, list.frequencies[position], lengths[doc], averageLength);
+                }
+            }
+        } else {
+            for (int i = 0; i < list.size; i++) {
+                int doc = list.docs[i];
+                if (accumulator.scores[doc] != 0) {
+                    accumulator.scores[doc] += termScore(idf, list.frequencies[i], lengths[doc], averageLength);
+                }
+            }
+        }
+    }
+
+    private static float termScore(float idf, float tf, float length, float averageLength) {
+        return idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private static float count(Map<String, Float> frequencies, List<String> tokens, float weight) {
+        for (String token : tokens) {
+            frequencies.merge(token, weight, Float::sum);
+        }
+        return tokens.size() * weight;
+    }
+
+    /**
+     * A document id and its BM25 score
+     */
+    public record Hit(int doc, float score) {
+    }
+
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+        private float[] frequencies = new float[4];
+        private int size;
+
+        void add(int doc, float frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size++] = frequency;
+        }
+    }
+
+    /**
+     * Dense score array plus the list of documents touched by the current query, so resetting costs only
+     * what the previous query touched
+     */
+    private static final class Accumulator {
+
+        private float[] scores = new float[0];
+        private int[] touched = new int[64];
+        private int touchedCount;
+
+        void reset(int documents) {
+            if (scores.length < documents) {
+                scores = new float[documents];
+            } else {
+                for (int i = 0; i < touchedCount; i++) {
+                    scores[touched[i]] = 0;
+                }
+            }
+            touchedCount = 0;
+        }
+
+        void add(int doc, float score) {
+            if (scores[doc] == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = doc;
+            }
+            scores[doc] += score;
+        }
+
+        /**
+         * Score of the k-th best document so far; only meaningful once at least k documents are touched
+         */
+        float kthScore(int k) {
+            long[] heap = selectTop(k);
+            return Float.intBitsToFloat((int) (heap[0] >>> 32));
+        }
+
+        List<Hit> top(int k) {
+            long[] heap = selectTop(k);
+            Arrays.sort(heap);
+            List<Hit> hits = new ArrayList<>(heap.length);
+            for (int i = heap.length - 1; i >= 0; i--) {
+                hits.add(new Hit((int) heap[i], Float.intBitsToFloat((int) (heap[i] >>> 32))));
+            }
+            return hits;
+        }
+
+        /**
+         * Bounded min-heap over packed (score bits, doc) longs; positive float bits sort like the floats
+         */
+        private long[] selectTop(int k) {
+            long[] heap = new long[Math.min(k, touchedCount)];
+            int size = 0;
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                long entry = ((long) Float.floatToIntBits(scores[doc]) << 32) | doc;
+                if (size < heap.length) {
+                    heap[size] = entry;
+                    siftUp(heap, size++);
+                } else if (entry > heap[0]) {
+                    heap[0] = entry;
+                    siftDown(heap, size);
+                }
+            }
+            return heap;
+        }
+
+        private static void siftUp(long[] heap, int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[i] >= heap[parent]) {
+                    break;
+                }
+                swap(heap, i, parent);
+                i = parent;
+            }
+        }
+
+        private static void siftDown(long[] heap, int size) {
+            int i = 0;
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    break;
+                }
+                int right = left + 1;
+                int child = right < size && heap[right] < heap[left] ? right : left;
+                if (heap[child] >= heap[i]) {
+                    break;
+                }
+                swap(heap, i, child);
+                i = child;
+            }
+        }
+
+        private static void swap(long[] heap, int a, int b) {
+            long tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.smartshopai.ai.search.infrastructure.retrieval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable weighted radix trie for prefix completion.
+ *
+ * Edges carry whole runs of characters, so a chain of single-child nodes costs one node. All edge labels share
+ * one char array and every node is a slot in a handful of parallel primitive arrays, with each node's children
+ * stored contiguously and sorted by their first character. Every node also records the best weight anywhere
+ * below it, which lets a completion walk its subtree best first and stop after the k-th phrase instead of
+ * visiting everything under a short prefix.
+ */
+public final class PrefixIndex {
+
+    public static final PrefixIndex EMPTY = build(Map.of());
+
+    private final char[] labels;
+    private final int[] labelStart;
+    private final int[] labelLength;
+    private final int[] firstChild;
+    private final int[] childCount;
+    /**
+     * Phrase ending at the node, or -1
+     */
+    private final int[] phrase;
+    /**
+     * Best phrase weight in the node's subtree
+     */
+    private final float[] best;
+    private final String[] texts;
+    private final float[] weights;
+
+    private PrefixIndex(char[] labels, int[] labelStart, int[] labelLength, int[] firstChild, int[] childCount,
+                        int[] phrase, float[] best, String[] texts, float[] weights) {
+        this.labels = labels;
+        this.labelStart = labelStart;
+        this.labelLength = labelLength;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.phrase = phrase;
+        this.best = best;
+        this.texts = texts;
+        this.weights = weights;
+    }
+
+    /**
+     * Build an index over normalized keys; each key completes to its entry's display text
+     */
+    public static PrefixIndex build(Map<String, Entry> entries) {
+        String[] keys = entries.keySet().stream()
+                .filter(key -> !key.isEmpty())
+                .sorted()
+                .toArray(String[]::new);
+        String[] texts = new String[keys.length];
+        float[] weights = new float[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            Entry entry = entries.get(keys[i]);
+            texts[i] = entry.text();
+            weights[i] = entry.weight();
+        }
+        return new Builder(keys, weights).build(texts);
+    }
+
+    public int size() {
+        return texts.length;
+    }
+
+    public int nodes() {
+        return phrase.length;
+    }
+
+    /**
+     * Up to k phrases starting with the normalized prefix, heaviest first
+     */
+    public List<Completion> complete(String prefix, int k) {
+        if (k <= 0 || texts.length == 0) {
+            return List.of();
+        }
+        int node = locate(prefix);
+        if (node < 0) {
+            return List.of();
+        }
+        // Packed (weight bits, slot << 1 | isPhrase); non-negative float bits order like the floats
+        PriorityQueue<Long> frontier = new PriorityQueue<>((a, b) -> Long.compare(b, a));
+        frontier.add(pack(best[node], node, false));
+        List<Completion> completions = new ArrayList<>(k);
+        while (!frontier.isEmpty() && completions.size() < k) {
+            long head = frontier.poll();
+            int slot = (int) head >>> 1;
+            if ((head & 1) != 0) {
+                completions.add(new Completion(texts[slot], weights[slot]));
+                continue;
+            }
+            if (phrase[slot] >= 0) {
+                frontier.add(pack(weights[phrase[slot]], phrase[slot], true));
+            }
+            for (int child = firstChild[slot], end = child + childCount[slot]; child < end; child++) {
+                frontier.add(pack(best[child], child, false));
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * Node whose subtree holds exactly the keys starting with the prefix, or -1 when none do
+     */
+    private int locate(String prefix) {
+        int node = 0;
+        int position = 0;
+        while (position < prefix.length()) {
+            int child = findChild(node, prefix.charAt(position));
+            if (child < 0) {
+                return -1;
+            }
+            int matched = Math.min(labelLength[child], prefix.length() - position);
+            for (int i = 1; i < matched; i++) {
+                if (labels[labelStart[child] + i] != prefix.charAt(position + i)) {
+                    return -1;
+                }
+            }
+            position += matched;
+            node = child;
+        }
+        return node;
+    }
+
+    private int findChild(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char first = labels[labelStart[mid]];
+            if (first < c) {
+                low = mid + 1;
+            } else if (first > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static long pack(float weight, int slot, boolean isPhrase) {
+        return ((long) Float.floatToIntBits(weight) << 32) | ((long) slot << 1) | (isPhrase ? 1 : 0);
+    }
+
+    /**
+     * Display text and weight of one indexed phrase
+     */
+    public record Entry(String text, float weight) {
+    }
+
+    /**
+     * A completion of the requested prefix
+     */
+    public record Completion(String text, float weight) {
+    }
+
+    /**
+     * Lays out nodes from the sorted keys, allocating each node's children together so they are contiguous
+     */
+    private static final class Builder {
+
+        private final String[] keys;
+        private final float[] weights;
+        private final StringBuilder labels = new StringBuilder();
+        private int[] labelStart = new int[16];
+        private int[] labelLength = new int[16];
+        private int[] firstChild = new int[16];
+        private int[] childCount = new int[16];
+        private int[] phrase = new int[16];
+        private int nodes;
+
+        Builder(String[] keys, float[] weights) {
+            this.keys = keys;
+            this.weights = weights;
+        }
+
+        PrefixIndex build(String[] texts) {
+            int root = allocate(0, 0);
+            // Pending work as (node, first key, end key, depth) quadruples
+            int[] stack = new int[64];
+            int top = push(stack, 0, root, 0, keys.length, 0);
+            while (top > 0) {
+                top -= 4;
+                int node = stack[top];
+                int low = stack[top + 1];
+                int high = stack[top + 2];
+                int depth = stack[top + 3];
+                if (low < high && keys[low].length() == depth) {
+                    phrase[node] = low++;
+                }
+                firstChild[node] = nodes;
+                int groupStart = low;
+                while (groupStart < high) {
+                    char c = keys[groupStart].charAt(depth);
+                    int groupEnd = groupStart + 1;
+                    while (groupEnd < high && keys[groupEnd].charAt(depth) == c) {
+                        groupEnd++;
+                    }
+                    // Keys are sorted, so the group's common prefix is that of its first and last key
+                    int shared = commonPrefix(keys[groupStart], keys[groupEnd - 1], depth);
+                    int child = allocate(labels.length(), shared - depth);
+                    labels.append(keys[groupStart], depth, shared);
+                    if (stack.length < top + 4) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    top = push(stack, top, child, groupStart, groupEnd, shared);
+                    childCount[node]++;
+                    groupStart = groupEnd;
+                }
+            }
+
+            // Children always come after their parent, so one backward pass settles every subtree maximum
+            float[] best = new float[nodes];
+            for (int node = nodes - 1; node >= 0; node--) {
+                float max = phrase[node] >= 0 ? weights[phrase[node]] : 0f;
+                for (int child = firstChild[node], end = child + childCount[node]; child < end; child++) {
+                    max = Math.max(max, best[child]);
+                }
+                best[node] = max;
+            }
+            char[] pooled = new char[labels.length()];
+            labels.getChars(0, pooled.length, pooled, 0);
+            return new PrefixIndex(pooled, Arrays.copyOf(labelStart, nodes), Arrays.copyOf(labelLength, nodes),
+                    Arrays.copyOf(firstChild, nodes), Arrays.copyOf(childCount, nodes), Arrays.copyOf(phrase, nodes),
+                    best, texts, weights);
+        }
+
+        private int allocate(int start, int length) {
+            if (nodes == phrase.length) {
+                int capacity = nodes * 2;
+                labelStart = Arrays.copyOf(labelStart, capacity);
+                labelLength = Arrays.copyOf(labelLength, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                childCount = Arrays.copyOf(childCount, capacity);
+                phrase = Arrays.copyOf(phrase, capacity);
+            }
+            labelStart[nodes] = start;
+            labelLength[nodes] = length;
+            phrase[nodes] = -1;
+            return nodes++;
+        }
+
+        private static int push(int[] stack, int top, int node, int low, int high, int depth) {
+            stack[top] = node;
+            stack[top + 1] = low;
+            stack[top + 2] = high;
+            stack[top + 3] = depth;
+            return top + 4;
+        }
+
+        private static int commonPrefix(String a, String b, int from) {
+            int limit = Math.min(a.length(), b.length());
+            int i = from;
+            while (i < limit && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+}
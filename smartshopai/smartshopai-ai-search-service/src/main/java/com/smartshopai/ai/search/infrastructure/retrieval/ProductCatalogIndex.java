@@ -0,0 +1,153 @@
+package com.smartshopai.ai.search.infrastructure.retrieval;
+
+import com.smartshopai.ai.search.infrastructure.dto.ProductDocument;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the catalog for retrieval: dense document ids, the listing fields returned with a
+ * hit, the BM25 index, and per-category and per-brand bitsets for pre-filtering.
+ * Built off to the side by a {@link Builder} and swapped in whole, so searches never see a partial catalog.
+ */
+public final class ProductCatalogIndex {
+
+    public static final ProductCatalogIndex EMPTY = new Builder().build();
+
+    private final List<ProductDocument> documents;
+    private final Map<String, Integer> docIds;
+    private final double[] prices;
+    private final Map<String, BitSet> byCategory;
+    private final Map<String, BitSet> byBrand;
+    private final Bm25Index bm25;
+
+    private ProductCatalogIndex(Builder builder) {
+        this.documents = builder.documents;
+        this.docIds = builder.docIds;
+        this.prices = Arrays.copyOf(builder.prices, builder.documents.size());
+        this.byCategory = builder.byCategory;
+        this.byBrand = builder.byBrand;
+        this.bm25 = builder.bm25;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public ProductDocument document(int doc) {
+        return documents.get(doc);
+    }
+
+    /**
+     * Document id of the product, or -1 if it is not in this snapshot
+     */
+    public int docId(String productId) {
+        return docIds.getOrDefault(productId, -1);
+    }
+
+    public List<Bm25Index.Hit> keywordSearch(String query, int k, BitSet allowed) {
+        return bm25.search(query, k, allowed);
+    }
+
+    /**
+     * Documents matching any of the categories, any of the brands, and the price range; empty or null
+     * criteria do not restrict. Category and brand match case-insensitively.
+     *
+     * @return the matching documents, or null when nothing restricts the catalog
+     */
+    public BitSet filter(Collection<String> categories, Collection<String> brands, Double minPrice, Double maxPrice) {
+        BitSet allowed = union(byCategory, categories);
+        BitSet brandMatches = union(byBrand, brands);
+        if (brandMatches != null) {
+            if (allowed == null) {
+                allowed = brandMatches;
+            } else {
+                allowed.and(brandMatches);
+            }
+        }
+        if (minPrice == null && maxPrice == null) {
+            return allowed;
+        }
+
+        double min = minPrice != null ? minPrice : Double.NEGATIVE_INFINITY;
+        double max = maxPrice != null ? maxPrice : Double.POSITIVE_INFINITY;
+        BitSet inRange = new BitSet(prices.length);
+        if (allowed == null) {
+            for (int doc = 0; doc < prices.length; doc++) {
+                if (prices[doc] >= min && prices[doc] <= max) {
+                    inRange.set(doc);
+                }
+            }
+        } else {
+            for (int doc = allowed.nextSetBit(0); doc >= 0; doc = allowed.nextSetBit(doc + 1)) {
+                if (prices[doc] >= min && prices[doc] <= max) {
+                    inRange.set(doc);
+                }
+            }
+        }
+        return inRange;
+    }
+
+    private static BitSet union(Map<String, BitSet> facet, Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        BitSet union = new BitSet();
+        for (String value : values) {
+            BitSet docs = value != null ? facet.get(value.toLowerCase(Locale.ROOT)) : null;
+            if (docs != null) {
+                union.or(docs);
+            }
+        }
+        return union;
+    }
+
+    /**
+     * Accumulates documents in feed order; not thread-safe
+     */
+    public static final class Builder {
+
+        private final List<ProductDocument> documents = new ArrayList<>();
+        private final Map<String, Integer> docIds = new HashMap<>();
+        private double[] prices = new double[1024];
+        private final Map<String, BitSet> byCategory = new HashMap<>();
+        private final Map<String, BitSet> byBrand = new HashMap<>();
+        private final Bm25Index bm25 = new Bm25Index();
+
+        /**
+         * @return false if the product was already added
+         */
+        public boolean add(ProductDocument document) {
+            int doc = documents.size();
+            if (docIds.putIfAbsent(document.getId(), doc) != null) {
+                return false;
+            }
+            documents.add(document);
+            if (doc == prices.length) {
+                prices = Arrays.copyOf(prices, doc * 2);
+            }
+            // Products without a price never match a price filter
+            prices[doc] = document.getPrice() != null ? document.getPrice().doubleValue() : Double.NaN;
+            facet(byCategory, document.getCategory(), doc);
+            facet(byBrand, document.getBrand(), doc);
+            bm25.add(doc, document.getName(), document.getTags(), document.getDescription());
+            return true;
+        }
+
+        public ProductCatalogIndex build() {
+            return new ProductCatalogIndex(this);
+        }
+
+        private static void facet(Map<String, BitSet> facet, String value, int doc) {
+            if (value != null && !value.isBlank()) {
+                facet.computeIfAbsent(value.toLowerCase(Locale.ROOT), key -> new BitSet()).set(doc);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.smartshopai.ai.search.infrastructure.retrieval;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Turns product text and queries into index terms: NFKC-normalized, lower-cased words with plural endings
+ * stripped, so "Phones" and "phone" meet on the same term. Shared by the keyword index and the result cache
+ * key so both agree on when two queries are the same.
+ */
+public final class TextAnalyzer {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(stem(token));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * NFKC-normalized, lower-cased text with runs of whitespace collapsed to one space and no leading space;
+     * unlike {@link #tokenize} it keeps punctuation and word endings, so it suits matching what a user is typing
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(normalized).replaceAll(" ").stripLeading();
+    }
+
+    /**
+     * Conservative plural stripping (Harman's S-stemmer); words of three letters or fewer are left alone
+     */
+    static String stem(String word) {
+        if (word.length() <= 3) {
+            return word;
+        }
+        if (word.endsWith("ies") && !word.endsWith("eies") && !word.endsWith("aies")) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.endsWith("es") && !word.endsWith("aes") && !word.endsWith("ees") && !word.endsWith("oes")) {
+            return word.substring(0, word.length() - 1);
+        }
+        if (word.endsWith("s") && !word.endsWith("us") && !word.endsWith("ss")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+}
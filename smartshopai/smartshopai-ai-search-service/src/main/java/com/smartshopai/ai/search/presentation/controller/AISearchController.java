@@ -4,6 +4,7 @@ import com.smartshopai.common.dto.BaseResponse;
 import com.smartshopai.ai.search.application.dto.request.CreateSearchRequest;
 import com.smartshopai.ai.search.application.dto.response.SearchRequestResponse;
 import com.smartshopai.ai.search.application.dto.response.SearchResultResponse;
+import com.smartshopai.ai.search.application.dto.response.SuggestionResponse;
 import com.smartshopai.ai.search.application.service.AISearchApplicationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -82,7 +83,8 @@ public class AISearchController {
 
     @GetMapping("/results/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    @Operation(summary = "Get search result", description = "Get search result by ID")
+    @Operation(summary = "Get search result", description = "Get search result by ID, including one from a search "
+            + "that just ran and is not persisted yet")
     public ResponseEntity<BaseResponse<SearchResultResponse>> getSearchResult(
             @PathVariable String id) {
         
@@ -147,6 +149,18 @@ public class AISearchController {
         return ResponseEntity.ok(BaseResponse.success(responses, "Personalized search results retrieved successfully"));
     }
 
+    @GetMapping("/suggestions")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    @Operation(summary = "Get typeahead suggestions", description = "Complete a partial query from popular searches and product names")
+    public ResponseEntity<BaseResponse<List<SuggestionResponse>>> getSuggestions(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit) {
+        
+        List<SuggestionResponse> responses = aiSearchApplicationService.getSuggestions(prefix, limit);
+        
+        return ResponseEntity.ok(BaseResponse.success(responses, "Suggestions retrieved successfully"));
+    }
+
     @PatchMapping("/requests/{id}/status")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Update request status", description = "Update search request status")
@@ -163,7 +177,8 @@ public class AISearchController {
 
     @PatchMapping("/results/{id}/status")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Update result status", description = "Update search result status")
+    @Operation(summary = "Update result status", description = "Update search result status; a result that is "
+            + "not persisted yet is saved with the new status")
     public ResponseEntity<BaseResponse<SearchResultResponse>> updateResultStatus(
             @PathVariable String id,
             @RequestParam String status) {
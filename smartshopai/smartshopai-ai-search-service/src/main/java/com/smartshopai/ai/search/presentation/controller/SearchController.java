@@ -17,7 +17,9 @@ import jakarta.validation.Valid;
 import java.util.List;
 
 /**
- * REST controller for AI search operations
+ * REST controller for AI search operations.
+ * Search results are returned before they are persisted, so a returned result id may not be in MongoDB yet;
+ * the result endpoints under /api/ai/search/results serve it from memory until its insert is acknowledged.
  */
 @Slf4j
 @RestController
@@ -4,9 +4,10 @@ import com.smartshopai.aisearch.infrastructure.client.AnalysisServiceClient;
 import com.smartshopai.aisearch.infrastructure.client.ProductServiceClient;
 import com.smartshopai.aisearch.infrastructure.dto.Product;
 import com.smartshopai.aisearch.infrastructure.dto.ProductAnalysis;
+import com.smartshopai.common.embedding.Embedding;
+import com.smartshopai.common.embedding.EmbeddingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -17,19 +18,15 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SearchService {
 
-    private final EmbeddingModel embeddingModel;
+    private final EmbeddingService embeddingService;
     private final AnalysisServiceClient analysisServiceClient;
     private final ProductServiceClient productServiceClient;
 
     public List<Product> semanticSearch(String query) {
         log.info("Performing semantic search for query: '{}'", query);
 
-        // 1. Convert the search query into an embedding vector
-        float[] rawEmb = embeddingModel.embed(query);
-        List<Double> queryEmbedding = new java.util.ArrayList<>(rawEmb.length);
-        for (float f : rawEmb) {
-            queryEmbedding.add((double) f);
-        }
+        // 1. Convert the search query into an embedding vector; repeated queries are served from cache
+        Embedding queryEmbedding = embeddingService.embed(query);
         log.debug("Generated embedding for query.");
 
         // 2. Find similar product analyses using the analysis service
@@ -1,6 +1,7 @@
 package com.smartshopai.aisearch.infrastructure.client;
 
 import com.smartshopai.aisearch.infrastructure.dto.ProductAnalysis;
+import com.smartshopai.common.embedding.Embedding;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -11,6 +12,6 @@ import java.util.List;
 @FeignClient(name = "smartshopai-ai-analysis-service")
 public interface AnalysisServiceClient {
 
-    @PostMapping("/api/analysis/find-similar")
-    List<ProductAnalysis> findSimilarProducts(@RequestBody List<Double> userEmbedding, @RequestParam(name = "topK", defaultValue = "10") int topK);
+    @PostMapping(value = "/api/analysis/find-similar", consumes = Embedding.MEDIA_TYPE)
+    List<ProductAnalysis> findSimilarProducts(@RequestBody Embedding userEmbedding, @RequestParam(name = "topK", defaultValue = "10") int topK);
 }
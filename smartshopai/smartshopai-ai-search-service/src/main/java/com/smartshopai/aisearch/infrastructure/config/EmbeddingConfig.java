@@ -0,0 +1,69 @@
+package com.smartshopai.aisearch.infrastructure.config;
+
+import com.smartshopai.common.embedding.DeterministicEmbeddingModel;
+import com.smartshopai.common.embedding.EmbeddingEncoding;
+import com.smartshopai.common.embedding.EmbeddingHttpMessageConverter;
+import com.smartshopai.common.embedding.EmbeddingService;
+import com.smartshopai.common.embedding.EmbeddingServiceSettings;
+import com.smartshopai.common.embedding.EmbeddingStore;
+import com.smartshopai.common.embedding.RedisEmbeddingStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Embedding computation and transport for the search service
+ */
+@Configuration
+public class EmbeddingConfig {
+
+    /**
+     * Binary embedding bodies for calls to the analysis service
+     */
+    @Bean
+    public EmbeddingHttpMessageConverter embeddingHttpMessageConverter() {
+        return new EmbeddingHttpMessageConverter(EmbeddingEncoding.FLOAT32);
+    }
+
+    /**
+     * Offline model that replaces the provider model when search.embedding.provider=stub
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "search.embedding.provider", havingValue = "stub")
+    public EmbeddingModel stubEmbeddingModel(@Value("${search.embedding.stub-dimensions:768}") int dimensions) {
+        return new DeterministicEmbeddingModel(dimensions);
+    }
+
+    @Bean
+    public EmbeddingStore embeddingStore(StringRedisTemplate redisTemplate,
+                                         @Value("${search.embedding.cache.redis-enabled:true}") boolean redisEnabled,
+                                         @Value("${search.embedding.cache.redis-ttl:7d}") Duration ttl) {
+        return redisEnabled ? new RedisEmbeddingStore(redisTemplate, EmbeddingEncoding.FLOAT32, ttl) : EmbeddingStore.NONE;
+    }
+
+    @Bean(destroyMethod = "close")
+    public EmbeddingService embeddingService(EmbeddingModel embeddingModel,
+                                             EmbeddingStore embeddingStore,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${search.embedding.cache.namespace:default}") String namespace,
+                                             @Value("${search.embedding.cache.max-entries:10000}") int maxEntries,
+                                             @Value("${search.embedding.batch.size:32}") int batchSize,
+                                             @Value("${search.embedding.batch.max-delay:5ms}") Duration maxBatchDelay,
+                                             @Value("${search.embedding.timeout:10s}") Duration timeout) {
+        return new EmbeddingService(embeddingModel, embeddingStore, EmbeddingServiceSettings.builder()
+                .namespace(namespace)
+                .maxEntries(maxEntries)
+                .batchSize(batchSize)
+                .maxBatchDelay(maxBatchDelay)
+                .timeout(timeout)
+                .build(), meterRegistry);
+    }
+}
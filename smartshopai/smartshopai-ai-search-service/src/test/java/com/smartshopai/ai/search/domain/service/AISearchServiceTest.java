@@ -0,0 +1,50 @@
+package com.smartshopai.ai.search.domain.service;
+
+import com.smartshopai.ai.search.domain.entity.SearchRequest;
+import com.smartshopai.ai.search.domain.entity.SearchResult;
+import com.smartshopai.ai.search.domain.repository.SearchRequestRepository;
+import com.smartshopai.ai.search.domain.repository.SearchResultRepository;
+import com.smartshopai.ai.search.infrastructure.persistence.SearchPersistenceWriter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AISearchServiceTest {
+
+    private final SearchResultRepository searchResultRepository = mock(SearchResultRepository.class);
+    private final AISearchEngineService aiSearchEngineService = mock(AISearchEngineService.class);
+    private final SearchPersistenceWriter searchPersistenceWriter = mock(SearchPersistenceWriter.class);
+    private final AISearchService aiSearchService = new AISearchService(mock(SearchRequestRepository.class),
+            searchResultRepository, aiSearchEngineService, searchPersistenceWriter);
+
+    @Test
+    void findsAResultByTheIdItWasReturnedWithBeforeItIsPersisted() {
+        SearchResult searched = SearchResult.builder().query("wireless headphones").build();
+        when(aiSearchEngineService.performHybridSearch(any())).thenReturn(searched);
+        when(searchPersistenceWriter.pendingResult(anyString()))
+                .thenAnswer(invocation -> Optional.of(searched).filter(result -> result.getId().equals(invocation.getArgument(0))));
+
+        SearchResult returned = aiSearchService.performSearch(SearchRequest.builder()
+                .userId("u-1").query("wireless headphones").searchType("HYBRID").build());
+
+        assertThat(aiSearchService.findResultById(returned.getId())).isSameAs(searched);
+        verify(searchResultRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void fallsBackToTheRepositoryOnceTheResultIsPersisted() {
+        SearchResult stored = SearchResult.builder().id("r-1").build();
+        when(searchPersistenceWriter.pendingResult("r-1")).thenReturn(Optional.empty());
+        when(searchResultRepository.findById("r-1")).thenReturn(Optional.of(stored));
+
+        assertThat(aiSearchService.findResultById("r-1")).isSameAs(stored);
+    }
+}
@@ -0,0 +1,112 @@
+package com.smartshopai.ai.search.infrastructure.persistence;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.smartshopai.ai.search.domain.entity.SearchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchPersistenceWriterTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SearchPersistenceWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(SearchResult.class))).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenReturn(bulk);
+
+        writer = new SearchPersistenceWriter(mongoTemplate, meterRegistry);
+        ReflectionTestUtils.setField(writer, "queueCapacity", 100);
+        ReflectionTestUtils.setField(writer, "batchSize", 10);
+        ReflectionTestUtils.setField(writer, "maxBatchDelayMillis", 10L);
+        ReflectionTestUtils.setField(writer, "overloadPolicy", SearchPersistenceWriter.OverloadPolicy.DROP);
+        ReflectionTestUtils.setField(writer, "shutdownTimeoutMillis", 1000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.stop();
+    }
+
+    @Test
+    void servesASubmittedResultUntilItsInsertIsAcknowledged() throws InterruptedException {
+        CountDownLatch inserting = new CountDownLatch(1);
+        CountDownLatch acknowledge = new CountDownLatch(1);
+        when(bulk.execute()).thenAnswer(invocation -> {
+            inserting.countDown();
+            acknowledge.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        writer.start();
+        SearchResult result = result("r-1");
+
+        writer.submit(result, null);
+
+        assertThat(inserting.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(writer.pendingResult("r-1")).containsSame(result);
+        acknowledge.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> writer.pendingResult("r-1").isEmpty());
+        assertThat(documents("written")).isEqualTo(1);
+    }
+
+    @Test
+    void takesADuplicateIdAsAlreadyPersisted() {
+        when(bulk.execute()).thenThrow(new BulkOperationException("duplicate", new MongoBulkWriteException(
+                BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()),
+                List.of(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0)),
+                null, new ServerAddress(), Set.of())));
+        writer.start();
+
+        writer.submit(result("r-1"), null);
+        writer.submit(result("r-2"), null);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> documents("written") == 2);
+        assertThat(documents("failed")).isZero();
+        assertThat(writer.pendingResult("r-1")).isEmpty();
+    }
+
+    @Test
+    void stopsServingAResultWhoseInsertFailed() {
+        when(bulk.execute()).thenThrow(new IllegalStateException("connection refused"));
+        writer.start();
+
+        writer.submit(result("r-1"), null);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> documents("failed") == 1);
+        assertThat(writer.pendingResult("r-1")).isEmpty();
+    }
+
+    private double documents(String outcome) {
+        return meterRegistry.get("search.persistence.documents").tag("outcome", outcome).counter().count();
+    }
+
+    private static SearchResult result(String id) {
+        return SearchResult.builder().id(id).query("kulaklik").build();
+    }
+}
@@ -0,0 +1,188 @@
+package com.smartshopai.ai.search.infrastructure.retrieval;
+
+import com.smartshopai.ai.search.infrastructure.dto.ProductDocument;
+import com.smartshopai.common.vector.HnswIndex;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency of the retrieval building blocks on a synthetic catalog with Zipf-distributed vocabulary: BM25
+ * keyword search, facet and price pre-filtering, and HNSW vector search.
+ *
+ * The defaults keep a test run short. The 1M-product target is measured with
+ * -Dbenchmark.retrieval.size=1000000 -Dbenchmark.retrieval.vectors=1000000 and a heap of a few gigabytes;
+ * -Dbenchmark.retrieval.queries sets the number of timed queries.
+ */
+class RetrievalBenchmarkTest {
+
+    private static final int SIZE = Integer.getInteger("benchmark.retrieval.size", 100_000);
+    private static final int VECTORS = Integer.getInteger("benchmark.retrieval.vectors", 20_000);
+    private static final int QUERIES = Integer.getInteger("benchmark.retrieval.queries", 500);
+    private static final int VOCABULARY = 20_000;
+    private static final int CATEGORIES = 200;
+    private static final int BRANDS = 2_000;
+    private static final int DIMENSION = 64;
+    private static final int K = 20;
+    private static final int HYBRID_DEPTH = 100;
+
+    private static final SplittableRandom RANDOM = new SplittableRandom(11);
+    private static double[] zipf;
+    private static ProductCatalogIndex catalog;
+    private static List<String> queries;
+
+    @BeforeAll
+    static void buildCatalog() {
+        zipf = new double[VOCABULARY];
+        double total = 0;
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            total += 1.0 / (rank + 1);
+            zipf[rank] = total;
+        }
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            zipf[rank] /= total;
+        }
+
+        long start = System.nanoTime();
+        ProductCatalogIndex.Builder builder = new ProductCatalogIndex.Builder();
+        for (int i = 0; i < SIZE; i++) {
+            ProductDocument document = new ProductDocument();
+            document.setId("p" + i);
+            document.setName(words(4));
+            document.setDescription(words(20));
+            document.setTags(List.of(words(1), words(1)));
+            document.setCategory("category-" + RANDOM.nextInt(CATEGORIES));
+            document.setBrand("brand-" + RANDOM.nextInt(BRANDS));
+            document.setPrice(BigDecimal.valueOf(RANDOM.nextInt(100, 100_000)));
+            builder.add(document);
+        }
+        catalog = builder.build();
+        System.out.printf("BENCH catalog: %d products indexed in %d ms%n", SIZE, (System.nanoTime() - start) / 1_000_000);
+
+        queries = new ArrayList<>(QUERIES);
+        for (int q = 0; q < QUERIES; q++) {
+            queries.add(words(1 + RANDOM.nextInt(3)));
+        }
+        // One untimed pass so the timed ones measure compiled code
+        queries.forEach(query -> catalog.keywordSearch(query, HYBRID_DEPTH, null));
+    }
+
+    @Test
+    void keywordSearch() {
+        long[] topK = new long[QUERIES];
+        long[] hybridDepth = new long[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            long start = System.nanoTime();
+            List<Bm25Index.Hit> hits = catalog.keywordSearch(queries.get(q), K, null);
+            topK[q] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            catalog.keywordSearch(queries.get(q), HYBRID_DEPTH, null);
+            hybridDepth[q] = System.nanoTime() - start;
+
+            assertThat(hits).isSortedAccordingTo((a, b) -> Float.compare(b.score(), a.score()));
+        }
+        report("BM25 top " + K, SIZE, topK);
+        report("BM25 top " + HYBRID_DEPTH, SIZE, hybridDepth);
+    }
+
+    @Test
+    void filteredKeywordSearch() {
+        long[] nanos = new long[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            List<String> categories = List.of("category-" + RANDOM.nextInt(CATEGORIES),
+                    "category-" + RANDOM.nextInt(CATEGORIES));
+            long start = System.nanoTime();
+            BitSet allowed = catalog.filter(categories, null, 1_000.0, 50_000.0);
+            List<Bm25Index.Hit> hits = catalog.keywordSearch(queries.get(q), K, allowed);
+            nanos[q] = System.nanoTime() - start;
+
+            hits.forEach(hit -> assertThat(allowed.get(hit.doc())).isTrue());
+        }
+        report("Filter + BM25 top " + K, SIZE, nanos);
+    }
+
+    @Test
+    void concurrentKeywordSearchesMatchSequentialOnes() throws Exception {
+        List<String> sample = queries.subList(0, Math.min(100, QUERIES));
+        List<List<Bm25Index.Hit>> expected = sample.stream().map(query -> catalog.keywordSearch(query, K, null)).toList();
+
+        // More searchers than pooled accumulators, so some searches run on ones allocated for them alone
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Bm25Index.Hit>>> results = new ArrayList<>();
+            for (int round = 0; round < 4; round++) {
+                for (String query : sample) {
+                    results.add(executor.submit(() -> catalog.keywordSearch(query, K, null)));
+                }
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get()).isEqualTo(expected.get(i % sample.size()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void vectorSearch() {
+        HnswIndex index = new HnswIndex(DIMENSION, 16, 200);
+        long start = System.nanoTime();
+        for (int i = 0; i < VECTORS; i++) {
+            index.add("p" + i, gaussian());
+        }
+        System.out.printf("BENCH HNSW: %d vectors of %d dimensions indexed in %d ms%n",
+                VECTORS, DIMENSION, (System.nanoTime() - start) / 1_000_000);
+
+        long[] nanos = new long[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            float[] query = gaussian();
+            start = System.nanoTime();
+            List<HnswIndex.Match> matches = index.search(query, HYBRID_DEPTH, HYBRID_DEPTH);
+            nanos[q] = System.nanoTime() - start;
+
+            assertThat(matches).hasSize(Math.min(HYBRID_DEPTH, VECTORS));
+        }
+        report("HNSW top " + HYBRID_DEPTH, VECTORS, nanos);
+    }
+
+    private static String words(int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            int rank = Arrays.binarySearch(zipf, RANDOM.nextDouble());
+            rank = Math.min(VOCABULARY - 1, rank >= 0 ? rank : -rank - 1);
+            if (!text.isEmpty()) {
+                text.append(' ');
+            }
+            text.append("w").append(Integer.toString(rank, 36));
+        }
+        return text.toString();
+    }
+
+    private static float[] gaussian() {
+        float[] vector = new float[DIMENSION];
+        for (int d = 0; d < DIMENSION; d++) {
+            double u = 1.0 - RANDOM.nextDouble();
+            vector[d] = (float) (Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * RANDOM.nextDouble()));
+        }
+        return vector;
+    }
+
+    private static void report(String operation, int size, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("BENCH %s over %d products: p50 %d us, p99 %d us%n", operation, size,
+                sorted[sorted.length / 2] / 1_000, sorted[Math.min(sorted.length - 1, sorted.length * 99 / 100)] / 1_000);
+    }
+}
@@ -0,0 +1,91 @@
+package com.smartshopai.common.embedding;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Offline embedding model for local runs and tests.
+ *
+ * Feature-hashes the words and character trigrams of the text into a fixed number of signed buckets and
+ * L2-normalizes the result, so the same text always yields the same vector on every JVM and texts sharing
+ * words or spellings land close together. It carries no semantics beyond that overlap.
+ */
+public class DeterministicEmbeddingModel implements EmbeddingModel {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int dimensions;
+
+    public DeterministicEmbeddingModel(int dimensions) {
+        if (dimensions <= 0) {
+            throw new IllegalArgumentException("Dimensions must be positive");
+        }
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        List<org.springframework.ai.embedding.Embedding> results = new ArrayList<>(request.getInstructions().size());
+        for (String text : request.getInstructions()) {
+            results.add(new org.springframework.ai.embedding.Embedding(vectorize(text), results.size()));
+        }
+        return new EmbeddingResponse(results);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return vectorize(document.getFormattedContent());
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    private float[] vectorize(String text) {
+        float[] vector = new float[dimensions];
+        String normalized = text == null ? "" : text.toLowerCase(Locale.ROOT);
+        for (String word : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            addFeature(vector, "w:" + word, 1f);
+            String padded = " " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                addFeature(vector, "t:" + padded.substring(i, i + 3), 0.5f);
+            }
+        }
+
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        if (norm == 0) {
+            // Blank text still gets a valid unit vector
+            vector[0] = 1f;
+            return vector;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+
+    private void addFeature(float[] vector, String feature, float weight) {
+        long hash = FNV_OFFSET;
+        for (byte b : feature.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        int bucket = (int) Long.remainderUnsigned(hash, dimensions);
+        vector[bucket] += (hash >>> 63) == 0 ? weight : -weight;
+    }
+}
@@ -0,0 +1,155 @@
+package com.smartshopai.common.embedding;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Immutable embedding vector with a compact binary form.
+ *
+ * The binary form is a one-byte {@link EmbeddingEncoding} tag followed by little-endian components:
+ * FLOAT32 stores 4 bytes per dimension, INT8 stores a float scale and then 1 byte per dimension.
+ * JSON carries the binary form as a base64 string; numeric arrays are still accepted on input.
+ */
+@JsonSerialize(using = EmbeddingJsonSerializer.class)
+@JsonDeserialize(using = EmbeddingJsonDeserializer.class)
+public final class Embedding {
+
+    /**
+     * Content type of a request or response body holding the binary form
+     */
+    public static final String MEDIA_TYPE = "application/x-smartshopai-embedding";
+
+    private final float[] values;
+
+    private Embedding(float[] values) {
+        this.values = values;
+    }
+
+    public static Embedding of(float[] values) {
+        if (values == null || values.length == 0) {
+            throw new IllegalArgumentException("Embedding must have at least one dimension");
+        }
+        return new Embedding(values.clone());
+    }
+
+    public static Embedding of(List<? extends Number> values) {
+        if (values == null || values.isEmpty()) {
+            throw new IllegalArgumentException("Embedding must have at least one dimension");
+        }
+        float[] vector = new float[values.size()];
+        for (int i = 0; i < vector.length; i++) {
+            Number value = values.get(i);
+            vector[i] = value == null ? 0f : value.floatValue();
+        }
+        return new Embedding(vector);
+    }
+
+    public int dimension() {
+        return values.length;
+    }
+
+    public float[] toFloatArray() {
+        return values.clone();
+    }
+
+    public List<Double> toDoubleList() {
+        List<Double> list = new ArrayList<>(values.length);
+        for (float value : values) {
+            list.add((double) value);
+        }
+        return list;
+    }
+
+    public byte[] encode(EmbeddingEncoding encoding) {
+        return switch (encoding) {
+            case FLOAT32 -> {
+                ByteBuffer buffer = allocate(1 + values.length * Float.BYTES).put(encoding.getTag());
+                buffer.asFloatBuffer().put(values);
+                yield buffer.array();
+            }
+            case INT8 -> {
+                float maxAbs = 0;
+                for (float value : values) {
+                    maxAbs = Math.max(maxAbs, Math.abs(value));
+                }
+                float scale = maxAbs == 0 ? 1f : maxAbs / Byte.MAX_VALUE;
+                ByteBuffer buffer = allocate(1 + Float.BYTES + values.length)
+                        .put(encoding.getTag())
+                        .putFloat(scale);
+                for (float value : values) {
+                    buffer.put((byte) Math.round(value / scale));
+                }
+                yield buffer.array();
+            }
+        };
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a valid binary form
+     */
+    public static Embedding decode(byte[] bytes) {
+        if (bytes == null || bytes.length < 2) {
+            throw new IllegalArgumentException("Encoded embedding is empty");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        EmbeddingEncoding encoding = EmbeddingEncoding.fromTag(buffer.get());
+        return switch (encoding) {
+            case FLOAT32 -> {
+                if (buffer.remaining() % Float.BYTES != 0) {
+                    throw new IllegalArgumentException("FLOAT32 embedding length is not a multiple of 4");
+                }
+                float[] vector = new float[buffer.remaining() / Float.BYTES];
+                buffer.asFloatBuffer().get(vector);
+                yield new Embedding(vector);
+            }
+            case INT8 -> {
+                if (buffer.remaining() <= Float.BYTES) {
+                    throw new IllegalArgumentException("INT8 embedding has no components");
+                }
+                float scale = buffer.getFloat();
+                float[] vector = new float[buffer.remaining()];
+                for (int i = 0; i < vector.length; i++) {
+                    vector[i] = buffer.get() * scale;
+                }
+                yield new Embedding(vector);
+            }
+        };
+    }
+
+    public String toBase64(EmbeddingEncoding encoding) {
+        return Base64.getEncoder().encodeToString(encode(encoding));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is not base64 of a valid binary form
+     */
+    public static Embedding fromBase64(String base64) {
+        return decode(Base64.getDecoder().decode(base64));
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Embedding other && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return "Embedding[dimension=" + values.length + "]";
+    }
+}
@@ -0,0 +1,34 @@
+package com.smartshopai.common.embedding;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Binary representations of an {@link Embedding}
+ */
+@Getter
+@RequiredArgsConstructor
+public enum EmbeddingEncoding {
+
+    /**
+     * Lossless, 4 bytes per dimension
+     */
+    FLOAT32((byte) 1),
+
+    /**
+     * Symmetric linear quantization against the largest absolute component, 1 byte per dimension;
+     * cosine similarity is preserved to within about 1%
+     */
+    INT8((byte) 2);
+
+    private final byte tag;
+
+    public static EmbeddingEncoding fromTag(byte tag) {
+        for (EmbeddingEncoding encoding : values()) {
+            if (encoding.tag == tag) {
+                return encoding;
+            }
+        }
+        throw new IllegalArgumentException("Unknown embedding encoding tag: " + tag);
+    }
+}
@@ -0,0 +1,53 @@
+package com.smartshopai.common.embedding;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes {@link Embedding} bodies of type {@link Embedding#MEDIA_TYPE} as raw binary.
+ * Registered as a bean it serves both Spring MVC endpoints and OpenFeign clients.
+ */
+public class EmbeddingHttpMessageConverter extends AbstractHttpMessageConverter<Embedding> {
+
+    private final EmbeddingEncoding encoding;
+
+    /**
+     * @param encoding representation used for bodies this converter writes; any representation is read
+     */
+    public EmbeddingHttpMessageConverter(EmbeddingEncoding encoding) {
+        super(MediaType.parseMediaType(Embedding.MEDIA_TYPE));
+        this.encoding = encoding;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Embedding.class == clazz;
+    }
+
+    @Override
+    protected Embedding readInternal(Class<? extends Embedding> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return Embedding.decode(inputMessage.getBody().readAllBytes());
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Invalid embedding body: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Embedding embedding, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(embedding.encode(encoding));
+    }
+
+    @Override
+    protected Long getContentLength(Embedding embedding, MediaType contentType) {
+        return (long) switch (encoding) {
+            case FLOAT32 -> 1 + embedding.dimension() * Float.BYTES;
+            case INT8 -> 1 + Float.BYTES + embedding.dimension();
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.smartshopai.common.embedding;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads an embedding from a base64 string of its binary form, or from a plain numeric array sent by
+ * callers that predate the binary form
+ */
+public class EmbeddingJsonDeserializer extends StdDeserializer<Embedding> {
+
+    public EmbeddingJsonDeserializer() {
+        super(Embedding.class);
+    }
+
+    @Override
+    public Embedding deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        try {
+            if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                return Embedding.decode(parser.getBinaryValue());
+            }
+            if (parser.currentToken() == JsonToken.START_ARRAY) {
+                float[] values = new float[64];
+                int size = 0;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (size == values.length) {
+                        values = Arrays.copyOf(values, size * 2);
+                    }
+                    values[size++] = parser.getFloatValue();
+                }
+                return Embedding.of(Arrays.copyOf(values, size));
+            }
+        } catch (IllegalArgumentException e) {
+            throw JsonMappingException.from(parser, "Invalid embedding: " + e.getMessage(), e);
+        }
+        return (Embedding) context.handleUnexpectedToken(Embedding.class, parser);
+    }
+}
@@ -0,0 +1,22 @@
+package com.smartshopai.common.embedding;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes an embedding as a base64 string of its lossless FLOAT32 binary form
+ */
+public class EmbeddingJsonSerializer extends StdSerializer<Embedding> {
+
+    public EmbeddingJsonSerializer() {
+        super(Embedding.class);
+    }
+
+    @Override
+    public void serialize(Embedding embedding, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeBinary(embedding.encode(EmbeddingEncoding.FLOAT32));
+    }
+}
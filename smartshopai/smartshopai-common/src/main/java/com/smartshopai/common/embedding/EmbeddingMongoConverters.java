@@ -0,0 +1,51 @@
+package com.smartshopai.common.embedding;
+
+import org.bson.types.Binary;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.util.List;
+
+/**
+ * Spring Data MongoDB converters that store an {@link Embedding} as BSON binary.
+ * Register {@link #converters(EmbeddingEncoding)} with the service's MongoCustomConversions; documents
+ * written before the binary form, which hold a numeric array, are still readable.
+ */
+public final class EmbeddingMongoConverters {
+
+    private EmbeddingMongoConverters() {
+        // Utility class
+    }
+
+    public static List<Converter<?, ?>> converters(EmbeddingEncoding storageEncoding) {
+        return List.of(new EmbeddingToBinary(storageEncoding), new BinaryToEmbedding(), new ListToEmbedding());
+    }
+
+    @WritingConverter
+    private record EmbeddingToBinary(EmbeddingEncoding encoding) implements Converter<Embedding, Binary> {
+
+        @Override
+        public Binary convert(Embedding source) {
+            return new Binary(source.encode(encoding));
+        }
+    }
+
+    @ReadingConverter
+    private static final class BinaryToEmbedding implements Converter<Binary, Embedding> {
+
+        @Override
+        public Embedding convert(Binary source) {
+            return Embedding.decode(source.getData());
+        }
+    }
+
+    @ReadingConverter
+    private static final class ListToEmbedding implements Converter<List<Number>, Embedding> {
+
+        @Override
+        public Embedding convert(List<Number> source) {
+            return source.isEmpty() ? null : Embedding.of(source);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.smartshopai.common.embedding;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * Computes embeddings once per distinct text.
+ *
+ * Texts are normalized and keyed by a SHA-256 of the namespace and normalized text. Lookups go to a bounded
+ * in-process Caffeine cache, then to the shared {@link EmbeddingStore}. Concurrent requests for the same key share
+ * one future, and the remaining misses are micro-batched into single {@code embed(List)} model calls on a
+ * dispatcher thread.
+ */
+@Slf4j
+public class EmbeddingService implements AutoCloseable {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final EmbeddingModel embeddingModel;
+    private final EmbeddingStore store;
+    private final EmbeddingServiceSettings settings;
+
+    private final Cache<String, Embedding> memory;
+    private final Map<String, CompletableFuture<Embedding>> inFlight = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingText> pending = new LinkedBlockingQueue<>();
+    private final Thread dispatcher;
+
+    private final Counter memoryHits;
+    private final Counter storeHits;
+    private final Counter coalesced;
+    private final Counter computed;
+    private final Timer modelTimer;
+    private final DistributionSummary batchSizes;
+
+    public EmbeddingService(EmbeddingModel embeddingModel,
+                            EmbeddingStore store,
+                            EmbeddingServiceSettings settings,
+                            MeterRegistry meterRegistry) {
+        this.embeddingModel = embeddingModel;
+        this.store = store;
+        this.settings = settings;
+        this.memory = Caffeine.newBuilder()
+                .maximumSize(settings.maxEntries())
+                .build();
+
+        memoryHits = requests(meterRegistry, "memory");
+        storeHits = requests(meterRegistry, "store");
+        coalesced = requests(meterRegistry, "coalesced");
+        computed = requests(meterRegistry, "computed");
+        modelTimer = Timer.builder("embedding.model.duration")
+                .description("Time for one batched embedding model call")
+                .register(meterRegistry);
+        batchSizes = DistributionSummary.builder("embedding.model.batch-size")
+                .description("Texts sent to the embedding model per call")
+                .register(meterRegistry);
+        Gauge.builder("embedding.cache.size", memory, Cache::estimatedSize)
+                .description("Embeddings held in the in-process cache")
+                .register(meterRegistry);
+
+        dispatcher = Thread.ofPlatform().name("embedding-batcher").daemon().start(this::dispatch);
+    }
+
+    /**
+     * Embedding of the normalized text, blocking up to the configured timeout
+     *
+     * @throws IllegalArgumentException if the text is blank after normalization
+     * @throws IllegalStateException    if the model fails or does not answer in time
+     */
+    public Embedding embed(String text) {
+        return await(embedAsync(text));
+    }
+
+    /**
+     * Embeddings in input order; duplicates and cached texts cost no model call
+     */
+    public List<Embedding> embedAll(List<String> texts) {
+        List<CompletableFuture<Embedding>> futures = lookup(texts);
+        List<Embedding> embeddings = new ArrayList<>(futures.size());
+        for (CompletableFuture<Embedding> future : futures) {
+            embeddings.add(await(future));
+        }
+        return embeddings;
+    }
+
+    public CompletableFuture<Embedding> embedAsync(String text) {
+        return lookup(List.of(text)).getFirst();
+    }
+
+    /**
+     * Lower-cased, NFKC-normalized text with runs of whitespace collapsed to one space
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    @Override
+    public void close() {
+        dispatcher.interrupt();
+        PendingText orphan;
+        while ((orphan = pending.poll()) != null) {
+            fail(orphan, new IllegalStateException("Embedding service is shutting down"));
+        }
+    }
+
+    private List<CompletableFuture<Embedding>> lookup(List<String> texts) {
+        List<String> normalizedTexts = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            String normalized = normalize(text);
+            if (normalized.isEmpty()) {
+                throw new IllegalArgumentException("Cannot embed blank text");
+            }
+            normalizedTexts.add(normalized);
+        }
+
+        List<CompletableFuture<Embedding>> results = new ArrayList<>(texts.size());
+        Map<String, PendingText> misses = new LinkedHashMap<>();
+        for (String normalized : normalizedTexts) {
+            String key = key(normalized);
+            Embedding cached = memory.getIfPresent(key);
+            if (cached != null) {
+                memoryHits.increment();
+                results.add(CompletableFuture.completedFuture(cached));
+                continue;
+            }
+            PendingText miss = misses.get(key);
+            if (miss == null) {
+                CompletableFuture<Embedding> created = new CompletableFuture<>();
+                CompletableFuture<Embedding> existing = inFlight.putIfAbsent(key, created);
+                if (existing != null) {
+                    coalesced.increment();
+                    results.add(existing);
+                    continue;
+                }
+                miss = new PendingText(key, normalized, created);
+                misses.put(key, miss);
+            }
+            results.add(miss.future());
+        }
+
+        if (!misses.isEmpty()) {
+            Map<String, Embedding> stored = store.getAll(misses.keySet());
+            for (PendingText miss : misses.values()) {
+                Embedding embedding = stored.get(miss.key());
+                if (embedding != null) {
+                    storeHits.increment();
+                    complete(miss, embedding);
+                } else {
+                    pending.add(miss);
+                }
+            }
+        }
+        return results;
+    }
+
+    private void dispatch() {
+        long maxDelayNanos = settings.maxBatchDelay().toNanos();
+        while (!Thread.currentThread().isInterrupted()) {
+            List<PendingText> batch = new ArrayList<>(settings.batchSize());
+            try {
+                batch.add(pending.take());
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < settings.batchSize()) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingText next = remaining > 0 ? pending.poll(remaining, TimeUnit.NANOSECONDS) : pending.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                batch.forEach(text -> fail(text, new IllegalStateException("Embedding service is shutting down")));
+                Thread.currentThread().interrupt();
+                return;
+            }
+            compute(batch);
+        }
+    }
+
+    private void compute(List<PendingText> batch) {
+        List<float[]> vectors;
+        long start = System.nanoTime();
+        try {
+            vectors = embeddingModel.embed(batch.stream().map(PendingText::text).toList());
+            if (vectors.size() != batch.size()) {
+                throw new IllegalStateException("Model returned " + vectors.size() + " embeddings for " + batch.size() + " texts");
+            }
+        } catch (Exception e) {
+            log.warn("Embedding model call failed for {} texts: {}", batch.size(), e.getMessage());
+            batch.forEach(text -> fail(text, e));
+            return;
+        } finally {
+            modelTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizes.record(batch.size());
+        }
+
+        Map<String, Embedding> computedBatch = new LinkedHashMap<>();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                PendingText text = batch.get(i);
+                try {
+                    Embedding embedding = Embedding.of(vectors.get(i));
+                    computedBatch.put(text.key(), embedding);
+                    complete(text, embedding);
+                } catch (RuntimeException e) {
+                    log.warn("Embedding model returned an unusable vector: {}", e.getMessage());
+                    fail(text, e);
+                }
+            }
+            computed.increment(computedBatch.size());
+            store.putAll(computedBatch);
+        } catch (RuntimeException e) {
+            log.warn("Failed to store {} computed embeddings: {}", computedBatch.size(), e.getMessage());
+        } finally {
+            // Nothing in the batch may be left pending, or its callers would wait until they time out
+            for (PendingText text : batch) {
+                if (!text.future().isDone()) {
+                    fail(text, new IllegalStateException("Embedding was not computed"));
+                }
+            }
+        }
+    }
+
+    private void complete(PendingText text, Embedding embedding) {
+        memory.put(text.key(), embedding);
+        inFlight.remove(text.key(), text.future());
+        text.future().complete(embedding);
+    }
+
+    private void fail(PendingText text, Throwable failure) {
+        inFlight.remove(text.key(), text.future());
+        text.future().completeExceptionally(failure);
+    }
+
+    private Embedding await(CompletableFuture<Embedding> future) {
+        try {
+            return future.get(settings.timeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Embedding failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            // Later requests for the text start a fresh computation instead of joining one that is stuck
+            inFlight.values().remove(future);
+            throw new IllegalStateException("Embedding timed out after " + settings.timeout().toMillis() + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an embedding", e);
+        }
+    }
+
+    private String key(String normalized) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(settings.namespace().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("embedding.requests")
+                .description("Embedding lookups by where the result came from")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    private record PendingText(String key, String text, CompletableFuture<Embedding> future) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.smartshopai.common.embedding;
+
+import lombok.Builder;
+
+import java.time.Duration;
+
+/**
+ * Tuning for {@link EmbeddingService}
+ *
+ * @param namespace     folded into every cache key; change it whenever the embedding model changes
+ * @param maxEntries    embeddings kept in the in-process cache
+ * @param batchSize     most texts sent to the model in one call
+ * @param maxBatchDelay longest a text waits for others to fill its batch
+ * @param timeout       longest a caller blocks for an embedding
+ */
+@Builder
+public record EmbeddingServiceSettings(String namespace,
+                                       int maxEntries,
+                                       int batchSize,
+                                       Duration maxBatchDelay,
+                                       Duration timeout) {
+}
@@ -0,0 +1,33 @@
+package com.smartshopai.common.embedding;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Shared second-level store for computed embeddings, keyed by content hash.
+ * Implementations treat failures as misses; the store is an optimization, never a source of truth.
+ */
+public interface EmbeddingStore {
+
+    /**
+     * @return the stored embeddings among the keys; absent keys are simply missing from the map
+     */
+    Map<String, Embedding> getAll(Collection<String> keys);
+
+    void putAll(Map<String, Embedding> embeddings);
+
+    /**
+     * Store that keeps nothing, for services running without a shared cache
+     */
+    EmbeddingStore NONE = new EmbeddingStore() {
+
+        @Override
+        public Map<String, Embedding> getAll(Collection<String> keys) {
+            return Map.of();
+        }
+
+        @Override
+        public void putAll(Map<String, Embedding> embeddings) {
+        }
+    };
+}
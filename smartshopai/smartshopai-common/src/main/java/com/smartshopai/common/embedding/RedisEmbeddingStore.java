@@ -0,0 +1,78 @@
+package com.smartshopai.common.embedding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis-backed {@link EmbeddingStore}; values are base64 of the binary form and expire after a TTL
+ */
+@Slf4j
+public class RedisEmbeddingStore implements EmbeddingStore {
+
+    private static final String KEY_PREFIX = "embedding:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final EmbeddingEncoding encoding;
+    private final Duration ttl;
+
+    public RedisEmbeddingStore(StringRedisTemplate redisTemplate, EmbeddingEncoding encoding, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.encoding = encoding;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Map<String, Embedding> getAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        List<String> hashes = List.copyOf(keys);
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(hashes.stream().map(KEY_PREFIX::concat).toList());
+            if (values == null) {
+                return Map.of();
+            }
+            Map<String, Embedding> found = new HashMap<>();
+            for (int i = 0; i < hashes.size(); i++) {
+                String value = values.get(i);
+                if (value != null) {
+                    found.put(hashes.get(i), Embedding.fromBase64(value));
+                }
+            }
+            return found;
+        } catch (Exception e) {
+            log.warn("Embedding store lookup failed for {} keys: {}", hashes.size(), e.getMessage());
+            return Map.of();
+        }
+    }
+
+    @Override
+    public void putAll(Map<String, Embedding> embeddings) {
+        if (embeddings.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, Embedding>> entries = new ArrayList<>(embeddings.entrySet());
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map.Entry<String, Embedding> entry : entries) {
+                    connection.stringCommands().setEx(
+                            (KEY_PREFIX + entry.getKey()).getBytes(StandardCharsets.UTF_8),
+                            ttl.toSeconds(),
+                            entry.getValue().toBase64(encoding).getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("Embedding store write failed for {} keys: {}", entries.size(), e.getMessage());
+        }
+    }
+}
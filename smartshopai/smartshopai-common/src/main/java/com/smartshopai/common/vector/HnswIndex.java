@@ -0,0 +1,625 @@
+package com.smartshopai.common.vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In-process Hierarchical Navigable Small World graph for approximate cosine nearest-neighbour search.
+ *
+ * Vectors are normalized on insert and kept as primitive float arrays, so cosine similarity is a plain dot
+ * product. Each key maps to at most one live node; re-adding or removing a key tombstones the old node, which
+ * stays in the graph as a connector but is never returned. Once tombstones outnumber a fifth of the live nodes,
+ * the graph is rebuilt from the live vectors, so each update pays for a bounded share of one rebuild. Inserts
+ * take an exclusive lock, searches a shared one.
+ *
+ * By default the rebuild runs inside the update that crosses the threshold, holding the exclusive lock for its
+ * whole length. An owner that is the only writer can turn that off, poll {@link #needsCompaction()}, and build
+ * {@link #compacted()} next to the live index while searches carry on, then swap the copy in.
+ */
+public final class HnswIndex {
+
+    /**
+     * Tombstones allowed per live node before the graph is rebuilt
+     */
+    private static final double MAX_TOMBSTONE_RATIO = 0.2;
+
+    private final int dimension;
+    private final int maxLinks;
+    private final int maxLinksLayer0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final boolean compactOnUpdate;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private float[][] vectors = new float[16][];
+    /**
+     * links[node][level] holds the neighbour count followed by the neighbour ids
+     */
+    private int[][][] links = new int[16][][];
+    private String[] keys = new String[16];
+    private final Map<String, Integer> liveNodes = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private int tombstones;
+    private int size;
+    private int entryPoint = -1;
+    private int topLevel = -1;
+
+    /**
+     * @param maxLinks       neighbours kept per node on upper layers (M); layer 0 keeps twice as many
+     * @param efConstruction candidate list size while inserting; larger builds a better graph, slower
+     */
+    public HnswIndex(int dimension, int maxLinks, int efConstruction) {
+        this(dimension, maxLinks, efConstruction, true);
+    }
+
+    /**
+     * @param compactOnUpdate rebuild under the write lock as soon as tombstones pile up; when false the owner
+     *                        is expected to replace the index with {@link #compacted()} itself
+     */
+    public HnswIndex(int dimension, int maxLinks, int efConstruction, boolean compactOnUpdate) {
+        if (dimension <= 0 || maxLinks < 2 || efConstruction < 1) {
+            throw new IllegalArgumentException("Invalid HNSW parameters");
+        }
+        this.dimension = dimension;
+        this.maxLinks = maxLinks;
+        this.maxLinksLayer0 = maxLinks * 2;
+        this.efConstruction = Math.max(efConstruction, maxLinks);
+        this.levelMultiplier = 1 / Math.log(maxLinks);
+        this.compactOnUpdate = compactOnUpdate;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * Number of keys that can be returned by a search
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveNodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Insert a vector under the key, replacing any previous vector for it
+     *
+     * @throws IllegalArgumentException if the vector has the wrong dimension or zero length
+     */
+    public void add(String key, float[] vector) {
+        float[] normalized = normalize(vector);
+        lock.writeLock().lock();
+        try {
+            insert(key, normalized);
+            if (compactOnUpdate) {
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(String key, float[] normalized) {
+        Integer previous = liveNodes.remove(key);
+        if (previous != null) {
+            deleted.set(previous);
+            tombstones++;
+        }
+        int node = allocate(key, normalized);
+        liveNodes.put(key, node);
+        connect(node, normalized);
+    }
+
+    public boolean remove(String key) {
+        lock.writeLock().lock();
+        try {
+            Integer node = liveNodes.remove(key);
+            if (node == null) {
+                return false;
+            }
+            deleted.set(node);
+            tombstones++;
+            if (compactOnUpdate) {
+                compactIfNeeded();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate k nearest keys by cosine similarity, most similar first
+     *
+     * @param ef candidate list size on the bottom layer; larger trades latency for recall
+     */
+    public List<Match> search(float[] query, int k, int ef) {
+        return search(query, k, ef, null);
+    }
+
+    /**
+     * Approximate k nearest keys among those the filter accepts, most similar first.
+     * Rejected nodes are still traversed as connectors, so a very selective filter degrades towards a full
+     * scan; callers that know the filter is small should use {@link #exactSearch(float[], int, Iterable)}.
+     *
+     * @param accept keys allowed in the result, or null for all
+     */
+    public List<Match> search(float[] query, int k, int ef, Predicate<String> accept) {
+        float[] normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0) {
+                return List.of();
+            }
+            int current = greedyDescent(normalized, entryPoint, topLevel, 0);
+            NodeHeap candidates = searchLayer(normalized, current, Math.max(ef, k), 0, accept);
+            return toMatches(candidates, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Exact k nearest keys by scanning every live vector; the baseline approximate results are measured against
+     */
+    public List<Match> exactSearch(float[] query, int k) {
+        float[] normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            NodeHeap best = new NodeHeap(k + 1, true);
+            for (int node : liveNodes.values()) {
+                best.push(node, distance(normalized, vectors[node]));
+                if (best.size() > k) {
+                    best.pop();
+                }
+            }
+            return toMatches(best, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Exact k nearest among the given keys; unknown keys are ignored
+     */
+    public List<Match> exactSearch(float[] query, int k, Iterable<String> candidates) {
+        float[] normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            NodeHeap best = new NodeHeap(k + 1, true);
+            for (String key : candidates) {
+                Integer node = liveNodes.get(key);
+                if (node == null) {
+                    continue;
+                }
+                best.push(node, distance(normalized, vectors[node]));
+                if (best.size() > k) {
+                    best.pop();
+                }
+            }
+            return toMatches(best, k);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    /**
+     * Whether tombstones have piled up enough that the graph should be rebuilt from the live nodes
+     */
+    public boolean needsCompaction() {
+        lock.readLock().lock();
+        try {
+            return tooManyTombstones();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A new index holding only the live keys, inserted in their original order. The live nodes are copied
+     * under the shared lock and the graph is built after releasing it, so searches and, unless the caller
+     * excludes them, updates go on meanwhile; updates made after the copy are not in the result.
+     */
+    public HnswIndex compacted() {
+        String[] liveKeys;
+        float[][] liveVectors;
+        lock.readLock().lock();
+        try {
+            int[] live = liveNodes.values().stream().mapToInt(Integer::intValue).sorted().toArray();
+            liveKeys = new String[live.length];
+            liveVectors = new float[live.length][];
+            for (int i = 0; i < live.length; i++) {
+                // Stored vectors are never written after insert, so sharing them is safe
+                liveKeys[i] = keys[live[i]];
+                liveVectors[i] = vectors[live[i]];
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        HnswIndex rebuilt = new HnswIndex(dimension, maxLinks, efConstruction, compactOnUpdate);
+        rebuilt.lock.writeLock().lock();
+        try {
+            for (int i = 0; i < liveKeys.length; i++) {
+                rebuilt.insert(liveKeys[i], liveVectors[i]);
+            }
+        } finally {
+            rebuilt.lock.writeLock().unlock();
+        }
+        return rebuilt;
+    }
+
+    private boolean tooManyTombstones() {
+        return tombstones > MAX_TOMBSTONE_RATIO * liveNodes.size();
+    }
+
+    /**
+     * Rebuild the graph from the live nodes, in their original insertion order, once tombstones pile up
+     */
+    private void compactIfNeeded() {
+        if (!tooManyTombstones()) {
+            return;
+        }
+        int[] live = liveNodes.values().stream().mapToInt(Integer::intValue).sorted().toArray();
+        float[][] liveVectors = vectors;
+        String[] liveKeys = keys;
+
+        int capacity = Math.max(16, Integer.highestOneBit(Math.max(live.length, 1)) * 2);
+        vectors = new float[capacity][];
+        links = new int[capacity][][];
+        keys = new String[capacity];
+        liveNodes.clear();
+        deleted.clear();
+        tombstones = 0;
+        size = 0;
+        entryPoint = -1;
+        topLevel = -1;
+        for (int old : live) {
+            int node = allocate(liveKeys[old], liveVectors[old]);
+            liveNodes.put(liveKeys[old], node);
+            connect(node, liveVectors[old]);
+        }
+    }
+
+    private int allocate(String key, float[] vector) {
+        if (size == vectors.length) {
+            int capacity = size * 2;
+            vectors = Arrays.copyOf(vectors, capacity);
+            links = Arrays.copyOf(links, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+        }
+        int node = size++;
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        vectors[node] = vector;
+        keys[node] = key;
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[(l == 0 ? maxLinksLayer0 : maxLinks) + 1];
+        }
+        return node;
+    }
+
+    private void connect(int node, float[] vector) {
+        int level = links[node].length - 1;
+        if (entryPoint < 0) {
+            entryPoint = node;
+            topLevel = level;
+            return;
+        }
+
+        int current = greedyDescent(vector, entryPoint, topLevel, level + 1);
+        for (int l = Math.min(level, topLevel); l >= 0; l--) {
+            long[] candidates = searchLayer(vector, current, efConstruction, l, null).drainSorted();
+            current = NodeHeap.node(candidates[0]);
+            int[] neighbours = selectNeighbours(candidates, l == 0 ? maxLinksLayer0 : maxLinks);
+            int[] own = links[node][l];
+            own[0] = neighbours.length;
+            System.arraycopy(neighbours, 0, own, 1, neighbours.length);
+            for (int neighbour : neighbours) {
+                link(neighbour, node, l);
+            }
+        }
+        if (level > topLevel) {
+            entryPoint = node;
+            topLevel = level;
+        }
+    }
+
+    /**
+     * Add a back link, re-selecting the neighbour's links when it is already full
+     */
+    private void link(int from, int to, int level) {
+        int[] list = links[from][level];
+        int capacity = list.length - 1;
+        if (list[0] < capacity) {
+            list[++list[0]] = to;
+            return;
+        }
+        float[] origin = vectors[from];
+        NodeHeap byDistance = new NodeHeap(capacity + 1, false);
+        for (int i = 1; i <= capacity; i++) {
+            byDistance.push(list[i], distance(origin, vectors[list[i]]));
+        }
+        byDistance.push(to, distance(origin, vectors[to]));
+        int[] kept = selectNeighbours(byDistance.drainSorted(), capacity);
+        list[0] = kept.length;
+        System.arraycopy(kept, 0, list, 1, kept.length);
+    }
+
+    /**
+     * Neighbour selection heuristic: keep a candidate only if it is closer to the base than to any kept
+     * neighbour, which spreads links across directions; pruned candidates fill any remaining slots
+     *
+     * @param ascending packed candidates ordered by distance to the base, closest first
+     */
+    private int[] selectNeighbours(long[] ascending, int limit) {
+        int[] selected = new int[Math.min(limit, ascending.length)];
+        int count = 0;
+        int[] pruned = new int[ascending.length];
+        int prunedCount = 0;
+        for (long entry : ascending) {
+            if (count == selected.length) {
+                break;
+            }
+            int candidate = NodeHeap.node(entry);
+            float toBase = NodeHeap.distance(entry);
+            boolean diverse = true;
+            for (int i = 0; i < count; i++) {
+                if (distance(vectors[candidate], vectors[selected[i]]) < toBase) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[count++] = candidate;
+            } else {
+                pruned[prunedCount++] = candidate;
+            }
+        }
+        for (int i = 0; i < prunedCount && count < selected.length; i++) {
+            selected[count++] = pruned[i];
+        }
+        return count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+
+    private int greedyDescent(float[] query, int start, int fromLevel, int toLevel) {
+        int current = start;
+        float currentDistance = distance(query, vectors[current]);
+        for (int l = fromLevel; l >= toLevel; l--) {
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                int[] list = links[current][l];
+                for (int i = 1; i <= list[0]; i++) {
+                    float d = distance(query, vectors[list[i]]);
+                    if (d < currentDistance) {
+                        currentDistance = d;
+                        current = list[i];
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first search of one layer
+     *
+     * @param accept keys allowed into the results, or null for all; other nodes are only walked through
+     * @return max-heap of the ef closest accepted nodes found
+     */
+    private NodeHeap searchLayer(float[] query, int start, int ef, int level, Predicate<String> accept) {
+        BitSet visited = new BitSet(size);
+        NodeHeap candidates = new NodeHeap(ef * 2, false);
+        NodeHeap results = new NodeHeap(ef + 1, true);
+        float startDistance = distance(query, vectors[start]);
+        candidates.push(start, startDistance);
+        if (accepts(accept, start)) {
+            results.push(start, startDistance);
+        }
+        visited.set(start);
+
+        while (candidates.size() > 0) {
+            float closest = candidates.peekDistance();
+            if (results.size() >= ef && closest > results.peekDistance()) {
+                break;
+            }
+            int node = candidates.pop();
+            int[][] nodeLinks = links[node];
+            if (level >= nodeLinks.length) {
+                continue;
+            }
+            int[] list = nodeLinks[level];
+            for (int i = 1; i <= list[0]; i++) {
+                int neighbour = list[i];
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                float d = distance(query, vectors[neighbour]);
+                if (results.size() < ef || d < results.peekDistance()) {
+                    candidates.push(neighbour, d);
+                    if (accepts(accept, neighbour)) {
+                        results.push(neighbour, d);
+                        if (results.size() > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private boolean accepts(Predicate<String> accept, int node) {
+        return accept == null || (!deleted.get(node) && accept.test(keys[node]));
+    }
+
+    private List<Match> toMatches(NodeHeap heap, int k) {
+        long[] entries = heap.drainSorted();
+        List<Match> matches = new ArrayList<>(Math.min(k, entries.length));
+        for (long entry : entries) {
+            if (matches.size() == k) {
+                break;
+            }
+            int node = NodeHeap.node(entry);
+            if (!deleted.get(node)) {
+                matches.add(new Match(keys[node], 1 - NodeHeap.distance(entry)));
+            }
+        }
+        return matches;
+    }
+
+    private float[] normalize(float[] vector) {
+        if (vector == null || vector.length != dimension) {
+            throw new IllegalArgumentException("Expected a vector of dimension " + dimension
+                    + " but got " + (vector == null ? "null" : vector.length));
+        }
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        if (norm == 0) {
+            throw new IllegalArgumentException("Cannot index a zero vector");
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * scale;
+        }
+        return normalized;
+    }
+
+    /**
+     * Cosine distance of two unit vectors, clamped to be non-negative.
+     * Four independent accumulators let the JIT pipeline the multiply-adds.
+     */
+    private static float distance(float[] a, float[] b) {
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        int i = 0;
+        for (int bound = a.length & ~3; i < bound; i += 4) {
+            s0 += a[i] * b[i];
+            s1 += a[i + 1] * b[i + 1];
+            s2 += a[i + 2] * b[i + 2];
+            s3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < a.length; i++) {
+            s0 += a[i] * b[i];
+        }
+        return Math.max(0f, 1f - (s0 + s1 + s2 + s3));
+    }
+
+    /**
+     * A key and its cosine similarity to the query
+     */
+    public record Match(String key, double score) {
+    }
+
+    /**
+     * Binary heap of (node, distance) pairs packed into longs; non-negative float bits sort like the floats
+     */
+    private static final class NodeHeap {
+
+        private long[] heap;
+        private int count;
+        private final boolean max;
+
+        NodeHeap(int capacity, boolean max) {
+            this.heap = new long[Math.max(capacity, 4)];
+            this.max = max;
+        }
+
+        int size() {
+            return count;
+        }
+
+        void push(int node, float distance) {
+            if (count == heap.length) {
+                heap = Arrays.copyOf(heap, count * 2);
+            }
+            heap[count] = ((long) Float.floatToIntBits(distance) << 32) | (node & 0xffffffffL);
+            siftUp(count++);
+        }
+
+        int pop() {
+            long top = heap[0];
+            heap[0] = heap[--count];
+            siftDown(0);
+            return node(top);
+        }
+
+        float peekDistance() {
+            return distance(heap[0]);
+        }
+
+        /**
+         * Empty the heap into packed entries ordered by ascending distance
+         */
+        long[] drainSorted() {
+            long[] entries = Arrays.copyOf(heap, count);
+            Arrays.sort(entries);
+            count = 0;
+            return entries;
+        }
+
+        static int node(long entry) {
+            return (int) entry;
+        }
+
+        static float distance(long entry) {
+            return Float.intBitsToFloat((int) (entry >>> 32));
+        }
+
+        private boolean before(long a, long b) {
+            return max ? a > b : a < b;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(heap[i], heap[parent])) {
+                    break;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= count) {
+                    break;
+                }
+                int right = left + 1;
+                int child = right < count && before(heap[right], heap[left]) ? right : left;
+                if (!before(heap[child], heap[i])) {
+                    break;
+                }
+                swap(i, child);
+                i = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.smartshopai.common.embedding;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class EmbeddingServiceTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecordingModel model = new RecordingModel();
+    private final MapStore store = new MapStore();
+    private EmbeddingService service;
+
+    @AfterEach
+    void tearDown() {
+        model.release();
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @Test
+    void coalescesConcurrentRequestsForTheSameText() throws Exception {
+        service = service(16, Duration.ofMillis(5), Duration.ofSeconds(5));
+        model.holdCalls();
+
+        List<CompletableFuture<Embedding>> futures = new ArrayList<>();
+        futures.add(service.embedAsync("Kablosuz Kulaklık"));
+        futures.add(service.embedAsync("  KABLOSUZ   kulaklık "));
+        futures.add(service.embedAsync("kablosuz kulaklık"));
+        model.release();
+
+        Embedding first = futures.get(0).get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<Embedding> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS).toFloatArray()).containsExactly(first.toFloatArray());
+        }
+        assertThat(model.calls).singleElement().isEqualTo(List.of("kablosuz kulaklık"));
+        assertThat(requests("coalesced")).isEqualTo(2);
+    }
+
+    @Test
+    void microBatchesMissesIntoOneModelCall() {
+        service = service(16, Duration.ofMillis(200), Duration.ofSeconds(5));
+
+        List<CompletableFuture<Embedding>> futures = IntStream.range(0, 10)
+                .mapToObj(i -> service.embedAsync("ürün " + i))
+                .toList();
+        futures.forEach(CompletableFuture::join);
+
+        assertThat(model.calls).hasSize(1);
+        assertThat(model.calls.get(0)).hasSize(10);
+        assertThat(meterRegistry.get("embedding.model.batch-size").summary().max()).isEqualTo(10);
+    }
+
+    @Test
+    void splitsBatchesAtTheConfiguredSize() {
+        service = service(4, Duration.ofMillis(200), Duration.ofSeconds(5));
+
+        List<Embedding> embeddings = service.embedAll(IntStream.range(0, 10).mapToObj(i -> "ürün " + i).toList());
+
+        assertThat(embeddings).hasSize(10);
+        assertThat(model.calls).extracting(List::size).containsExactly(4, 4, 2);
+    }
+
+    @Test
+    void servesRepeatsFromMemoryAndTheSharedStore() throws NoSuchAlgorithmException {
+        Embedding stored = Embedding.of(new float[]{0.6f, 0.8f});
+        service = service(16, Duration.ofMillis(5), Duration.ofSeconds(5));
+        Embedding computed = service.embed("telefon kılıfı");
+        store.putAll(Map.of(keyOf("şarj kablosu"), stored));
+
+        assertThat(service.embed("Telefon  Kılıfı").toFloatArray()).containsExactly(computed.toFloatArray());
+        assertThat(service.embed("şarj kablosu").toFloatArray()).containsExactly(stored.toFloatArray());
+        assertThat(model.calls).hasSize(1);
+        assertThat(requests("memory")).isEqualTo(1);
+        assertThat(requests("store")).isEqualTo(1);
+        // Computed embeddings reach the shared store just after their callers are answered
+        await().atMost(Duration.ofSeconds(5)).until(() -> store.entries.containsKey(keyOf("telefon kılıfı")));
+    }
+
+    @Test
+    void startsAFreshComputationOnceAWaiterTimesOut() throws Exception {
+        service = service(16, Duration.ofMillis(5), Duration.ofMillis(100));
+        model.holdCalls();
+
+        assertThatThrownBy(() -> service.embed("oyun faresi"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("timed out");
+        CompletableFuture<Embedding> retry = service.embedAsync("oyun faresi");
+        model.release();
+
+        assertThat(retry.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(requests("coalesced")).isZero();
+        assertThat(model.calls).hasSize(2);
+    }
+
+    @Test
+    void rejectsBlankText() {
+        service = service(16, Duration.ofMillis(5), Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> service.embed(" \t ")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private EmbeddingService service(int batchSize, Duration maxBatchDelay, Duration timeout) {
+        return new EmbeddingService(model, store, settings(batchSize, maxBatchDelay, timeout), meterRegistry);
+    }
+
+    private static EmbeddingServiceSettings settings(int batchSize, Duration maxBatchDelay, Duration timeout) {
+        return EmbeddingServiceSettings.builder()
+                .namespace("test-model")
+                .maxEntries(1000)
+                .batchSize(batchSize)
+                .maxBatchDelay(maxBatchDelay)
+                .timeout(timeout)
+                .build();
+    }
+
+    /**
+     * Store key of a text: SHA-256 of the namespace, a newline and the normalized text
+     */
+    private static String keyOf(String text) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update("test-model\n".getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest(EmbeddingService.normalize(text).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private double requests(String source) {
+        return meterRegistry.get("embedding.requests").tag("source", source).counter().count();
+    }
+
+    /**
+     * Deterministic model that records the texts of every call and can hold calls until released
+     */
+    private static final class RecordingModel extends DeterministicEmbeddingModel {
+
+        private final List<List<String>> calls = new CopyOnWriteArrayList<>();
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        private RecordingModel() {
+            super(32);
+        }
+
+        void holdCalls() {
+            gate = new CountDownLatch(1);
+        }
+
+        void release() {
+            gate.countDown();
+        }
+
+        @Override
+        public EmbeddingResponse call(EmbeddingRequest request) {
+            calls.add(List.copyOf(request.getInstructions()));
+            try {
+                gate.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.call(request);
+        }
+    }
+
+    private static final class MapStore implements EmbeddingStore {
+
+        private final Map<String, Embedding> entries = new ConcurrentHashMap<>();
+
+        @Override
+        public Map<String, Embedding> getAll(Collection<String> keys) {
+            Map<String, Embedding> found = new ConcurrentHashMap<>();
+            keys.forEach(key -> {
+                Embedding embedding = entries.get(key);
+                if (embedding != null) {
+                    found.put(key, embedding);
+                }
+            });
+            return found;
+        }
+
+        @Override
+        public void putAll(Map<String, Embedding> embeddings) {
+            entries.putAll(embeddings);
+        }
+    }
+}
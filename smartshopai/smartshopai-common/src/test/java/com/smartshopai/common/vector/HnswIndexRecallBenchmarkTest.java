@@ -0,0 +1,119 @@
+package com.smartshopai.common.vector;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recall and latency of the approximate search, measured against the exact scan on clustered vectors.
+ * The catalogue size and query count can be raised with -Dbenchmark.hnsw.size and -Dbenchmark.hnsw.queries.
+ */
+class HnswIndexRecallBenchmarkTest {
+
+    private static final int SIZE = Integer.getInteger("benchmark.hnsw.size", 20_000);
+    private static final int QUERIES = Integer.getInteger("benchmark.hnsw.queries", 200);
+    private static final int DIMENSION = 64;
+    private static final int CLUSTERS = 200;
+    private static final int K = 10;
+    private static final int EF_SEARCH = 64;
+
+    private static final SplittableRandom RANDOM = new SplittableRandom(7);
+    private static HnswIndex index;
+    private static List<float[]> vectors;
+
+    @BeforeAll
+    static void buildIndex() {
+        float[][] centers = new float[CLUSTERS][];
+        for (int c = 0; c < CLUSTERS; c++) {
+            centers[c] = gaussian(1.0f, null);
+        }
+        index = new HnswIndex(DIMENSION, 16, 200);
+        vectors = new ArrayList<>(SIZE);
+        long start = System.nanoTime();
+        for (int i = 0; i < SIZE; i++) {
+            float[] vector = gaussian(0.35f, centers[RANDOM.nextInt(CLUSTERS)]);
+            vectors.add(vector);
+            index.add("p" + i, vector);
+        }
+        System.out.printf("HNSW build: %d vectors of %d dimensions in %d ms%n",
+                SIZE, DIMENSION, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Test
+    void approximateSearchKeepsRecallAndBeatsTheExactScan() {
+        long[] approximateNanos = new long[QUERIES];
+        long[] exactNanos = new long[QUERIES];
+        double recall = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            float[] query = gaussian(0.35f, vectors.get(RANDOM.nextInt(SIZE)));
+
+            long start = System.nanoTime();
+            List<HnswIndex.Match> approximate = index.search(query, K, EF_SEARCH);
+            approximateNanos[q] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<HnswIndex.Match> exact = index.exactSearch(query, K);
+            exactNanos[q] = System.nanoTime() - start;
+
+            Set<String> expected = keys(exact);
+            recall += approximate.stream().filter(match -> expected.contains(match.key())).count() / (double) K;
+        }
+        recall /= QUERIES;
+        System.out.printf("HNSW recall@%d %.3f at ef %d; p50/p99 approximate %d/%d us, exact %d/%d us%n",
+                K, recall, EF_SEARCH, percentile(approximateNanos, 50), percentile(approximateNanos, 99),
+                percentile(exactNanos, 50), percentile(exactNanos, 99));
+
+        assertThat(recall).isGreaterThanOrEqualTo(0.9);
+        assertThat(percentile(approximateNanos, 50)).isLessThan(percentile(exactNanos, 50));
+    }
+
+    @Test
+    void exactSearchOverCandidatesMatchesTheFullScanRestrictedToThem() {
+        float[] query = vectors.get(0);
+        List<String> candidates = new ArrayList<>();
+        for (int i = 0; i < SIZE; i += 7) {
+            candidates.add("p" + i);
+        }
+        Set<String> allowed = new HashSet<>(candidates);
+
+        List<HnswIndex.Match> restricted = index.exactSearch(query, K, candidates);
+        List<HnswIndex.Match> full = index.exactSearch(query, SIZE).stream()
+                .filter(match -> allowed.contains(match.key()))
+                .limit(K)
+                .toList();
+
+        assertThat(keys(restricted)).isEqualTo(keys(full));
+        assertThat(restricted.get(0).key()).isEqualTo("p0");
+    }
+
+    private static float[] gaussian(float scale, float[] around) {
+        float[] vector = new float[DIMENSION];
+        for (int d = 0; d < DIMENSION; d++) {
+            double u = 1.0 - RANDOM.nextDouble();
+            double v = RANDOM.nextDouble();
+            float noise = (float) (Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v)) * scale;
+            vector[d] = (around == null ? 0 : around[d]) + noise;
+        }
+        return vector;
+    }
+
+    private static Set<String> keys(List<HnswIndex.Match> matches) {
+        Set<String> keys = new HashSet<>();
+        matches.forEach(match -> keys.add(match.key()));
+        return keys;
+    }
+
+    private static long percentile(long[] nanos, int percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)] / 1_000;
+    }
+}
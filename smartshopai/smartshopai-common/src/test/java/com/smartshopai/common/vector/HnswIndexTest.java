@@ -0,0 +1,74 @@
+package com.smartshopai.common.vector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HnswIndexTest {
+
+    private static final int DIMENSION = 8;
+
+    private final SplittableRandom random = new SplittableRandom(3);
+
+    @Test
+    void leavesCompactionToTheOwnerWhenAskedTo() {
+        HnswIndex index = new HnswIndex(DIMENSION, 4, 16, false);
+        for (int i = 0; i < 100; i++) {
+            index.add("p" + i, vector());
+        }
+        for (int i = 0; i < 50; i++) {
+            index.remove("p" + i);
+        }
+
+        assertThat(index.size()).isEqualTo(50);
+        assertThat(index.needsCompaction()).isTrue();
+    }
+
+    @Test
+    void compactedCopyKeepsOnlyTheLiveKeysAndLeavesTheOriginalSearchable() {
+        HnswIndex index = new HnswIndex(DIMENSION, 4, 16, false);
+        float[] kept = vector();
+        index.add("kept", kept);
+        for (int i = 0; i < 40; i++) {
+            index.add("p" + i, vector());
+        }
+        for (int i = 0; i < 20; i++) {
+            index.remove("p" + i);
+        }
+        index.add("kept", kept);
+
+        HnswIndex compacted = index.compacted();
+
+        assertThat(compacted.size()).isEqualTo(21);
+        assertThat(compacted.needsCompaction()).isFalse();
+        assertThat(compacted.exactSearch(kept, 1).getFirst().key()).isEqualTo("kept");
+        assertThat(compacted.search(kept, 1, 16).getFirst().key()).isEqualTo("kept");
+        assertThat(compacted.exactSearch(kept, 100)).noneMatch(match -> match.key().equals("p0"));
+        assertThat(index.search(kept, 1, 16).getFirst().key()).isEqualTo("kept");
+        assertThat(index.needsCompaction()).isTrue();
+    }
+
+    @Test
+    void compactsInsideTheUpdateByDefault() {
+        HnswIndex index = new HnswIndex(DIMENSION, 4, 16);
+        for (int i = 0; i < 100; i++) {
+            index.add("p" + i, vector());
+        }
+        for (int i = 0; i < 50; i++) {
+            index.remove("p" + i);
+        }
+
+        assertThat(index.needsCompaction()).isFalse();
+        assertThat(index.size()).isEqualTo(50);
+    }
+
+    private float[] vector() {
+        float[] vector = new float[DIMENSION];
+        for (int d = 0; d < DIMENSION; d++) {
+            vector[d] = (float) random.nextDouble(-1, 1);
+        }
+        return vector;
+    }
+}
@@ -3,13 +3,15 @@ package com.smartshopai.product;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for Product Service
- * Spring Boot application with MongoDB auditing
+ * Spring Boot application with MongoDB auditing and scheduled background jobs
  */
 @SpringBootApplication
 @EnableMongoAuditing
+@EnableScheduling
 public class ProductServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,68 @@
+package com.smartshopai.product.application.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One row of a bulk product ingest; rows are upserted on productId, then ean, then url
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProductIngestRow {
+
+    private String productId;
+    private String ean;
+    private String url;
+
+    @NotBlank(message = "Product name is required")
+    private String name;
+
+    private String description;
+    private String brand;
+    private String category;
+    private String subcategory;
+
+    @NotNull(message = "Price is required")
+    @Positive(message = "Price must be positive")
+    private BigDecimal price;
+
+    private BigDecimal originalPrice;
+    private String currency;
+
+    private String imageUrl;
+    private List<String> imageUrls;
+
+    private Map<String, Object> specifications;
+    private List<String> features;
+    private List<String> tags;
+
+    private Boolean inStock;
+    @Positive(message = "Stock quantity must be positive")
+    private Integer stockQuantity;
+    private String warranty;
+
+    @JsonIgnore
+    @AssertTrue(message = "One of productId, ean or url is required")
+    public boolean isIdentified() {
+        return !isBlank(productId) || !isBlank(ean) || !isBlank(url);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
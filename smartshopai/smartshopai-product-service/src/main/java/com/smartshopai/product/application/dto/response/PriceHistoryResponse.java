@@ -0,0 +1,25 @@
+package com.smartshopai.product.application.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Response DTO for a single price history point
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceHistoryResponse {
+
+    private BigDecimal price;
+    private String currency;
+    private LocalDateTime timestamp;
+    private String vendor;
+    private String source;
+}
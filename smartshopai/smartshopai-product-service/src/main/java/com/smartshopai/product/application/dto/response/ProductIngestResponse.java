@@ -0,0 +1,39 @@
+package com.smartshopai.product.application.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO summarizing a bulk product ingest
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductIngestResponse {
+
+    private long totalRows;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private long durationMs;
+    /**
+     * Per-row failures, capped; errorsTruncated is set when more rows failed than are listed
+     */
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String key;
+        private String message;
+    }
+}
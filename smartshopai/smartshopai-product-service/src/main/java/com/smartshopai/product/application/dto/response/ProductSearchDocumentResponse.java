@@ -0,0 +1,29 @@
+package com.smartshopai.product.application.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Response DTO for the fields a search index needs from a product
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchDocumentResponse {
+
+    private String id;
+    private String name;
+    private String description;
+    private List<String> tags;
+    private String brand;
+    private String category;
+    private BigDecimal price;
+    private Double rating;
+    private boolean inStock;
+}
@@ -0,0 +1,32 @@
+package com.smartshopai.product.application.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Response DTO for a product listing card; a subset of {@link ProductResponse}
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummaryResponse {
+
+    private String id;
+    private String name;
+    private String brand;
+    private String category;
+    private BigDecimal price;
+    private BigDecimal originalPrice;
+    private Integer discountPercentage;
+    private String currency;
+    private String imageUrl;
+    private Double averageRating;
+    private Integer totalReviews;
+    private boolean inStock;
+    private boolean featured;
+}
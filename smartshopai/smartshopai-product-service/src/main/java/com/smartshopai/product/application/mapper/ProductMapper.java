@@ -1,10 +1,15 @@
 package com.smartshopai.product.application.mapper;
 
 import com.smartshopai.product.application.dto.request.CreateProductRequest;
+import com.smartshopai.product.application.dto.request.ProductIngestRow;
+import com.smartshopai.product.application.dto.response.PriceHistoryResponse;
 import com.smartshopai.product.application.dto.response.ProductAnalysisResponse;
 import com.smartshopai.product.application.dto.response.ProductComparisonResponse;
 import com.smartshopai.product.application.dto.response.ProductResponse;
+import com.smartshopai.product.application.dto.response.ProductSearchDocumentResponse;
+import com.smartshopai.product.application.dto.response.ProductSummaryResponse;
 import com.smartshopai.product.application.dto.response.ReviewResponse;
+import com.smartshopai.product.domain.entity.PriceHistory;
 import com.smartshopai.product.domain.entity.Product;
 import com.smartshopai.product.domain.entity.ProductAnalysis;
 import com.smartshopai.product.domain.entity.ProductComparison;
@@ -42,6 +47,17 @@ public interface ProductMapper {
     @Mapping(target = "technicalDetails", ignore = true)
     Product toEntity(CreateProductRequest request);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "images", source = "imageUrls")
+    @Mapping(target = "mainImage", source = "imageUrl")
+    @Mapping(target = "features", expression = "java(convertFeaturesToMap(row.getFeatures()))")
+    // Only a row that states its stock sets it; the upsert defaults new products to in stock
+    @Mapping(target = "inStock", ignore = true)
+    @Mapping(target = "stockStatus", expression = "java(row.getInStock() == null ? null : row.getInStock() ? \"IN_STOCK\" : \"OUT_OF_STOCK\")")
+    // Left unset so re-importing a scraped or manually created product keeps its source
+    @Mapping(target = "source", ignore = true)
+    Product toEntity(ProductIngestRow row);
+
     @Mapping(target = "analysis", source = "analytics")
     @Mapping(target = "imageUrl", source = "mainImage")
     @Mapping(target = "imageUrls", source = "images")
@@ -67,6 +83,15 @@ public interface ProductMapper {
 
     List<ProductResponse> toResponseList(List<Product> products);
 
+    @Mapping(target = "imageUrl", source = "mainImage")
+    @Mapping(target = "averageRating", source = "rating")
+    @Mapping(target = "totalReviews", source = "reviewCount")
+    ProductSummaryResponse toSummaryResponse(Product product);
+
+    List<ProductSummaryResponse> toSummaryResponseList(List<Product> products);
+
+    List<ProductSearchDocumentResponse> toSearchDocumentResponseList(List<Product> products);
+
     ProductAnalysisResponse toAnalysisResponse(ProductAnalysis analysis);
 
     @Mapping(target = "isBetterAlternative", constant = "false")
@@ -76,6 +101,8 @@ public interface ProductMapper {
 
     List<ReviewResponse> toReviewResponseList(List<Review> reviews);
 
+    List<PriceHistoryResponse> toPriceHistoryResponseList(List<PriceHistory> priceHistories);
+
     // Helper methods for type conversion
     default java.util.Map<String, Object> convertFeaturesToMap(List<String> features) {
         if (features == null) return null;
@@ -1,25 +1,42 @@
 package com.smartshopai.product.application.service;
 
+import com.smartshopai.common.dto.SearchResponse;
+import com.smartshopai.common.embedding.Embedding;
 import com.smartshopai.product.application.dto.request.CreateProductRequest;
 import com.smartshopai.product.application.dto.request.ProductAnalysisRequest;
 import com.smartshopai.product.application.dto.request.ProductComparisonRequest;
 import com.smartshopai.product.application.dto.request.ProductSearchRequest;
+import com.smartshopai.product.application.dto.response.CursorPageResponse;
+import com.smartshopai.product.application.dto.response.PriceHistoryResponse;
 import com.smartshopai.product.application.dto.response.ProductAnalysisResponse;
 import com.smartshopai.product.application.dto.response.ProductComparisonResponse;
 import com.smartshopai.product.application.dto.response.ProductResponse;
+import com.smartshopai.product.application.dto.response.ProductSearchDocumentResponse;
+import com.smartshopai.product.application.dto.response.ProductSummaryResponse;
 import com.smartshopai.product.application.mapper.ProductMapper;
 import com.smartshopai.product.domain.entity.Product;
+import com.smartshopai.product.domain.service.ProductListingFilter;
+import com.smartshopai.product.domain.service.ProductRankingService;
 import com.smartshopai.product.domain.service.ProductService;
 import com.smartshopai.product.infrastructure.client.AnalysisServiceClient;
+import com.smartshopai.product.infrastructure.ranking.TrendingWindow;
+import feign.FeignException;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -30,7 +47,10 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProductApplicationService {
 
+    private static final int SIMILAR_PRODUCTS_LIMIT = 5;
+
     private final ProductService productService;
+    private final ProductRankingService productRankingService;
     private final ProductMapper productMapper;
     private final AnalysisServiceClient analysisServiceClient;
     // TODO: Add ChatModel when Spring AI is available
@@ -47,16 +67,77 @@ public class ProductApplicationService {
 
     public Optional<ProductResponse> getProductById(String productId) {
         log.debug("Getting product by ID: {}", productId);
-        productService.incrementViewCount(productId); // Increment view count on each fetch
         Product product = productService.getProductById(productId);
+        productService.incrementViewCount(productId); // Buffered; flushed to MongoDB in the background
+        productRankingService.recordView(productId);
         return Optional.ofNullable(productMapper.toResponse(product));
     }
 
-    public List<ProductResponse> getAllProducts() {
-        log.debug("Getting all products");
-        
-        List<Product> products = productService.getAllProducts();
-        return productMapper.toResponseList(products);
+    /**
+     * One page of listing cards matching the filter
+     *
+     * @param cursor nextCursor from the previous page, or null for the first page
+     */
+    public CursorPageResponse<ProductSummaryResponse> listProducts(ProductListingFilter filter, String cursor, Integer size) {
+        log.debug("Listing products with filter: {}, cursor: {}", filter, cursor);
+
+        return toCursorPage(productService.getProductListing(filter, decodeCursor(cursor), size));
+    }
+
+    /**
+     * Featured listing cards; the first page is served from the materialized featured list
+     */
+    public CursorPageResponse<ProductSummaryResponse> getFeaturedProducts(String cursor, Integer size) {
+        if (cursor == null && size != null && size > 0) {
+            Slice<Product> firstPage = productRankingService.getFeaturedFirstPage(size);
+            if (firstPage != null) {
+                return toCursorPage(firstPage);
+            }
+        }
+        return listProducts(ProductListingFilter.builder().featured(true).build(), cursor, size);
+    }
+
+    /**
+     * Search-index documents for every product, in cursor pages of up to 1000
+     */
+    public CursorPageResponse<ProductSearchDocumentResponse> listSearchDocuments(String cursor, Integer size) {
+        return toCursorPage(productService.getSearchDocuments(decodeCursor(cursor), size),
+                productMapper::toSearchDocumentResponseList);
+    }
+
+    private CursorPageResponse<ProductSummaryResponse> toCursorPage(Slice<Product> products) {
+        return toCursorPage(products, productMapper::toSummaryResponseList);
+    }
+
+    private <T> CursorPageResponse<T> toCursorPage(Slice<Product> products, Function<List<Product>, List<T>> mapper) {
+        List<Product> content = products.getContent();
+        String nextCursor = products.hasNext() ? encodeCursor(content.get(content.size() - 1).getId()) : null;
+        return CursorPageResponse.<T>builder()
+                .content(mapper.apply(content))
+                .size(content.size())
+                .nextCursor(nextCursor)
+                .hasNext(products.hasNext())
+                .build();
+    }
+
+    private static String encodeCursor(String lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String lastId;
+        try {
+            lastId = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            lastId = null;
+        }
+        if (lastId == null || !ObjectId.isValid(lastId)) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return lastId;
     }
 
     public ProductResponse updateProduct(String productId, CreateProductRequest request) {
@@ -69,15 +150,21 @@ public class ProductApplicationService {
         return productMapper.toResponse(updatedProduct);
     }
 
+    public List<PriceHistoryResponse> getPriceHistory(String productId, LocalDateTime from, LocalDateTime to) {
+        log.debug("Getting price history for product: {}", productId);
+        return productMapper.toPriceHistoryResponseList(productService.getPriceHistory(productId, from, to));
+    }
+
     public void deleteProduct(String productId) {
         log.info("Deleting product: {}", productId);
         productService.deleteProduct(productId);
     }
 
-    public List<ProductResponse> searchProducts(ProductSearchRequest request) {
+    public SearchResponse<ProductResponse> searchProducts(ProductSearchRequest request) {
         log.debug("Searching products with query: {}", request.getQuery());
         
-        List<Product> products = productService.searchProducts(
+        long startTime = System.currentTimeMillis();
+        Page<Product> products = productService.searchProducts(
             request.getQuery(),
             request.getCategory(),
             request.getBrand(),
@@ -89,7 +176,15 @@ public class ProductApplicationService {
             request.getSize()
         );
         
-        return productMapper.toResponseList(products);
+        return SearchResponse.<ProductResponse>builder()
+                .results(productMapper.toResponseList(products.getContent()))
+                .totalResults(products.getTotalElements())
+                .page(products.getNumber())
+                .size(products.getSize())
+                .totalPages(products.getTotalPages())
+                .query(request.getQuery())
+                .executionTimeMs(System.currentTimeMillis() - startTime)
+                .build();
     }
 
     public ProductAnalysisResponse analyzeProduct(ProductAnalysisRequest request) {
@@ -152,54 +247,34 @@ public class ProductApplicationService {
                 .build();
     }
 
-    public List<ProductResponse> getProductsByCategory(String category) {
-        log.debug("Getting products by category: {}", category);
-        
-        List<Product> products = productService.getProductsByCategory(category);
-        return productMapper.toResponseList(products);
-    }
-
-    public List<ProductResponse> getProductsByBrand(String brand) {
-        log.debug("Getting products by brand: {}", brand);
+    public List<ProductSummaryResponse> getTrendingProducts(String window, Integer limit) {
+        log.debug("Getting trending products for window: {}", window);
         
-        List<Product> products = productService.getProductsByBrand(brand);
-        return productMapper.toResponseList(products);
-    }
-
-    public List<ProductResponse> getTrendingProducts() {
-        log.debug("Getting trending products");
-        
-        List<Product> products = productService.getTrendingProducts();
-        return productMapper.toResponseList(products);
-    }
-
-    public List<ProductResponse> getFeaturedProducts() {
-        log.debug("Getting featured products");
-        
-        List<Product> products = productService.getFeaturedProducts();
-        return productMapper.toResponseList(products);
+        List<Product> products = productRankingService.getTrending(TrendingWindow.from(window), limit != null ? limit : 10);
+        return productMapper.toSummaryResponseList(products);
     }
 
     public void setFeaturedStatus(String productId, boolean isFeatured) {
         log.info("Setting featured status for product {}: {}", productId, isFeatured);
-        productService.setFeaturedStatus(productId, isFeatured);
+        productRankingService.setFeaturedStatus(productId, isFeatured);
     }
 
     public List<ProductResponse> getSimilarProducts(String productId) {
         log.debug("Getting similar products for: {}", productId);
         Product product = productService.getProductById(productId);
 
-        if (product.getAnalytics() == null) {
-            log.warn("Product {} has no analytics to find similar products.", productId);
+        Optional<Embedding> embedding = analysisEmbedding(product);
+        if (embedding.isEmpty()) {
+            log.debug("No analysis embedding available for product {}", productId);
             return List.of();
         }
-
-        // TODO: Implement embeddings logic when analysis service is ready
-        List<Double> embeddings = List.of();
-        List<String> similarProductIds = analysisServiceClient.findSimilarProductIds(embeddings, 5); // Find top 5
-
-        // Remove the original product's ID from the similar list if it exists
-        similarProductIds.remove(productId);
+        // One extra, since the product's own analysis is usually the closest match
+        List<String> similarProductIds = analysisServiceClient.findSimilarProducts(embedding.get(), SIMILAR_PRODUCTS_LIMIT + 1).stream()
+                .map(ProductAnalysisResponse::getProductId)
+                // Remove the original product's ID from the similar list if it exists
+                .filter(id -> !productId.equals(id))
+                .limit(SIMILAR_PRODUCTS_LIMIT)
+                .toList();
 
         if (similarProductIds.isEmpty()) {
             return List.of();
@@ -208,6 +283,21 @@ public class ProductApplicationService {
         return this.getProductsByIds(similarProductIds);
     }
 
+    /**
+     * Embedding of the product's analysis: the copy embedded in the product if it carries one, else the one
+     * stored with the product's latest analysis in the analysis service
+     */
+    private Optional<Embedding> analysisEmbedding(Product product) {
+        if (product.getAnalysis() != null && product.getAnalysis().getEmbeddings() != null) {
+            return Optional.of(product.getAnalysis().getEmbeddings());
+        }
+        try {
+            return Optional.ofNullable(analysisServiceClient.getLatestEmbedding(product.getId()));
+        } catch (FeignException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+
     public List<ProductResponse> getProductAlternatives(String productId) {
         log.debug("Getting smart alternatives for product: {}", productId);
 
@@ -274,30 +364,6 @@ public class ProductApplicationService {
         return productMapper.toResponseList(products);
     }
 
-    public List<ProductResponse> getProductsByPriceRange(Double minPrice, Double maxPrice) {
-        log.debug("Getting products by price range: {} - {}", minPrice, maxPrice);
-        
-        List<Product> products = productService.getProductsByPriceRange(
-            minPrice != null ? java.math.BigDecimal.valueOf(minPrice) : null,
-            maxPrice != null ? java.math.BigDecimal.valueOf(maxPrice) : null
-        );
-        return productMapper.toResponseList(products);
-    }
-
-    public List<ProductResponse> getProductsByMinRating(Double minRating) {
-        log.debug("Getting products by minimum rating: {}", minRating);
-        
-        List<Product> products = productService.getProductsByMinRating(minRating);
-        return productMapper.toResponseList(products);
-    }
-
-    public List<ProductResponse> getInStockProducts() {
-        log.debug("Getting in-stock products");
-        
-        List<Product> products = productService.getInStockProducts();
-        return productMapper.toResponseList(products);
-    }
-
     public ProductAnalysisResponse analyzeProductWithAI(String productId) {
         log.info("Forwarding analysis request for product {} to AI service", productId);
         return analysisServiceClient.analyzeProduct(productId);
@@ -0,0 +1,140 @@
+package com.smartshopai.product.application.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartshopai.product.application.dto.request.ProductIngestRow;
+import com.smartshopai.product.application.dto.response.ProductIngestResponse;
+import com.smartshopai.product.application.mapper.ProductMapper;
+import com.smartshopai.product.domain.entity.Product;
+import com.smartshopai.product.domain.service.ProductService;
+import com.smartshopai.product.domain.service.ProductUpsertResult;
+import com.smartshopai.product.infrastructure.ingest.ProductIngestFormat;
+import com.smartshopai.product.infrastructure.ingest.ProductRowReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Application service for streaming bulk product ingest.
+ * Rows are parsed, validated and mapped one at a time and written in ordered bulk batches; the next batch
+ * is only read once the previous one is acknowledged, so a slow database slows the upload instead of
+ * buffering it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductIngestService {
+
+    private static final Set<String> LIST_COLUMNS = Set.of("imageUrls", "features", "tags");
+
+    private final ProductService productService;
+    private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${product.ingest.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${product.ingest.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public ProductIngestResponse ingest(InputStream in, ProductIngestFormat format) throws IOException {
+        long startTime = System.currentTimeMillis();
+        IngestTally tally = new IngestTally();
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+
+        try (ProductRowReader rows = new ProductRowReader(in, format, objectMapper, LIST_COLUMNS)) {
+            while (rows.hasNext()) {
+                ProductRowReader.RawRow raw = rows.next();
+                tally.totalRows++;
+                if (raw.error() != null) {
+                    tally.fail(raw.line(), null, raw.error());
+                    continue;
+                }
+                ProductIngestRow row;
+                try {
+                    row = objectMapper.convertValue(raw.fields(), ProductIngestRow.class);
+                } catch (IllegalArgumentException e) {
+                    tally.fail(raw.line(), null, "Invalid value: " + e.getMessage());
+                    continue;
+                }
+                Set<ConstraintViolation<ProductIngestRow>> violations = validator.validate(row);
+                if (!violations.isEmpty()) {
+                    tally.fail(raw.line(), key(row), violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .sorted()
+                            .collect(Collectors.joining(", ")));
+                    continue;
+                }
+                batch.add(new PendingRow(raw.line(), key(row), productMapper.toEntity(row)));
+                if (batch.size() >= batchSize) {
+                    write(batch, tally);
+                }
+            }
+        }
+        write(batch, tally);
+
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("Ingested {} rows in {} ms: {} inserted, {} updated, {} failed",
+                tally.totalRows, duration, tally.inserted, tally.updated, tally.failed);
+        return ProductIngestResponse.builder()
+                .totalRows(tally.totalRows)
+                .inserted(tally.inserted)
+                .updated(tally.updated)
+                .failed(tally.failed)
+                .durationMs(duration)
+                .errors(tally.errors)
+                .errorsTruncated(tally.failed > tally.errors.size())
+                .build();
+    }
+
+    private void write(List<PendingRow> batch, IngestTally tally) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        ProductUpsertResult result = productService.upsertProducts(batch.stream().map(PendingRow::product).toList());
+        tally.inserted += result.inserted();
+        tally.updated += result.updated();
+        for (Map.Entry<Integer, String> failure : result.failures().entrySet()) {
+            PendingRow row = batch.get(failure.getKey());
+            tally.fail(row.line(), row.key(), failure.getValue());
+        }
+        batch.clear();
+    }
+
+    private static String key(ProductIngestRow row) {
+        if (row.getProductId() != null && !row.getProductId().isBlank()) {
+            return row.getProductId();
+        }
+        return row.getEan() != null && !row.getEan().isBlank() ? row.getEan() : row.getUrl();
+    }
+
+    private record PendingRow(long line, String key, Product product) {
+    }
+
+    private final class IngestTally {
+
+        private long totalRows;
+        private long inserted;
+        private long updated;
+        private long failed;
+        private final List<ProductIngestResponse.RowError> errors = new ArrayList<>();
+
+        void fail(long line, String key, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(ProductIngestResponse.RowError.builder().line(line).key(key).message(message).build());
+            }
+        }
+    }
+}
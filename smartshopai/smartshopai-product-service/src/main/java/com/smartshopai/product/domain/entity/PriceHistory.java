@@ -6,18 +6,23 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TimeSeries;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
- * Entity for tracking product price history
+ * Entity for tracking product price history.
+ * Stored in a time-series collection bucketed by product, so range scans for one product read a few
+ * compressed buckets instead of individual documents.
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "price_histories")
+@TimeSeries(timeField = "timestamp", metaField = "productId", granularity = Granularity.HOURS)
 public class PriceHistory {
     
     @Id
@@ -0,0 +1,88 @@
+package com.smartshopai.product.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact rolling price summary embedded in a product.
+ * The full series lives in the price_histories time-series collection; the product only keeps the
+ * most recent points (oldest first) and running min, max and average.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceSummary {
+
+    private List<PricePoint> recentPrices;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private BigDecimal priceTotal;
+    private Long pointCount;
+
+    /**
+     * Fold a new price point into the summary, keeping at most maxPoints recent points
+     */
+    public void record(BigDecimal price, LocalDateTime timestamp, int maxPoints) {
+        if (recentPrices == null) {
+            recentPrices = new ArrayList<>();
+        }
+        recentPrices.add(new PricePoint(price, timestamp));
+        if (recentPrices.size() > maxPoints) {
+            recentPrices = new ArrayList<>(recentPrices.subList(recentPrices.size() - maxPoints, recentPrices.size()));
+        }
+        minPrice = minPrice == null ? price : minPrice.min(price);
+        maxPrice = maxPrice == null ? price : maxPrice.max(price);
+        priceTotal = priceTotal == null ? price : priceTotal.add(price);
+        pointCount = pointCount == null ? 1 : pointCount + 1;
+    }
+
+    public BigDecimal getAveragePrice() {
+        if (pointCount == null || pointCount == 0) {
+            return null;
+        }
+        return priceTotal.divide(BigDecimal.valueOf(pointCount), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Relative price range over the recent points, (max - min) / average; 0 when fewer than two points
+     */
+    public double getRecentVolatility() {
+        if (recentPrices == null || recentPrices.size() < 2) {
+            return 0.0;
+        }
+        BigDecimal min = null;
+        BigDecimal max = null;
+        BigDecimal total = BigDecimal.ZERO;
+        for (PricePoint point : recentPrices) {
+            min = min == null ? point.getPrice() : min.min(point.getPrice());
+            max = max == null ? point.getPrice() : max.max(point.getPrice());
+            total = total.add(point.getPrice());
+        }
+        double average = total.doubleValue() / recentPrices.size();
+        return average == 0 ? 0.0 : max.subtract(min).doubleValue() / average;
+    }
+
+    /**
+     * Most recent price, or null if nothing was recorded
+     */
+    public BigDecimal getLatestPrice() {
+        return recentPrices == null || recentPrices.isEmpty() ? null : recentPrices.get(recentPrices.size() - 1).getPrice();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PricePoint {
+        private BigDecimal price;
+        private LocalDateTime timestamp;
+    }
+}
@@ -4,7 +4,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.AccessType;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.index.TextIndexed;
@@ -12,6 +15,7 @@ import org.springframework.data.mongodb.core.index.TextIndexed;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @Data
@@ -19,14 +23,31 @@ import java.util.Map;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "products")
+@CompoundIndexes({
+    // Search filters: category, then brand, then a price range; matched case-insensitively on the lower-cased keys
+    @CompoundIndex(name = "categoryKey_brandKey_price_idx", def = "{'categoryKey': 1, 'brandKey': 1, 'price': 1}"),
+    @CompoundIndex(name = "brandKey_price_idx", def = "{'brandKey': 1, 'price': 1}"),
+    // Keyset-paginated listings walk _id within a filter
+    @CompoundIndex(name = "categoryKey_id_idx", def = "{'categoryKey': 1, '_id': 1}"),
+    @CompoundIndex(name = "brandKey_id_idx", def = "{'brandKey': 1, '_id': 1}"),
+    @CompoundIndex(name = "featured_id_idx", def = "{'featured': 1, '_id': 1}"),
+    // Price-range and minimum-rating listings filter on the field and walk _id
+    @CompoundIndex(name = "price_id_idx", def = "{'price': 1, '_id': 1}"),
+    @CompoundIndex(name = "rating_id_idx", def = "{'rating': 1, '_id': 1}")
+})
 public class Product {
     
     @Id
     private String id;
     
-    @Indexed(unique = true)
+    // Unique and sparse, so products without a merchant id do not collide on null. The index is created by
+    // ProductIdIndexInitializer, which first drops the non-sparse one older deployments still carry.
     private String productId;
     
+    // European Article Number, when the merchant provides one
+    @Indexed(unique = true, sparse = true)
+    private String ean;
+    
     @TextIndexed
     private String name;
     
@@ -37,6 +58,7 @@ public class Product {
     private String category;
     private String subcategory;
     
+    @Indexed
     private BigDecimal price;
     private String currency;
     private BigDecimal originalPrice;
@@ -55,6 +77,7 @@ public class Product {
     private Map<String, Object> features;
     private Map<String, Object> technicalDetails;
     
+    @Indexed(name = "url_idx")
     private String url;
     private String source; // AMAZON, EBAY, etc.
     private String affiliateLink;
@@ -69,7 +92,8 @@ public class Product {
     private ProductAnalysis analysis;
     
     // Additional fields for product management
-    private List<PriceHistory> priceHistories;
+    // Rolling price summary; the full series is in the price_histories time-series collection
+    private PriceSummary priceSummary;
     private Long viewCount;
     private LocalDateTime lastViewedAt;
     private boolean featured;
@@ -79,6 +103,45 @@ public class Product {
     private LocalDateTime updatedAt;
     private LocalDateTime lastPriceUpdate;
     
+    // Re-scrape scheduling and change detection
+    private String contentFingerprint;
+    @Indexed(name = "nextScrapeAt_idx")
+    private LocalDateTime nextScrapeAt;
+    private Integer scrapeIntervalMinutes;
+    @Indexed(name = "scrapeClaim_idx", sparse = true)
+    private String scrapeClaim;
+    
+    /**
+     * Lower-cased category, persisted with every write of the product so category filters ignore case
+     */
+    @AccessType(AccessType.Type.PROPERTY)
+    public String getCategoryKey() {
+        return filterKey(category);
+    }
+
+    void setCategoryKey(String categoryKey) {
+        // Derived from category; the stored value is only read by queries
+    }
+
+    /**
+     * Lower-cased brand, persisted with every write of the product so brand filters ignore case
+     */
+    @AccessType(AccessType.Type.PROPERTY)
+    public String getBrandKey() {
+        return filterKey(brand);
+    }
+
+    void setBrandKey(String brandKey) {
+        // Derived from brand; the stored value is only read by queries
+    }
+
+    /**
+     * Normalize a category or brand the way it is stored in the filter keys
+     */
+    public static String filterKey(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -1,5 +1,6 @@
 package com.smartshopai.product.domain.entity;
 
+import com.smartshopai.common.embedding.Embedding;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -24,7 +25,7 @@ public class ProductAnalysis {
     private String productId;
     private LocalDateTime analyzedAt;
     private String analysisContent;
-    private java.util.List<Double> embeddings;
+    private Embedding embeddings;
 
     // Quality assessment
     private Double qualityScore;
@@ -4,10 +4,12 @@ import com.smartshopai.product.domain.entity.PriceHistory;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface PriceHistoryRepository extends MongoRepository<PriceHistory, String> {
     List<PriceHistory> findByProductIdOrderByTimestampDesc(String productId);
     List<PriceHistory> findByProductIdAndVendorOrderByTimestampDesc(String productId, String vendor);
+    List<PriceHistory> findByProductIdAndTimestampBetweenOrderByTimestampAsc(String productId, LocalDateTime from, LocalDateTime to);
 }
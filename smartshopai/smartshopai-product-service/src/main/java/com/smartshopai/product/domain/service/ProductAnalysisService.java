@@ -1,18 +1,35 @@
 package com.smartshopai.product.domain.service;
 
+import com.smartshopai.product.domain.entity.PriceSummary;
 import com.smartshopai.product.domain.entity.Product;
 import com.smartshopai.product.domain.entity.ProductAnalysis;
 import com.smartshopai.product.domain.entity.ProductComparison;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 /**
  * Service for AI-powered product analysis
@@ -23,8 +40,105 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ProductAnalysisService {
 
+    private static final long HIGH_VIEW_COUNT = 2000;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${product.analysis.memo.max-entries:10000}")
+    private int memoMaxEntries;
+
+    @Value("${product.analysis.stage-timeout-ms:30000}")
+    private long stageTimeoutMillis;
+
+    private final ExecutorService stageExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private List<AnalysisStage> stages;
+    private Map<String, ProductAnalysis> stageMemo;
+
+    @PostConstruct
+    void initializePipeline() {
+        stageMemo = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ProductAnalysis> eldest) {
+                return size() > memoMaxEntries;
+            }
+        });
+        stages = List.of(
+                new AnalysisStage("quality",
+                        product -> List.of(nullable(product.getFeatures()), nullable(product.getRating()),
+                                nullable(product.getSpecifications()), nullable(product.getWarranty()),
+                                nullable(product.getPrice()), nullable(product.getOriginalPrice())),
+                        this::analyzeQuality,
+                        (fragment, analysis) -> {
+                            analysis.setQualityScore(fragment.getQualityScore());
+                            analysis.setQualityAssessment(fragment.getQualityAssessment());
+                            analysis.setQualityPros(fragment.getQualityPros());
+                            analysis.setQualityCons(fragment.getQualityCons());
+                        }),
+                new AnalysisStage("value",
+                        product -> List.of(nullable(product.getFeatures()), nullable(product.getPrice()),
+                                nullable(product.getOriginalPrice())),
+                        this::analyzeValueForMoney,
+                        (fragment, analysis) -> {
+                            analysis.setValueForMoneyScore(fragment.getValueForMoneyScore());
+                            analysis.setValueAssessment(fragment.getValueAssessment());
+                            analysis.setPricePerFeature(fragment.getPricePerFeature());
+                            analysis.setPriceRecommendation(fragment.getPriceRecommendation());
+                        }),
+                new AnalysisStage("technical",
+                        product -> List.of(nullable(product.getName()), nullable(product.getSpecifications()),
+                                nullable(product.getFeatures()), nullable(product.getCategory())),
+                        this::analyzeTechnicalSpecs,
+                        (fragment, analysis) -> {
+                            analysis.setTechnicalSummary(fragment.getTechnicalSummary());
+                            analysis.setTechnicalSpecs(fragment.getTechnicalSpecs());
+                            analysis.setTechnicalDetails(fragment.getTechnicalDetails());
+                            analysis.setTechnicalRecommendation(fragment.getTechnicalRecommendation());
+                        }),
+                new AnalysisStage("recommendation",
+                        product -> List.of(nullable(product.getCategory()), nullable(product.getPrice())),
+                        this::generateRecommendations,
+                        (fragment, analysis) -> {
+                            analysis.setUserRecommendation(fragment.getUserRecommendation());
+                            analysis.setTargetAudience(fragment.getTargetAudience());
+                            analysis.setUseCaseRecommendation(fragment.getUseCaseRecommendation());
+                            analysis.setAiInsights(fragment.getAiInsights());
+                            analysis.setShoppingAdvice(fragment.getShoppingAdvice());
+                            analysis.setAlternativeSuggestions(fragment.getAlternativeSuggestions());
+                        }),
+                new AnalysisStage("market",
+                        // Only the view-count threshold matters, so ordinary view traffic does not invalidate the stage
+                        product -> List.of(nullable(product.getCategory()), nullable(product.getFeatures()),
+                                nullable(product.getRating()), product.isFeatured(),
+                                product.getViewCount() != null && product.getViewCount() > HIGH_VIEW_COUNT),
+                        this::analyzeMarketPosition,
+                        (fragment, analysis) -> {
+                            analysis.setMarketPosition(fragment.getMarketPosition());
+                            analysis.setCompetitiveAdvantage(fragment.getCompetitiveAdvantage());
+                            analysis.setMarketTrend(fragment.getMarketTrend());
+                        }),
+                new AnalysisStage("price",
+                        product -> List.of(nullable(product.getPrice()), nullable(product.getOriginalPrice()),
+                                nullable(product.getPriceSummary()), java.time.Month.from(java.time.LocalDate.now())),
+                        this::analyzePrice,
+                        (fragment, analysis) -> {
+                            analysis.setPriceHistory(fragment.getPriceHistory());
+                            analysis.setPriceTrend(fragment.getPriceTrend());
+                            analysis.setPricePrediction(fragment.getPricePrediction());
+                            analysis.setDiscountRecommendation(fragment.getDiscountRecommendation());
+                        }));
+        Gauge.builder("product.analysis.memo.size", stageMemo, Map::size)
+                .description("Memoized analysis stage results")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdownPipeline() {
+        stageExecutor.shutdownNow();
+    }
+
     /**
-     * Analyze product and generate insights
+     * Analyze product and generate insights.
+     * Stages run concurrently on virtual threads; a stage whose inputs hash to a memoized result is not recomputed.
      */
     public ProductAnalysis analyzeProduct(Product product) {
         log.info("Starting AI analysis for product: {}", product.getName());
@@ -33,30 +147,66 @@ public class ProductAnalysisService {
                 .productId(product.getId())
                 .analyzedAt(LocalDateTime.now())
                 .build();
-        
-        // Quality assessment
-        analyzeQuality(product, analysis);
-        
-        // Value for money analysis
-        analyzeValueForMoney(product, analysis);
-        
-        // Technical analysis
-        analyzeTechnicalSpecs(product, analysis);
-        
-        // Generate recommendations
-        generateRecommendations(product, analysis);
-        
-        // Market analysis
-        analyzeMarketPosition(product, analysis);
-        
-        // Price analysis
-        analyzePrice(product, analysis);
+
+        List<Future<ProductAnalysis>> fragments = new ArrayList<>(stages.size());
+        for (AnalysisStage stage : stages) {
+            fragments.add(stageExecutor.submit(() -> runStage(stage, product)));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(stageTimeoutMillis);
+        for (int i = 0; i < stages.size(); i++) {
+            AnalysisStage stage = stages.get(i);
+            try {
+                stage.merge().accept(fragments.get(i).get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS), analysis);
+            } catch (ExecutionException e) {
+                fragments.forEach(fragment -> fragment.cancel(true));
+                throw new RuntimeException("Analysis stage " + stage.name() + " failed", e.getCause());
+            } catch (TimeoutException e) {
+                fragments.forEach(fragment -> fragment.cancel(true));
+                throw new RuntimeException("Analysis stage " + stage.name() + " timed out", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fragments.forEach(fragment -> fragment.cancel(true));
+                throw new RuntimeException("Interrupted during product analysis", e);
+            }
+        }
         
         analysis.setAnalysisCompleted(true);
         
         log.info("AI analysis completed for product: {}", product.getName());
         return analysis;
     }
+
+    private ProductAnalysis runStage(AnalysisStage stage, Product product) {
+        String key = stage.name() + ':' + ProductFingerprint.sha256(stage.inputs().apply(product).toString());
+        ProductAnalysis memoized = stageMemo.get(key);
+        if (memoized != null) {
+            meterRegistry.counter("product.analysis.stage", "stage", stage.name(), "result", "hit").increment();
+            return memoized;
+        }
+        meterRegistry.counter("product.analysis.stage", "stage", stage.name(), "result", "miss").increment();
+        ProductAnalysis fragment = new ProductAnalysis();
+        stage.compute().accept(product, fragment);
+        stageMemo.put(key, fragment);
+        return fragment;
+    }
+
+    private static Object nullable(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            // Stable ordering so equal maps hash equally
+            return new TreeMap<>(map);
+        }
+        return value == null ? "" : value;
+    }
+
+    /**
+     * One pipeline stage: the product fields it reads, how it computes its fragment of the analysis,
+     * and how that fragment is copied into the final result
+     */
+    private record AnalysisStage(String name,
+                                 Function<Product, List<Object>> inputs,
+                                 BiConsumer<Product, ProductAnalysis> compute,
+                                 BiConsumer<ProductAnalysis, ProductAnalysis> merge) {
+    }
     
     /**
      * Analyze product quality
@@ -313,7 +463,7 @@ public class ProductAnalysisService {
     }
 
     private String analyzeMarketTrend(Product product) {
-        if (product.getViewCount() > 2000) {
+        if (product.getViewCount() > HIGH_VIEW_COUNT) {
             return "High and increasing view counts indicate rising market interest.";
         }
         if (product.getRating() != null && product.getRating() >= 4.5) {
@@ -323,17 +473,19 @@ public class ProductAnalysisService {
     }
 
     private java.math.BigDecimal analyzePriceHistory(Product product) {
-        if (product.getPriceHistories() != null && !product.getPriceHistories().isEmpty()) {
-            // Return the most recent price in history
-            return product.getPriceHistories().get(0).getPrice();
+        PriceSummary summary = product.getPriceSummary();
+        if (summary != null && summary.getLatestPrice() != null) {
+            return summary.getLatestPrice();
         }
         return product.getPrice();
     }
 
     private String determinePriceTrend(Product product) {
-        if (product.getPriceHistories() != null && product.getPriceHistories().size() >= 2) {
-            var latest = product.getPriceHistories().get(0).getPrice();
-            var previous = product.getPriceHistories().get(1).getPrice();
+        PriceSummary summary = product.getPriceSummary();
+        if (summary != null && summary.getRecentPrices() != null && summary.getRecentPrices().size() >= 2) {
+            List<PriceSummary.PricePoint> points = summary.getRecentPrices();
+            var latest = points.get(points.size() - 1).getPrice();
+            var previous = points.get(points.size() - 2).getPrice();
             int cmp = latest.compareTo(previous);
             if (cmp < 0) return "Downward price trend";
             if (cmp > 0) return "Upward price trend";
@@ -348,17 +500,14 @@ public class ProductAnalysisService {
                 return "Price already discounted significantly; further drops unlikely soon.";
             }
         }
-        if (product.getPriceHistories() != null && product.getPriceHistories().size() >= 3) {
-            // Simple trend: compare last price with avg of previous
-            java.util.List<java.math.BigDecimal> prices = product.getPriceHistories().stream()
-                    .map(ph -> ph.getPrice())
-                    .toList();
-            java.math.BigDecimal latest = prices.get(0);
-            java.math.BigDecimal avgPrev = prices.stream().skip(1).reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add)
-                    .divide(java.math.BigDecimal.valueOf(prices.size() - 1), 2, java.math.RoundingMode.HALF_UP);
-            if (latest.compareTo(avgPrev) < 0) {
+        PriceSummary summary = product.getPriceSummary();
+        if (summary != null && summary.getPointCount() != null && summary.getPointCount() >= 3) {
+            // Simple trend: compare the latest price with the running average
+            BigDecimal latest = summary.getLatestPrice();
+            BigDecimal average = summary.getAveragePrice();
+            if (latest.compareTo(average) < 0) {
                 return "Recent downward trend suggests potential price increase back to average soon.";
-            } else if (latest.compareTo(avgPrev) > 0) {
+            } else if (latest.compareTo(average) > 0) {
                 return "Prices show an upward trend; waiting might not yield savings.";
             }
         }
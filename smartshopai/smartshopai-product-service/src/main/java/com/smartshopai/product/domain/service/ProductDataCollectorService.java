@@ -1,39 +1,58 @@
 package com.smartshopai.product.domain.service;
 
 import com.smartshopai.product.domain.entity.Product;
-import com.smartshopai.product.infrastructure.scraper.ScraperStrategy;
+import com.smartshopai.product.infrastructure.scraper.ScrapeResult;
+import com.smartshopai.product.infrastructure.scraper.ScrapingEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
-import java.util.List;
+import java.util.Collection;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProductDataCollectorService {
 
-    private final List<ScraperStrategy> scraperStrategies;
     private final ProductService productService;
+    private final ScrapingEngine scrapingEngine;
 
     public Product collectProductData(String url) {
         log.info("Attempting to collect product data from URL: {}", url);
 
-        ScraperStrategy strategy = scraperStrategies.stream()
-                .filter(s -> s.canHandle(url))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("No scraper strategy found for URL: " + url));
-
+        Product scrapedProduct;
         try {
-            Product scrapedProduct = strategy.scrape(url);
-            
-            // Check if product already exists and save/update it
-            return productService.createOrUpdateProduct(scrapedProduct);
-
-        } catch (IOException e) {
+            scrapedProduct = scrapingEngine.scrape(url);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
             log.error("Error while scraping data from URL {}: {}", url, e.getMessage());
             throw new RuntimeException("Failed to scrape product data from " + url, e);
         }
+
+        // Check if product already exists and save/update it
+        return productService.createOrUpdateProduct(scrapedProduct);
+    }
+
+    /**
+     * Scrape a batch of URLs concurrently and save every product that was scraped successfully.
+     * Results are produced as scrapes complete; products are saved on the consuming thread.
+     */
+    public Stream<ScrapeResult> collectProductData(Collection<String> urls) {
+        log.info("Collecting product data from {} URLs", urls.size());
+        return scrapingEngine.scrape(urls).map(this::save);
+    }
+
+    private ScrapeResult save(ScrapeResult result) {
+        if (!result.isSuccess()) {
+            return result;
+        }
+        try {
+            return result.withProduct(productService.createOrUpdateProduct(result.product()));
+        } catch (Exception e) {
+            log.error("Failed to save product scraped from {}", result.url(), e);
+            return ScrapeResult.failure(result.url(), "Save failed: " + e.getMessage(), result.durationMs());
+        }
     }
 }
@@ -0,0 +1,47 @@
+package com.smartshopai.product.domain.service;
+
+import com.smartshopai.product.domain.entity.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Content fingerprint of a scraped product page, used to detect pages that did not change.
+ *
+ * Only fields that every scraping tier extracts the same way go in: the normalized name, the price and the
+ * stock flag. Descriptions, images and specifications differ between the static HTML and browser tiers, so a
+ * tier fallback alone would otherwise look like a content change.
+ */
+final class ProductFingerprint {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private ProductFingerprint() {
+    }
+
+    static String of(Product product) {
+        String name = product.getName() != null
+                ? WHITESPACE.matcher(product.getName().strip()).replaceAll(" ").toLowerCase(Locale.ROOT)
+                : null;
+        String content = name + '\u0000'
+                + (product.getPrice() != null ? product.getPrice().stripTrailingZeros().toPlainString() : null) + '\u0000'
+                + product.isInStock();
+        return sha256(content);
+    }
+
+    /**
+     * Hex SHA-256 of the UTF-8 encoded content
+     */
+    static String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.smartshopai.product.domain.service;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+/**
+ * Optional predicates for product listings; null fields are not filtered on
+ */
+@Builder
+public record ProductListingFilter(String category,
+                                   String brand,
+                                   Boolean featured,
+                                   Boolean inStock,
+                                   BigDecimal minPrice,
+                                   BigDecimal maxPrice,
+                                   Double minRating) {
+}
@@ -0,0 +1,168 @@
+package com.smartshopai.product.domain.service;
+
+import com.smartshopai.product.domain.entity.Product;
+import com.smartshopai.product.infrastructure.ranking.TrendingTracker;
+import com.smartshopai.product.infrastructure.ranking.TrendingWindow;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Materialized trending and featured lists for home-page traffic.
+ *
+ * Views feed decayed scores in {@link TrendingTracker}; a periodic refresh takes the top K per window and
+ * loads their listing cards once, so reads are served from memory without touching MongoDB. The first page
+ * of featured products is materialized on the same schedule and refreshed immediately when a product is
+ * featured or unfeatured through this instance.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductRankingService {
+
+    private final ProductService productService;
+    private final TrendingTracker trendingTracker;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${product.trending.top-k:50}")
+    private int trendingTopK;
+
+    @Value("${product.trending.seed-size:1000}")
+    private int seedSize;
+
+    @Value("${product.featured.top-k:50}")
+    private int featuredTopK;
+
+    private volatile Map<TrendingWindow, List<Product>> trending = Map.of();
+    private volatile Slice<Product> featured;
+    private volatile boolean seeded;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("product.trending.tracked", trendingTracker, TrendingTracker::size)
+                .description("Products with a live trending score")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${product.trending.refresh-interval-ms:10000}")
+    public void scheduledRefresh() {
+        try {
+            if (!seeded) {
+                seed();
+            }
+            refreshTrending();
+            // Also picks up featured changes made through other instances
+            refreshFeatured();
+        } catch (Exception e) {
+            log.error("Product ranking refresh failed", e);
+        }
+    }
+
+    /**
+     * Top trending products in the window, best first, at most the materialized top K
+     */
+    public List<Product> getTrending(TrendingWindow window, int limit) {
+        List<Product> ranked = trending.getOrDefault(window, List.of());
+        return ranked.subList(0, Math.min(Math.max(limit, 0), ranked.size()));
+    }
+
+    /**
+     * First page of featured listing cards from memory, or null if the page is larger than what is materialized
+     */
+    public Slice<Product> getFeaturedFirstPage(int size) {
+        Slice<Product> snapshot = featured;
+        if (snapshot == null || size > featuredTopK) {
+            return null;
+        }
+        List<Product> content = snapshot.getContent();
+        boolean hasNext = content.size() > size || snapshot.hasNext();
+        return new SliceImpl<>(content.subList(0, Math.min(size, content.size())), PageRequest.of(0, size), hasNext);
+    }
+
+    public void recordView(String productId) {
+        trendingTracker.recordView(productId, System.currentTimeMillis());
+    }
+
+    public void setFeaturedStatus(String productId, boolean isFeatured) {
+        productService.setFeaturedStatus(productId, isFeatured);
+        refreshFeatured();
+    }
+
+    /**
+     * Recompute the top K of every window and load the cards of products not already materialized
+     */
+    public synchronized void refreshTrending() {
+        long now = System.currentTimeMillis();
+        int pruned = trendingTracker.prune(now);
+
+        Map<TrendingWindow, List<String>> rankedIds = new EnumMap<>(TrendingWindow.class);
+        Set<String> ids = new LinkedHashSet<>();
+        for (TrendingWindow window : TrendingWindow.values()) {
+            List<String> top = trendingTracker.top(window, trendingTopK, now);
+            rankedIds.put(window, top);
+            ids.addAll(top);
+        }
+
+        Map<String, Product> cards = trending.values().stream()
+                .flatMap(List::stream)
+                .filter(product -> ids.contains(product.getId()))
+                .collect(Collectors.toMap(Product::getId, Function.identity(), (first, duplicate) -> first));
+        List<String> missing = ids.stream().filter(id -> !cards.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            productService.getProductCards(missing).forEach(product -> cards.put(product.getId(), product));
+        }
+
+        Map<TrendingWindow, List<Product>> refreshed = new EnumMap<>(TrendingWindow.class);
+        rankedIds.forEach((window, top) -> refreshed.put(window, top.stream()
+                .map(cards::get)
+                .filter(Objects::nonNull)
+                .toList()));
+        trending = refreshed;
+        log.debug("Refreshed trending lists: {} products ranked, {} loaded, {} pruned", ids.size(), missing.size(), pruned);
+    }
+
+    public void refreshFeatured() {
+        featured = productService.getProductListing(ProductListingFilter.builder().featured(true).build(), null, featuredTopK);
+    }
+
+    /**
+     * Start from an estimate of each recently viewed product's view rate so trending is not empty after a restart.
+     * Lifetime counts are spread over the product's life rather than replayed as one burst of recent views.
+     */
+    private void seed() {
+        LocalDateTime since = LocalDateTime.now().minusWeeks(1);
+        List<Product> recentlyViewed = productService.getRecentlyViewedProducts(since, seedSize);
+        for (Product product : recentlyViewed) {
+            if (product.getViewCount() != null && product.getLastViewedAt() != null) {
+                LocalDateTime firstSeen = product.getCreatedAt() != null ? product.getCreatedAt() : since;
+                trendingTracker.seed(product.getId(), product.getViewCount(), epochMillis(firstSeen),
+                        epochMillis(product.getLastViewedAt()));
+            }
+        }
+        seeded = true;
+        log.info("Seeded trending scores from {} recently viewed products", recentlyViewed.size());
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
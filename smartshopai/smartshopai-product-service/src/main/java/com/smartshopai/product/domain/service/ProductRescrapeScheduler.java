@@ -0,0 +1,262 @@
+package com.smartshopai.product.domain.service;
+
+import com.smartshopai.product.domain.entity.PriceHistory;
+import com.smartshopai.product.domain.entity.PriceSummary;
+import com.smartshopai.product.domain.entity.Product;
+import com.smartshopai.product.infrastructure.scraper.ScrapeResult;
+import com.smartshopai.product.infrastructure.scraper.ScrapingEngine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.Pair;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Periodically re-scrapes products whose nextScrapeAt is due, stalest first.
+ *
+ * A batch is claimed with a single multi-update that also pushes nextScrapeAt out by the product's own
+ * interval, so concurrent instances never scrape the same product twice. Pages whose content fingerprint
+ * is unchanged only get their interval backed off; changed products are written back in full. Both go out in
+ * the same bulk, which also runs when the scrape stream fails part way. Products whose price moves a lot get
+ * shorter intervals; every scrape that finds the price unchanged stretches the interval towards the maximum.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductRescrapeScheduler {
+
+    private final MongoTemplate mongoTemplate;
+    private final ScrapingEngine scrapingEngine;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${product.rescrape.batch-size:200}")
+    private int batchSize;
+
+    @Value("${product.rescrape.write-batch-size:500}")
+    private int writeBatchSize;
+
+    @Value("${product.rescrape.min-interval-minutes:60}")
+    private int minIntervalMinutes;
+
+    @Value("${product.rescrape.max-interval-minutes:1440}")
+    private int maxIntervalMinutes;
+
+    @Value("${product.rescrape.volatility-weight:20}")
+    private double volatilityWeight;
+
+    @Value("${product.rescrape.backoff-factor:1.5}")
+    private double backoffFactor;
+
+    @Value("${product.price-history.summary-size:30}")
+    private int priceSummarySize;
+
+    private Counter unchanged;
+    private Counter changed;
+    private Counter failed;
+
+    @PostConstruct
+    void registerMetrics() {
+        unchanged = Counter.builder("product.rescrape").tag("outcome", "unchanged").register(meterRegistry);
+        changed = Counter.builder("product.rescrape").tag("outcome", "changed").register(meterRegistry);
+        failed = Counter.builder("product.rescrape").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${product.rescrape.interval-ms:60000}")
+    public void scheduledRescrape() {
+        try {
+            rescrapeDueProducts();
+        } catch (Exception e) {
+            log.error("Product re-scrape run failed", e);
+        }
+    }
+
+    /**
+     * Claim and re-scrape one batch of due products
+     *
+     * @return number of products that changed
+     */
+    public int rescrapeDueProducts() {
+        List<Product> claimed = claimDueProducts(System.currentTimeMillis());
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        log.info("Re-scraping {} due products", claimed.size());
+
+        Map<String, Product> byUrl = claimed.stream()
+                .collect(Collectors.toMap(Product::getUrl, Function.identity(), (first, duplicate) -> first));
+        List<ScrapedProduct> scraped = new ArrayList<>();
+        try (Stream<ScrapeResult> results = scrapingEngine.scrape(byUrl.keySet())) {
+            results.forEach(result -> {
+                Product stored = byUrl.get(result.url());
+                if (!result.isSuccess()) {
+                    failed.increment();
+                    return;
+                }
+                String fingerprint = ProductFingerprint.of(result.product());
+                boolean contentChanged = !fingerprint.equals(stored.getContentFingerprint());
+                (contentChanged ? changed : unchanged).increment();
+                scraped.add(new ScrapedProduct(stored, result.product(), fingerprint, contentChanged));
+            });
+        } finally {
+            // Whatever was scraped before a failure is still written and rescheduled
+            writeResults(scraped);
+        }
+
+        long changes = scraped.stream().filter(ScrapedProduct::contentChanged).count();
+        log.info("Re-scrape finished: {} changed, {} unchanged, {} failed",
+                changes, scraped.size() - changes, claimed.size() - scraped.size());
+        return (int) changes;
+    }
+
+    /**
+     * Atomically mark up to batchSize due products with a claim token and schedule their next scrape
+     */
+    private List<Product> claimDueProducts(long nowMillis) {
+        LocalDateTime now = LocalDateTime.ofInstant(Instant.ofEpochMilli(nowMillis), ZoneId.systemDefault());
+        // Products without a URL cannot be scraped, so they are never claimed or rescheduled
+        Criteria due = new Criteria().andOperator(
+                Criteria.where("url").nin(null, ""),
+                new Criteria().orOperator(
+                        Criteria.where("nextScrapeAt").lte(now),
+                        Criteria.where("nextScrapeAt").is(null)));
+
+        Query candidates = Query.query(due)
+                .with(Sort.by(Sort.Direction.ASC, "nextScrapeAt"))
+                .limit(batchSize);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, Product.class).stream().map(Product::getId).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String claim = UUID.randomUUID().toString();
+        AggregationUpdate schedule = AggregationUpdate.update()
+                .set("scrapeClaim").toValue(claim)
+                .set("nextScrapeAt").toValue(ConvertOperators.ToDate.toDate(
+                        ArithmeticOperators.Add.valueOf(
+                                        ArithmeticOperators.Multiply.valueOf(
+                                                        ConditionalOperators.ifNull("scrapeIntervalMinutes").then(maxIntervalMinutes))
+                                                .multiplyBy(60_000))
+                                .add(nowMillis)));
+        // Re-checking the due condition keeps products claimed by another instance in the meantime out
+        mongoTemplate.updateMulti(Query.query(new Criteria().andOperator(Criteria.where("_id").in(ids), due)),
+                schedule, Product.class);
+
+        Query claimedQuery = Query.query(Criteria.where("scrapeClaim").is(claim));
+        claimedQuery.fields().include("url", "price", "currency", "contentFingerprint", "priceSummary",
+                "scrapeIntervalMinutes");
+        return mongoTemplate.find(claimedQuery, Product.class);
+    }
+
+    private void writeResults(List<ScrapedProduct> results) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PriceHistory> pricePoints = new ArrayList<>();
+        List<Pair<Query, UpdateDefinition>> updates = new ArrayList<>();
+        for (ScrapedProduct result : results) {
+            Update update = update(result, now, pricePoints);
+            if (update != null) {
+                updates.add(Pair.of(Query.query(Criteria.where("_id").is(result.stored().getId())), update));
+            }
+        }
+        for (int from = 0; from < updates.size(); from += writeBatchSize) {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)
+                    .updateOne(updates.subList(from, Math.min(from + writeBatchSize, updates.size())))
+                    .execute();
+        }
+        if (!pricePoints.isEmpty()) {
+            mongoTemplate.insertAll(pricePoints);
+        }
+    }
+
+    /**
+     * @return the write for one successful scrape, or null if nothing about the product changed
+     */
+    private Update update(ScrapedProduct result, LocalDateTime now, List<PriceHistory> pricePoints) {
+        Product stored = result.stored();
+        Product scraped = result.scraped();
+        Update update = new Update();
+        if (result.contentChanged()) {
+            update.set("name", scraped.getName())
+                    .set("description", scraped.getDescription())
+                    .set("mainImage", scraped.getMainImage())
+                    .set("specifications", scraped.getSpecifications())
+                    .set("contentFingerprint", result.fingerprint())
+                    .set("updatedAt", now);
+        }
+
+        int interval;
+        if (scraped.getPrice() != null
+                && (stored.getPrice() == null || scraped.getPrice().compareTo(stored.getPrice()) != 0)) {
+            log.info("Price changed for product {}. Old: {}, New: {}", stored.getId(), stored.getPrice(), scraped.getPrice());
+            stored.setPrice(scraped.getPrice());
+            if (stored.getPriceSummary() == null) {
+                stored.setPriceSummary(new PriceSummary());
+            }
+            stored.getPriceSummary().record(scraped.getPrice(), now, priceSummarySize);
+            update.set("price", scraped.getPrice())
+                    .set("priceSummary", stored.getPriceSummary())
+                    .set("lastPriceUpdate", now);
+            pricePoints.add(ProductService.priceHistoryPoint(stored,
+                    scraped.getCurrency() != null ? scraped.getCurrency() : stored.getCurrency(), now));
+            interval = intervalFor(stored.getPriceSummary());
+        } else {
+            interval = backedOffInterval(stored);
+        }
+
+        Integer current = stored.getScrapeIntervalMinutes();
+        if (current == null || current != interval) {
+            update.set("scrapeIntervalMinutes", interval)
+                    .set("nextScrapeAt", now.plusMinutes(interval));
+        }
+        return update.getUpdateObject().isEmpty() ? null : update;
+    }
+
+    /**
+     * Shrink the interval as recent price volatility grows, clamped to [min, max]
+     */
+    private int intervalFor(PriceSummary summary) {
+        double interval = maxIntervalMinutes / (1 + volatilityWeight * summary.getRecentVolatility());
+        return (int) Math.max(minIntervalMinutes, Math.min(maxIntervalMinutes, Math.round(interval)));
+    }
+
+    /**
+     * Stretch the interval of a product whose price did not move, never below what its volatility calls for
+     */
+    private int backedOffInterval(Product stored) {
+        int floor = stored.getPriceSummary() != null ? intervalFor(stored.getPriceSummary()) : minIntervalMinutes;
+        if (stored.getScrapeIntervalMinutes() == null) {
+            return floor;
+        }
+        long backedOff = Math.round(stored.getScrapeIntervalMinutes() * backoffFactor);
+        return (int) Math.min(maxIntervalMinutes, Math.max(floor, backedOff));
+    }
+
+    private record ScrapedProduct(Product stored, Product scraped, String fingerprint, boolean contentChanged) {
+    }
+}
@@ -1,21 +1,47 @@
 package com.smartshopai.product.domain.service;
 
 import com.smartshopai.product.domain.entity.PriceHistory;
+import com.smartshopai.product.domain.entity.PriceSummary;
 import com.smartshopai.product.domain.entity.Product;
 import com.smartshopai.product.domain.entity.ProductAnalysis;
 import com.smartshopai.product.domain.repository.PriceHistoryRepository;
 import com.smartshopai.product.domain.repository.ProductRepository;
 import com.smartshopai.product.domain.repository.ProductAnalysisRepository;
+import com.smartshopai.product.infrastructure.counter.ProductViewCounter;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.math.BigDecimal;
@@ -28,6 +54,45 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final PriceHistoryRepository priceHistoryRepository;
     private final ProductAnalysisRepository productAnalysisRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ProductViewCounter productViewCounter;
+
+    @Value("${product.price-history.summary-size:30}")
+    private int priceSummarySize;
+
+    @Value("${product.rescrape.max-interval-minutes:1440}")
+    private int maxRescrapeIntervalMinutes;
+
+    /**
+     * Fields a bulk upsert never copies from the product: ids, timestamps, counters and the price summary the
+     * service owns, and primitives that would otherwise be written on every update whether the row set them or not
+     */
+    private static final List<String> UPSERT_EXCLUDED_FIELDS = List.of("_id", "_class", "createdAt", "updatedAt",
+            "viewCount", "inStock", "featured", "trending", "priceSummary", "lastPriceUpdate");
+
+    private static final String BULK_IMPORT_SOURCE = "BULK_IMPORT";
+
+    /**
+     * Fields a whole-product update never writes: view counters are flushed concurrently as $inc/$max
+     * updates and the flags have their own targeted setters
+     */
+    private static final List<String> DOCUMENT_UPDATE_EXCLUDED_FIELDS =
+            List.of("_id", "_class", "createdAt", "viewCount", "lastViewedAt", "featured", "trending");
+
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_FEED_PAGE_SIZE = 1000;
+
+    /**
+     * Fields a listing card needs; reviews, specifications, analytics and the price summary are never loaded
+     */
+    private static final String[] LISTING_FIELDS = {
+            "name", "brand", "category", "price", "originalPrice", "discountPercentage", "currency",
+            "mainImage", "rating", "reviewCount", "inStock", "featured"
+    };
+    private static final String[] SEARCH_DOCUMENT_FIELDS = {
+            "name", "description", "tags", "brand", "category", "price", "rating", "inStock"
+    };
 
     @Transactional
     public Product createOrUpdateProduct(Product scrapedProduct) {
@@ -40,6 +105,7 @@ public class ProductService {
 
             existingProduct.setName(scrapedProduct.getName());
             existingProduct.setMainImage(scrapedProduct.getMainImage());
+            existingProduct.setContentFingerprint(ProductFingerprint.of(scrapedProduct));
             existingProduct.setUpdatedAt(LocalDateTime.now());
 
             // Check if the price has changed
@@ -49,62 +115,295 @@ public class ProductService {
                 log.info("Price changed for product {}. Old: {}, New: {}", existingProduct.getId(), existingProduct.getPrice(), scrapedProduct.getPrice());
                 existingProduct.setPrice(scrapedProduct.getPrice());
 
-                PriceHistory newPriceHistory = PriceHistory.builder()
-                        .productId(existingProduct.getId())
-                        .price(scrapedProduct.getPrice())
-                        .currency(scrapedProduct.getCurrency())
-                        .timestamp(LocalDateTime.now())
-                        .vendor("Trendyol") // This should be dynamic based on strategy
-                        .build();
-                PriceHistory savedPriceHistory = priceHistoryRepository.save(newPriceHistory);
-
-                if (existingProduct.getPriceHistories() == null) {
-                    existingProduct.setPriceHistories(new ArrayList<>());
-                }
-                existingProduct.getPriceHistories().add(savedPriceHistory);
+                recordPrice(existingProduct, scrapedProduct.getCurrency(), LocalDateTime.now());
             }
-            return productRepository.save(existingProduct);
+            return updateDocument(existingProduct);
         } else {
             // Product is new, create it
             log.info("No product found with URL: {}. Creating new product...", scrapedProduct.getUrl());
             LocalDateTime now = LocalDateTime.now();
             scrapedProduct.setCreatedAt(now);
             scrapedProduct.setUpdatedAt(now);
-            scrapedProduct.setPriceHistories(new ArrayList<>());
+            scrapedProduct.setContentFingerprint(ProductFingerprint.of(scrapedProduct));
+            scrapedProduct.setNextScrapeAt(now.plusMinutes(maxRescrapeIntervalMinutes));
+            if (scrapedProduct.getPrice() != null) {
+                scrapedProduct.setPriceSummary(new PriceSummary());
+                scrapedProduct.getPriceSummary().record(scrapedProduct.getPrice(), now, priceSummarySize);
+                scrapedProduct.setLastPriceUpdate(now);
+            }
+
+            Product savedProduct = productRepository.insert(scrapedProduct);
+            if (savedProduct.getPrice() != null) {
+                priceHistoryRepository.insert(priceHistoryPoint(savedProduct, savedProduct.getCurrency(), now));
+            }
+            return savedProduct;
+        }
+    }
+
+    /**
+     * Upsert a batch of products in one ordered bulk write.
+     * Each product is matched on productId, else ean, else url. Only fields set on the product overwrite
+     * the stored ones; stock follows stockStatus when it is given. Defaults (in stock, bulk import source)
+     * and the counters and flags owned by the service are only written on insert. A price that differs from
+     * the stored one is folded into the price summary by the update itself, as recordPrice does, and a point
+     * for it is written to the time-series store once the batch is through. A failed write is recorded and
+     * the rest of the batch is resubmitted after it.
+     */
+    public ProductUpsertResult upsertProducts(List<Product> products) {
+        LocalDateTime now = LocalDateTime.now();
+        List<UpsertKey> keys = products.stream().map(ProductService::upsertKey).toList();
+        List<PendingPricePoint> pricePoints = pendingPricePoints(products, keys);
+        Map<Integer, String> insertedIds = new HashMap<>();
+        long inserted = 0;
+        long updated = 0;
+        Map<Integer, String> failures = new HashMap<>();
+
+        int from = 0;
+        while (from < products.size()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Product.class);
+            for (int i = from; i < products.size(); i++) {
+                bulk.upsert(keys.get(i).query(), upsertUpdate(products.get(i), now));
+            }
+            try {
+                BulkWriteResult result = bulk.execute();
+                collectInsertedIds(result, from, insertedIds);
+                inserted += result.getUpserts().size();
+                updated += result.getMatchedCount();
+                break;
+            } catch (BulkOperationException e) {
+                collectInsertedIds(e.getResult(), from, insertedIds);
+                inserted += e.getResult().getUpserts().size();
+                updated += e.getResult().getMatchedCount();
+                BulkWriteError error = e.getErrors().get(0);
+                int failedIndex = from + error.getIndex();
+                failures.put(failedIndex, error.getMessage());
+                from = failedIndex + 1;
+            }
+        }
+        int recordedPrices = insertPricePoints(pricePoints, insertedIds, failures.keySet(), now);
+        log.info("Upserted {} products: {} inserted, {} updated, {} failed, {} price changes recorded",
+                products.size(), inserted, updated, failures.size(), recordedPrices);
+        return new ProductUpsertResult(inserted, updated, failures);
+    }
+
+    private static UpsertKey upsertKey(Product product) {
+        if (product.getProductId() != null && !product.getProductId().isBlank()) {
+            return new UpsertKey("productId", product.getProductId());
+        }
+        if (product.getEan() != null && !product.getEan().isBlank()) {
+            return new UpsertKey("ean", product.getEan());
+        }
+        return new UpsertKey("url", product.getUrl());
+    }
+
+    /**
+     * Pipeline update for one bulk row. Row values are wrapped in $literal so text such as "$5 off" is never
+     * read as a field path, and insert-only defaults use $ifNull because a pipeline has no $setOnInsert.
+     */
+    private AggregationUpdate upsertUpdate(Product product, LocalDateTime now) {
+        Document fields = new Document();
+        // The converter skips null properties, so unset row fields leave the stored values alone
+        mongoTemplate.getConverter().write(product, fields);
+        UPSERT_EXCLUDED_FIELDS.forEach(fields::remove);
+        Object price = fields.remove("price");
+        Object timestamp = mongoTemplate.getConverter().convertToMongoType(now);
+
+        Document set = new Document();
+        fields.forEach((field, value) -> set.append(field, literal(value)));
+        set.append("inStock", product.getStockStatus() != null
+                ? literal(!"OUT_OF_STOCK".equals(product.getStockStatus()))
+                : ifNull("$inStock", true));
+        if (product.getSource() == null) {
+            set.append("source", ifNull("$source", BULK_IMPORT_SOURCE));
+        }
+        if (price != null) {
+            // Every expression in the stage still sees the stored price, so all three agree on whether it moved
+            Document changed = new Document("$ne", List.of("$price", price));
+            set.append("price", literal(price))
+                    .append("priceSummary", new Document("$cond", List.of(changed, summaryWith(price, timestamp), "$priceSummary")))
+                    .append("lastPriceUpdate", new Document("$cond", List.of(changed, literal(timestamp), "$lastPriceUpdate")));
+        }
+        set.append("updatedAt", literal(timestamp))
+                .append("createdAt", ifNull("$createdAt", timestamp))
+                .append("viewCount", ifNull("$viewCount", 0L))
+                .append("featured", ifNull("$featured", false))
+                .append("trending", ifNull("$trending", false));
+
+        Document stage = new Document("$set", set);
+        return AggregationUpdate.from(List.of(context -> stage));
+    }
+
+    /**
+     * The stored price summary with one more point, computed the way {@link PriceSummary#record} does
+     */
+    private Document summaryWith(Object price, Object timestamp) {
+        Document point = new Document("price", literal(price)).append("timestamp", literal(timestamp));
+        return new Document("recentPrices", new Document("$slice", List.of(
+                        new Document("$concatArrays", List.of(ifNull("$priceSummary.recentPrices", List.of()), List.of(point))),
+                        -priceSummarySize)))
+                // $min and $max skip a missing operand, so the first point becomes both
+                .append("minPrice", new Document("$min", List.of("$priceSummary.minPrice", literal(price))))
+                .append("maxPrice", new Document("$max", List.of("$priceSummary.maxPrice", literal(price))))
+                .append("priceTotal", new Document("$add", List.of(ifNull("$priceSummary.priceTotal", 0), literal(price))))
+                .append("pointCount", new Document("$add", List.of(ifNull("$priceSummary.pointCount", 0L), 1L)));
+    }
+
+    private static Document literal(Object value) {
+        return new Document("$literal", value);
+    }
+
+    private static Document ifNull(String field, Object fallback) {
+        return new Document("$ifNull", List.of(field, literal(fallback)));
+    }
+
+    /**
+     * A price point for every row whose price differs from the stored one, or from an earlier row for the
+     * same product. Stored prices are read just before the write, so a concurrent price change in between
+     * can add or miss a point; the summary itself is always folded by the server.
+     */
+    private List<PendingPricePoint> pendingPricePoints(List<Product> products, List<UpsertKey> keys) {
+        Map<UpsertKey, StoredPrice> stored = storedPrices(keys);
+        List<PendingPricePoint> points = new ArrayList<>();
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            if (product.getPrice() == null) {
+                continue;
+            }
+            StoredPrice current = stored.get(keys.get(i));
+            if (current == null) {
+                current = new StoredPrice(null, i);
+                stored.put(keys.get(i), current);
+            } else if (current.price != null && current.price.compareTo(product.getPrice()) == 0) {
+                continue;
+            }
+            current.price = product.getPrice();
+            points.add(new PendingPricePoint(i, current, product.getPrice(), product.getCurrency()));
+        }
+        return points;
+    }
+
+    private Map<UpsertKey, StoredPrice> storedPrices(List<UpsertKey> keys) {
+        Map<String, List<String>> valuesByField = keys.stream()
+                .filter(key -> key.value() != null)
+                .collect(Collectors.groupingBy(UpsertKey::field,
+                        Collectors.mapping(UpsertKey::value, Collectors.toList())));
+        Map<UpsertKey, StoredPrice> stored = new HashMap<>();
+        if (valuesByField.isEmpty()) {
+            return stored;
+        }
+        Query query = Query.query(new Criteria().orOperator(valuesByField.entrySet().stream()
+                .map(entry -> Criteria.where(entry.getKey()).in(entry.getValue()))
+                .toList()));
+        query.fields().include("productId", "ean", "url", "price");
+        for (Product product : mongoTemplate.find(query, Product.class)) {
+            StoredPrice price = new StoredPrice(product.getId(), -1);
+            price.price = product.getPrice();
+            Map.of("productId", Optional.ofNullable(product.getProductId()),
+                            "ean", Optional.ofNullable(product.getEan()),
+                            "url", Optional.ofNullable(product.getUrl()))
+                    .forEach((field, value) -> value.ifPresent(v -> stored.putIfAbsent(new UpsertKey(field, v), price)));
+        }
+        return stored;
+    }
+
+    private static void collectInsertedIds(BulkWriteResult result, int offset, Map<Integer, String> insertedIds) {
+        result.getUpserts().forEach(upsert -> insertedIds.put(offset + upsert.getIndex(),
+                upsert.getId().isObjectId()
+                        ? upsert.getId().asObjectId().getValue().toHexString()
+                        : upsert.getId().asString().getValue()));
+    }
+
+    /**
+     * @return number of points written; rows that failed, or products whose insert failed, get none
+     */
+    private int insertPricePoints(List<PendingPricePoint> pending, Map<Integer, String> insertedIds,
+                                  Collection<Integer> failedRows, LocalDateTime timestamp) {
+        List<PriceHistory> points = new ArrayList<>();
+        for (PendingPricePoint point : pending) {
+            String productId = point.product().id != null ? point.product().id : insertedIds.get(point.product().insertedBy);
+            if (productId == null || failedRows.contains(point.row())) {
+                continue;
+            }
+            points.add(PriceHistory.builder()
+                    .productId(productId)
+                    .price(point.price())
+                    .currency(point.currency())
+                    .timestamp(timestamp)
+                    .source(BULK_IMPORT_SOURCE)
+                    .build());
+        }
+        if (!points.isEmpty()) {
+            mongoTemplate.insert(points, PriceHistory.class);
+        }
+        return points.size();
+    }
+
+    private record UpsertKey(String field, String value) {
+
+        Query query() {
+            return Query.query(Criteria.where(field).is(value));
+        }
+    }
+
+    /**
+     * Last known price of a product in the batch; a product the batch inserts is known by the inserting row
+     */
+    private static final class StoredPrice {
+        private final String id;
+        private final int insertedBy;
+        private BigDecimal price;
 
-            // Save product first to get an ID
-            Product savedProduct = productRepository.save(scrapedProduct);
+        private StoredPrice(String id, int insertedBy) {
+            this.id = id;
+            this.insertedBy = insertedBy;
+        }
+    }
 
-            PriceHistory initialPrice = PriceHistory.builder()
-                    .productId(savedProduct.getId())
-                    .price(savedProduct.getPrice())
-                    .currency(savedProduct.getCurrency())
-                    .timestamp(now)
-                    .vendor("Trendyol") // This should be dynamic based on strategy
-                    .build();
-            PriceHistory savedInitialPrice = priceHistoryRepository.save(initialPrice);
+    private record PendingPricePoint(int row, StoredPrice product, BigDecimal price, String currency) {
+    }
 
-            savedProduct.getPriceHistories().add(savedInitialPrice);
-            
-            // Save again to link the price history
-            return productRepository.save(savedProduct);
+    /**
+     * Append the product's current price to the time-series store and fold it into the embedded summary
+     */
+    private void recordPrice(Product product, String currency, LocalDateTime timestamp) {
+        priceHistoryRepository.insert(priceHistoryPoint(product, currency, timestamp));
+        if (product.getPriceSummary() == null) {
+            product.setPriceSummary(new PriceSummary());
         }
+        product.getPriceSummary().record(product.getPrice(), timestamp, priceSummarySize);
+        product.setLastPriceUpdate(timestamp);
+    }
+
+    static PriceHistory priceHistoryPoint(Product product, String currency, LocalDateTime timestamp) {
+        return PriceHistory.builder()
+                .productId(product.getId())
+                .price(product.getPrice())
+                .currency(currency)
+                .timestamp(timestamp)
+                .vendor("Trendyol") // This should be dynamic based on strategy
+                .source("SCRAPED")
+                .build();
+    }
+
+    /**
+     * Price points for a product within [from, to], served from the time-series collection
+     */
+    public List<PriceHistory> getPriceHistory(String productId, LocalDateTime from, LocalDateTime to) {
+        log.debug("Fetching price history for product {} between {} and {}", productId, from, to);
+        return priceHistoryRepository.findByProductIdAndTimestampBetweenOrderByTimestampAsc(productId, from, to);
     }
 
     @Transactional
     public void linkAnalysisToProduct(String productId, String analysisId) {
         log.info("Linking analysis {} to product {}", analysisId, productId);
-        Product product = getProductById(productId);
-        
         // We assume analysisId is valid and exists in the ai-analysis-service DB.
         // We create a reference to it without fetching the full object.
         ProductAnalysis analysisRef = new ProductAnalysis();
         analysisRef.setId(analysisId);
         
-        product.setAnalysis(analysisRef);
-        product.setUpdatedAt(LocalDateTime.now());
-        
-        productRepository.save(product);
+        updateFields(productId, new Update()
+                .set("analysis", analysisRef)
+                .set("updatedAt", LocalDateTime.now()));
         log.info("Successfully linked analysis to product {}", productId);
     }
 
@@ -118,33 +417,56 @@ public class ProductService {
         return productRepository.findAllById(productIds);
     }
 
-    @Transactional
+    /**
+     * Count a view; the count and lastViewedAt reach the document on the next periodic flush
+     */
     public void incrementViewCount(String productId) {
-        Product product = getProductById(productId);
-        product.setViewCount(product.getViewCount() + 1);
-        product.setLastViewedAt(LocalDateTime.now());
-        productRepository.save(product);
+        productViewCounter.recordView(productId);
     }
 
-    public List<Product> getFeaturedProducts() {
-        log.info("Fetching featured products.");
-        return productRepository.findByFeaturedTrue();
+    /**
+     * Listing cards for the given ids, in no particular order
+     */
+    public List<Product> getProductCards(Collection<String> productIds) {
+        Query query = Query.query(Criteria.where("_id").in(productIds));
+        query.fields().include(LISTING_FIELDS);
+        return mongoTemplate.find(query, Product.class);
     }
 
-    public List<Product> getTrendingProducts() {
-        log.info("Fetching trending products.");
-        LocalDateTime lastWeek = LocalDateTime.now().minusWeeks(1);
-        return productRepository.findByLastViewedAtAfterOrderByViewCountDesc(lastWeek, PageRequest.of(0, 10));
+    /**
+     * Most viewed products among those viewed since the given time; only id, viewCount and lastViewedAt are loaded
+     */
+    public List<Product> getRecentlyViewedProducts(LocalDateTime since, int limit) {
+        Query query = Query.query(Criteria.where("lastViewedAt").gt(since))
+                .with(Sort.by(Sort.Direction.DESC, "viewCount"))
+                .limit(limit);
+        query.fields().include("viewCount", "lastViewedAt", "createdAt");
+        return mongoTemplate.find(query, Product.class);
     }
 
     @Transactional
     public void setFeaturedStatus(String productId, boolean isFeatured) {
-        Product product = getProductById(productId);
-        product.setFeatured(isFeatured);
-        productRepository.save(product);
+        updateFields(productId, new Update().set("featured", isFeatured));
         log.info("Set featured status to {} for product {}", isFeatured, productId);
     }
 
+    /**
+     * Every product in _id order with only the fields a search index needs, for feeding external indexes
+     */
+    public Slice<Product> getSearchDocuments(String afterId, Integer size) {
+        int limit = size != null ? Math.min(Math.max(size, 1), MAX_FEED_PAGE_SIZE) : MAX_FEED_PAGE_SIZE;
+        Query query = new Query();
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("_id").gt(new ObjectId(afterId)));
+        }
+        query.with(Sort.by("_id")).limit(limit + 1);
+        query.fields().include(SEARCH_DOCUMENT_FIELDS);
+
+        List<Product> products = mongoTemplate.find(query, Product.class);
+        boolean hasNext = products.size() > limit;
+        return new SliceImpl<>(hasNext ? products.subList(0, limit) : products, PageRequest.of(0, limit), hasNext);
+    }
+
     // Additional methods needed by ProductApplicationService
     
     @Transactional
@@ -156,19 +478,42 @@ public class ProductService {
         product.setViewCount(0L);
         product.setFeatured(false);
         
-        return productRepository.save(product);
-    }
-    
-    public List<Product> getAllProducts() {
-        log.info("Fetching all products");
-        return productRepository.findAll();
+        return productRepository.insert(product);
     }
     
     @Transactional
     public Product updateProduct(Product product) {
         log.info("Updating product: {}", product.getId());
         product.setUpdatedAt(LocalDateTime.now());
-        return productRepository.save(product);
+        return updateDocument(product);
+    }
+
+    /**
+     * Write the product's non-null fields except {@link #DOCUMENT_UPDATE_EXCLUDED_FIELDS}, so a stale copy
+     * never rolls back view counts flushed since it was read
+     *
+     * @return the stored product after the update
+     */
+    private Product updateDocument(Product product) {
+        Document fields = new Document();
+        mongoTemplate.getConverter().write(product, fields);
+        DOCUMENT_UPDATE_EXCLUDED_FIELDS.forEach(fields::remove);
+
+        Update update = new Update();
+        fields.forEach(update::set);
+        return updateFields(product.getId(), update);
+    }
+
+    private Product updateFields(String productId, Update update) {
+        Product updated = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(productId)),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                Product.class);
+        if (updated == null) {
+            throw new RuntimeException("Product not found with id: " + productId);
+        }
+        return updated;
     }
     
     @Transactional
@@ -178,63 +523,125 @@ public class ProductService {
         productRepository.delete(product);
     }
     
-    public List<Product> searchProducts(String query, String category, String brand, 
+    /**
+     * Search the catalog with every predicate, the sort and the page pushed down to MongoDB.
+     * A non-blank query uses the text index on name and description; category, brand and the price range
+     * are served by the category/brand/price compound indexes. Category and brand match ignoring case.
+     *
+     * @param sortBy PRICE, RATING, POPULARITY or NEWEST; defaults to relevance for text queries and NEWEST otherwise
+     * @return the requested page together with the total number of hits
+     */
+    public Page<Product> searchProducts(String query, String category, String brand, 
                                      BigDecimal minPrice, BigDecimal maxPrice, 
                                      String sortBy, String sortOrder, 
                                      Integer page, Integer size) {
         log.info("Searching products with query: {}, category: {}, brand: {}, price range: {} - {}", 
                 query, category, brand, minPrice, maxPrice);
         
-        // This is a simplified search implementation
-        // In a real application, you would use Elasticsearch or similar search engine
-        List<Product> allProducts = productRepository.findAll();
+        boolean textSearch = query != null && !query.isBlank();
+        Query searchQuery = textSearch
+                ? TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(query))
+                : new Query();
         
-        return allProducts.stream()
-                .filter(product -> query == null || product.getName().toLowerCase().contains(query.toLowerCase()))
-                .filter(product -> category == null || (product.getCategory() != null && 
-                        product.getCategory().equalsIgnoreCase(category)))
-                .filter(product -> brand == null || (product.getBrand() != null && 
-                        product.getBrand().equalsIgnoreCase(brand)))
-                .filter(product -> minPrice == null || product.getPrice().compareTo(minPrice) >= 0)
-                .filter(product -> maxPrice == null || product.getPrice().compareTo(maxPrice) <= 0)
-                .collect(Collectors.toList());
-    }
-    
-    // Additional methods needed by ProductApplicationService
-    
-    public List<Product> getProductsByCategory(String category) {
-        log.info("Fetching products by category: {}", category);
-        return productRepository.findByCategoryNameIgnoreCase(category);
+        if (category != null) {
+            searchQuery.addCriteria(Criteria.where("categoryKey").is(Product.filterKey(category)));
+        }
+        if (brand != null) {
+            searchQuery.addCriteria(Criteria.where("brandKey").is(Product.filterKey(brand)));
+        }
+        if (minPrice != null || maxPrice != null) {
+            Criteria price = Criteria.where("price");
+            if (minPrice != null) {
+                price.gte(minPrice);
+            }
+            if (maxPrice != null) {
+                price.lte(maxPrice);
+            }
+            searchQuery.addCriteria(price);
+        }
+        
+        Pageable pageable = PageRequest.of(
+                page != null ? Math.max(page, 0) : 0,
+                size != null ? Math.min(Math.max(size, 1), MAX_SEARCH_PAGE_SIZE) : DEFAULT_SEARCH_PAGE_SIZE,
+                searchSort(sortBy, sortOrder, textSearch));
+        if (textSearch && pageable.getSort().isUnsorted()) {
+            ((TextQuery) searchQuery).sortByScore();
+        }
+        searchQuery.with(pageable);
+        
+        List<Product> products = mongoTemplate.find(searchQuery, Product.class);
+        // The count only runs when the page alone cannot tell the total
+        return PageableExecutionUtils.getPage(products, pageable,
+                () -> mongoTemplate.count(Query.of(searchQuery).limit(-1).skip(-1), Product.class));
     }
-    
-    public List<Product> getProductsByBrand(String brand) {
-        log.info("Fetching products by brand: {}", brand);
-        return productRepository.findByBrandNameIgnoreCase(brand);
+
+    private static Sort searchSort(String sortBy, String sortOrder, boolean textSearch) {
+        Sort.Direction direction = "ASC".equalsIgnoreCase(sortOrder) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        String field = sortBy == null ? null : switch (sortBy.toUpperCase()) {
+            case "PRICE" -> "price";
+            case "RATING" -> "rating";
+            case "POPULARITY" -> "viewCount";
+            case "NEWEST" -> "createdAt";
+            default -> {
+                log.debug("Ignoring unsupported sort field: {}", sortBy);
+                yield null;
+            }
+        };
+        if (field == null) {
+            // Relevance for text queries, newest first otherwise
+            return textSearch ? Sort.unsorted() : Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by("_id"));
+        }
+        // _id breaks ties so pages do not overlap
+        return Sort.by(direction, field).and(Sort.by("_id"));
     }
     
-    public List<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        log.info("Fetching products by price range: {} - {}", minPrice, maxPrice);
-        if (minPrice != null && maxPrice != null) {
-            return productRepository.findByCurrentPriceBetween(minPrice, maxPrice);
-        } else if (minPrice != null) {
-            return productRepository.findByCurrentPriceGreaterThanEqual(minPrice);
-        } else if (maxPrice != null) {
-            return productRepository.findByCurrentPriceLessThanEqual(maxPrice);
+    /**
+     * One keyset page of listing cards, ordered by _id and projected to the card fields
+     *
+     * @param afterId last _id of the previous page, or null for the first page
+     */
+    public Slice<Product> getProductListing(ProductListingFilter filter, String afterId, Integer size) {
+        int limit = size != null ? Math.min(Math.max(size, 1), MAX_SEARCH_PAGE_SIZE) : DEFAULT_SEARCH_PAGE_SIZE;
+        Query query = new Query();
+        if (filter.category() != null) {
+            query.addCriteria(Criteria.where("categoryKey").is(Product.filterKey(filter.category())));
+        }
+        if (filter.brand() != null) {
+            query.addCriteria(Criteria.where("brandKey").is(Product.filterKey(filter.brand())));
+        }
+        if (filter.featured() != null) {
+            query.addCriteria(Criteria.where("featured").is(filter.featured()));
+        }
+        if (filter.inStock() != null) {
+            query.addCriteria(Criteria.where("inStock").is(filter.inStock()));
+        }
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            Criteria price = Criteria.where("price");
+            if (filter.minPrice() != null) {
+                price.gte(filter.minPrice());
+            }
+            if (filter.maxPrice() != null) {
+                price.lte(filter.maxPrice());
+            }
+            query.addCriteria(price);
         }
-        return productRepository.findAll();
+        if (filter.minRating() != null) {
+            query.addCriteria(Criteria.where("rating").gte(filter.minRating()));
+        }
+        if (afterId != null) {
+            query.addCriteria(Criteria.where("_id").gt(new ObjectId(afterId)));
+        }
+        query.with(Sort.by("_id")).limit(limit + 1);
+        query.fields().include(LISTING_FIELDS);
+
+        // The extra document only tells whether another page exists
+        List<Product> products = mongoTemplate.find(query, Product.class);
+        boolean hasNext = products.size() > limit;
+        return new SliceImpl<>(hasNext ? products.subList(0, limit) : products, PageRequest.of(0, limit), hasNext);
     }
     
-    public List<Product> getProductsByMinRating(Double minRating) {
-        log.info("Fetching products with minimum rating: {}", minRating);
-        return productRepository.findByAverageRatingGreaterThanEqual(minRating);
-    }
+    // Additional methods needed by ProductApplicationService
     
-    public List<Product> getInStockProducts() {
-        log.info("Fetching in-stock products");
-        // This is a simplified implementation - in a real app you'd have stock tracking
-        return productRepository.findAll();
-    }
-
     public List<Product> getSimilarProducts(String productId) {
         // Placeholder: return all products except the given one
         return productRepository.findAll().stream()
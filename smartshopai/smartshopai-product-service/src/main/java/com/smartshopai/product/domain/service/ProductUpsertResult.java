@@ -0,0 +1,11 @@
+package com.smartshopai.product.domain.service;
+
+import java.util.Map;
+
+/**
+ * Outcome of a bulk upsert
+ *
+ * @param failures error message per index into the submitted list, for products that were not written
+ */
+public record ProductUpsertResult(long inserted, long updated, Map<Integer, String> failures) {
+}
@@ -1,7 +1,9 @@
 package com.smartshopai.product.infrastructure.client;
 
+import com.smartshopai.common.embedding.Embedding;
 import com.smartshopai.product.application.dto.response.ProductAnalysisResponse;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -15,6 +17,15 @@ public interface AnalysisServiceClient {
     @PostMapping("/api/analysis/analyze/{productId}")
     ProductAnalysisResponse analyzeProduct(@PathVariable("productId") String productId);
 
-    @PostMapping("/api/analysis/find-similar")
-    List<String> findSimilarProductIds(@RequestBody List<Double> embedding, @RequestParam("topK") int topK);
+    /**
+     * Sends the embedding as a binary body; the response lists the most similar analyses first
+     */
+    @PostMapping(value = "/api/analysis/find-similar", consumes = Embedding.MEDIA_TYPE)
+    List<ProductAnalysisResponse> findSimilarProducts(@RequestBody Embedding embedding, @RequestParam("topK") int topK);
+
+    /**
+     * Embedding of the product's latest analysis as a binary body; 404 if the product has not been analyzed
+     */
+    @GetMapping(value = "/api/analysis/products/{productId}/embedding", produces = Embedding.MEDIA_TYPE)
+    Embedding getLatestEmbedding(@PathVariable("productId") String productId);
 }
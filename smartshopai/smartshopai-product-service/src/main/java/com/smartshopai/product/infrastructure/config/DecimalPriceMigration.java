@@ -0,0 +1,94 @@
+package com.smartshopai.product.infrastructure.config;
+
+import com.mongodb.client.MongoCollection;
+import com.smartshopai.product.domain.entity.PriceHistory;
+import com.smartshopai.product.domain.entity.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * One-off conversion of prices stored as strings, from before BigDecimal was mapped to Decimal128.
+ *
+ * String prices are skipped by numeric range filters and sort apart from numbers, so every price field
+ * still holding a string is rewritten in place with $convert. Only documents whose field is a string match,
+ * so once the data is converted each run is a no-op. A value that does not parse is left as it is and
+ * counted in the log.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DecimalPriceMigration implements ApplicationRunner {
+
+    private static final List<String> PRODUCT_PRICE_FIELDS = List.of("price", "originalPrice", "discountPrice",
+            "priceSummary.minPrice", "priceSummary.maxPrice", "priceSummary.priceTotal");
+    private static final String RECENT_PRICES = "priceSummary.recentPrices";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${product.migration.decimal-prices:true}")
+    private boolean enabled;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        MongoCollection<Document> products = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class));
+        for (String field : PRODUCT_PRICE_FIELDS) {
+            convert(products, field);
+        }
+        convertRecentPrices(products);
+        try {
+            convert(mongoTemplate.getCollection(mongoTemplate.getCollectionName(PriceHistory.class)), "price");
+        } catch (Exception e) {
+            // Time-series collections before MongoDB 7 only allow updates to the meta field
+            log.warn("Could not convert string prices in price history; they stay out of numeric range queries", e);
+        }
+    }
+
+    private void convert(MongoCollection<Document> collection, String field) {
+        long modified = collection.updateMany(
+                new Document(field, new Document("$type", "string")),
+                List.of(new Document("$set", new Document(field, toDecimal("$" + field))))).getModifiedCount();
+        report(collection, field, modified);
+    }
+
+    /**
+     * Convert the price inside each embedded recent price point
+     */
+    private void convertRecentPrices(MongoCollection<Document> products) {
+        Document converted = new Document("$map", new Document("input", "$" + RECENT_PRICES)
+                .append("as", "point")
+                .append("in", new Document("$mergeObjects", List.of("$$point",
+                        new Document("price", toDecimal("$$point.price"))))));
+        long modified = products.updateMany(
+                new Document(RECENT_PRICES + ".price", new Document("$type", "string")),
+                List.of(new Document("$set", new Document(RECENT_PRICES, converted)))).getModifiedCount();
+        report(products, RECENT_PRICES + ".price", modified);
+    }
+
+    private static Document toDecimal(String value) {
+        return new Document("$convert", new Document("input", value)
+                .append("to", "decimal")
+                .append("onError", value)
+                .append("onNull", null));
+    }
+
+    private static void report(MongoCollection<Document> collection, String field, long modified) {
+        if (modified == 0) {
+            return;
+        }
+        long unconvertible = collection.countDocuments(new Document(field, new Document("$type", "string")));
+        log.info("Converted {} string {} values in {} to decimal{}", modified, field,
+                collection.getNamespace().getCollectionName(),
+                unconvertible > 0 ? "; " + unconvertible + " could not be parsed and were left unchanged" : "");
+    }
+}
@@ -0,0 +1,195 @@
+package com.smartshopai.product.infrastructure.config;
+
+import com.smartshopai.product.domain.entity.PriceHistory;
+import com.smartshopai.product.domain.entity.PriceSummary;
+import com.smartshopai.product.domain.entity.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * One-off move of the price points products embedded in priceHistories, from before the price summary.
+ *
+ * Each legacy list is folded into the product's priceSummary, ahead of any points recorded since, and its
+ * points are copied into the price_histories time-series collection unless a point with the same product and
+ * timestamp is already there. The old field is then unset. A product whose summary changed while it was being
+ * migrated is left for the next run, so a concurrent re-scrape is never overwritten. Once no product carries
+ * priceHistories each run is a no-op.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LegacyPriceHistoryMigration implements ApplicationRunner {
+
+    private static final String LEGACY_FIELD = "priceHistories";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${product.migration.legacy-price-history:true}")
+    private boolean enabled;
+
+    @Value("${product.migration.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${product.price-history.summary-size:30}")
+    private int priceSummarySize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        Query legacy = Query.query(Criteria.where(LEGACY_FIELD).exists(true));
+        legacy.fields().include(LEGACY_FIELD, "priceSummary", "currency");
+        legacy.cursorBatchSize(batchSize);
+
+        List<Document> batch = new ArrayList<>(batchSize);
+        int[] totals = new int[3]; // products migrated, points copied, products skipped
+        try (Stream<Document> products = mongoTemplate.stream(legacy, Document.class,
+                mongoTemplate.getCollectionName(Product.class))) {
+            products.forEach(product -> {
+                batch.add(product);
+                if (batch.size() == batchSize) {
+                    migrate(batch, totals);
+                    batch.clear();
+                }
+            });
+        }
+        if (!batch.isEmpty()) {
+            migrate(batch, totals);
+        }
+        if (totals[0] > 0 || totals[2] > 0) {
+            log.info("Folded legacy price history of {} products into their summaries, copied {} points to {}{}",
+                    totals[0], totals[1], mongoTemplate.getCollectionName(PriceHistory.class),
+                    totals[2] > 0 ? "; " + totals[2] + " products changed concurrently and were left for the next run" : "");
+        }
+    }
+
+    private void migrate(List<Document> products, int[] totals) {
+        List<LegacyProduct> legacyProducts = products.stream().map(this::read).toList();
+        Set<Pair<String, LocalDateTime>> stored = storedPoints(legacyProducts);
+
+        List<PriceHistory> missing = new ArrayList<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        for (LegacyProduct product : legacyProducts) {
+            product.points().stream()
+                    .filter(point -> !stored.contains(Pair.of(point.getProductId(), point.getTimestamp())))
+                    .forEach(missing::add);
+
+            Criteria unchanged = Criteria.where("_id").is(product.id());
+            Long pointCount = product.summary() == null ? null : product.summary().getPointCount();
+            unchanged = pointCount == null
+                    ? unchanged.and("priceSummary.pointCount").exists(false)
+                    : unchanged.and("priceSummary.pointCount").is(pointCount);
+            Update update = new Update().unset(LEGACY_FIELD);
+            if (!product.points().isEmpty()) {
+                update.set("priceSummary", fold(product.points(), product.summary(), priceSummarySize));
+            }
+            bulk.updateOne(Query.query(unchanged), update);
+        }
+
+        // Points first, so a crash before the product update only leaves points that the next run skips
+        if (!missing.isEmpty()) {
+            mongoTemplate.insert(missing, PriceHistory.class);
+        }
+        int modified = bulk.execute().getModifiedCount();
+        totals[0] += modified;
+        totals[1] += missing.size();
+        totals[2] += legacyProducts.size() - modified;
+    }
+
+    private LegacyProduct read(Document product) {
+        String productId = product.get("_id") instanceof ObjectId objectId
+                ? objectId.toHexString() : String.valueOf(product.get("_id"));
+        List<PriceHistory> points = new ArrayList<>();
+        if (product.get(LEGACY_FIELD) instanceof List<?> legacyPoints) {
+            for (Object legacyPoint : legacyPoints) {
+                if (!(legacyPoint instanceof Document document)) {
+                    continue;
+                }
+                PriceHistory point = mongoTemplate.getConverter().read(PriceHistory.class, document);
+                if (point.getPrice() == null || point.getTimestamp() == null) {
+                    continue;
+                }
+                point.setId(null);
+                point.setProductId(productId);
+                if (point.getCurrency() == null) {
+                    point.setCurrency(product.getString("currency"));
+                }
+                points.add(point);
+            }
+        }
+        points.sort(Comparator.comparing(PriceHistory::getTimestamp));
+
+        Document summary = product.get("priceSummary", Document.class);
+        return new LegacyProduct(productId, points,
+                summary == null ? null : mongoTemplate.getConverter().read(PriceSummary.class, summary));
+    }
+
+    /**
+     * Product and timestamp of every legacy point that is already in the time-series collection
+     */
+    private Set<Pair<String, LocalDateTime>> storedPoints(List<LegacyProduct> products) {
+        List<LocalDateTime> timestamps = products.stream()
+                .flatMap(product -> product.points().stream())
+                .map(PriceHistory::getTimestamp)
+                .toList();
+        if (timestamps.isEmpty()) {
+            return Set.of();
+        }
+        Query query = Query.query(Criteria.where("productId").in(products.stream().map(LegacyProduct::id).toList())
+                .and("timestamp").gte(timestamps.stream().min(Comparator.naturalOrder()).orElseThrow())
+                .lte(timestamps.stream().max(Comparator.naturalOrder()).orElseThrow()));
+        query.fields().include("productId", "timestamp");
+
+        Set<Pair<String, LocalDateTime>> stored = new HashSet<>();
+        mongoTemplate.find(query, PriceHistory.class)
+                .forEach(point -> stored.add(Pair.of(point.getProductId(), point.getTimestamp())));
+        return stored;
+    }
+
+    /**
+     * Summary of the legacy points followed by everything the current summary already holds.
+     * Legacy points predate the summary, so they go first and only survive in the recent window if the
+     * summary has fewer than maxPoints of its own.
+     */
+    static PriceSummary fold(List<PriceHistory> legacyPoints, PriceSummary current, int maxPoints) {
+        PriceSummary folded = new PriceSummary();
+        legacyPoints.forEach(point -> folded.record(point.getPrice(), point.getTimestamp(), maxPoints));
+        if (current == null || current.getPointCount() == null || current.getPointCount() == 0) {
+            return folded;
+        }
+
+        List<PriceSummary.PricePoint> recent = new ArrayList<>(Objects.requireNonNullElse(folded.getRecentPrices(), List.of()));
+        recent.addAll(Objects.requireNonNullElse(current.getRecentPrices(), List.of()));
+        folded.setRecentPrices(new ArrayList<>(recent.subList(Math.max(0, recent.size() - maxPoints), recent.size())));
+        folded.setMinPrice(folded.getMinPrice() == null ? current.getMinPrice() : folded.getMinPrice().min(current.getMinPrice()));
+        folded.setMaxPrice(folded.getMaxPrice() == null ? current.getMaxPrice() : folded.getMaxPrice().max(current.getMaxPrice()));
+        folded.setPriceTotal(folded.getPriceTotal() == null ? current.getPriceTotal() : folded.getPriceTotal().add(current.getPriceTotal()));
+        folded.setPointCount(Objects.requireNonNullElse(folded.getPointCount(), 0L) + current.getPointCount());
+        return folded;
+    }
+
+    private record LegacyProduct(String id, List<PriceHistory> points, PriceSummary summary) {
+    }
+}
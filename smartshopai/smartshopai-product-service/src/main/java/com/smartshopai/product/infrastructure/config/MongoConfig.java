@@ -0,0 +1,25 @@
+package com.smartshopai.product.infrastructure.config;
+
+import com.smartshopai.common.embedding.EmbeddingEncoding;
+import com.smartshopai.common.embedding.EmbeddingMongoConverters;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+/**
+ * MongoDB mapping configuration for the product service
+ */
+@Configuration
+public class MongoConfig {
+
+    /**
+     * Store BigDecimal as Decimal128 rather than the default string so price ranges and price sorts
+     * compare numerically and can use the price indexes; embeddings are stored as float32 BSON binary
+     */
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return MongoCustomConversions.create(adapter -> adapter
+                .bigDecimal(MongoCustomConversions.BigDecimalRepresentation.DECIMAL128)
+                .registerConverters(EmbeddingMongoConverters.converters(EmbeddingEncoding.FLOAT32)));
+    }
+}
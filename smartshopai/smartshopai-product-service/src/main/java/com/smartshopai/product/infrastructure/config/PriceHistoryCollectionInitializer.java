@@ -0,0 +1,30 @@
+package com.smartshopai.product.infrastructure.config;
+
+import com.smartshopai.product.domain.entity.PriceHistory;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the price history time-series collection before the first insert.
+ * MongoDB would otherwise create a regular collection implicitly; an existing regular collection has to
+ * be migrated by hand because it cannot be converted in place.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PriceHistoryCollectionInitializer {
+
+    private final MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    void createCollection() {
+        if (mongoTemplate.collectionExists(PriceHistory.class)) {
+            return;
+        }
+        mongoTemplate.createCollection(PriceHistory.class);
+        log.info("Created time-series collection {}", mongoTemplate.getCollectionName(PriceHistory.class));
+    }
+}
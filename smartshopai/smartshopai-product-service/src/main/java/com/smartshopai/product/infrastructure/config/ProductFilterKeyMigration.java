@@ -0,0 +1,99 @@
+package com.smartshopai.product.infrastructure.config;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.smartshopai.product.domain.entity.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One-off backfill of the lower-cased categoryKey and brandKey fields that category and brand filters match on.
+ *
+ * The keys are written with every product save, so only documents stored before they existed lack them.
+ * Lower-casing happens here rather than with $toLower, which only handles ASCII and would disagree with
+ * {@link Product#filterKey(String)} on names such as "Çilek". The exact-match indexes the keyed ones
+ * replaced are dropped. Once every document carries its keys each run is a no-op.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductFilterKeyMigration implements ApplicationRunner {
+
+    private static final List<String> REPLACED_INDEXES =
+            List.of("category_brand_price_idx", "brand_price_idx", "category_id_idx", "brand_id_idx");
+    private static final int NAMESPACE_NOT_FOUND = 26;
+    private static final int INDEX_NOT_FOUND = 27;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${product.migration.filter-keys:true}")
+    private boolean enabled;
+
+    @Value("${product.migration.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        MongoCollection<Document> products = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class));
+        backfill(products);
+        REPLACED_INDEXES.forEach(index -> dropIndex(products, index));
+    }
+
+    private void backfill(MongoCollection<Document> products) {
+        Bson missingKeys = Filters.or(
+                Filters.and(Filters.exists("category"), Filters.exists("categoryKey", false)),
+                Filters.and(Filters.exists("brand"), Filters.exists("brandKey", false)));
+        List<UpdateOneModel<Document>> batch = new ArrayList<>(batchSize);
+        long updated = 0;
+        try (MongoCursor<Document> cursor = products.find(missingKeys)
+                .projection(Projections.include("category", "brand"))
+                .batchSize(batchSize)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                Document product = cursor.next();
+                batch.add(new UpdateOneModel<>(Filters.eq("_id", product.get("_id")), Updates.combine(
+                        Updates.set("categoryKey", Product.filterKey(product.getString("category"))),
+                        Updates.set("brandKey", Product.filterKey(product.getString("brand"))))));
+                if (batch.size() == batchSize) {
+                    updated += products.bulkWrite(batch).getModifiedCount();
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            updated += products.bulkWrite(batch).getModifiedCount();
+        }
+        if (updated > 0) {
+            log.info("Backfilled category and brand filter keys on {} products", updated);
+        }
+    }
+
+    private static void dropIndex(MongoCollection<Document> products, String index) {
+        try {
+            products.dropIndex(index);
+            log.info("Dropped index {} replaced by its case-insensitive counterpart", index);
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() != INDEX_NOT_FOUND && e.getErrorCode() != NAMESPACE_NOT_FOUND) {
+                throw e;
+            }
+        }
+    }
+}
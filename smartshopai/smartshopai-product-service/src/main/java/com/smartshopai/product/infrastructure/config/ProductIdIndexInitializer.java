@@ -0,0 +1,39 @@
+package com.smartshopai.product.infrastructure.config;
+
+import com.smartshopai.product.domain.entity.Product;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the unique sparse productId index, replacing the non-sparse one older deployments were given.
+ *
+ * The old index carries the default name "productId". MongoDB refuses a second index on the same key with
+ * different options, and annotation-driven index creation runs before any startup code could drop the old
+ * one, so this index is managed here instead of through an annotation on the entity.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductIdIndexInitializer {
+
+    private static final String INDEX_NAME = "productId_sparse_idx";
+    private static final String LEGACY_INDEX_NAME = "productId";
+
+    private final MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    void createIndex() {
+        IndexOperations indexes = mongoTemplate.indexOps(Product.class);
+        if (indexes.getIndexInfo().stream().anyMatch(index -> LEGACY_INDEX_NAME.equals(index.getName()))) {
+            indexes.dropIndex(LEGACY_INDEX_NAME);
+            log.info("Dropped non-sparse index {} on {}", LEGACY_INDEX_NAME, mongoTemplate.getCollectionName(Product.class));
+        }
+        indexes.createIndex(new Index("productId", Sort.Direction.ASC).named(INDEX_NAME).unique().sparse());
+    }
+}
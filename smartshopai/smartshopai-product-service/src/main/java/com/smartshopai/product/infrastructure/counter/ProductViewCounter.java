@@ -0,0 +1,132 @@
+package com.smartshopai.product.infrastructure.counter;
+
+import com.smartshopai.product.domain.entity.Product;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Accumulates product views in in-memory counters and flushes them as bulk $inc updates.
+ * Keeps view counting off the product read path; counts not yet flushed are lost if the process dies
+ * without a clean shutdown.
+ *
+ * A tally is only read or modified inside a compute call on its map entry, so a flush that drops an idle
+ * tally can never race with a view being added to it.
+ */
+@Slf4j
+@Component
+public class ProductViewCounter {
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+
+    private final Map<String, ViewTally> tallies = new ConcurrentHashMap<>();
+
+    public ProductViewCounter(MongoTemplate mongoTemplate,
+                              @Value("${product.views.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void recordView(String productId) {
+        long viewedAt = System.currentTimeMillis();
+        tallies.compute(productId, (id, tally) -> {
+            ViewTally current = tally != null ? tally : new ViewTally();
+            current.add(1, viewedAt);
+            return current;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${product.views.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Product view flush failed", e);
+        }
+    }
+
+    /**
+     * Write every pending count to MongoDB
+     *
+     * @return number of products updated
+     */
+    public synchronized int flush() {
+        List<PendingViews> pending = new ArrayList<>();
+        for (String productId : tallies.keySet()) {
+            tallies.computeIfPresent(productId, (id, tally) -> {
+                if (tally.views == 0) {
+                    // Idle for a whole interval; removed under the entry lock, so no view can slip in
+                    return null;
+                }
+                pending.add(new PendingViews(id, tally.views, tally.lastViewedAt));
+                tally.views = 0;
+                return tally;
+            });
+        }
+
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            List<PendingViews> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+            try {
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+                for (PendingViews views : batch) {
+                    bulk.updateOne(Query.query(Criteria.where("_id").is(views.productId())),
+                            new Update()
+                                    .inc("viewCount", views.count())
+                                    .max("lastViewedAt", LocalDateTime.ofInstant(
+                                            Instant.ofEpochMilli(views.lastViewedAt()), ZoneId.systemDefault())));
+                }
+                bulk.execute();
+            } catch (Exception e) {
+                log.warn("Failed to flush views for {} products; retrying on the next flush", batch.size(), e);
+                batch.forEach(views -> tallies.compute(views.productId(), (id, tally) -> {
+                    ViewTally current = tally != null ? tally : new ViewTally();
+                    current.add(views.count(), views.lastViewedAt());
+                    return current;
+                }));
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.debug("Flushed views for {} products", pending.size());
+        }
+        return pending.size();
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        log.info("Flushing buffered product views before shutdown");
+        flush();
+    }
+
+    /**
+     * Views not yet flushed for one product; guarded by the map entry it is stored under
+     */
+    private static final class ViewTally {
+
+        private long views;
+        private long lastViewedAt;
+
+        void add(long count, long viewedAt) {
+            views += count;
+            lastViewedAt = Math.max(lastViewedAt, viewedAt);
+        }
+    }
+
+    private record PendingViews(String productId, long count, long lastViewedAt) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.smartshopai.product.infrastructure.ingest;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Supported bulk ingest encodings
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ProductIngestFormat {
+
+    /**
+     * One JSON object per line
+     */
+    NDJSON("application/x-ndjson"),
+    /**
+     * RFC 4180 CSV with a header row; list columns are separated by '|'
+     */
+    CSV("text/csv");
+
+    private final String contentType;
+
+    /**
+     * Resolve the format from an explicit name, falling back to the request content type
+     *
+     * @throws IllegalArgumentException if neither identifies a supported format
+     */
+    public static ProductIngestFormat from(String format, String contentType) {
+        if (format != null && !format.isBlank()) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw unsupported(format);
+            }
+        }
+        if (contentType != null) {
+            for (ProductIngestFormat candidate : values()) {
+                if (contentType.toLowerCase(Locale.ROOT).startsWith(candidate.contentType)) {
+                    return candidate;
+                }
+            }
+        }
+        throw unsupported(contentType);
+    }
+
+    private static IllegalArgumentException unsupported(String format) {
+        return new IllegalArgumentException("Unsupported ingest format: " + format + ". Supported formats: "
+                + Arrays.stream(values()).map(Enum::name).collect(Collectors.joining(", ")));
+    }
+}
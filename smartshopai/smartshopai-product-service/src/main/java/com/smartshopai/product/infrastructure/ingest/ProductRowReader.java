@@ -0,0 +1,195 @@
+package com.smartshopai.product.infrastructure.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Pulls ingest rows one at a time from an NDJSON or CSV stream.
+ * Only the current row is held in memory; a row that cannot be parsed is returned with an error
+ * instead of aborting the stream.
+ */
+public final class ProductRowReader implements Iterator<ProductRowReader.RawRow>, AutoCloseable {
+
+    private static final TypeReference<Map<String, Object>> ROW_TYPE = new TypeReference<>() {
+    };
+    private static final char LIST_SEPARATOR = '|';
+
+    private final BufferedReader reader;
+    private final ProductIngestFormat format;
+    private final ObjectMapper objectMapper;
+    private final Set<String> listColumns;
+    private List<String> header;
+    private long line;
+    private RawRow next;
+
+    /**
+     * @param listColumns CSV columns whose values are split on '|' into lists
+     */
+    public ProductRowReader(InputStream in, ProductIngestFormat format, ObjectMapper objectMapper, Set<String> listColumns) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.listColumns = listColumns;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = format == ProductIngestFormat.CSV ? readCsvRow() : readJsonRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public RawRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        RawRow row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private RawRow readJsonRow() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+        try {
+            return new RawRow(line, objectMapper.readValue(text, ROW_TYPE), null);
+        } catch (JsonProcessingException e) {
+            return new RawRow(line, null, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private RawRow readCsvRow() throws IOException {
+        if (header == null) {
+            List<String> names = readCsvRecord();
+            if (names == null) {
+                return null;
+            }
+            header = names.stream().map(String::trim).toList();
+        }
+        List<String> values;
+        long startLine;
+        do {
+            startLine = line + 1;
+            values = readCsvRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0).isBlank());
+
+        if (values.size() != header.size()) {
+            return new RawRow(startLine, null, "Expected " + header.size() + " columns but found " + values.size());
+        }
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String value = values.get(i);
+            if (value.isEmpty()) {
+                continue;
+            }
+            String column = header.get(i);
+            fields.put(column, listColumns.contains(column) ? splitList(value) : value);
+        }
+        return new RawRow(startLine, fields, null);
+    }
+
+    /**
+     * One RFC 4180 record; quoted fields may contain separators, doubled quotes and line breaks
+     *
+     * @return the fields, or null at end of input
+     */
+    private List<String> readCsvRecord() throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        line++;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int following = reader.read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static List<String> splitList(String value) {
+        List<String> items = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= value.length(); i++) {
+            if (i == value.length() || value.charAt(i) == LIST_SEPARATOR) {
+                String item = value.substring(start, i).trim();
+                if (!item.isEmpty()) {
+                    items.add(item);
+                }
+                start = i + 1;
+            }
+        }
+        return items;
+    }
+
+    /**
+     * A parsed row keyed by column name, or the reason it could not be parsed
+     *
+     * @param line 1-based line where the row starts
+     */
+    public record RawRow(long line, Map<String, Object> fields, String error) {
+    }
+}
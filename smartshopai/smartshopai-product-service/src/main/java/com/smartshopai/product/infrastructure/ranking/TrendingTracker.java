@@ -0,0 +1,135 @@
+package com.smartshopai.product.infrastructure.ranking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exponentially decayed view scores per product, one per {@link TrendingWindow}.
+ * A score is decayed lazily when it is touched, so recording a view is O(1) and never scans other products.
+ */
+@Component
+public class TrendingTracker {
+
+    private static final TrendingWindow[] WINDOWS = TrendingWindow.values();
+    /**
+     * A lifetime average says nothing about the last hour, so that window only ever counts live views
+     */
+    private static final TrendingWindow[] SEEDED_WINDOWS = {TrendingWindow.DAY, TrendingWindow.WEEK};
+    private static final long MIN_SEED_SPAN_MILLIS = 3_600_000;
+
+    private final Map<String, DecayedScore> scores = new ConcurrentHashMap<>();
+    private final double pruneBelow;
+
+    public TrendingTracker(@Value("${product.trending.prune-below-score:0.05}") double pruneBelow) {
+        this.pruneBelow = pruneBelow;
+    }
+
+    public void recordView(String productId, long nowMillis) {
+        record(productId, 1.0, nowMillis);
+    }
+
+    /**
+     * Add weight as if that many views happened at the given time
+     */
+    public void record(String productId, double weight, long atMillis) {
+        scores.computeIfAbsent(productId, id -> new DecayedScore()).add(weight, atMillis);
+    }
+
+    /**
+     * Seed a product from a lifetime view count, assuming the views were spread evenly between the two times.
+     * Each longer window gets the score that view rate settles at, never more than the views themselves.
+     */
+    public void seed(String productId, long views, long firstSeenMillis, long lastViewedMillis) {
+        double ratePerMilli = (double) views / Math.max(lastViewedMillis - firstSeenMillis, MIN_SEED_SPAN_MILLIS);
+        DecayedScore score = scores.computeIfAbsent(productId, id -> new DecayedScore());
+        for (TrendingWindow window : SEEDED_WINDOWS) {
+            score.add(window, Math.min(views, ratePerMilli * window.meanLifeMillis()), lastViewedMillis);
+        }
+    }
+
+    /**
+     * The k highest scoring products in the window, best first
+     */
+    public List<String> top(TrendingWindow window, int k, long nowMillis) {
+        PriorityQueue<Map.Entry<String, Double>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+        scores.forEach((productId, score) -> {
+            double value = score.valueAt(window, nowMillis);
+            if (heap.size() < k) {
+                heap.add(Map.entry(productId, value));
+            } else if (value > heap.peek().getValue()) {
+                heap.poll();
+                heap.add(Map.entry(productId, value));
+            }
+        });
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(heap);
+        ranked.sort(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder()));
+        return ranked.stream().map(Map.Entry::getKey).toList();
+    }
+
+    /**
+     * Forget products whose score has decayed below the threshold in every window
+     *
+     * @return number of products removed
+     */
+    public int prune(long nowMillis) {
+        int before = scores.size();
+        scores.entrySet().removeIf(entry -> entry.getValue().isNegligible(nowMillis, pruneBelow));
+        return before - scores.size();
+    }
+
+    public int size() {
+        return scores.size();
+    }
+
+    private static final class DecayedScore {
+
+        private final double[] values = new double[WINDOWS.length];
+        private long updatedAt;
+
+        synchronized void add(double weight, long atMillis) {
+            if (atMillis >= updatedAt) {
+                for (TrendingWindow window : WINDOWS) {
+                    values[window.ordinal()] = values[window.ordinal()] * window.decay(atMillis - updatedAt) + weight;
+                }
+                updatedAt = atMillis;
+            } else {
+                // Late event: decay it to the current reference time instead
+                for (TrendingWindow window : WINDOWS) {
+                    values[window.ordinal()] += weight * window.decay(updatedAt - atMillis);
+                }
+            }
+        }
+
+        synchronized void add(TrendingWindow window, double weight, long atMillis) {
+            if (atMillis >= updatedAt) {
+                for (TrendingWindow decayed : WINDOWS) {
+                    values[decayed.ordinal()] *= decayed.decay(atMillis - updatedAt);
+                }
+                values[window.ordinal()] += weight;
+                updatedAt = atMillis;
+            } else {
+                values[window.ordinal()] += weight * window.decay(updatedAt - atMillis);
+            }
+        }
+
+        synchronized double valueAt(TrendingWindow window, long nowMillis) {
+            return values[window.ordinal()] * window.decay(nowMillis - updatedAt);
+        }
+
+        synchronized boolean isNegligible(long nowMillis, double threshold) {
+            for (TrendingWindow window : WINDOWS) {
+                if (values[window.ordinal()] * window.decay(nowMillis - updatedAt) >= threshold) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
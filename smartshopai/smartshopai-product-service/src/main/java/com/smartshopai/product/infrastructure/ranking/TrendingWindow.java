@@ -0,0 +1,52 @@
+package com.smartshopai.product.infrastructure.ranking;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Sliding windows trending is ranked over; each is an exponentially decayed view count whose
+ * half-life sets how quickly old views stop counting
+ */
+public enum TrendingWindow {
+
+    HOUR(Duration.ofMinutes(15)),
+    DAY(Duration.ofHours(6)),
+    WEEK(Duration.ofDays(2));
+
+    private final double decayPerMilli;
+
+    TrendingWindow(Duration halfLife) {
+        this.decayPerMilli = Math.log(2) / halfLife.toMillis();
+    }
+
+    /**
+     * Factor a score decays by over the given number of milliseconds
+     */
+    double decay(long elapsedMillis) {
+        return Math.exp(-decayPerMilli * Math.max(elapsedMillis, 0));
+    }
+
+    /**
+     * Average age of a view still counted by the window; a steady view rate scores rate times this
+     */
+    double meanLifeMillis() {
+        return 1 / decayPerMilli;
+    }
+
+    /**
+     * @throws IllegalArgumentException for unknown windows
+     */
+    public static TrendingWindow from(String window) {
+        if (window == null || window.isBlank()) {
+            return DAY;
+        }
+        try {
+            return valueOf(window.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported trending window: " + window + ". Supported windows: "
+                    + Arrays.stream(values()).map(Enum::name).collect(Collectors.joining(", ")));
+        }
+    }
+}
@@ -2,113 +2,161 @@ package com.smartshopai.product.infrastructure.scraper;
 
 import com.microsoft.playwright.Browser;
 import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.BrowserType;
 import com.microsoft.playwright.Page;
 import com.microsoft.playwright.Playwright;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
- * Service for managing Playwright browser instances
- * Handles web scraping operations for product data collection
+ * Service for managing a bounded pool of warm Playwright browser contexts
+ * Handles web scraping operations for product data collection.
+ *
+ * Playwright objects are not thread-safe, so every pool slot owns its own Playwright, Browser and
+ * BrowserContext and drives them from a single dedicated thread. Callers borrow a slot, the task runs on
+ * the slot's thread in a fresh page, and the context is reused until it reaches its use limit.
+ *
+ * A caller waits at most the task timeout. A task that overruns it is cancelled, and its slot only rejoins
+ * the pool once the task has returned and the slot thread has replaced the context.
  */
 @Slf4j
 @Service
 public class PlaywrightService {
 
-    private Playwright playwright;
-    private Browser browser;
-    
-    @Value("${playwright.headless:true}")
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${scraping.playwright.browser.headless:true}")
     private boolean headless;
-    
-    @Value("${playwright.timeout:30000}")
+
+    @Value("${scraping.playwright.timeout:30000}")
     private int timeout;
 
+    /**
+     * Request resource types aborted before they leave the browser; empty loads everything
+     */
+    @Value("${scraping.playwright.blocked-resource-types:image,media,font}")
+    private Set<String> blockedResourceTypes;
+
+    @Value("${scraping.playwright.task-timeout-ms:120000}")
+    private long taskTimeoutMillis;
+
+    @Value("${scraping.pool.size:4}")
+    private int poolSize;
+
+    @Value("${scraping.pool.context-max-uses:50}")
+    private int contextMaxUses;
+
+    private final List<ContextSlot> slots = new ArrayList<>();
+    private BlockingQueue<ContextSlot> idleSlots;
+
+    public PlaywrightService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @PostConstruct
     void initialize() {
         try {
-            log.info("Initializing Playwright service...");
-            this.playwright = Playwright.create();
-            
-            // Configure browser options
-            this.browser = playwright.chromium().launch();
+            log.info("Initializing Playwright context pool with {} slots...", poolSize);
+            idleSlots = new ArrayBlockingQueue<>(poolSize);
+            for (int i = 0; i < poolSize; i++) {
+                ContextSlot slot = new ContextSlot(i);
+                slot.start();
+                slots.add(slot);
+                idleSlots.add(slot);
+            }
+            Gauge.builder("scraping.pool.size", slots, List::size)
+                    .description("Browser context pool capacity")
+                    .register(meterRegistry);
+            Gauge.builder("scraping.pool.in-use", this, PlaywrightService::inUse)
+                    .description("Browser contexts currently running a scrape")
+                    .register(meterRegistry);
+            Gauge.builder("scraping.pool.utilization", this, service -> (double) service.inUse() / service.slots.size())
+                    .description("Fraction of browser contexts in use")
+                    .register(meterRegistry);
             log.info("Playwright service initialized successfully");
         } catch (Exception e) {
             log.error("Failed to initialize Playwright service", e);
+            cleanup();
             throw new RuntimeException("Playwright initialization failed", e);
         }
     }
 
     @PreDestroy
     void cleanup() {
-        try {
-            if (browser != null) {
-                browser.close();
-                log.info("Browser closed");
-            }
-            if (playwright != null) {
-                playwright.close();
-                log.info("Playwright closed");
-            }
-        } catch (Exception e) {
-            log.error("Error during Playwright cleanup", e);
-        }
+        slots.forEach(ContextSlot::stop);
+        log.info("Playwright context pool closed");
     }
 
-    public Browser getBrowser() {
-        return browser;
-    }
-    
-    /**
-     * Create a new browser context with default settings
-     */
-    public BrowserContext createContext() {
-        return browser.newContext(new Browser.NewContextOptions()
-                .setUserAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36")
-                .setViewportSize(1920, 1080)
-                .setLocale("tr-TR")
-                .setTimezoneId("Europe/Istanbul"));
+    public int getPoolSize() {
+        return slots.size();
     }
-    
-    /**
-     * Create a new page with timeout and error handling
-     */
-    public Page createPage(BrowserContext context) {
-        Page page = context.newPage();
-        page.setDefaultTimeout(timeout);
-        return page;
+
+    private int inUse() {
+        return slots.size() - idleSlots.size();
     }
-    
+
     /**
-     * Execute scraping task with automatic cleanup
+     * Execute scraping task on a pooled context, waiting for a free slot if all are busy
      */
     public <T> T executeScrapingTask(ScrapingTask<T> task) {
-        BrowserContext context = null;
-        Page page = null;
-        
+        ContextSlot slot;
         try {
-            context = createContext();
-            page = createPage(context);
-            return task.execute(page);
-        } catch (Exception e) {
-            log.error("Error during scraping task execution", e);
-            throw new RuntimeException("Scraping task failed", e);
-        } finally {
-            if (page != null) {
-                page.close();
-            }
-            if (context != null) {
-                context.close();
-            }
+            slot = idleSlots.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a browser context", e);
+        }
+
+        Future<T> result = slot.submit(task);
+        try {
+            T value = result.get(taskTimeoutMillis, TimeUnit.MILLISECONDS);
+            idleSlots.add(slot);
+            return value;
+        } catch (ExecutionException e) {
+            idleSlots.add(slot);
+            log.error("Error during scraping task execution", e.getCause());
+            throw new RuntimeException("Scraping task failed", e.getCause());
+        } catch (TimeoutException e) {
+            abandon(slot, result);
+            throw new RuntimeException("Scraping task timed out after " + taskTimeoutMillis + " ms", e);
+        } catch (InterruptedException e) {
+            abandon(slot, result);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during scraping task", e);
         }
     }
-    
+
+    /**
+     * Cancel a task the caller stopped waiting for and return its slot to the pool with a fresh context
+     * once the slot thread is free again
+     */
+    private void abandon(ContextSlot slot, Future<?> result) {
+        result.cancel(true);
+        log.warn("Abandoned scraping task on {}; the slot rejoins the pool after recycling its context", slot.name);
+        slot.recycleThenRelease(() -> idleSlots.add(slot));
+    }
+
     /**
      * Functional interface for scraping tasks
      */
@@ -116,4 +164,137 @@ public class PlaywrightService {
     public interface ScrapingTask<T> {
         T execute(Page page) throws Exception;
     }
+
+    /**
+     * One Playwright instance with a reusable context, confined to its own thread
+     */
+    private final class ContextSlot {
+
+        private final String name;
+        private final ExecutorService thread;
+        private Playwright playwright;
+        private Browser browser;
+        private BrowserContext context;
+        private int contextUses;
+
+        ContextSlot(int index) {
+            this.name = "playwright-" + index;
+            this.thread = Executors.newSingleThreadExecutor(runnable -> {
+                Thread worker = new Thread(runnable, name);
+                worker.setDaemon(true);
+                return worker;
+            });
+        }
+
+        void start() throws ExecutionException, InterruptedException {
+            thread.submit(() -> {
+                playwright = Playwright.create();
+                browser = launchBrowser();
+                context = newContext();
+            }).get();
+        }
+
+        <T> Future<T> submit(ScrapingTask<T> task) {
+            return thread.submit(() -> {
+                if (context == null || contextUses >= contextMaxUses) {
+                    recycleContext();
+                }
+                contextUses++;
+                Page page = context.newPage();
+                page.setDefaultTimeout(timeout);
+                try {
+                    return task.execute(page);
+                } catch (Exception e) {
+                    // Start the next task from a clean context
+                    try {
+                        recycleContext();
+                    } catch (Exception recycleFailure) {
+                        e.addSuppressed(recycleFailure);
+                        context = null;
+                    }
+                    throw e;
+                } finally {
+                    if (!page.isClosed()) {
+                        page.close();
+                    }
+                }
+            });
+        }
+
+        /**
+         * Queue a context replacement behind whatever the slot thread is running, then release the slot.
+         * The slot thread is single-threaded, so this never touches the context of a task still in progress.
+         */
+        void recycleThenRelease(Runnable release) {
+            try {
+                thread.submit(() -> {
+                    try {
+                        recycleContext();
+                    } catch (Exception e) {
+                        log.error("Failed to recycle browser context on {}", name, e);
+                        context = null;
+                    } finally {
+                        release.run();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.debug("{} is shutting down; not returning it to the pool", name);
+            }
+        }
+
+        void stop() {
+            try {
+                thread.submit(() -> {
+                    if (browser != null) {
+                        browser.close();
+                    }
+                    if (playwright != null) {
+                        playwright.close();
+                    }
+                }).get(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                log.error("Error during Playwright cleanup", e);
+            } finally {
+                thread.shutdownNow();
+            }
+        }
+
+        private void recycleContext() {
+            if (context != null) {
+                try {
+                    context.close();
+                } catch (Exception e) {
+                    log.debug("Failed to close browser context", e);
+                }
+            }
+            if (!browser.isConnected()) {
+                log.warn("Browser disconnected; relaunching");
+                browser = launchBrowser();
+            }
+            context = newContext();
+            contextUses = 0;
+        }
+
+        private Browser launchBrowser() {
+            return playwright.chromium().launch(new BrowserType.LaunchOptions().setHeadless(headless));
+        }
+
+        private BrowserContext newContext() {
+            BrowserContext newContext = browser.newContext(new Browser.NewContextOptions()
+                    .setUserAgent(USER_AGENT)
+                    .setViewportSize(1920, 1080)
+                    .setLocale("tr-TR")
+                    .setTimezoneId("Europe/Istanbul"));
+            if (!blockedResourceTypes.isEmpty()) {
+                newContext.route("**/*", route -> {
+                    if (blockedResourceTypes.contains(route.request().resourceType())) {
+                        route.abort();
+                    } else {
+                        route.resume();
+                    }
+                });
+            }
+            return newContext;
+        }
+    }
 }
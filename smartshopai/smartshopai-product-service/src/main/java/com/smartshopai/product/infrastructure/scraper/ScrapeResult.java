@@ -0,0 +1,25 @@
+package com.smartshopai.product.infrastructure.scraper;
+
+import com.smartshopai.product.domain.entity.Product;
+
+/**
+ * Outcome of scraping a single URL; exactly one of product and error is set
+ */
+public record ScrapeResult(String url, Product product, String error, long durationMs) {
+
+    public static ScrapeResult success(String url, Product product, long durationMs) {
+        return new ScrapeResult(url, product, null, durationMs);
+    }
+
+    public static ScrapeResult failure(String url, String error, long durationMs) {
+        return new ScrapeResult(url, null, error, durationMs);
+    }
+
+    public boolean isSuccess() {
+        return product != null;
+    }
+
+    public ScrapeResult withProduct(Product product) {
+        return new ScrapeResult(url, product, error, durationMs);
+    }
+}
@@ -23,4 +23,13 @@ public interface ScraperStrategy {
      * @return true if the strategy can handle the URL, false otherwise.
      */
     boolean canHandle(String url);
+
+    /**
+     * Name of the fetch tier this strategy belongs to, used to tag latency metrics.
+     * Strategies are tried in {@link org.springframework.core.annotation.Order} order, cheapest tier first;
+     * a strategy that throws hands the URL to the next strategy that can handle it.
+     */
+    default String tier() {
+        return "browser";
+    }
 }
@@ -0,0 +1,361 @@
+package com.smartshopai.product.infrastructure.scraper;
+
+import com.smartshopai.product.domain.entity.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Scrapes batches of URLs concurrently on the Playwright context pool.
+ *
+ * Each host gets a gate that caps concurrent scrapes and spaces request starts by a politeness delay.
+ * URLs whose host is busy wait in a delay queue instead of holding a worker, so other hosts keep
+ * progressing. Results are streamed back in completion order.
+ */
+@Slf4j
+@Component
+public class ScrapingEngine {
+
+    private static final long MIN_RETRY_MILLIS = 50;
+    private static final long POLL_MILLIS = 250;
+
+    private final List<ScraperStrategy> scraperStrategies;
+    private final PlaywrightService playwrightService;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, DomainGate> domainGates = new ConcurrentHashMap<>();
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final ThroughputWindow throughput = new ThroughputWindow();
+
+    @Value("${scraping.engine.per-domain-concurrency:2}")
+    private int perDomainConcurrency;
+
+    @Value("${scraping.engine.politeness-delay-ms:1000}")
+    private long politenessDelayMillis;
+
+    @Value("${scraping.engine.result-timeout-ms:300000}")
+    private long resultTimeoutMillis;
+
+    private Counter succeeded;
+    private Counter failed;
+    private Timer scrapeTimer;
+
+    public ScrapingEngine(List<ScraperStrategy> scraperStrategies,
+                          PlaywrightService playwrightService,
+                          MeterRegistry meterRegistry) {
+        this.scraperStrategies = scraperStrategies;
+        this.playwrightService = playwrightService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        succeeded = Counter.builder("scraping.urls").tag("outcome", "success").register(meterRegistry);
+        failed = Counter.builder("scraping.urls").tag("outcome", "failure").register(meterRegistry);
+        scrapeTimer = Timer.builder("scraping.duration")
+                .description("Time to scrape a single URL, including waiting for a browser context")
+                .register(meterRegistry);
+        Gauge.builder("scraping.throughput.per-minute", throughput, window -> window.lastMinute(nowSeconds()))
+                .description("URLs scraped during the last minute")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Scrape the URLs concurrently; duplicates are scraped once.
+     * If no result arrives within the result timeout, every URL still outstanding yields a "timed out"
+     * failure and the workers drop it, so the stream always ends with one result per URL.
+     *
+     * @return one result per distinct URL, in completion order
+     */
+    public Stream<ScrapeResult> scrape(Collection<String> urls) {
+        List<String> batch = List.copyOf(new LinkedHashSet<>(urls));
+        if (batch.isEmpty()) {
+            return Stream.empty();
+        }
+
+        Batch scrapes = new Batch(batch);
+        int workerCount = Math.min(playwrightService.getPoolSize(), batch.size());
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(() -> drain(scrapes));
+        }
+        log.info("Scraping {} URLs with {} workers", batch.size(), workerCount);
+
+        return Stream.generate(scrapes::next).limit(batch.size()).onClose(() -> scrapes.expire("cancelled"));
+    }
+
+    private void drain(Batch scrapes) {
+        try {
+            while (!scrapes.outstanding.isEmpty()) {
+                PendingUrl next = scrapes.pending.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (next == null || !scrapes.outstanding.contains(next.url())) {
+                    continue;
+                }
+                ScrapeResult result;
+                try {
+                    DomainGate gate = domainGates.computeIfAbsent(host(next.url()), host -> new DomainGate());
+                    long wait = gate.tryEnter(System.currentTimeMillis());
+                    if (wait > 0) {
+                        scrapes.pending.add(new PendingUrl(next.url(), System.currentTimeMillis() + wait));
+                        continue;
+                    }
+                    try {
+                        result = scrapeOne(next.url());
+                    } finally {
+                        gate.exit();
+                    }
+                } catch (Exception e) {
+                    // Every URL must yield a result, or the consumer would wait on it forever
+                    log.error("Unexpected failure scraping {}", next.url(), e);
+                    result = ScrapeResult.failure(next.url(), e.toString(), 0);
+                    failed.increment();
+                }
+                scrapes.complete(result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Scrape one URL on the calling thread, falling back through the strategy tiers that can handle it
+     *
+     * @throws IllegalArgumentException if no strategy handles the URL
+     */
+    public Product scrape(String url) throws Exception {
+        List<ScraperStrategy> candidates = scraperStrategies.stream()
+                .filter(s -> s.canHandle(url))
+                .toList();
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("No scraper strategy found for URL: " + url);
+        }
+
+        Exception lastFailure = null;
+        for (ScraperStrategy strategy : candidates) {
+            long start = System.nanoTime();
+            try {
+                Product product = strategy.scrape(url);
+                tierTimer(strategy.tier(), "success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return product;
+            } catch (Exception e) {
+                tierTimer(strategy.tier(), "failure").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                log.debug("{} tier could not scrape {}: {}", strategy.tier(), url, e.getMessage());
+                if (lastFailure != null) {
+                    e.addSuppressed(lastFailure);
+                }
+                lastFailure = e;
+            }
+        }
+        throw lastFailure;
+    }
+
+    private Timer tierTimer(String tier, String outcome) {
+        return Timer.builder("scraping.tier.duration")
+                .description("Time spent in a single scraping tier")
+                .tag("tier", tier)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private ScrapeResult scrapeOne(String url) {
+        long start = System.nanoTime();
+        ScrapeResult result;
+        try {
+            Product product = scrape(url);
+            result = ScrapeResult.success(url, product, elapsedMillis(start));
+            succeeded.increment();
+        } catch (Exception e) {
+            log.warn("Failed to scrape {}: {}", url, e.getMessage());
+            result = ScrapeResult.failure(url, e.getMessage(), elapsedMillis(start));
+            failed.increment();
+        }
+        scrapeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        throughput.record(nowSeconds());
+        return result;
+    }
+
+    private static String host(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host.toLowerCase(Locale.ROOT);
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    /**
+     * Per-host concurrency cap and politeness spacing
+     */
+    private final class DomainGate {
+
+        private int active;
+        private long nextStartMillis;
+
+        /**
+         * @return 0 if the caller may start now, otherwise milliseconds to wait before retrying
+         */
+        synchronized long tryEnter(long now) {
+            if (active >= perDomainConcurrency) {
+                return Math.max(politenessDelayMillis, MIN_RETRY_MILLIS);
+            }
+            if (now < nextStartMillis) {
+                return nextStartMillis - now;
+            }
+            active++;
+            nextStartMillis = now + politenessDelayMillis;
+            return 0;
+        }
+
+        synchronized void exit() {
+            active--;
+        }
+    }
+
+    /**
+     * Shared state of one scrape call. A URL is removed from the outstanding set exactly once, either by the
+     * worker that scraped it or by the consumer giving up on it, and only that side reports its result.
+     */
+    private final class Batch {
+
+        private final DelayQueue<PendingUrl> pending = new DelayQueue<>();
+        private final Set<String> outstanding = ConcurrentHashMap.newKeySet();
+        private final BlockingQueue<ScrapeResult> results = new LinkedBlockingQueue<>();
+        private final Queue<ScrapeResult> expired = new ConcurrentLinkedQueue<>();
+        private final long startNanos = System.nanoTime();
+
+        Batch(List<String> urls) {
+            long now = System.currentTimeMillis();
+            outstanding.addAll(urls);
+            urls.forEach(url -> pending.add(new PendingUrl(url, now)));
+        }
+
+        void complete(ScrapeResult result) {
+            if (outstanding.remove(result.url())) {
+                results.add(result);
+            }
+        }
+
+        /**
+         * Fail every URL no worker has finished yet; workers skip them from now on
+         */
+        void expire(String reason) {
+            for (String url : outstanding) {
+                if (outstanding.remove(url)) {
+                    expired.add(ScrapeResult.failure(url, reason, elapsedMillis(startNanos)));
+                    failed.increment();
+                }
+            }
+        }
+
+        ScrapeResult next() {
+            boolean interrupted = false;
+            while (true) {
+                ScrapeResult result = results.poll();
+                if (result == null) {
+                    result = expired.poll();
+                }
+                if (result != null) {
+                    if (interrupted) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return result;
+                }
+                if (interrupted) {
+                    // Only results a worker claimed just before the expiry are left; they arrive momentarily
+                    Thread.onSpinWait();
+                    continue;
+                }
+                try {
+                    result = results.poll(resultTimeoutMillis, TimeUnit.MILLISECONDS);
+                    if (result != null) {
+                        return result;
+                    }
+                    log.warn("No scrape result within {} ms; failing {} outstanding URLs", resultTimeoutMillis,
+                            outstanding.size());
+                    expire("timed out");
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    expire("interrupted");
+                }
+            }
+        }
+    }
+
+    private record PendingUrl(String url, long readyAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(readyAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(readyAtMillis, ((PendingUrl) other).readyAtMillis);
+        }
+    }
+
+    /**
+     * Completions per second over a sliding one-minute window
+     */
+    private static final class ThroughputWindow {
+
+        private final long[] seconds = new long[60];
+        private final long[] counts = new long[60];
+
+        synchronized void record(long nowSecond) {
+            int slot = (int) (nowSecond % seconds.length);
+            if (seconds[slot] != nowSecond) {
+                seconds[slot] = nowSecond;
+                counts[slot] = 0;
+            }
+            counts[slot]++;
+        }
+
+        synchronized long lastMinute(long nowSecond) {
+            long total = 0;
+            for (int i = 0; i < seconds.length; i++) {
+                if (nowSecond - seconds[i] < seconds.length) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+    }
+}
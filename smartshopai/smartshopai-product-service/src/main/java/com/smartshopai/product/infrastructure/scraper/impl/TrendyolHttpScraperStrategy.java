@@ -0,0 +1,189 @@
+package com.smartshopai.product.infrastructure.scraper.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartshopai.product.domain.entity.Product;
+import com.smartshopai.product.infrastructure.scraper.ScraperStrategy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Browser-less scraping strategy for Trendyol: fetches the static HTML and reads the schema.org Product
+ * JSON-LD block. Pages without a usable block fail fast so the browser strategy takes over.
+ */
+@Slf4j
+@Component
+@Order(1)
+public class TrendyolHttpScraperStrategy implements ScraperStrategy {
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+    private static final Pattern JSON_LD = Pattern.compile(
+            "<script[^>]*type=[\"']application/ld\\+json[\"'][^>]*>(.*?)</script>",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    public TrendyolHttpScraperStrategy(ObjectMapper objectMapper,
+                                       @Value("${scraping.http.enabled:true}") boolean enabled,
+                                       @Value("${scraping.http.timeout-ms:10000}") long timeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Override
+    public boolean canHandle(String url) {
+        return enabled && url != null && url.contains("trendyol.com");
+    }
+
+    @Override
+    public String tier() {
+        return "http";
+    }
+
+    @Override
+    public Product scrape(String url) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(timeout)
+                .header("User-Agent", USER_AGENT)
+                .header("Accept", "text/html")
+                .header("Accept-Language", "tr-TR,tr;q=0.9")
+                .GET()
+                .build();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching " + url, e);
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("HTTP " + response.statusCode() + " for " + url);
+        }
+
+        JsonNode productNode = findProductNode(response.body());
+        if (productNode == null) {
+            throw new IOException("No Product JSON-LD found at " + url);
+        }
+        JsonNode offer = first(productNode.path("offers"));
+        String priceText = text(offer, "price");
+        if (priceText == null) {
+            priceText = text(offer, "lowPrice");
+        }
+        String name = text(productNode, "name");
+        if (name == null || priceText == null) {
+            throw new IOException("Incomplete Product JSON-LD at " + url);
+        }
+
+        Map<String, Object> specifications = new HashMap<>();
+        for (JsonNode property : productNode.path("additionalProperty")) {
+            String key = text(property, "name");
+            String value = text(property, "value");
+            if (key != null && value != null) {
+                specifications.put(key.trim(), value.trim());
+            }
+        }
+
+        BigDecimal price = parsePrice(priceText);
+        String currency = text(offer, "priceCurrency");
+        log.info("Scraped product from static HTML: {}, Price: {}", name, price);
+
+        return Product.builder()
+                .name(name)
+                .description(text(productNode, "description"))
+                .url(url)
+                .mainImage(image(productNode.path("image")))
+                .price(price)
+                .specifications(specifications)
+                .currency(currency != null ? currency : "TRY")
+                .source("TRENDYOL")
+                .build();
+    }
+
+    private JsonNode findProductNode(String html) {
+        Matcher matcher = JSON_LD.matcher(html);
+        while (matcher.find()) {
+            try {
+                JsonNode product = findProductNode(objectMapper.readTree(matcher.group(1).trim()));
+                if (product != null) {
+                    return product;
+                }
+            } catch (IOException e) {
+                log.debug("Skipping malformed JSON-LD block: {}", e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private static JsonNode findProductNode(JsonNode node) {
+        if (node.isArray()) {
+            for (JsonNode element : node) {
+                JsonNode product = findProductNode(element);
+                if (product != null) {
+                    return product;
+                }
+            }
+            return null;
+        }
+        if (isProduct(node.path("@type"))) {
+            return node;
+        }
+        return node.has("@graph") ? findProductNode(node.get("@graph")) : null;
+    }
+
+    private static boolean isProduct(JsonNode type) {
+        if (type.isArray()) {
+            for (JsonNode element : type) {
+                if ("Product".equals(element.asText())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return "Product".equals(type.asText());
+    }
+
+    private static JsonNode first(JsonNode node) {
+        return node.isArray() ? node.path(0) : node;
+    }
+
+    private static String image(JsonNode image) {
+        JsonNode first = first(image);
+        return first.isObject() ? text(first, "url") : first.isValueNode() ? first.asText() : null;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.path(field);
+        return value.isValueNode() && !value.isNull() ? value.asText() : null;
+    }
+
+    private static BigDecimal parsePrice(String priceText) {
+        try {
+            // JSON-LD prices are plain decimals
+            return new BigDecimal(priceText.trim());
+        } catch (NumberFormatException e) {
+            return TrendyolScraperStrategy.parsePrice(priceText);
+        }
+    }
+}
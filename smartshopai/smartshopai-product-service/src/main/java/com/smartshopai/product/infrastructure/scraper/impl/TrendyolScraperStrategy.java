@@ -3,8 +3,11 @@ package com.smartshopai.product.infrastructure.scraper.impl;
 import com.smartshopai.product.domain.entity.Product;
 import com.smartshopai.product.infrastructure.scraper.PlaywrightService;
 import com.smartshopai.product.infrastructure.scraper.ScraperStrategy;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.options.WaitUntilState;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -12,13 +15,34 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Scraping strategy for Trendyol e-commerce site
+ * Browser scraping strategy for Trendyol e-commerce site, used when the static HTML tier cannot parse a page
  */
 @Slf4j
 @Component
+@Order(2)
 @RequiredArgsConstructor
 public class TrendyolScraperStrategy implements ScraperStrategy {
 
+    private static final String EXTRACT_FIELDS_SCRIPT = """
+            () => {
+              const text = selector => document.querySelector(selector)?.innerText ?? null;
+              const specifications = {};
+              document.querySelectorAll('ul.detail-attr-container li.detail-attr-item').forEach(item => {
+                const spans = item.querySelectorAll('span');
+                if (spans.length > 0) {
+                  specifications[spans[0].innerText] = spans[spans.length - 1].innerText;
+                }
+              });
+              return {
+                name: text('h1.pr-new-br'),
+                price: text('div.product-price-container span.prc-dsc'),
+                image: document.querySelector('div.base-product-image img')?.getAttribute('src') ?? null,
+                description: text('div.detail-desc-list'),
+                specifications
+              };
+            }
+            """;
+
     private final PlaywrightService playwrightService;
 
     @Override
@@ -31,26 +55,28 @@ public class TrendyolScraperStrategy implements ScraperStrategy {
         return playwrightService.executeScrapingTask(page -> {
             try {
                 log.info("Starting to scrape Trendyol URL: {}", url);
-                page.navigate(url);
+                page.navigate(url, new Page.NavigateOptions().setWaitUntil(WaitUntilState.DOMCONTENTLOADED));
 
                 // Wait for the main product container to ensure the page is loaded
                 page.waitForSelector("div.product-container");
 
-                // Extract product information
-                String name = page.locator("h1.pr-new-br").innerText();
-                String priceText = page.locator("div.product-price-container span.prc-dsc").innerText();
-                String imageUrl = page.locator("div.base-product-image img").first().getAttribute("src");
-                String description = page.locator("div.detail-desc-list").innerText();
+                // Extract every field in one round-trip to the browser
+                @SuppressWarnings("unchecked")
+                Map<String, Object> fields = (Map<String, Object>) page.evaluate(EXTRACT_FIELDS_SCRIPT);
+                String name = (String) fields.get("name");
+                String priceText = (String) fields.get("price");
+                String imageUrl = (String) fields.get("image");
+                String description = (String) fields.get("description");
 
-                // Extract specifications
                 Map<String, Object> specifications = new HashMap<>();
-                page.locator("ul.detail-attr-container li.detail-attr-item").all().forEach(spec -> {
-                    String key = spec.locator("span").first().innerText();
-                    String value = spec.locator("span").last().innerText();
-                    if (key != null && value != null) {
-                        specifications.put(key.trim(), value.trim());
-                    }
-                });
+                Object specs = fields.get("specifications");
+                if (specs instanceof Map<?, ?> specMap) {
+                    specMap.forEach((key, value) -> {
+                        if (key != null && value != null) {
+                            specifications.put(key.toString().trim(), value.toString().trim());
+                        }
+                    });
+                }
 
                 // Parse price
                 BigDecimal price = parsePrice(priceText);
@@ -75,7 +101,7 @@ public class TrendyolScraperStrategy implements ScraperStrategy {
         });
     }
 
-    private BigDecimal parsePrice(String priceText) {
+    static BigDecimal parsePrice(String priceText) {
         if (priceText == null || priceText.trim().isEmpty()) {
             return BigDecimal.ZERO;
         }
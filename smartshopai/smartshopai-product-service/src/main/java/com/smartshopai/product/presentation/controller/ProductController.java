@@ -1,23 +1,35 @@
 package com.smartshopai.product.presentation.controller;
 
 import com.smartshopai.common.dto.BaseResponse;
+import com.smartshopai.common.dto.SearchResponse;
 import com.smartshopai.product.application.dto.request.CreateProductRequest;
+import com.smartshopai.product.application.dto.response.CursorPageResponse;
+import com.smartshopai.product.application.dto.response.PriceHistoryResponse;
 import com.smartshopai.product.application.dto.response.ProductAnalysisResponse;
 import com.smartshopai.product.application.dto.response.ProductResponse;
+import com.smartshopai.product.application.dto.response.ProductSearchDocumentResponse;
+import com.smartshopai.product.application.dto.response.ProductSummaryResponse;
+import com.smartshopai.product.application.dto.response.ProductIngestResponse;
 import com.smartshopai.product.application.service.ProductApplicationService;
+import com.smartshopai.product.application.service.ProductIngestService;
+import com.smartshopai.product.domain.service.ProductListingFilter;
+import com.smartshopai.product.infrastructure.ingest.ProductIngestFormat;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -32,6 +44,7 @@ import java.util.List;
 public class ProductController {
 
     private final ProductApplicationService productApplicationService;
+    private final ProductIngestService productIngestService;
 
     @PostMapping
     
@@ -43,6 +56,18 @@ public class ProductController {
                 .body(BaseResponse.success(productResponse, "Product created successfully"));
     }
 
+    @PostMapping(value = "/bulk", consumes = {"application/x-ndjson", "text/csv"})
+    @Operation(summary = "Bulk ingest products",
+            description = "Streams NDJSON or CSV rows and upserts them on productId, ean or url; returns a per-row error report")
+    public ResponseEntity<BaseResponse<ProductIngestResponse>> ingestProducts(
+            @RequestParam(required = false) String format,
+            HttpServletRequest request) throws IOException {
+        ProductIngestFormat ingestFormat = ProductIngestFormat.from(format, request.getContentType());
+        log.info("Bulk ingesting products as {}", ingestFormat);
+        var report = productIngestService.ingest(request.getInputStream(), ingestFormat);
+        return ResponseEntity.ok(BaseResponse.success(report));
+    }
+
     @GetMapping("/{id}")
     
     @Operation(summary = "Get product by ID", description = "Retrieves product information by ID")
@@ -55,6 +80,18 @@ public class ProductController {
                         .body(BaseResponse.error("Product not found")));
     }
 
+    @GetMapping("/{id}/price-history")
+    
+    @Operation(summary = "Get price history", description = "Retrieves price points for a product within a time range")
+    public ResponseEntity<BaseResponse<List<PriceHistoryResponse>>> getPriceHistory(
+            @PathVariable String id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.debug("Getting price history for product: {}", id);
+        var history = productApplicationService.getPriceHistory(id, from, to != null ? to : LocalDateTime.now());
+        return ResponseEntity.ok(BaseResponse.success(history));
+    }
+
     @GetMapping("/by-product-id/{productId}")
     
     @Operation(summary = "Get product by product ID", description = "Retrieves product information by product ID")
@@ -86,70 +123,138 @@ public class ProductController {
         return ResponseEntity.ok(BaseResponse.success(null, "Product deleted successfully"));
     }
 
+    @GetMapping
+    @Operation(summary = "List products", description = "Lists product cards with optional filters and cursor pagination")
+    public ResponseEntity<BaseResponse<CursorPageResponse<ProductSummaryResponse>>> listProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
+        log.debug("Listing products, cursor: {}", cursor);
+        var products = productApplicationService.listProducts(ProductListingFilter.builder()
+                .category(category)
+                .brand(brand)
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .minRating(minRating)
+                .inStock(inStock)
+                .build(), cursor, size);
+        return ResponseEntity.ok(BaseResponse.success(products));
+    }
+
+    @GetMapping("/search-documents")
+    @Operation(summary = "Feed search documents", description = "Pages through every product with the fields a search index needs")
+    public ResponseEntity<BaseResponse<CursorPageResponse<ProductSearchDocumentResponse>>> listSearchDocuments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") Integer size) {
+        log.debug("Feeding search documents, cursor: {}", cursor);
+        return ResponseEntity.ok(BaseResponse.success(productApplicationService.listSearchDocuments(cursor, size)));
+    }
+
     @GetMapping("/category/{category}")
     
-    @Operation(summary = "Get products by category", description = "Retrieves products by category with pagination")
-    public ResponseEntity<BaseResponse<List<ProductResponse>>> getProductsByCategory(@PathVariable String category,
-                                                                                   Pageable pageable) {
+    @Operation(summary = "Get products by category", description = "Retrieves product cards by category with cursor pagination")
+    public ResponseEntity<BaseResponse<CursorPageResponse<ProductSummaryResponse>>> getProductsByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
         log.debug("Getting products by category: {}", category);
-        var products = productApplicationService.getProductsByCategory(category);
+        var products = productApplicationService.listProducts(
+                ProductListingFilter.builder().category(category).build(), cursor, size);
         return ResponseEntity.ok(BaseResponse.success(products));
     }
 
     @GetMapping("/brand/{brand}")
     
-    @Operation(summary = "Get products by brand", description = "Retrieves products by brand with pagination")
-    public ResponseEntity<BaseResponse<List<ProductResponse>>> getProductsByBrand(@PathVariable String brand,
-                                                                                Pageable pageable) {
+    @Operation(summary = "Get products by brand", description = "Retrieves product cards by brand with cursor pagination")
+    public ResponseEntity<BaseResponse<CursorPageResponse<ProductSummaryResponse>>> getProductsByBrand(
+            @PathVariable String brand,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
         log.debug("Getting products by brand: {}", brand);
-        var products = productApplicationService.getProductsByBrand(brand);
+        var products = productApplicationService.listProducts(
+                ProductListingFilter.builder().brand(brand).build(), cursor, size);
         return ResponseEntity.ok(BaseResponse.success(products));
     }
 
     @GetMapping("/search")
     
-    @Operation(summary = "Search products", description = "Searches products by text")
-    public ResponseEntity<BaseResponse<List<ProductResponse>>> searchProducts(@RequestParam String q) {
+    @Operation(summary = "Search products", description = "Searches products by text with filters, sorting and pagination")
+    public ResponseEntity<BaseResponse<SearchResponse<ProductResponse>>> searchProducts(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) String sortOrder,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size) {
         log.debug("Searching products with query: {}", q);
         var products = productApplicationService.searchProducts(
-                com.smartshopai.product.application.dto.request.ProductSearchRequest.builder().query(q).build());
+                com.smartshopai.product.application.dto.request.ProductSearchRequest.builder()
+                        .query(q)
+                        .category(category)
+                        .brand(brand)
+                        .minPrice(minPrice)
+                        .maxPrice(maxPrice)
+                        .sortBy(sortBy)
+                        .sortOrder(sortOrder)
+                        .page(page)
+                        .size(size)
+                        .build());
         return ResponseEntity.ok(BaseResponse.success(products));
     }
 
     @GetMapping("/price-range")
     
-    @Operation(summary = "Get products by price range", description = "Retrieves products within a price range")
-    public ResponseEntity<BaseResponse<List<ProductResponse>>> getProductsByPriceRange(
+    @Operation(summary = "Get products by price range", description = "Retrieves product cards within a price range with cursor pagination")
+    public ResponseEntity<BaseResponse<CursorPageResponse<ProductSummaryResponse>>> getProductsByPriceRange(
             @RequestParam BigDecimal minPrice,
-            @RequestParam BigDecimal maxPrice) {
+            @RequestParam BigDecimal maxPrice,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
         log.debug("Getting products by price range: {} - {}", minPrice, maxPrice);
-        var products = productApplicationService.getProductsByPriceRange(
-                minPrice.doubleValue(), maxPrice.doubleValue());
+        var products = productApplicationService.listProducts(
+                ProductListingFilter.builder().minPrice(minPrice).maxPrice(maxPrice).build(), cursor, size);
         return ResponseEntity.ok(BaseResponse.success(products));
     }
 
     @GetMapping("/rating/{minRating}")
     
-    @Operation(summary = "Get products by minimum rating", description = "Retrieves products with minimum rating")
-    public ResponseEntity<BaseResponse<List<ProductResponse>>> getProductsByMinRating(@PathVariable Double minRating) {
+    @Operation(summary = "Get products by minimum rating", description = "Retrieves product cards with minimum rating with cursor pagination")
+    public ResponseEntity<BaseResponse<CursorPageResponse<ProductSummaryResponse>>> getProductsByMinRating(
+            @PathVariable Double minRating,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
         log.debug("Getting products by minimum rating: {}", minRating);
-        List<ProductResponse> products = productApplicationService.getProductsByMinRating(minRating);
+        var products = productApplicationService.listProducts(
+                ProductListingFilter.builder().minRating(minRating).build(), cursor, size);
         return ResponseEntity.ok(BaseResponse.success(products));
     }
 
     @GetMapping("/featured")
-    @Operation(summary = "Get featured products", description = "Retrieves a list of products marked as featured.")
-    public ResponseEntity<BaseResponse<List<ProductResponse>>> getFeaturedProducts() {
+    @Operation(summary = "Get featured products", description = "Retrieves product cards marked as featured with cursor pagination")
+    public ResponseEntity<BaseResponse<CursorPageResponse<ProductSummaryResponse>>> getFeaturedProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
         log.debug("Getting featured products");
-        List<ProductResponse> products = productApplicationService.getFeaturedProducts();
+        var products = productApplicationService.getFeaturedProducts(cursor, size);
         return ResponseEntity.ok(BaseResponse.success(products));
     }
 
     @GetMapping("/trending")
-    @Operation(summary = "Get trending products", description = "Retrieves a list of trending products based on recent views.")
-    public ResponseEntity<BaseResponse<List<ProductResponse>>> getTrendingProducts() {
-        log.debug("Getting trending products");
-        List<ProductResponse> products = productApplicationService.getTrendingProducts();
+    @Operation(summary = "Get trending products",
+            description = "Retrieves trending product cards ranked by decayed recent views over an HOUR, DAY or WEEK window.")
+    public ResponseEntity<BaseResponse<List<ProductSummaryResponse>>> getTrendingProducts(
+            @RequestParam(defaultValue = "DAY") String window,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        log.debug("Getting trending products for window {}", window);
+        List<ProductSummaryResponse> products = productApplicationService.getTrendingProducts(window, limit);
         return ResponseEntity.ok(BaseResponse.success(products));
     }
 
@@ -164,10 +269,13 @@ public class ProductController {
 
     @GetMapping("/in-stock")
     
-    @Operation(summary = "Get in-stock products", description = "Retrieves products that are in stock")
-    public ResponseEntity<BaseResponse<List<ProductResponse>>> getInStockProducts() {
+    @Operation(summary = "Get in-stock products", description = "Retrieves product cards that are in stock with cursor pagination")
+    public ResponseEntity<BaseResponse<CursorPageResponse<ProductSummaryResponse>>> getInStockProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
         log.debug("Getting in-stock products");
-        List<ProductResponse> products = productApplicationService.getInStockProducts();
+        var products = productApplicationService.listProducts(
+                ProductListingFilter.builder().inStock(true).build(), cursor, size);
         return ResponseEntity.ok(BaseResponse.success(products));
     }
 
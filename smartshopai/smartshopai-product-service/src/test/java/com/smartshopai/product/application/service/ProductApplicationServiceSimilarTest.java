@@ -0,0 +1,83 @@
+package com.smartshopai.product.application.service;
+
+import com.smartshopai.common.embedding.Embedding;
+import com.smartshopai.product.application.dto.response.ProductAnalysisResponse;
+import com.smartshopai.product.application.mapper.ProductMapper;
+import com.smartshopai.product.domain.entity.Product;
+import com.smartshopai.product.domain.entity.ProductAnalysis;
+import com.smartshopai.product.domain.service.ProductRankingService;
+import com.smartshopai.product.domain.service.ProductService;
+import com.smartshopai.product.infrastructure.client.AnalysisServiceClient;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductApplicationServiceSimilarTest {
+
+    private final ProductService productService = mock(ProductService.class);
+    private final AnalysisServiceClient analysisServiceClient = mock(AnalysisServiceClient.class);
+
+    private ProductApplicationService applicationService;
+
+    @BeforeEach
+    void setUp() {
+        applicationService = new ProductApplicationService(productService, mock(ProductRankingService.class),
+                mock(ProductMapper.class), analysisServiceClient);
+    }
+
+    @Test
+    void searchesWithTheEmbeddingStoredOnTheProduct() {
+        Embedding embedding = Embedding.of(new float[]{1, 0});
+        when(productService.getProductById("p0")).thenReturn(Product.builder().id("p0")
+                .analysis(ProductAnalysis.builder().embeddings(embedding).build()).build());
+        when(analysisServiceClient.findSimilarProducts(embedding, 6)).thenReturn(hits("p0", "p1", "p2"));
+
+        applicationService.getSimilarProducts("p0");
+
+        verify(productService).getProductsByIds(List.of("p1", "p2"));
+        verify(analysisServiceClient, never()).getLatestEmbedding(anyString());
+    }
+
+    @Test
+    void fallsBackToTheLatestAnalysisEmbeddingAndKeepsFiveOthers() {
+        Embedding embedding = Embedding.of(new float[]{0, 1});
+        when(productService.getProductById("p0")).thenReturn(Product.builder().id("p0").build());
+        when(analysisServiceClient.getLatestEmbedding("p0")).thenReturn(embedding);
+        when(analysisServiceClient.findSimilarProducts(embedding, 6)).thenReturn(hits("p0", "p1", "p2", "p3", "p4", "p5"));
+
+        applicationService.getSimilarProducts("p0");
+
+        verify(productService).getProductsByIds(List.of("p1", "p2", "p3", "p4", "p5"));
+    }
+
+    @Test
+    void returnsNothingForAProductThatWasNeverAnalyzed() {
+        when(productService.getProductById("p0")).thenReturn(Product.builder().id("p0").build());
+        Request request = Request.create(Request.HttpMethod.GET, "/api/analysis/products/p0/embedding",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+        when(analysisServiceClient.getLatestEmbedding("p0"))
+                .thenThrow(new FeignException.NotFound("not found", request, null, Map.of()));
+
+        assertThat(applicationService.getSimilarProducts("p0")).isEmpty();
+        verify(analysisServiceClient, never()).findSimilarProducts(any(), anyInt());
+    }
+
+    private static List<ProductAnalysisResponse> hits(String... productIds) {
+        return Stream.of(productIds).map(id -> ProductAnalysisResponse.builder().productId(id).build()).toList();
+    }
+}
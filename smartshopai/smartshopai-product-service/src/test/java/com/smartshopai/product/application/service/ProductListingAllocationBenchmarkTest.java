@@ -0,0 +1,169 @@
+package com.smartshopai.product.application.service;
+
+import com.smartshopai.product.application.mapper.ProductMapper;
+import com.smartshopai.product.application.mapper.ProductMapperImpl;
+import com.smartshopai.product.domain.entity.Product;
+import com.smartshopai.product.domain.repository.PriceHistoryRepository;
+import com.smartshopai.product.domain.repository.ProductAnalysisRepository;
+import com.smartshopai.product.domain.repository.ProductRepository;
+import com.smartshopai.product.domain.service.ProductListingFilter;
+import com.smartshopai.product.domain.service.ProductService;
+import com.smartshopai.product.infrastructure.config.MongoConfig;
+import com.smartshopai.product.infrastructure.counter.ProductViewCounter;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Heap allocated per category listing request: the unbounded list of full documents mapped to ProductResponse,
+ * against one keyset page of projected cards mapped to ProductSummaryResponse.
+ *
+ * Both sides start from decoded BSON documents, so the numbers cover entity conversion and response mapping but
+ * not the driver's decoding, which also scales with the documents and fields read.
+ * The category size can be raised with -Dbenchmark.listing.size.
+ */
+class ProductListingAllocationBenchmarkTest {
+
+    private static final int CATEGORY_SIZE = Integer.getInteger("benchmark.listing.size", 1_000);
+    private static final int PAGE_SIZE = 20;
+    private static final int ROUNDS = 20;
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ProductMapper productMapper = new ProductMapperImpl();
+    private final List<Document> category = new ArrayList<>();
+    private MappingMongoConverter converter;
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        for (int i = 0; i < CATEGORY_SIZE; i++) {
+            Document document = new Document();
+            converter.write(fullProduct(i), document);
+            category.add(document);
+        }
+        // Serves the listing query from the category: keyset on _id, limit, and the query's field projection
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            Document fields = query.getFieldsObject();
+            List<Product> page = new ArrayList<>();
+            for (Document stored : category.subList(0, Math.min(category.size(), query.getLimit()))) {
+                Document projected = new Document("_id", stored.get("_id"));
+                fields.keySet().forEach(field -> projected.put(field, stored.get(field)));
+                page.add(converter.read(Product.class, projected));
+            }
+            return page;
+        });
+        productService = new ProductService(mock(ProductRepository.class), mock(PriceHistoryRepository.class),
+                mock(ProductAnalysisRepository.class), mongoTemplate, mock(ProductViewCounter.class));
+    }
+
+    @Test
+    void aProjectedCardPageAllocatesAFractionOfTheFullCategoryList() {
+        Supplier<Object> fullList = () -> productMapper.toResponseList(
+                category.stream().map(document -> converter.read(Product.class, document)).toList());
+        Supplier<Object> cardPage = () -> {
+            Slice<Product> page = productService.getProductListing(
+                    ProductListingFilter.builder().category("Elektronik").build(), null, PAGE_SIZE);
+            return productMapper.toSummaryResponseList(page.getContent());
+        };
+
+        long before = allocatedPerRequest(fullList);
+        long after = allocatedPerRequest(cardPage);
+
+        System.out.printf("BENCH listing of a %d-product category: %d KB per request as full responses, "
+                + "%d KB per %d-card page%n", CATEGORY_SIZE, before / 1024, after / 1024, PAGE_SIZE);
+        assertThat(after * 20).isLessThan(before);
+    }
+
+    private static long allocatedPerRequest(Supplier<Object> request) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < ROUNDS; i++) {
+            request.get();
+        }
+        long start = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ROUNDS; i++) {
+            assertThat(request.get()).isNotNull();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - start) / ROUNDS;
+    }
+
+    private static Product fullProduct(int i) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Product.Review> reviews = new ArrayList<>();
+        for (int r = 0; r < 20; r++) {
+            reviews.add(Product.Review.builder()
+                    .id("review-" + i + "-" + r)
+                    .userId("user-" + r)
+                    .username("Kullanıcı " + r)
+                    .rating(1 + r % 5)
+                    .comment("Ses kalitesi çok iyi, pil ömrü uzun, kulakta rahat duruyor. ".repeat(3))
+                    .createdAt(now.minusDays(r))
+                    .build());
+        }
+        Map<String, Object> specifications = new HashMap<>();
+        Map<String, Object> features = new HashMap<>();
+        for (int s = 0; s < 15; s++) {
+            specifications.put("Özellik " + s, "Değer " + s);
+            features.put("feature" + s, s % 2 == 0);
+        }
+        return Product.builder()
+                .id(new ObjectId().toHexString())
+                .name("Kablosuz Kulaklık X" + i)
+                .description("Aktif gürültü engelleme, 40 saat pil ömrü ve hızlı şarj desteği. ".repeat(15))
+                .brand("Acme")
+                .category("Elektronik")
+                .price(new BigDecimal("1299.90"))
+                .originalPrice(new BigDecimal("1499.90"))
+                .discountPercentage(13)
+                .currency("TRY")
+                .inStock(true)
+                .stockStatus("IN_STOCK")
+                .images(List.of("https://cdn.example.com/" + i + "/1.jpg", "https://cdn.example.com/" + i + "/2.jpg",
+                        "https://cdn.example.com/" + i + "/3.jpg", "https://cdn.example.com/" + i + "/4.jpg"))
+                .mainImage("https://cdn.example.com/" + i + "/1.jpg")
+                .tags(List.of("kulaklık", "bluetooth", "kablosuz", "anc"))
+                .specifications(specifications)
+                .features(features)
+                .technicalDetails(new HashMap<>(specifications))
+                .url("https://shop.example/kulaklik-p-" + i)
+                .source("TRENDYOL")
+                .rating(4.4)
+                .reviewCount(reviews.size())
+                .reviews(reviews)
+                .viewCount(1_000L + i)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.smartshopai.product.domain.entity;
+
+import com.smartshopai.product.infrastructure.config.MongoConfig;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductFilterKeyTest {
+
+    private final MappingMongoConverter converter = converter();
+
+    @Test
+    void writesLowerCasedFilterKeys() {
+        Product product = Product.builder().category(" Electronics ").brand("ASUS").build();
+
+        Document document = new Document();
+        converter.write(product, document);
+
+        assertThat(document.getString("categoryKey")).isEqualTo("electronics");
+        assertThat(document.getString("brandKey")).isEqualTo("asus");
+        assertThat(document.getString("category")).isEqualTo(" Electronics ");
+    }
+
+    @Test
+    void omitsFilterKeysWhenTheSourceFieldIsUnset() {
+        Document document = new Document();
+        converter.write(Product.builder().name("Unbranded").build(), document);
+
+        assertThat(document).doesNotContainKeys("categoryKey", "brandKey");
+    }
+
+    @Test
+    void derivesFilterKeysFromTheReadFields() {
+        Document stored = new Document("category", "Laptops").append("brand", "Lenovo")
+                .append("categoryKey", "stale").append("brandKey", "stale");
+
+        Product product = converter.read(Product.class, stored);
+
+        assertThat(product.getCategoryKey()).isEqualTo("laptops");
+        assertThat(product.getBrandKey()).isEqualTo("lenovo");
+    }
+
+    private static MappingMongoConverter converter() {
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
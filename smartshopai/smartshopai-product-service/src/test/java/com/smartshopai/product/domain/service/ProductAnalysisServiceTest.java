@@ -0,0 +1,115 @@
+package com.smartshopai.product.domain.service;
+
+import com.smartshopai.product.domain.entity.Product;
+import com.smartshopai.product.domain.entity.ProductAnalysis;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductAnalysisServiceTest {
+
+    private static final List<String> STAGES = List.of("quality", "value", "technical", "recommendation", "market", "price");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProductAnalysisService analysisService;
+
+    @BeforeEach
+    void setUp() {
+        analysisService = new ProductAnalysisService(meterRegistry);
+        ReflectionTestUtils.setField(analysisService, "memoMaxEntries", 100);
+        ReflectionTestUtils.setField(analysisService, "stageTimeoutMillis", 5000L);
+        analysisService.initializePipeline();
+    }
+
+    @AfterEach
+    void tearDown() {
+        analysisService.shutdownPipeline();
+    }
+
+    @Test
+    void mergesEveryStageIntoOneAnalysis() {
+        ProductAnalysis analysis = analysisService.analyzeProduct(product());
+
+        assertThat(analysis.isAnalysisCompleted()).isTrue();
+        assertThat(analysis.getProductId()).isEqualTo("p-1");
+        assertThat(analysis.getQualityScore()).isNotNull();
+        assertThat(analysis.getValueForMoneyScore()).isNotNull();
+        assertThat(analysis.getTechnicalSummary()).isNotBlank();
+        assertThat(analysis.getUserRecommendation()).isNotBlank();
+        assertThat(analysis.getMarketPosition()).isNotBlank();
+        assertThat(analysis.getPriceTrend()).isNotBlank();
+        STAGES.forEach(stage -> assertThat(count(stage, "miss")).as(stage).isEqualTo(1));
+    }
+
+    @Test
+    void reanalysisOfAnUnchangedProductRecomputesNothing() {
+        ProductAnalysis first = analysisService.analyzeProduct(product());
+        ProductAnalysis second = analysisService.analyzeProduct(product());
+
+        STAGES.forEach(stage -> assertThat(count(stage, "hit")).as(stage).isEqualTo(1));
+        assertThat(second.getQualityScore()).isEqualTo(first.getQualityScore());
+        assertThat(second.getTechnicalSummary()).isEqualTo(first.getTechnicalSummary());
+    }
+
+    @Test
+    void recomputesOnlyTheStagesThatReadAChangedField() {
+        analysisService.analyzeProduct(product());
+        Product rerated = product();
+        rerated.setRating(3.1);
+
+        analysisService.analyzeProduct(rerated);
+
+        assertThat(count("quality", "miss")).isEqualTo(2);
+        assertThat(count("market", "miss")).isEqualTo(2);
+        List.of("value", "technical", "recommendation", "price")
+                .forEach(stage -> assertThat(count(stage, "hit")).as(stage).isEqualTo(1));
+    }
+
+    @Test
+    void ordinaryViewTrafficDoesNotInvalidateTheMarketStage() {
+        analysisService.analyzeProduct(product());
+        Product viewed = product();
+        viewed.setViewCount(150L);
+
+        analysisService.analyzeProduct(viewed);
+
+        assertThat(count("market", "hit")).isEqualTo(1);
+    }
+
+    private double count(String stage, String result) {
+        Counter counter = meterRegistry.find("product.analysis.stage").tag("stage", stage).tag("result", result).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static Product product() {
+        Map<String, Object> features = new HashMap<>();
+        features.put("noiseCancelling", true);
+        features.put("batteryHours", 40);
+        Map<String, Object> specifications = new HashMap<>();
+        specifications.put("Renk", "Siyah");
+        specifications.put("Bağlantı", "Bluetooth 5.3");
+        return Product.builder()
+                .id("p-1")
+                .name("Kablosuz Kulaklık X200")
+                .category("Elektronik")
+                .brand("Acme")
+                .price(new BigDecimal("1299.90"))
+                .originalPrice(new BigDecimal("1499.90"))
+                .rating(4.6)
+                .features(features)
+                .specifications(specifications)
+                .warranty("2 yıl")
+                .viewCount(120L)
+                .build();
+    }
+}
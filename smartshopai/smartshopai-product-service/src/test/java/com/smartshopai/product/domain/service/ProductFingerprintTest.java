@@ -0,0 +1,45 @@
+package com.smartshopai.product.domain.service;
+
+import com.smartshopai.product.domain.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductFingerprintTest {
+
+    @Test
+    void matchesAcrossTiersThatExtractDescriptionsAndImagesDifferently() {
+        Product fromHtml = Product.builder()
+                .name("Kablosuz Kulaklık  X200")
+                .description("Aktif gürültü engelleme")
+                .mainImage("https://cdn.example.com/x200.jpg")
+                .specifications(Map.of("Renk", "Siyah"))
+                .price(new BigDecimal("1299.90"))
+                .inStock(true)
+                .build();
+        Product fromBrowser = Product.builder()
+                .name(" kablosuz kulaklık x200\n")
+                .description("Aktif gürültü engelleme, 40 saat pil")
+                .mainImage("https://cdn.example.com/x200-large.jpg")
+                .price(new BigDecimal("1299.9"))
+                .inStock(true)
+                .build();
+
+        assertThat(ProductFingerprint.of(fromBrowser)).isEqualTo(ProductFingerprint.of(fromHtml));
+    }
+
+    @Test
+    void changesWithThePriceOrStock() {
+        String fingerprint = ProductFingerprint.of(product("1299.90", true));
+
+        assertThat(ProductFingerprint.of(product("1199.90", true))).isNotEqualTo(fingerprint);
+        assertThat(ProductFingerprint.of(product("1299.90", false))).isNotEqualTo(fingerprint);
+    }
+
+    private static Product product(String price, boolean inStock) {
+        return Product.builder().name("X200").price(new BigDecimal(price)).inStock(inStock).build();
+    }
+}
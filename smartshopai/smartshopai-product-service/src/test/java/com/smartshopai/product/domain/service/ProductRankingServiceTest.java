@@ -0,0 +1,154 @@
+package com.smartshopai.product.domain.service;
+
+import com.smartshopai.product.domain.entity.Product;
+import com.smartshopai.product.infrastructure.ranking.TrendingTracker;
+import com.smartshopai.product.infrastructure.ranking.TrendingWindow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductRankingServiceTest {
+
+    private final ProductService productService = mock(ProductService.class);
+    private final TrendingTracker trendingTracker = new TrendingTracker(0.05);
+    private ProductRankingService rankingService;
+
+    @BeforeEach
+    void setUp() {
+        when(productService.getProductCards(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(0);
+            return ids.stream().map(ProductRankingServiceTest::card).toList();
+        });
+        when(productService.getRecentlyViewedProducts(any(LocalDateTime.class), anyInt())).thenReturn(List.of());
+
+        rankingService = new ProductRankingService(productService, trendingTracker, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(rankingService, "trendingTopK", 3);
+        ReflectionTestUtils.setField(rankingService, "seedSize", 100);
+        ReflectionTestUtils.setField(rankingService, "featuredTopK", 5);
+    }
+
+    @Test
+    void servesTrendingFromTheMaterializedTopK() {
+        views("p-1", 2);
+        views("p-2", 5);
+        views("p-3", 1);
+        views("p-4", 3);
+
+        rankingService.refreshTrending();
+
+        assertThat(ids(rankingService.getTrending(TrendingWindow.DAY, 10))).containsExactly("p-2", "p-4", "p-1");
+        assertThat(ids(rankingService.getTrending(TrendingWindow.DAY, 2))).containsExactly("p-2", "p-4");
+        verify(productService, times(1)).getProductCards(anyCollection());
+    }
+
+    @Test
+    void loadsOnlyTheCardsNewToTheTopK() {
+        views("p-1", 3);
+        views("p-2", 2);
+        rankingService.refreshTrending();
+
+        views("p-3", 10);
+        rankingService.refreshTrending();
+
+        verify(productService).getProductCards(List.of("p-3"));
+        assertThat(ids(rankingService.getTrending(TrendingWindow.DAY, 3))).containsExactly("p-3", "p-1", "p-2");
+    }
+
+    @Test
+    void doesNotQueryMongoWhenTheRankingIsUnchanged() {
+        views("p-1", 3);
+        rankingService.refreshTrending();
+
+        rankingService.refreshTrending();
+        rankingService.getTrending(TrendingWindow.WEEK, 10);
+
+        verify(productService, times(1)).getProductCards(anyCollection());
+    }
+
+    @Test
+    void seedsTrendingFromRecentlyViewedProductsOnTheFirstRefresh() {
+        LocalDateTime now = LocalDateTime.now();
+        Product viewed = card("p-9");
+        viewed.setViewCount(400L);
+        viewed.setCreatedAt(now.minusDays(2));
+        viewed.setLastViewedAt(now);
+        when(productService.getRecentlyViewedProducts(any(LocalDateTime.class), eq(100))).thenReturn(List.of(viewed));
+        when(productService.getProductListing(any(ProductListingFilter.class), isNull(), eq(5)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        rankingService.scheduledRefresh();
+        rankingService.scheduledRefresh();
+
+        assertThat(ids(rankingService.getTrending(TrendingWindow.DAY, 10))).containsExactly("p-9");
+        verify(productService, times(1)).getRecentlyViewedProducts(any(LocalDateTime.class), anyInt());
+    }
+
+    @Test
+    void servesTheFeaturedFirstPageFromMemory() {
+        List<Product> featured = IntStream.range(0, 5).mapToObj(i -> card("f-" + i)).toList();
+        when(productService.getProductListing(any(ProductListingFilter.class), isNull(), eq(5)))
+                .thenReturn(new SliceImpl<>(featured, PageRequest.of(0, 5), true));
+        rankingService.refreshFeatured();
+
+        Slice<Product> page = rankingService.getFeaturedFirstPage(3);
+
+        assertThat(ids(page.getContent())).containsExactly("f-0", "f-1", "f-2");
+        assertThat(page.hasNext()).isTrue();
+        assertThat(rankingService.getFeaturedFirstPage(6)).isNull();
+        verify(productService, times(1)).getProductListing(any(), any(), any());
+    }
+
+    @Test
+    void refreshesTheFeaturedPageWhenAProductIsFeatured() {
+        when(productService.getProductListing(any(ProductListingFilter.class), isNull(), eq(5)))
+                .thenReturn(new SliceImpl<>(List.of()), new SliceImpl<>(List.of(card("f-1"))));
+        rankingService.refreshFeatured();
+        assertThat(rankingService.getFeaturedFirstPage(5).getContent()).isEmpty();
+
+        rankingService.setFeaturedStatus("f-1", true);
+
+        verify(productService).setFeaturedStatus("f-1", true);
+        assertThat(ids(rankingService.getFeaturedFirstPage(5).getContent())).containsExactly("f-1");
+    }
+
+    @Test
+    void hasNoFeaturedPageBeforeTheFirstRefresh() {
+        assertThat(rankingService.getFeaturedFirstPage(5)).isNull();
+        verify(productService, never()).getProductListing(any(), any(), any());
+    }
+
+    private void views(String productId, int count) {
+        for (int i = 0; i < count; i++) {
+            rankingService.recordView(productId);
+        }
+    }
+
+    private static List<String> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+
+    private static Product card(String id) {
+        return Product.builder().id(id).name("Ürün " + id).category("Elektronik").build();
+    }
+}
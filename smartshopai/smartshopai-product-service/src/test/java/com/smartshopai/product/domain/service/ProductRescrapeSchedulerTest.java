@@ -0,0 +1,150 @@
+package com.smartshopai.product.domain.service;
+
+import com.smartshopai.product.domain.entity.PriceHistory;
+import com.smartshopai.product.domain.entity.Product;
+import com.smartshopai.product.infrastructure.scraper.ScrapeResult;
+import com.smartshopai.product.infrastructure.scraper.ScrapingEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.data.util.Pair;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductRescrapeSchedulerTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final ScrapingEngine scrapingEngine = mock(ScrapingEngine.class);
+    private final Map<String, Document> writes = new HashMap<>();
+    private final List<PriceHistory> pricePoints = new ArrayList<>();
+
+    private ProductRescrapeScheduler scheduler;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(bulk.updateOne(anyList())).thenAnswer(invocation -> {
+            List<Pair<Query, UpdateDefinition>> updates = invocation.getArgument(0);
+            updates.forEach(update -> writes.put(update.getFirst().getQueryObject().getString("_id"),
+                    update.getSecond().getUpdateObject()));
+            return bulk;
+        });
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Product.class))).thenReturn(bulk);
+        when(mongoTemplate.insertAll(anyList())).thenAnswer(invocation -> {
+            pricePoints.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+
+        scheduler = new ProductRescrapeScheduler(mongoTemplate, scrapingEngine, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(scheduler, "batchSize", 200);
+        ReflectionTestUtils.setField(scheduler, "writeBatchSize", 500);
+        ReflectionTestUtils.setField(scheduler, "minIntervalMinutes", 60);
+        ReflectionTestUtils.setField(scheduler, "maxIntervalMinutes", 1440);
+        ReflectionTestUtils.setField(scheduler, "volatilityWeight", 20.0);
+        ReflectionTestUtils.setField(scheduler, "backoffFactor", 1.5);
+        ReflectionTestUtils.setField(scheduler, "priceSummarySize", 30);
+        scheduler.registerMetrics();
+    }
+
+    @Test
+    void backsOffTheIntervalOfAnUnchangedProductInTheSameBulk() {
+        Product stable = stored("stable", "100.00", 600);
+        Product moved = stored("moved", "100.00", 600);
+        claim(stable, moved);
+        scrapes(Stream.of(
+                ScrapeResult.success(stable.getUrl(), scraped(stable, "100.00"), 10),
+                ScrapeResult.success(moved.getUrl(), scraped(moved, "80.00"), 10)));
+
+        assertThat(scheduler.rescrapeDueProducts()).isEqualTo(1);
+
+        Document stableSet = writes.get("stable").get("$set", Document.class);
+        assertThat(stableSet).containsEntry("scrapeIntervalMinutes", 900).containsKey("nextScrapeAt")
+                .doesNotContainKeys("price", "name");
+        Document movedSet = writes.get("moved").get("$set", Document.class);
+        assertThat(movedSet).containsEntry("price", new BigDecimal("80.00")).containsKeys("priceSummary");
+        assertThat(pricePoints).singleElement().satisfies(point -> assertThat(point.getProductId()).isEqualTo("moved"));
+    }
+
+    @Test
+    void skipsTheWriteOnceAStableProductReachesTheMaximumInterval() {
+        Product stable = stored("stable", "100.00", 1440);
+        claim(stable);
+        scrapes(Stream.of(ScrapeResult.success(stable.getUrl(), scraped(stable, "100.00"), 10)));
+
+        scheduler.rescrapeDueProducts();
+
+        assertThat(writes).isEmpty();
+    }
+
+    @Test
+    void writesWhatWasScrapedBeforeTheStreamFailed() {
+        Product first = stored("first", "100.00", 600);
+        Product second = stored("second", "100.00", 600);
+        claim(first, second);
+        scrapes(Stream.of(first, second).map(product -> {
+            if (product == second) {
+                throw new IllegalStateException("scrape stream broke");
+            }
+            return ScrapeResult.success(product.getUrl(), scraped(product, "90.00"), 10);
+        }));
+
+        assertThatThrownBy(scheduler::rescrapeDueProducts).hasMessage("scrape stream broke");
+
+        assertThat(writes).containsOnlyKeys("first");
+        assertThat(pricePoints).hasSize(1);
+    }
+
+    private void claim(Product... products) {
+        when(mongoTemplate.find(any(Query.class), eq(Product.class)))
+                .thenReturn(Stream.of(products).map(product -> Product.builder().id(product.getId()).build()).toList())
+                .thenReturn(List.of(products));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void scrapes(Stream<ScrapeResult> results) {
+        when(scrapingEngine.scrape(any(Collection.class))).thenReturn(results);
+    }
+
+    private static Product stored(String id, String price, int intervalMinutes) {
+        Product product = Product.builder()
+                .id(id)
+                .url("https://shop.example/" + id)
+                .name(id)
+                .price(new BigDecimal(price))
+                .currency("TRY")
+                .scrapeIntervalMinutes(intervalMinutes)
+                .build();
+        product.setContentFingerprint(ProductFingerprint.of(product));
+        return product;
+    }
+
+    private static Product scraped(Product stored, String price) {
+        return Product.builder()
+                .url(stored.getUrl())
+                .name(stored.getName())
+                .price(new BigDecimal(price))
+                .currency("TRY")
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package com.smartshopai.product.domain.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.smartshopai.product.domain.entity.PriceHistory;
+import com.smartshopai.product.domain.entity.Product;
+import com.smartshopai.product.domain.repository.PriceHistoryRepository;
+import com.smartshopai.product.domain.repository.ProductAnalysisRepository;
+import com.smartshopai.product.domain.repository.ProductRepository;
+import com.smartshopai.product.infrastructure.config.MongoConfig;
+import com.smartshopai.product.infrastructure.counter.ProductViewCounter;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductServiceUpsertTest {
+
+    private static final String NEW_PRODUCT_ID = new ObjectId().toHexString();
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final List<Document> stages = new ArrayList<>();
+    private final List<PriceHistory> pricePoints = new ArrayList<>();
+
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.getConverter()).thenReturn(converter());
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(bulk.upsert(any(Query.class), any(UpdateDefinition.class))).thenAnswer(invocation -> {
+            AggregationUpdate update = invocation.getArgument(1);
+            stages.add(update.getPipeline().getOperations().get(0).toDocument(Aggregation.DEFAULT_CONTEXT));
+            return bulk;
+        });
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.ORDERED), eq(Product.class))).thenReturn(bulk);
+        when(mongoTemplate.insert(anyCollection(), eq(PriceHistory.class))).thenAnswer(invocation -> {
+            Collection<PriceHistory> points = invocation.getArgument(0);
+            pricePoints.addAll(points);
+            return points;
+        });
+        // The third row is the only insert
+        when(bulk.execute()).thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 2,
+                List.of(new BulkWriteUpsert(2, new BsonObjectId(new ObjectId(NEW_PRODUCT_ID)))), List.of()));
+
+        productService = new ProductService(mock(ProductRepository.class), mock(PriceHistoryRepository.class),
+                mock(ProductAnalysisRepository.class), mongoTemplate, mock(ProductViewCounter.class));
+        ReflectionTestUtils.setField(productService, "priceSummarySize", 30);
+    }
+
+    @Test
+    void recordsAPricePointOnlyForRowsWhosePriceMoved() {
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of(
+                Product.builder().id("stored-1").productId("M-1").price(new BigDecimal("100.00")).build(),
+                Product.builder().id("stored-2").productId("M-2").price(new BigDecimal("40.00")).build()));
+
+        productService.upsertProducts(List.of(
+                row("M-1", "100.0"),
+                row("M-2", "50.00"),
+                row("M-3", "10.00")));
+
+        assertThat(pricePoints).extracting(PriceHistory::getProductId).containsExactly("stored-2", NEW_PRODUCT_ID);
+        assertThat(pricePoints).extracting(PriceHistory::getPrice)
+                .containsExactly(new BigDecimal("50.00"), new BigDecimal("10.00"));
+    }
+
+    @Test
+    void foldsAMovedPriceIntoTheSummaryInsideTheUpdate() {
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of());
+
+        productService.upsertProducts(List.of(row("M-1", "25.00")));
+
+        Document set = stages.get(0).get("$set", Document.class);
+        Document changed = new Document("$ne", List.of("$price", new Decimal128(new BigDecimal("25.00"))));
+        assertThat(set.get("priceSummary", Document.class).getList("$cond", Object.class))
+                .startsWith(changed).endsWith("$priceSummary");
+        assertThat(set.get("lastPriceUpdate", Document.class).getList("$cond", Object.class))
+                .startsWith(changed).endsWith("$lastPriceUpdate");
+    }
+
+    @Test
+    void keepsRowTextThatLooksLikeAFieldPathLiteral() {
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of());
+        Product product = row("M-1", null);
+        product.setName("$5 off");
+
+        productService.upsertProducts(List.of(product));
+
+        Document set = stages.get(0).get("$set", Document.class);
+        assertThat(set.get("name")).isEqualTo(new Document("$literal", "$5 off"));
+        assertThat(set).doesNotContainKeys("price", "priceSummary");
+        assertThat(set.get("createdAt", Document.class)).containsKey("$ifNull");
+        assertThat(pricePoints).isEmpty();
+    }
+
+    private static Product row(String productId, String price) {
+        return Product.builder()
+                .productId(productId)
+                .name(productId)
+                .price(price == null ? null : new BigDecimal(price))
+                .currency("TRY")
+                .build();
+    }
+
+    private static MappingMongoConverter converter() {
+        MongoCustomConversions conversions = new MongoConfig().mongoCustomConversions();
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+}
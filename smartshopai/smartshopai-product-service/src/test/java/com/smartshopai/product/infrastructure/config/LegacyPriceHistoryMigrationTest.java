@@ -0,0 +1,51 @@
+package com.smartshopai.product.infrastructure.config;
+
+import com.smartshopai.product.domain.entity.PriceHistory;
+import com.smartshopai.product.domain.entity.PriceSummary;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LegacyPriceHistoryMigrationTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void foldsLegacyPointsIntoAnEmptySummary() {
+        PriceSummary summary = LegacyPriceHistoryMigration.fold(
+                List.of(point("10.00", 0), point("30.00", 1), point("20.00", 2)), null, 2);
+
+        assertThat(summary.getPointCount()).isEqualTo(3);
+        assertThat(summary.getMinPrice()).isEqualByComparingTo("10.00");
+        assertThat(summary.getMaxPrice()).isEqualByComparingTo("30.00");
+        assertThat(summary.getAveragePrice()).isEqualByComparingTo("20.00");
+        assertThat(summary.getRecentPrices()).extracting(PriceSummary.PricePoint::getPrice)
+                .containsExactly(new BigDecimal("30.00"), new BigDecimal("20.00"));
+    }
+
+    @Test
+    void keepsPointsRecordedSinceTheSummaryExistedAsTheMostRecent() {
+        PriceSummary current = new PriceSummary();
+        current.record(new BigDecimal("50.00"), START.plusDays(10), 3);
+        current.record(new BigDecimal("40.00"), START.plusDays(11), 3);
+
+        PriceSummary summary = LegacyPriceHistoryMigration.fold(
+                List.of(point("10.00", 0), point("20.00", 1)), current, 3);
+
+        assertThat(summary.getPointCount()).isEqualTo(4);
+        assertThat(summary.getMinPrice()).isEqualByComparingTo("10.00");
+        assertThat(summary.getMaxPrice()).isEqualByComparingTo("50.00");
+        assertThat(summary.getPriceTotal()).isEqualByComparingTo("120.00");
+        assertThat(summary.getRecentPrices()).extracting(PriceSummary.PricePoint::getPrice)
+                .containsExactly(new BigDecimal("20.00"), new BigDecimal("50.00"), new BigDecimal("40.00"));
+        assertThat(summary.getLatestPrice()).isEqualByComparingTo("40.00");
+    }
+
+    private static PriceHistory point(String price, int day) {
+        return PriceHistory.builder().price(new BigDecimal(price)).timestamp(START.plusDays(day)).build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.smartshopai.product.infrastructure.counter;
+
+import com.smartshopai.product.domain.entity.Product;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductViewCounterTest {
+
+    private final Map<String, Long> flushedViews = new ConcurrentHashMap<>();
+    private final AtomicBoolean failWrites = new AtomicBoolean();
+
+    private ProductViewCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Product.class)))
+                .thenAnswer(invocation -> recordingBulk());
+        counter = new ProductViewCounter(mongoTemplate, 2);
+    }
+
+    @Test
+    void flushesEveryRecordedViewOnce() {
+        counter.recordView("a");
+        counter.recordView("a");
+        counter.recordView("b");
+
+        assertThat(counter.flush()).isEqualTo(2);
+        assertThat(counter.flush()).isZero();
+        assertThat(flushedViews).containsOnly(Map.entry("a", 2L), Map.entry("b", 1L));
+    }
+
+    @Test
+    void keepsViewsOfAFailedWriteForTheNextFlush() {
+        counter.recordView("a");
+        failWrites.set(true);
+        counter.flush();
+        counter.recordView("a");
+        failWrites.set(false);
+
+        counter.flush();
+
+        assertThat(flushedViews).containsOnly(Map.entry("a", 2L));
+    }
+
+    @Test
+    void losesNoViewWhileIdleTalliesAreDroppedConcurrently() throws InterruptedException {
+        int threads = 8;
+        int viewsPerThread = 200_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < viewsPerThread; i++) {
+                    // Views spread thinly over many products, so tallies keep going idle and being dropped
+                    counter.recordView("p" + (i % 5_000));
+                }
+                done.countDown();
+            });
+        }
+        while (done.getCount() > 0) {
+            counter.flush();
+        }
+        pool.shutdown();
+        counter.flush();
+
+        long flushed = flushedViews.values().stream().mapToLong(Long::longValue).sum();
+        assertThat(flushed).isEqualTo((long) threads * viewsPerThread);
+    }
+
+    private BulkOperations recordingBulk() {
+        BulkOperations bulk = mock(BulkOperations.class);
+        Map<String, Long> batch = new ConcurrentHashMap<>();
+        when(bulk.updateOne(any(Query.class), any(Update.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            Update update = invocation.getArgument(1);
+            Number views = (Number) update.getUpdateObject().get("$inc", Document.class).get("viewCount");
+            batch.merge(query.getQueryObject().getString("_id"), views.longValue(), Long::sum);
+            return bulk;
+        });
+        when(bulk.execute()).thenAnswer(invocation -> {
+            if (failWrites.get()) {
+                throw new IllegalStateException("write failed");
+            }
+            batch.forEach((productId, views) -> flushedViews.merge(productId, views, Long::sum));
+            return null;
+        });
+        return bulk;
+    }
+}
@@ -0,0 +1,66 @@
+package com.smartshopai.product.infrastructure.ranking;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrendingTrackerTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final TrendingTracker tracker = new TrendingTracker(0.05);
+
+    @Test
+    void ranksProductsByViewsBestFirst() {
+        views("p-1", 3, NOW);
+        views("p-2", 10, NOW);
+        views("p-3", 1, NOW);
+
+        assertThat(tracker.top(TrendingWindow.DAY, 2, NOW)).containsExactly("p-2", "p-1");
+    }
+
+    @Test
+    void recentViewsOutrankOlderOnesInTheShortWindowOnly() {
+        views("old", 20, NOW - Duration.ofHours(3).toMillis());
+        views("new", 5, NOW);
+
+        assertThat(tracker.top(TrendingWindow.HOUR, 2, NOW)).containsExactly("new", "old");
+        assertThat(tracker.top(TrendingWindow.WEEK, 2, NOW)).containsExactly("old", "new");
+    }
+
+    @Test
+    void seedingSpreadsLifetimeViewsOverTheProductsLife() {
+        long year = Duration.ofDays(365).toMillis();
+        // Many views over a year is a slower rate than a few hundred over the last day
+        tracker.seed("evergreen", 10_000, NOW - year, NOW);
+        tracker.seed("rising", 500, NOW - Duration.ofDays(1).toMillis(), NOW);
+
+        assertThat(tracker.top(TrendingWindow.DAY, 2, NOW)).containsExactly("rising", "evergreen");
+    }
+
+    @Test
+    void seedsNoHourScoreSoLiveViewsLeadThatWindow() {
+        tracker.seed("seeded", 10_000, NOW - Duration.ofDays(1).toMillis(), NOW);
+        tracker.recordView("viewed", NOW);
+
+        assertThat(tracker.top(TrendingWindow.HOUR, 2, NOW)).first().isEqualTo("viewed");
+    }
+
+    @Test
+    void prunesProductsWhoseScoreDecayedInEveryWindow() {
+        views("stale", 1, NOW - Duration.ofDays(30).toMillis());
+        views("live", 1, NOW);
+
+        assertThat(tracker.prune(NOW)).isEqualTo(1);
+        assertThat(tracker.size()).isEqualTo(1);
+        assertThat(tracker.top(TrendingWindow.WEEK, 10, NOW)).containsExactly("live");
+    }
+
+    private void views(String productId, int count, long atMillis) {
+        for (int i = 0; i < count; i++) {
+            tracker.recordView(productId, atMillis);
+        }
+    }
+}
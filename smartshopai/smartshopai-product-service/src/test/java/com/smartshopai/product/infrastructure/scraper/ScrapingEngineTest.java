@@ -0,0 +1,163 @@
+package com.smartshopai.product.infrastructure.scraper;
+
+import com.smartshopai.product.domain.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ScrapingEngineTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final Map<String, AtomicInteger> scrapes = new ConcurrentHashMap<>();
+
+    private ScrapingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        ScraperStrategy strategy = new ScraperStrategy() {
+            @Override
+            public Product scrape(String url) throws IOException {
+                scrapes.computeIfAbsent(url, u -> new AtomicInteger()).incrementAndGet();
+                if (url.contains("/hang")) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                if (url.contains("/broken")) {
+                    throw new IOException("parse error");
+                }
+                return Product.builder().url(url).name(url).build();
+            }
+
+            @Override
+            public boolean canHandle(String url) {
+                return !url.contains("/unsupported");
+            }
+        };
+        PlaywrightService playwrightService = mock(PlaywrightService.class);
+        when(playwrightService.getPoolSize()).thenReturn(4);
+
+        engine = new ScrapingEngine(List.of(strategy), playwrightService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(engine, "perDomainConcurrency", 4);
+        ReflectionTestUtils.setField(engine, "politenessDelayMillis", 0L);
+        ReflectionTestUtils.setField(engine, "resultTimeoutMillis", 500L);
+        engine.registerMetrics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        engine.shutdown();
+    }
+
+    @Test
+    void yieldsOneResultPerDistinctUrl() {
+        List<String> urls = List.of("https://a.example/1", "https://a.example/broken", "https://b.example/unsupported",
+                "https://a.example/1");
+
+        Map<String, ScrapeResult> results = engine.scrape(urls)
+                .collect(Collectors.toMap(ScrapeResult::url, Function.identity()));
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get("https://a.example/1").isSuccess()).isTrue();
+        assertThat(results.get("https://a.example/broken").error()).isEqualTo("parse error");
+        assertThat(results.get("https://b.example/unsupported").error()).contains("No scraper strategy");
+        assertThat(scrapes.get("https://a.example/1")).hasValue(1);
+    }
+
+    @Test
+    void failsUrlsThatOutliveTheResultTimeoutInsteadOfThrowing() {
+        List<String> urls = List.of("https://a.example/1", "https://a.example/hang", "https://b.example/2");
+
+        long start = System.nanoTime();
+        Map<String, ScrapeResult> results = engine.scrape(urls)
+                .collect(Collectors.toMap(ScrapeResult::url, Function.identity()));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get("https://a.example/1").isSuccess()).isTrue();
+        assertThat(results.get("https://b.example/2").isSuccess()).isTrue();
+        assertThat(results.get("https://a.example/hang").error()).isEqualTo("timed out");
+        assertThat(elapsedMillis).isLessThan(5_000);
+    }
+
+    @Test
+    void dropsALateResultForAUrlThatAlreadyTimedOut() throws InterruptedException {
+        List<ScrapeResult> results = engine.scrape(List.of("https://a.example/hang")).toList();
+        release.countDown();
+        Thread.sleep(100);
+
+        assertThat(results).singleElement().satisfies(result -> assertThat(result.error()).isEqualTo("timed out"));
+        assertThat(engine.scrape(List.of("https://a.example/1")).toList())
+                .singleElement().satisfies(result -> assertThat(result.isSuccess()).isTrue());
+    }
+
+    @Test
+    void fallsBackToTheNextTierAndTimesEachTierSeparately() throws Exception {
+        ScraperStrategy http = new ScraperStrategy() {
+            @Override
+            public Product scrape(String url) throws IOException {
+                if (url.contains("/dynamic")) {
+                    throw new IOException("No Product JSON-LD");
+                }
+                return Product.builder().url(url).name("static").build();
+            }
+
+            @Override
+            public boolean canHandle(String url) {
+                return true;
+            }
+
+            @Override
+            public String tier() {
+                return "http";
+            }
+        };
+        ScraperStrategy browser = new ScraperStrategy() {
+            @Override
+            public Product scrape(String url) {
+                return Product.builder().url(url).name("rendered").build();
+            }
+
+            @Override
+            public boolean canHandle(String url) {
+                return true;
+            }
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ScrapingEngine tiered = new ScrapingEngine(List.of(http, browser), mock(PlaywrightService.class), meterRegistry);
+        tiered.registerMetrics();
+
+        try {
+            assertThat(tiered.scrape("https://a.example/static").getName()).isEqualTo("static");
+            assertThat(tiered.scrape("https://a.example/dynamic").getName()).isEqualTo("rendered");
+        } finally {
+            tiered.shutdown();
+        }
+
+        assertThat(tierTimings(meterRegistry, "http", "success")).isEqualTo(1);
+        assertThat(tierTimings(meterRegistry, "http", "failure")).isEqualTo(1);
+        assertThat(tierTimings(meterRegistry, "browser", "success")).isEqualTo(1);
+    }
+
+    private static long tierTimings(SimpleMeterRegistry meterRegistry, String tier, String outcome) {
+        return meterRegistry.get("scraping.tier.duration").tag("tier", tier).tag("outcome", outcome).timer().count();
+    }
+}
@@ -0,0 +1,94 @@
+package com.smartshopai.product.infrastructure.scraper.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartshopai.product.domain.entity.Product;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the static HTML tier against fixture pages served from a local HTTP server
+ */
+class TrendyolHttpScraperStrategyTest {
+
+    private HttpServer server;
+    private TrendyolHttpScraperStrategy strategy;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/trendyol.com/kulaklik-p-1", exchange -> serve(exchange, 200, "trendyol-product.html"));
+        server.createContext("/trendyol.com/bulunamadi-p-2", exchange -> serve(exchange, 200, "trendyol-no-product.html"));
+        server.createContext("/trendyol.com/kaldirildi-p-3", exchange -> serve(exchange, 404, "trendyol-no-product.html"));
+        server.start();
+        strategy = new TrendyolHttpScraperStrategy(new ObjectMapper(), true, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void readsTheProductFromItsJsonLdBlock() throws IOException {
+        String url = url("kulaklik-p-1");
+
+        Product product = strategy.scrape(url);
+
+        assertThat(product.getName()).isEqualTo("Kablosuz Kulaklık X200");
+        assertThat(product.getDescription()).isEqualTo("Aktif gürültü engelleme");
+        assertThat(product.getPrice()).isEqualByComparingTo("1299.90");
+        assertThat(product.getCurrency()).isEqualTo("TRY");
+        assertThat(product.getMainImage()).isEqualTo("https://cdn.example.com/x200.jpg");
+        assertThat(product.getSpecifications()).containsEntry("Renk", "Siyah").containsEntry("Bağlantı", "Bluetooth 5.3");
+        assertThat(product.getUrl()).isEqualTo(url);
+        assertThat(product.getSource()).isEqualTo("TRENDYOL");
+    }
+
+    @Test
+    void failsFastWithoutAProductBlockSoTheBrowserTierTakesOver() {
+        assertThatThrownBy(() -> strategy.scrape(url("bulunamadi-p-2")))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("No Product JSON-LD");
+    }
+
+    @Test
+    void failsOnAnErrorStatus() {
+        assertThatThrownBy(() -> strategy.scrape(url("kaldirildi-p-3")))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("HTTP 404");
+    }
+
+    @Test
+    void onlyHandlesTrendyolUrlsWhenEnabled() {
+        assertThat(strategy.canHandle(url("kulaklik-p-1"))).isTrue();
+        assertThat(strategy.canHandle("https://www.example.com/p/1")).isFalse();
+        assertThat(new TrendyolHttpScraperStrategy(new ObjectMapper(), false, 5000).canHandle(url("kulaklik-p-1"))).isFalse();
+    }
+
+    private String url(String page) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/trendyol.com/" + page;
+    }
+
+    private static void serve(HttpExchange exchange, int status, String fixture) throws IOException {
+        try (InputStream html = TrendyolHttpScraperStrategyTest.class.getResourceAsStream("/fixtures/" + fixture)) {
+            byte[] body = html.readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.smartshopai.sessioncache.application.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response DTO for a recent session activity entry
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityEntryResponse {
+
+    private String value;
+    private LocalDateTime timestamp;
+}
@@ -6,8 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Response DTO for user session data
@@ -40,9 +40,12 @@ public class UserSessionResponse {
     private Integer pageViews;
     private Integer clicks;
     private Integer searches;
-    private Set<String> visitedPages;
-    private Set<String> searchedTerms;
-    private Set<String> viewedProducts;
+    private List<ActivityEntryResponse> visitedPages;
+    private List<ActivityEntryResponse> searchedTerms;
+    private List<ActivityEntryResponse> viewedProducts;
+    private Long distinctPages;
+    private Long distinctSearchTerms;
+    private Long distinctProducts;
     
     // Session context
     private String currentPage;
@@ -23,12 +23,16 @@ public interface SessionMapper {
     @Mapping(target = "lastActivityTime", ignore = true)
     @Mapping(target = "endTime", ignore = true)
     @Mapping(target = "durationSeconds", ignore = true)
+    @Mapping(target = "sweepShard", ignore = true)
     @Mapping(target = "pageViews", constant = "0")
     @Mapping(target = "clicks", constant = "0")
     @Mapping(target = "searches", constant = "0")
     @Mapping(target = "visitedPages", ignore = true)
     @Mapping(target = "searchedTerms", ignore = true)
     @Mapping(target = "viewedProducts", ignore = true)
+    @Mapping(target = "distinctPages", constant = "0L")
+    @Mapping(target = "distinctSearchTerms", constant = "0L")
+    @Mapping(target = "distinctProducts", constant = "0L")
     @Mapping(target = "currentPage", ignore = true)
     @Mapping(target = "sessionData", ignore = true)
     @Mapping(target = "cookies", ignore = true)
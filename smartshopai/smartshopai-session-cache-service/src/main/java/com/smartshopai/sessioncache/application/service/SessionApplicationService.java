@@ -5,11 +5,14 @@ import com.smartshopai.sessioncache.application.dto.request.UpdateSessionRequest
 import com.smartshopai.sessioncache.application.dto.request.TrackActivityRequest;
 import com.smartshopai.sessioncache.application.dto.response.UserSessionResponse;
 import com.smartshopai.sessioncache.application.mapper.SessionMapper;
+import com.smartshopai.sessioncache.domain.entity.SessionExportCriteria;
+import com.smartshopai.sessioncache.domain.entity.SessionExportFormat;
 import com.smartshopai.sessioncache.domain.entity.UserSession;
 import com.smartshopai.sessioncache.domain.service.SessionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -199,9 +202,13 @@ public class SessionApplicationService {
         return sessionMapper.toResponseList(sessions);
     }
 
-    public byte[] exportSessionData(String format, Map<String, Object> filters) {
+    /**
+     * Validate the export request up front and return a body that streams it once the response is committed
+     */
+    public StreamingResponseBody exportSessionData(SessionExportFormat format, Map<String, Object> filters, boolean gzip) {
         log.info("Exporting session data in format: {}", format);
-        return sessionService.exportSessionData(format, filters);
+        SessionExportCriteria criteria = SessionExportCriteria.from(filters);
+        return outputStream -> sessionService.exportSessionData(format, criteria, gzip, outputStream);
     }
 
     public Map<String, Object> getRealTimeSessionMetrics() {
@@ -0,0 +1,21 @@
+package com.smartshopai.sessioncache.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single entry of a session's recent activity history
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityEntry {
+
+    private String value; // page URL, search term or product ID
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,26 @@
+package com.smartshopai.sessioncache.domain.entity;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Tracked session activity types and the UserSession fields each one updates
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ActivityType {
+
+    PAGE_VIEW("pageViews", "visitedPages", "distinctPages", "pages"),
+    CLICK("clicks", null, null, null),
+    SEARCH("searches", "searchedTerms", "distinctSearchTerms", "terms"),
+    PRODUCT_VIEW(null, "viewedProducts", "distinctProducts", "products");
+
+    private final String counterField;
+    private final String historyField;
+    private final String distinctCountField;
+    private final String keySuffix;
+
+    public boolean hasHistory() {
+        return historyField != null;
+    }
+}
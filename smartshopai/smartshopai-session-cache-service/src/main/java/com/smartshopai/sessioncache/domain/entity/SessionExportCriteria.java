@@ -0,0 +1,66 @@
+package com.smartshopai.sessioncache.domain.entity;
+
+import com.smartshopai.common.exception.ValidationException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Which sessions an export covers: exact matches on a few session fields plus an optional start-time range
+ *
+ * @param equalTo       field to the values it may take; a session must match every field
+ * @param startTimeFrom inclusive lower bound on startTime, or null
+ * @param startTimeTo   exclusive upper bound on startTime, or null
+ */
+public record SessionExportCriteria(Map<String, List<String>> equalTo,
+                                    LocalDateTime startTimeFrom,
+                                    LocalDateTime startTimeTo) {
+
+    private static final Set<String> EQUALITY_FILTERS = Set.of("userId", "status", "deviceType", "browser", "operatingSystem");
+    private static final String START_TIME_FROM = "startTimeFrom";
+    private static final String START_TIME_TO = "startTimeTo";
+
+    /**
+     * Translate request filters into criteria.
+     * Equality filters accept a single value or a list; startTimeFrom/startTimeTo take ISO-8601 timestamps.
+     *
+     * @throws ValidationException for unknown filters or malformed values
+     */
+    public static SessionExportCriteria from(Map<String, Object> filters) {
+        Map<String, List<String>> equalTo = new LinkedHashMap<>();
+        if (filters == null) {
+            return new SessionExportCriteria(equalTo, null, null);
+        }
+        for (Map.Entry<String, Object> filter : filters.entrySet()) {
+            String field = filter.getKey();
+            Object value = filter.getValue();
+            if (value == null || START_TIME_FROM.equals(field) || START_TIME_TO.equals(field)) {
+                continue;
+            }
+            if (!EQUALITY_FILTERS.contains(field)) {
+                throw new ValidationException("Unsupported export filter: " + field);
+            }
+            equalTo.put(field, value instanceof Collection<?> values
+                    ? values.stream().map(String::valueOf).toList()
+                    : List.of(value.toString()));
+        }
+        return new SessionExportCriteria(equalTo, timestamp(filters, START_TIME_FROM), timestamp(filters, START_TIME_TO));
+    }
+
+    private static LocalDateTime timestamp(Map<String, Object> filters, String name) {
+        Object value = filters.get(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.toString());
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Invalid " + name + " timestamp: " + value);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.smartshopai.sessioncache.domain.entity;
+
+import com.smartshopai.common.exception.ValidationException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Supported session export encodings
+ */
+@Getter
+@RequiredArgsConstructor
+public enum SessionExportFormat {
+
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson"),
+    /**
+     * Row groups of column arrays, one JSON document per line
+     */
+    COLUMNAR("application/x-ndjson", "columnar.ndjson");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    public static SessionExportFormat from(String format) {
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new ValidationException("Unsupported export format: " + format + ". Supported formats: "
+                    + Arrays.stream(values()).map(Enum::name).collect(Collectors.joining(", ")));
+        }
+    }
+}
@@ -5,23 +5,37 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * User session entity for tracking user sessions and behavior
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "user_sessions")
+@CompoundIndexes({
+    @CompoundIndex(name = "status_lastActivity_idx", def = "{'status': 1, 'lastActivityTime': 1}"),
+    @CompoundIndex(name = "status_sweepShard_lastActivity_idx", def = "{'status': 1, 'sweepShard': 1, 'lastActivityTime': 1}")
+})
 public class UserSession {
 
+    /**
+     * Number of shards the expired-session sweeper splits the collection into.
+     * Stored per document, so changing it only affects sessions created afterwards.
+     */
+    public static final int SWEEP_SHARDS = 16;
+
     @Id
     private String id;
     
@@ -42,16 +56,26 @@ public class UserSession {
     private String status; // ACTIVE, INACTIVE, EXPIRED, TERMINATED
     private LocalDateTime startTime;
     private LocalDateTime lastActivityTime;
+    // Only set once a session is EXPIRED or TERMINATED; terminal sessions are removed 30 days later
+    @Indexed(name = "endTime_ttl_idx", expireAfter = "30d")
     private LocalDateTime endTime;
+    private Integer sweepShard;
+    // Id of the sweeper update that expired the session
+    private String sweepClaim;
     private Long durationSeconds;
     
     // User activity tracking
     private Integer pageViews;
     private Integer clicks;
     private Integer searches;
-    private Set<String> visitedPages;
-    private Set<String> searchedTerms;
-    private Set<String> viewedProducts;
+    // Recent activity, capped to the last N entries (oldest first)
+    private List<ActivityEntry> visitedPages;
+    private List<ActivityEntry> searchedTerms;
+    private List<ActivityEntry> viewedProducts;
+    // Approximate distinct counts for the whole session (HyperLogLog)
+    private Long distinctPages;
+    private Long distinctSearchTerms;
+    private Long distinctProducts;
     
     // Session context
     private String currentPage;
@@ -65,6 +89,7 @@ public class UserSession {
     private Map<String, Object> userPreferences;
     
     // Security
+    @Indexed(name = "authenticationToken_idx", sparse = true)
     private String authenticationToken;
     private String refreshToken;
     private LocalDateTime tokenExpiryTime;
@@ -92,6 +117,43 @@ public class UserSession {
     }
     
     // Helper methods
+    public static int sweepShardOf(String sessionId) {
+        return Math.floorMod(sessionId.hashCode(), SWEEP_SHARDS);
+    }
+    
+    /**
+     * Copy that shares no mutable lists or maps with this session, so either can be changed independently
+     */
+    public UserSession copy() {
+        return toBuilder()
+                .visitedPages(copyEntries(visitedPages))
+                .searchedTerms(copyEntries(searchedTerms))
+                .viewedProducts(copyEntries(viewedProducts))
+                .sessionData(copyMap(sessionData))
+                .cookies(copyMap(cookies))
+                .aiContext(copyMap(aiContext))
+                .recommendations(copyMap(recommendations))
+                .userPreferences(copyMap(userPreferences))
+                .analyticsData(copyMap(analyticsData))
+                .metrics(copyMap(metrics))
+                .build();
+    }
+    
+    private static List<ActivityEntry> copyEntries(List<ActivityEntry> entries) {
+        if (entries == null) {
+            return null;
+        }
+        List<ActivityEntry> copy = new ArrayList<>(entries.size());
+        for (ActivityEntry entry : entries) {
+            copy.add(entry == null ? null : new ActivityEntry(entry.getValue(), entry.getTimestamp()));
+        }
+        return copy;
+    }
+    
+    private static <V> Map<String, V> copyMap(Map<String, V> map) {
+        return map == null ? null : new HashMap<>(map);
+    }
+    
     public boolean isActive() {
         return "ACTIVE".equals(status);
     }
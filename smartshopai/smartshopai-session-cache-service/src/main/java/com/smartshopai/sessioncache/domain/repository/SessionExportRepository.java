@@ -0,0 +1,20 @@
+package com.smartshopai.sessioncache.domain.repository;
+
+import com.smartshopai.sessioncache.domain.entity.SessionExportCriteria;
+import com.smartshopai.sessioncache.domain.entity.SessionExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Streams stored sessions out in an export encoding
+ */
+public interface SessionExportRepository {
+
+    /**
+     * Write every session matching the criteria; the output stream is flushed but left open
+     *
+     * @return number of sessions written
+     */
+    long export(SessionExportCriteria criteria, SessionExportFormat format, boolean gzip, OutputStream outputStream) throws IOException;
+}
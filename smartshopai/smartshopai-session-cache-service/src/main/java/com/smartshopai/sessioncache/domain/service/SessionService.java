@@ -1,7 +1,11 @@
 package com.smartshopai.sessioncache.domain.service;
 
+import com.smartshopai.sessioncache.domain.entity.SessionExportCriteria;
+import com.smartshopai.sessioncache.domain.entity.SessionExportFormat;
 import com.smartshopai.sessioncache.domain.entity.UserSession;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -143,9 +147,11 @@ public interface SessionService {
     List<UserSession> getSessionsByIpAddress(String ipAddress);
 
     /**
-     * Export session data
+     * Stream sessions matching the export criteria to the output stream
+     *
+     * @return number of sessions exported
      */
-    byte[] exportSessionData(String format, Map<String, Object> filters);
+    long exportSessionData(SessionExportFormat format, SessionExportCriteria criteria, boolean gzip, OutputStream outputStream) throws IOException;
 
     /**
      * Get real-time session metrics
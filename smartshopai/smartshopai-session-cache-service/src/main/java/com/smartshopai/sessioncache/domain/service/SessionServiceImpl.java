@@ -1,17 +1,37 @@
 package com.smartshopai.sessioncache.domain.service;
 
+import com.smartshopai.sessioncache.domain.entity.ActivityEntry;
+import com.smartshopai.sessioncache.domain.entity.ActivityType;
+import com.smartshopai.sessioncache.domain.entity.SessionExportCriteria;
+import com.smartshopai.sessioncache.domain.entity.SessionExportFormat;
 import com.smartshopai.sessioncache.domain.entity.UserSession;
+import com.smartshopai.sessioncache.domain.repository.SessionExportRepository;
 import com.smartshopai.sessioncache.domain.repository.UserSessionRepository;
+import com.smartshopai.sessioncache.infrastructure.cache.SessionActivityHistory;
+import com.smartshopai.sessioncache.infrastructure.cache.SessionActivityWriteBehind;
+import com.smartshopai.sessioncache.infrastructure.cache.SessionHashCache;
+import com.smartshopai.sessioncache.infrastructure.cache.SessionTokenIndex;
+import com.smartshopai.sessioncache.infrastructure.metrics.SessionMetrics;
+import com.smartshopai.sessioncache.infrastructure.sweeper.ExpiredSessionSweeper;
+import com.smartshopai.sessioncache.infrastructure.useragent.UserAgentParser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of SessionService
@@ -23,29 +43,44 @@ public class SessionServiceImpl implements SessionService {
 
     private final UserSessionRepository userSessionRepository;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final SessionHashCache sessionCache;
+    private final SessionActivityWriteBehind activityWriteBehind;
+    private final SessionActivityHistory activityHistory;
+    private final ExpiredSessionSweeper expiredSessionSweeper;
+    private final SessionMetrics sessionMetrics;
+    private final SessionTokenIndex tokenIndex;
+    private final SessionExportRepository sessionExportRepository;
     
-    private static final String SESSION_CACHE_PREFIX = "session:";
     private static final String USER_SESSIONS_PREFIX = "user_sessions:";
-    private static final int SESSION_TIMEOUT_MINUTES = 30;
 
     @Override
     public UserSession createSession(String userId, String sessionId, String userAgent, String ipAddress) {
         log.info("Creating new session for user: {} with session ID: {}", userId, sessionId);
         
+        // Filled before the session is counted, so it lands in the right device, browser and OS gauges
+        UserAgentParser.ClientInfo client = UserAgentParser.parse(userAgent);
         UserSession session = UserSession.builder()
                 .sessionId(sessionId)
                 .userId(userId)
                 .userAgent(userAgent)
                 .ipAddress(ipAddress)
+                .deviceType(client.deviceType())
+                .browser(client.browser())
+                .operatingSystem(client.operatingSystem())
                 .status("ACTIVE")
                 .startTime(LocalDateTime.now())
                 .lastActivityTime(LocalDateTime.now())
+                .sweepShard(UserSession.sweepShardOf(sessionId))
                 .pageViews(0)
                 .clicks(0)
                 .searches(0)
-                .visitedPages(new HashSet<>())
-                .searchedTerms(new HashSet<>())
-                .viewedProducts(new HashSet<>())
+                .visitedPages(new ArrayList<>())
+                .searchedTerms(new ArrayList<>())
+                .viewedProducts(new ArrayList<>())
+                .distinctPages(0L)
+                .distinctSearchTerms(0L)
+                .distinctProducts(0L)
                 .sessionData(new HashMap<>())
                 .cookies(new HashMap<>())
                 .aiContext(new HashMap<>())
@@ -59,13 +94,14 @@ public class SessionServiceImpl implements SessionService {
         UserSession savedSession = userSessionRepository.save(session);
         
         // Cache the session in Redis
-        String cacheKey = SESSION_CACHE_PREFIX + sessionId;
-        redisTemplate.opsForValue().set(cacheKey, savedSession, SESSION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        sessionCache.put(savedSession);
         
         // Add to user sessions set
         String userSessionsKey = USER_SESSIONS_PREFIX + userId;
         redisTemplate.opsForSet().add(userSessionsKey, sessionId);
         
+        sessionMetrics.onSessionStarted(savedSession);
+        
         log.debug("Session created successfully: {}", sessionId);
         return savedSession;
     }
@@ -75,19 +111,16 @@ public class SessionServiceImpl implements SessionService {
         log.debug("Getting session: {}", sessionId);
         
         // Try Redis cache first
-        String cacheKey = SESSION_CACHE_PREFIX + sessionId;
-        UserSession cachedSession = (UserSession) redisTemplate.opsForValue().get(cacheKey);
-        
-        if (cachedSession != null) {
-            return Optional.of(cachedSession);
+        Optional<UserSession> cachedSession = sessionCache.get(sessionId);
+        if (cachedSession.isPresent()) {
+            return cachedSession;
         }
         
-        // Fallback to database
+        // Fallback to database; the epoch guards against caching a read that an activity flush overtook
+        long flushEpoch = sessionCache.flushEpoch(sessionId);
         Optional<UserSession> session = userSessionRepository.findBySessionId(sessionId);
-        if (session.isPresent()) {
-            // Cache the session
-            redisTemplate.opsForValue().set(cacheKey, session.get(), SESSION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
-        }
+        // Cache the session
+        session.ifPresent(loaded -> sessionCache.populate(loaded, flushEpoch));
         
         return session;
     }
@@ -96,223 +129,132 @@ public class SessionServiceImpl implements SessionService {
     public UserSession updateSessionActivity(String sessionId) {
         log.debug("Updating session activity: {}", sessionId);
         
-        Optional<UserSession> sessionOpt = getSession(sessionId);
-        if (sessionOpt.isEmpty()) {
-            throw new com.smartshopai.common.exception.NotFoundException("Session not found: " + sessionId);
-        }
-        
-        UserSession session = sessionOpt.get();
-        session.updateLastActivity();
-        
-        UserSession updatedSession = userSessionRepository.save(session);
-        
-        // Update cache
-        String cacheKey = SESSION_CACHE_PREFIX + sessionId;
-        redisTemplate.opsForValue().set(cacheKey, updatedSession, SESSION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
-        
-        return updatedSession;
+        LocalDateTime now = LocalDateTime.now();
+        return updateFields(sessionId, new Update()
+                .set("lastActivityTime", now)
+                .set("updatedAt", now));
     }
 
     @Override
     public UserSession updateSessionData(String sessionId, Map<String, Object> sessionData) {
         log.debug("Updating session data: {}", sessionId);
         
-        Optional<UserSession> sessionOpt = getSession(sessionId);
-        if (sessionOpt.isEmpty()) {
-            throw new com.smartshopai.common.exception.NotFoundException("Session not found: " + sessionId);
-        }
-        
-        UserSession session = sessionOpt.get();
-        session.setSessionData(sessionData);
-        session.preUpdate();
-        
-        UserSession updatedSession = userSessionRepository.save(session);
-        
-        // Update cache
-        String cacheKey = SESSION_CACHE_PREFIX + sessionId;
-        redisTemplate.opsForValue().set(cacheKey, updatedSession, SESSION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
-        
-        return updatedSession;
+        return updateFields(sessionId, new Update()
+                .set("sessionData", sessionData)
+                .set("updatedAt", LocalDateTime.now()));
     }
 
     @Override
     public UserSession updateSessionContext(String sessionId, String currentPage, String referrer) {
         log.debug("Updating session context: {} - page: {}", sessionId, currentPage);
         
-        Optional<UserSession> sessionOpt = getSession(sessionId);
-        if (sessionOpt.isEmpty()) {
-            throw new com.smartshopai.common.exception.NotFoundException("Session not found: " + sessionId);
-        }
-        
-        UserSession session = sessionOpt.get();
-        session.setCurrentPage(currentPage);
-        session.setReferrer(referrer);
-        session.updateLastActivity();
-        
-        UserSession updatedSession = userSessionRepository.save(session);
-        
-        // Update cache
-        String cacheKey = SESSION_CACHE_PREFIX + sessionId;
-        redisTemplate.opsForValue().set(cacheKey, updatedSession, SESSION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
-        
-        return updatedSession;
+        LocalDateTime now = LocalDateTime.now();
+        return updateFields(sessionId, new Update()
+                .set("currentPage", currentPage)
+                .set("referrer", referrer)
+                .set("lastActivityTime", now)
+                .set("updatedAt", now));
     }
 
     @Override
     public UserSession updateAIContext(String sessionId, Map<String, Object> aiContext) {
         log.debug("Updating AI context for session: {}", sessionId);
         
-        Optional<UserSession> sessionOpt = getSession(sessionId);
-        if (sessionOpt.isEmpty()) {
-            throw new com.smartshopai.common.exception.NotFoundException("Session not found: " + sessionId);
-        }
-        
-        UserSession session = sessionOpt.get();
-        session.setAiContext(aiContext);
-        session.preUpdate();
-        
-        UserSession updatedSession = userSessionRepository.save(session);
-        
-        // Update cache
-        String cacheKey = SESSION_CACHE_PREFIX + sessionId;
-        redisTemplate.opsForValue().set(cacheKey, updatedSession, SESSION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
-        
-        return updatedSession;
+        return updateFields(sessionId, new Update()
+                .set("aiContext", aiContext)
+                .set("updatedAt", LocalDateTime.now()));
     }
 
     @Override
     public UserSession updateRecommendations(String sessionId, Map<String, Object> recommendations) {
         log.debug("Updating recommendations for session: {}", sessionId);
         
-        Optional<UserSession> sessionOpt = getSession(sessionId);
-        if (sessionOpt.isEmpty()) {
-            throw new com.smartshopai.common.exception.NotFoundException("Session not found: " + sessionId);
-        }
-        
-        UserSession session = sessionOpt.get();
-        session.setRecommendations(recommendations);
-        session.preUpdate();
-        
-        UserSession updatedSession = userSessionRepository.save(session);
-        
-        // Update cache
-        String cacheKey = SESSION_CACHE_PREFIX + sessionId;
-        redisTemplate.opsForValue().set(cacheKey, updatedSession, SESSION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
-        
-        return updatedSession;
+        return updateFields(sessionId, new Update()
+                .set("recommendations", recommendations)
+                .set("updatedAt", LocalDateTime.now()));
     }
 
     @Override
     public UserSession updateUserPreferences(String sessionId, Map<String, Object> preferences) {
         log.debug("Updating user preferences for session: {}", sessionId);
         
-        Optional<UserSession> sessionOpt = getSession(sessionId);
-        if (sessionOpt.isEmpty()) {
-            throw new com.smartshopai.common.exception.NotFoundException("Session not found: " + sessionId);
-        }
-        
-        UserSession session = sessionOpt.get();
-        session.setUserPreferences(preferences);
-        session.preUpdate();
-        
-        UserSession updatedSession = userSessionRepository.save(session);
-        
-        // Update cache
-        String cacheKey = SESSION_CACHE_PREFIX + sessionId;
-        redisTemplate.opsForValue().set(cacheKey, updatedSession, SESSION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
-        
-        return updatedSession;
+        return updateFields(sessionId, new Update()
+                .set("userPreferences", preferences)
+                .set("updatedAt", LocalDateTime.now()));
     }
 
     @Override
     public UserSession trackPageView(String sessionId, String pageUrl) {
         log.debug("Tracking page view for session: {} - page: {}", sessionId, pageUrl);
         
-        Optional<UserSession> sessionOpt = getSession(sessionId);
-        if (sessionOpt.isEmpty()) {
-            throw new com.smartshopai.common.exception.NotFoundException("Session not found: " + sessionId);
+        if (activityWriteBehind.isEnabled()) {
+            UserSession session = getSession(sessionId)
+                    .orElseThrow(() -> new com.smartshopai.common.exception.NotFoundException("Session not found: " + sessionId));
+            return activityWriteBehind.track(session, ActivityType.PAGE_VIEW, pageUrl, pageUrl);
         }
         
-        UserSession session = sessionOpt.get();
-        session.incrementPageViews();
-        session.getVisitedPages().add(pageUrl);
-        session.setCurrentPage(pageUrl);
-        session.updateLastActivity();
-        
-        UserSession updatedSession = userSessionRepository.save(session);
-        
-        // Update cache
-        String cacheKey = SESSION_CACHE_PREFIX + sessionId;
-        redisTemplate.opsForValue().set(cacheKey, updatedSession, SESSION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
-        
-        return updatedSession;
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .inc("pageViews", 1)
+                .set("currentPage", pageUrl)
+                .set("lastActivityTime", now)
+                .set("updatedAt", now);
+        recordActivity(update, sessionId, ActivityType.PAGE_VIEW, pageUrl, now);
+        return updateFields(sessionId, update);
     }
 
     @Override
     public UserSession trackClick(String sessionId, String elementId) {
         log.debug("Tracking click for session: {} - element: {}", sessionId, elementId);
         
-        Optional<UserSession> sessionOpt = getSession(sessionId);
-        if (sessionOpt.isEmpty()) {
-            throw new com.smartshopai.common.exception.NotFoundException("Session not found: " + sessionId);
+        if (activityWriteBehind.isEnabled()) {
+            UserSession session = getSession(sessionId)
+                    .orElseThrow(() -> new com.smartshopai.common.exception.NotFoundException("Session not found: " + sessionId));
+            return activityWriteBehind.track(session, ActivityType.CLICK, elementId, null);
         }
         
-        UserSession session = sessionOpt.get();
-        session.incrementClicks();
-        session.updateLastActivity();
-        
-        UserSession updatedSession = userSessionRepository.save(session);
-        
-        // Update cache
-        String cacheKey = SESSION_CACHE_PREFIX + sessionId;
-        redisTemplate.opsForValue().set(cacheKey, updatedSession, SESSION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
-        
-        return updatedSession;
+        LocalDateTime now = LocalDateTime.now();
+        return updateFields(sessionId, new Update()
+                .inc("clicks", 1)
+                .set("lastActivityTime", now)
+                .set("updatedAt", now));
     }
 
     @Override
     public UserSession trackSearch(String sessionId, String searchTerm) {
         log.debug("Tracking search for session: {} - term: {}", sessionId, searchTerm);
         
-        Optional<UserSession> sessionOpt = getSession(sessionId);
-        if (sessionOpt.isEmpty()) {
-            throw new com.smartshopai.common.exception.NotFoundException("Session not found: " + sessionId);
+        if (activityWriteBehind.isEnabled()) {
+            UserSession session = getSession(sessionId)
+                    .orElseThrow(() -> new com.smartshopai.common.exception.NotFoundException("Session not found: " + sessionId));
+            return activityWriteBehind.track(session, ActivityType.SEARCH, searchTerm, null);
         }
         
-        UserSession session = sessionOpt.get();
-        session.incrementSearches();
-        session.getSearchedTerms().add(searchTerm);
-        session.updateLastActivity();
-        
-        UserSession updatedSession = userSessionRepository.save(session);
-        
-        // Update cache
-        String cacheKey = SESSION_CACHE_PREFIX + sessionId;
-        redisTemplate.opsForValue().set(cacheKey, updatedSession, SESSION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
-        
-        return updatedSession;
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .inc("searches", 1)
+                .set("lastActivityTime", now)
+                .set("updatedAt", now);
+        recordActivity(update, sessionId, ActivityType.SEARCH, searchTerm, now);
+        return updateFields(sessionId, update);
     }
 
     @Override
     public UserSession trackProductView(String sessionId, String productId) {
         log.debug("Tracking product view for session: {} - product: {}", sessionId, productId);
         
-        Optional<UserSession> sessionOpt = getSession(sessionId);
-        if (sessionOpt.isEmpty()) {
-            throw new com.smartshopai.common.exception.NotFoundException("Session not found: " + sessionId);
+        if (activityWriteBehind.isEnabled()) {
+            UserSession session = getSession(sessionId)
+                    .orElseThrow(() -> new com.smartshopai.common.exception.NotFoundException("Session not found: " + sessionId));
+            return activityWriteBehind.track(session, ActivityType.PRODUCT_VIEW, productId, null);
         }
         
-        UserSession session = sessionOpt.get();
-        session.getViewedProducts().add(productId);
-        session.updateLastActivity();
-        
-        UserSession updatedSession = userSessionRepository.save(session);
-        
-        // Update cache
-        String cacheKey = SESSION_CACHE_PREFIX + sessionId;
-        redisTemplate.opsForValue().set(cacheKey, updatedSession, SESSION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
-        
-        return updatedSession;
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("lastActivityTime", now)
+                .set("updatedAt", now);
+        recordActivity(update, sessionId, ActivityType.PRODUCT_VIEW, productId, now);
+        return updateFields(sessionId, update);
     }
 
     @Override
@@ -324,18 +266,15 @@ public class SessionServiceImpl implements SessionService {
             throw new com.smartshopai.common.exception.NotFoundException("Session not found: " + sessionId);
         }
         
-        UserSession session = sessionOpt.get();
-        session.setAuthenticationToken(authToken);
-        session.setRefreshToken(refreshToken);
-        session.setTokenExpiryTime(expiryTime);
-        session.setIsAuthenticated(true);
-        session.preUpdate();
+        Update update = new Update()
+                .set("authenticationToken", authToken)
+                .set("refreshToken", refreshToken)
+                .set("tokenExpiryTime", expiryTime)
+                .set("isAuthenticated", true)
+                .set("updatedAt", LocalDateTime.now());
+        UserSession updatedSession = updateFields(sessionId, update);
         
-        UserSession updatedSession = userSessionRepository.save(session);
-        
-        // Update cache
-        String cacheKey = SESSION_CACHE_PREFIX + sessionId;
-        redisTemplate.opsForValue().set(cacheKey, updatedSession, SESSION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        replaceIndexedToken(sessionOpt.get().getAuthenticationToken(), updatedSession);
         
         return updatedSession;
     }
@@ -344,17 +283,28 @@ public class SessionServiceImpl implements SessionService {
     public boolean validateAuthenticationToken(String token) {
         log.debug("Validating authentication token");
         
+        if (tokenIndex.isRejected(token)) {
+            return false;
+        }
+        if (tokenIndex.findSessionId(token).isPresent()) {
+            return true;
+        }
+        
+        // Index miss: the token is unknown, expired, or was issued before the index was populated
         Optional<UserSession> session = userSessionRepository.findByAuthenticationToken(token);
-        if (session.isEmpty()) {
+        if (session.isEmpty() || !session.get().isActive()) {
+            tokenIndex.reject(token);
             return false;
         }
         
         UserSession userSession = session.get();
         if (userSession.getTokenExpiryTime() == null || 
             LocalDateTime.now().isAfter(userSession.getTokenExpiryTime())) {
+            tokenIndex.reject(token);
             return false;
         }
         
+        tokenIndex.index(userSession.getSessionId(), token, userSession.getTokenExpiryTime());
         return true;
     }
 
@@ -367,16 +317,13 @@ public class SessionServiceImpl implements SessionService {
             throw new RuntimeException("Session not found: " + sessionId);
         }
         
-        UserSession session = sessionOpt.get();
-        session.setAuthenticationToken(newToken);
-        session.setTokenExpiryTime(expiryTime);
-        session.preUpdate();
-        
-        UserSession updatedSession = userSessionRepository.save(session);
+        Update update = new Update()
+                .set("authenticationToken", newToken)
+                .set("tokenExpiryTime", expiryTime)
+                .set("updatedAt", LocalDateTime.now());
+        UserSession updatedSession = updateFields(sessionId, update);
         
-        // Update cache
-        String cacheKey = SESSION_CACHE_PREFIX + sessionId;
-        redisTemplate.opsForValue().set(cacheKey, updatedSession, SESSION_TIMEOUT_MINUTES, TimeUnit.MINUTES);
+        replaceIndexedToken(sessionOpt.get().getAuthenticationToken(), updatedSession);
         
         return updatedSession;
     }
@@ -391,21 +338,32 @@ public class SessionServiceImpl implements SessionService {
         }
         
         UserSession session = sessionOpt.get();
-        session.setStatus("TERMINATED");
-        session.setEndTime(LocalDateTime.now());
-        session.setDurationSeconds(ChronoUnit.SECONDS.between(session.getStartTime(), session.getEndTime()));
-        session.preUpdate();
-        
-        UserSession updatedSession = userSessionRepository.save(session);
-        
-        // Remove from cache
-        String cacheKey = SESSION_CACHE_PREFIX + sessionId;
-        redisTemplate.delete(cacheKey);
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("status", "TERMINATED")
+                .set("endTime", now)
+                .set("durationSeconds", ChronoUnit.SECONDS.between(session.getStartTime(), now))
+                .set("updatedAt", now);
+        // Only an active session is ended, and only these fields are written, so counters flushed by the
+        // write-behind pipeline are never overwritten with the cached copy's values
+        UserSession endedSession = updateFieldsWhere(
+                Criteria.where("sessionId").is(sessionId).and("status").is("ACTIVE"), update);
+        boolean wasActive = endedSession != null;
+        UserSession updatedSession = wasActive ? endedSession : userSessionRepository.findBySessionId(sessionId)
+                .orElseThrow(() -> new RuntimeException("Session not found: " + sessionId));
+        
+        // Remove from cache and token index
+        sessionCache.evict(sessionId);
+        tokenIndex.remove(session.getAuthenticationToken());
         
         // Remove from user sessions set
         String userSessionsKey = USER_SESSIONS_PREFIX + session.getUserId();
         redisTemplate.opsForSet().remove(userSessionsKey, sessionId);
         
+        if (wasActive) {
+            sessionMetrics.onSessionEnded(updatedSession);
+        }
+        
         return updatedSession;
     }
 
@@ -426,11 +384,11 @@ public class SessionServiceImpl implements SessionService {
         log.debug("Getting session statistics");
         
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalActiveSessions", userSessionRepository.countActiveSessions());
-        stats.put("totalSessions", userSessionRepository.count());
-        stats.put("sessionsByDeviceType", getSessionsByDeviceType("DESKTOP").size());
-        stats.put("mobileSessions", getSessionsByDeviceType("MOBILE").size());
-        stats.put("tabletSessions", getSessionsByDeviceType("TABLET").size());
+        stats.put("totalActiveSessions", sessionMetrics.getActiveSessions());
+        stats.put("totalSessions", mongoTemplate.estimatedCount(UserSession.class));
+        stats.put("sessionsByDeviceType", sessionMetrics.getActiveSessionsByDeviceType("DESKTOP"));
+        stats.put("mobileSessions", sessionMetrics.getActiveSessionsByDeviceType("MOBILE"));
+        stats.put("tabletSessions", sessionMetrics.getActiveSessionsByDeviceType("TABLET"));
         
         return stats;
     }
@@ -441,31 +399,32 @@ public class SessionServiceImpl implements SessionService {
         
         Map<String, Object> stats = new HashMap<>();
         stats.put("activeSessions", userSessionRepository.countActiveSessionsByUserId(userId));
-        stats.put("totalSessions", userSessionRepository.findByUserId(userId).size());
+        
+        // Totals come from the exact per-session counters, not from the capped activity history
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("userId").is(userId)),
+                Aggregation.group("userId")
+                        .count().as("totalSessions")
+                        .sum("pageViews").as("totalPageViews")
+                        .sum("clicks").as("totalClicks")
+                        .sum("searches").as("totalSearches"));
+        Document totals = mongoTemplate.aggregate(aggregation, UserSession.class, Document.class).getUniqueMappedResult();
+        stats.put("totalSessions", totals != null ? totals.get("totalSessions") : 0);
+        stats.put("totalPageViews", totals != null ? totals.get("totalPageViews") : 0);
+        stats.put("totalClicks", totals != null ? totals.get("totalClicks") : 0);
+        stats.put("totalSearches", totals != null ? totals.get("totalSearches") : 0);
         
         return stats;
     }
 
     @Override
-    @Scheduled(fixedRate = 300000) // Run every 5 minutes
+    @Scheduled(fixedRateString = "${session.cleanup-interval:300000}") // Run every 5 minutes by default
     public void cleanupExpiredSessions() {
         log.info("Cleaning up expired sessions");
         
-        LocalDateTime expiryTime = LocalDateTime.now().minusMinutes(SESSION_TIMEOUT_MINUTES);
-        List<UserSession> expiredSessions = userSessionRepository.findExpiredActiveSessions(expiryTime);
-        
-        for (UserSession session : expiredSessions) {
-            session.setStatus("EXPIRED");
-            session.setEndTime(LocalDateTime.now());
-            session.setDurationSeconds(ChronoUnit.SECONDS.between(session.getStartTime(), session.getEndTime()));
-            userSessionRepository.save(session);
-            
-            // Remove from cache
-            String cacheKey = SESSION_CACHE_PREFIX + session.getSessionId();
-            redisTemplate.delete(cacheKey);
-        }
+        long expiredSessions = expiredSessionSweeper.sweep();
         
-        log.info("Cleaned up {} expired sessions", expiredSessions.size());
+        log.info("Cleaned up {} expired sessions", expiredSessions);
     }
 
     @Override
@@ -499,13 +458,9 @@ public class SessionServiceImpl implements SessionService {
     }
 
     @Override
-    public byte[] exportSessionData(String format, Map<String, Object> filters) {
+    public long exportSessionData(SessionExportFormat format, SessionExportCriteria criteria, boolean gzip, OutputStream outputStream) throws IOException {
         log.info("Exporting session data in format: {}", format);
-        
-        // This is a simplified implementation
-        // In a real implementation, you would generate the actual export
-        String exportData = "Session export data in " + format + " format";
-        return exportData.getBytes();
+        return sessionExportRepository.export(criteria, format, gzip, outputStream);
     }
 
     @Override
@@ -513,18 +468,70 @@ public class SessionServiceImpl implements SessionService {
         log.debug("Getting real-time session metrics");
         
         Map<String, Object> metrics = new HashMap<>();
-        metrics.put("activeSessions", userSessionRepository.countActiveSessions());
-        metrics.put("totalSessionsToday", userSessionRepository.findByStartTimeBetween(
-            LocalDateTime.now().withHour(0).withMinute(0).withSecond(0),
-            LocalDateTime.now()
-        ).size());
-        metrics.put("averageSessionDuration", 1800.0); // Mock value
-        metrics.put("sessionsByDevice", Map.of(
-            "DESKTOP", getSessionsByDeviceType("DESKTOP").size(),
-            "MOBILE", getSessionsByDeviceType("MOBILE").size(),
-            "TABLET", getSessionsByDeviceType("TABLET").size()
-        ));
+        // Served from in-memory counters; see SessionMetrics for how they are kept in line with Mongo
+        metrics.put("activeSessions", sessionMetrics.getActiveSessions());
+        metrics.put("totalSessionsToday", sessionMetrics.getSessionsStartedToday());
+        metrics.put("averageSessionDuration", sessionMetrics.getAverageSessionDurationToday());
+        metrics.put("sessionsByDevice", sessionMetrics.getActiveSessionsByDeviceType());
+        metrics.put("sessionsByBrowser", sessionMetrics.getActiveSessionsByBrowser());
+        metrics.put("sessionsByOperatingSystem", sessionMetrics.getActiveSessionsByOperatingSystem());
         
         return metrics;
     }
+
+    /**
+     * Apply a targeted update to a single session document and mirror only the touched fields into the cache
+     */
+    private UserSession updateFields(String sessionId, Update update) {
+        UserSession updatedSession = updateFieldsWhere(Criteria.where("sessionId").is(sessionId), update);
+        if (updatedSession == null) {
+            throw new com.smartshopai.common.exception.NotFoundException("Session not found: " + sessionId);
+        }
+        return updatedSession;
+    }
+
+    /**
+     * Targeted update of the session matching the criteria, or null when none does
+     */
+    private UserSession updateFieldsWhere(Criteria criteria, Update update) {
+        UserSession updatedSession = mongoTemplate.findAndModify(
+                Query.query(criteria),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                UserSession.class);
+        if (updatedSession != null) {
+            sessionCache.putFields(updatedSession, updatedFields(update));
+        }
+        return updatedSession;
+    }
+
+    /**
+     * Drop the session's previous token from the index and index its current one
+     */
+    private void replaceIndexedToken(String previousToken, UserSession session) {
+        if (previousToken != null && !previousToken.equals(session.getAuthenticationToken())) {
+            tokenIndex.remove(previousToken);
+        }
+        tokenIndex.index(session.getSessionId(), session.getAuthenticationToken(), session.getTokenExpiryTime());
+    }
+
+    /**
+     * Push the activity onto the capped history ring and raise the session's distinct count estimate
+     */
+    private void recordActivity(Update update, String sessionId, ActivityType type, String value, LocalDateTime timestamp) {
+        update.push(type.getHistoryField())
+                .slice(-activityHistory.getHistorySize())
+                .each(new ActivityEntry(value, timestamp));
+        update.max(type.getDistinctCountField(), activityHistory.recordDistinct(sessionId, type, value));
+    }
+
+    private static Set<String> updatedFields(Update update) {
+        Set<String> fields = new HashSet<>();
+        for (Object operation : update.getUpdateObject().values()) {
+            if (operation instanceof Map<?, ?> operands) {
+                operands.keySet().forEach(field -> fields.add((String) field));
+            }
+        }
+        return fields;
+    }
 }
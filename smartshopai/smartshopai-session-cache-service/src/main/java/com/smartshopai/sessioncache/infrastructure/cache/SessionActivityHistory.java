@@ -0,0 +1,94 @@
+package com.smartshopai.sessioncache.infrastructure.cache;
+
+import com.smartshopai.sessioncache.domain.entity.ActivityEntry;
+import com.smartshopai.sessioncache.domain.entity.ActivityType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps session activity history compact: a capped ring of the most recent entries per activity type,
+ * plus a Redis HyperLogLog per session and type for approximate distinct counts over the whole session.
+ */
+@Component
+@RequiredArgsConstructor
+public class SessionActivityHistory {
+
+    private static final String DISTINCT_PREFIX = "session_distinct:";
+    private static final String ENTRY_SEPARATOR = "|";
+
+    /**
+     * KEYS: HyperLogLog key; ARGV: member, ttl seconds
+     */
+    private static final RedisScript<Long> RECORD_DISTINCT_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('PFADD', KEYS[1], ARGV[1])
+            redis.call('EXPIRE', KEYS[1], ARGV[2])
+            return redis.call('PFCOUNT', KEYS[1])
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${session.activity.history-size:50}")
+    private int historySize;
+
+    @Value("${session.activity.distinct-ttl-seconds:86400}")
+    private long distinctTtlSeconds;
+
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    public long getDistinctTtlSeconds() {
+        return distinctTtlSeconds;
+    }
+
+    /**
+     * Add a value to the session's distinct sketch and return the updated estimate
+     */
+    public long recordDistinct(String sessionId, ActivityType type, String value) {
+        Long count = stringRedisTemplate.execute(RECORD_DISTINCT_SCRIPT,
+                List.of(distinctKey(sessionId, type)), value, String.valueOf(distinctTtlSeconds));
+        return count == null ? 0 : count;
+    }
+
+    public String distinctKey(String sessionId, ActivityType type) {
+        return DISTINCT_PREFIX + sessionId + ":" + type.getKeySuffix();
+    }
+
+    /**
+     * Append entries to a history ring, dropping the oldest ones beyond the configured size
+     */
+    public List<ActivityEntry> append(List<ActivityEntry> history, List<ActivityEntry> added) {
+        List<ActivityEntry> result = new ArrayList<>(history == null ? List.of() : history);
+        result.addAll(added);
+        return result.size() > historySize
+                ? new ArrayList<>(result.subList(result.size() - historySize, result.size()))
+                : result;
+    }
+
+    public static ActivityEntry entry(String value, long timestampMillis) {
+        return new ActivityEntry(value,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneId.systemDefault()));
+    }
+
+    /**
+     * Compact "millis|value" form used for history entries buffered in Redis lists
+     */
+    public static String encode(String value, long timestampMillis) {
+        return timestampMillis + ENTRY_SEPARATOR + value;
+    }
+
+    public static ActivityEntry decode(String encoded) {
+        int separator = encoded.indexOf(ENTRY_SEPARATOR);
+        return entry(encoded.substring(separator + 1), Long.parseLong(encoded.substring(0, separator)));
+    }
+}
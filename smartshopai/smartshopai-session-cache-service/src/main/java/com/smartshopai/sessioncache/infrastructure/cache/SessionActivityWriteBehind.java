@@ -0,0 +1,484 @@
+package com.smartshopai.sessioncache.infrastructure.cache;
+
+import com.smartshopai.sessioncache.domain.entity.ActivityEntry;
+import com.smartshopai.sessioncache.domain.entity.ActivityType;
+import com.smartshopai.sessioncache.domain.entity.UserSession;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Write-behind buffer for session activity tracking.
+ * Tracking calls only touch Redis in a single atomic script: HINCRBY for counters, a capped list for the
+ * recent-activity ring and PFADD for the distinct-count sketch. A background flusher coalesces dirty
+ * sessions into batched Mongo bulk upserts.
+ *
+ * Per session, pending deltas are moved to an "inflight" snapshot under a short lease before they are
+ * written, so at most one flush per session is in progress across replicas and a failed write is retried
+ * from the snapshot instead of being dropped.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionActivityWriteBehind {
+
+    private static final String PENDING_PREFIX = "session_activity:";
+    private static final String INFLIGHT_PREFIX = "session_activity_inflight:";
+    private static final String LEASE_PREFIX = "session_activity_lease:";
+    private static final String DIRTY_SESSIONS_KEY = "session_activity_dirty";
+
+    private static final String FIELD_LAST_ACTIVITY = "lastActivityTime";
+    private static final String FIELD_CURRENT_PAGE = "currentPage";
+
+    private static final List<ActivityType> HISTORY_TYPES =
+            Arrays.stream(ActivityType.values()).filter(ActivityType::hasHistory).toList();
+
+    /**
+     * KEYS: pending hash, pending history list (may be unused), distinct sketch (may be unused), dirty set
+     * ARGV: sessionId, counter field, encoded history entry, distinct member, current page, now millis,
+     *       ttl seconds, history size, distinct ttl seconds
+     */
+    private static final RedisScript<Long> TRACK_SCRIPT = new DefaultRedisScript<>("""
+            if ARGV[2] ~= '' then redis.call('HINCRBY', KEYS[1], ARGV[2], 1) end
+            redis.call('HSET', KEYS[1], 'lastActivityTime', ARGV[6])
+            if ARGV[5] ~= '' then redis.call('HSET', KEYS[1], 'currentPage', ARGV[5]) end
+            redis.call('EXPIRE', KEYS[1], ARGV[7])
+            if ARGV[3] ~= '' then
+                redis.call('RPUSH', KEYS[2], ARGV[3])
+                redis.call('LTRIM', KEYS[2], -tonumber(ARGV[8]), -1)
+                redis.call('EXPIRE', KEYS[2], ARGV[7])
+                redis.call('PFADD', KEYS[3], ARGV[4])
+                redis.call('EXPIRE', KEYS[3], ARGV[9])
+            end
+            redis.call('SADD', KEYS[4], ARGV[1])
+            return 1
+            """, Long.class);
+
+    /**
+     * Merges pending deltas into the inflight snapshot and returns the snapshot with current distinct counts.
+     * KEYS: pending hash, pending pages, terms, products, inflight hash, inflight pages, terms, products,
+     *       distinct pages, terms, products
+     * ARGV: ttl seconds, history size
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DRAIN_SCRIPT = new DefaultRedisScript<>("""
+            local pending = redis.call('HGETALL', KEYS[1])
+            for i = 1, #pending, 2 do
+                local field = pending[i]
+                if field == 'lastActivityTime' or field == 'currentPage' then
+                    redis.call('HSET', KEYS[5], field, pending[i + 1])
+                else
+                    redis.call('HINCRBY', KEYS[5], field, pending[i + 1])
+                end
+            end
+            redis.call('DEL', KEYS[1])
+            for i = 2, 4 do
+                local items = redis.call('LRANGE', KEYS[i], 0, -1)
+                if #items > 0 then
+                    redis.call('RPUSH', KEYS[i + 4], unpack(items))
+                    redis.call('LTRIM', KEYS[i + 4], -tonumber(ARGV[2]), -1)
+                    redis.call('DEL', KEYS[i])
+                end
+            end
+            for i = 5, 8 do redis.call('EXPIRE', KEYS[i], ARGV[1]) end
+            return {redis.call('HGETALL', KEYS[5]), redis.call('LRANGE', KEYS[6], 0, -1),
+                    redis.call('LRANGE', KEYS[7], 0, -1), redis.call('LRANGE', KEYS[8], 0, -1),
+                    redis.call('PFCOUNT', KEYS[9]), redis.call('PFCOUNT', KEYS[10]), redis.call('PFCOUNT', KEYS[11])}
+            """, List.class);
+
+    private static final RedisScript<Long> RELEASE_LEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final SessionHashCache sessionCache;
+    private final SessionActivityHistory activityHistory;
+
+    @Value("${session.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${session.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${session.write-behind.lease-ms:30000}")
+    private long leaseMillis;
+
+    @Value("${session.write-behind.pending-ttl-seconds:86400}")
+    private long pendingTtlSeconds;
+
+    @Value("${session.write-behind.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMillis;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record an activity in Redis and return the given session with all unflushed activity applied
+     */
+    public UserSession track(UserSession session, ActivityType type, String value, String currentPage) {
+        String sessionId = session.getSessionId();
+        boolean recordsHistory = type.hasHistory() && value != null;
+        long now = System.currentTimeMillis();
+
+        stringRedisTemplate.execute(TRACK_SCRIPT,
+                List.of(pendingKey(sessionId),
+                        recordsHistory ? historyKey(PENDING_PREFIX, sessionId, type) : pendingKey(sessionId),
+                        recordsHistory ? activityHistory.distinctKey(sessionId, type) : pendingKey(sessionId),
+                        DIRTY_SESSIONS_KEY),
+                sessionId,
+                type.getCounterField() != null ? type.getCounterField() : "",
+                recordsHistory ? SessionActivityHistory.encode(value, now) : "",
+                recordsHistory ? value : "",
+                currentPage != null ? currentPage : "",
+                String.valueOf(now),
+                String.valueOf(pendingTtlSeconds),
+                String.valueOf(activityHistory.getHistorySize()),
+                String.valueOf(activityHistory.getDistinctTtlSeconds()));
+
+        return applyUnflushed(session);
+    }
+
+    /**
+     * Overlay inflight and pending activity on a copy of a session loaded from the cache or database
+     */
+    public UserSession applyUnflushed(UserSession cachedSession) {
+        UserSession session = cachedSession.copy();
+        String sessionId = session.getSessionId();
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            // Inflight deltas are older than pending ones, so they are applied first
+            for (String prefix : List.of(INFLIGHT_PREFIX, PENDING_PREFIX)) {
+                redis.hGetAll(prefix + sessionId);
+                for (ActivityType type : HISTORY_TYPES) {
+                    redis.lRange(historyKey(prefix, sessionId, type), 0, -1);
+                }
+            }
+            for (ActivityType type : HISTORY_TYPES) {
+                redis.pfCount(activityHistory.distinctKey(sessionId, type));
+            }
+            return null;
+        });
+
+        int distinctOffset = 2 * (1 + HISTORY_TYPES.size());
+        for (int offset = 0; offset < distinctOffset; offset += 1 + HISTORY_TYPES.size()) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> counters = (Map<String, String>) results.get(offset);
+            Map<ActivityType, List<String>> history = new EnumMap<>(ActivityType.class);
+            for (int i = 0; i < HISTORY_TYPES.size(); i++) {
+                history.put(HISTORY_TYPES.get(i), asStrings(results.get(offset + 1 + i)));
+            }
+            apply(session, new ActivityDelta(sessionId, counters == null ? Map.of() : counters, history, Map.of()));
+        }
+
+        Map<ActivityType, Long> distinctCounts = new EnumMap<>(ActivityType.class);
+        for (int i = 0; i < HISTORY_TYPES.size(); i++) {
+            distinctCounts.put(HISTORY_TYPES.get(i), (Long) results.get(distinctOffset + i));
+        }
+        apply(session, new ActivityDelta(sessionId, Map.of(), Map.of(), distinctCounts));
+        return session;
+    }
+
+    @Scheduled(fixedDelayString = "${session.write-behind.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("Session activity flush failed", e);
+        }
+    }
+
+    /**
+     * Flush one batch of dirty sessions to Mongo.
+     *
+     * @return number of sessions written
+     */
+    public synchronized int flush() {
+        List<String> dirtySessionIds = stringRedisTemplate.opsForSet().pop(DIRTY_SESSIONS_KEY, batchSize);
+        if (dirtySessionIds == null || dirtySessionIds.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, String> leases = new HashMap<>();
+        List<ActivityDelta> deltas = new ArrayList<>();
+        List<String> busySessionIds = new ArrayList<>();
+        Set<String> failedSessionIds;
+        List<String> committed = new ArrayList<>();
+        try {
+            for (String sessionId : dirtySessionIds) {
+                String leaseToken = UUID.randomUUID().toString();
+                Boolean acquired = stringRedisTemplate.opsForValue()
+                        .setIfAbsent(LEASE_PREFIX + sessionId, leaseToken, Duration.ofMillis(leaseMillis));
+                if (!Boolean.TRUE.equals(acquired)) {
+                    // Another replica is flushing this session; keep it dirty so its new deltas are picked up next round
+                    busySessionIds.add(sessionId);
+                    continue;
+                }
+                leases.put(sessionId, leaseToken);
+                deltas.add(drain(sessionId));
+            }
+
+            failedSessionIds = write(deltas);
+            for (ActivityDelta delta : deltas) {
+                if (delta.hasChanges() && !failedSessionIds.contains(delta.sessionId())) {
+                    committed.add(delta.sessionId());
+                }
+            }
+            commit(committed);
+        } catch (RuntimeException e) {
+            // Whatever was drained stays in the inflight snapshots; re-queue the batch so it is retried
+            markDirty(dirtySessionIds);
+            throw e;
+        } finally {
+            leases.forEach((sessionId, token) -> stringRedisTemplate.execute(RELEASE_LEASE_SCRIPT,
+                    List.of(LEASE_PREFIX + sessionId), token));
+        }
+
+        if (!busySessionIds.isEmpty()) {
+            markDirty(busySessionIds);
+        }
+        if (!failedSessionIds.isEmpty()) {
+            markDirty(failedSessionIds);
+        }
+
+        log.debug("Flushed activity for {} sessions ({} failed, {} busy)",
+                committed.size(), failedSessionIds.size(), busySessionIds.size());
+        return committed.size();
+    }
+
+    /**
+     * Drain remaining dirty sessions before the service stops so buffered counters reach Mongo
+     */
+    @PreDestroy
+    void flushOnShutdown() {
+        if (!enabled) {
+            return;
+        }
+        log.info("Flushing buffered session activity before shutdown");
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMillis;
+        try {
+            while (System.currentTimeMillis() < deadline && flush() > 0) {
+                // keep draining until the dirty set is empty or the deadline passes
+            }
+        } catch (Exception e) {
+            log.error("Failed to flush session activity on shutdown; deltas remain in Redis", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ActivityDelta drain(String sessionId) {
+        List<String> keys = new ArrayList<>();
+        keys.add(pendingKey(sessionId));
+        HISTORY_TYPES.forEach(type -> keys.add(historyKey(PENDING_PREFIX, sessionId, type)));
+        keys.add(INFLIGHT_PREFIX + sessionId);
+        HISTORY_TYPES.forEach(type -> keys.add(historyKey(INFLIGHT_PREFIX, sessionId, type)));
+        HISTORY_TYPES.forEach(type -> keys.add(activityHistory.distinctKey(sessionId, type)));
+
+        List<Object> snapshot = stringRedisTemplate.execute(DRAIN_SCRIPT, keys,
+                String.valueOf(pendingTtlSeconds), String.valueOf(activityHistory.getHistorySize()));
+
+        List<String> flatCounters = asStrings(snapshot.get(0));
+        Map<String, String> counters = new HashMap<>();
+        for (int i = 0; i + 1 < flatCounters.size(); i += 2) {
+            counters.put(flatCounters.get(i), flatCounters.get(i + 1));
+        }
+        Map<ActivityType, List<String>> history = new EnumMap<>(ActivityType.class);
+        Map<ActivityType, Long> distinctCounts = new EnumMap<>(ActivityType.class);
+        for (int i = 0; i < HISTORY_TYPES.size(); i++) {
+            history.put(HISTORY_TYPES.get(i), asStrings(snapshot.get(1 + i)));
+            distinctCounts.put(HISTORY_TYPES.get(i), (Long) snapshot.get(1 + HISTORY_TYPES.size() + i));
+        }
+        return new ActivityDelta(sessionId, counters, history, distinctCounts);
+    }
+
+    /**
+     * Write deltas as one unordered bulk upsert.
+     *
+     * @return session IDs whose update did not reach Mongo
+     */
+    private Set<String> write(List<ActivityDelta> deltas) {
+        List<ActivityDelta> writable = deltas.stream().filter(ActivityDelta::hasChanges).toList();
+        if (writable.isEmpty()) {
+            return Set.of();
+        }
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserSession.class);
+        for (ActivityDelta delta : writable) {
+            bulkOps.upsert(Query.query(Criteria.where("sessionId").is(delta.sessionId())), toUpdate(delta));
+        }
+
+        try {
+            bulkOps.execute();
+            return Set.of();
+        } catch (BulkOperationException e) {
+            Set<String> failed = new HashSet<>();
+            e.getErrors().forEach(error -> failed.add(writable.get(error.getIndex()).sessionId()));
+            log.warn("Session activity bulk write partially failed for {} of {} sessions", failed.size(), writable.size());
+            return failed;
+        } catch (Exception e) {
+            // Outcome unknown: keep every snapshot so no counter is lost, at the cost of a possible re-apply
+            log.error("Session activity bulk write failed for {} sessions", writable.size(), e);
+            Set<String> failed = new HashSet<>();
+            writable.forEach(delta -> failed.add(delta.sessionId()));
+            return failed;
+        }
+    }
+
+    private Update toUpdate(ActivityDelta delta) {
+        Update update = new Update();
+        for (ActivityType type : ActivityType.values()) {
+            long count = type.getCounterField() != null ? delta.counter(type.getCounterField()) : 0;
+            if (count > 0) {
+                update.inc(type.getCounterField(), count);
+            }
+        }
+        for (ActivityType type : HISTORY_TYPES) {
+            List<ActivityEntry> entries = delta.historyEntries(type);
+            if (!entries.isEmpty()) {
+                update.push(type.getHistoryField()).slice(-activityHistory.getHistorySize()).each(entries.toArray());
+            }
+            Long distinct = delta.distinctCounts().get(type);
+            if (distinct != null && distinct > 0) {
+                update.max(type.getDistinctCountField(), distinct);
+            }
+        }
+        LocalDateTime lastActivity = delta.lastActivityTime();
+        if (lastActivity != null) {
+            update.max(FIELD_LAST_ACTIVITY, lastActivity);
+        }
+        if (delta.currentPage() != null) {
+            update.set(FIELD_CURRENT_PAGE, delta.currentPage());
+        }
+        update.set("updatedAt", LocalDateTime.now());
+        return update;
+    }
+
+    /**
+     * Drop the inflight snapshots that reached Mongo and evict the cached session so the next read
+     * picks up the persisted counters. The flush epoch is advanced before the snapshots go away, so a
+     * reader that loaded the session from Mongo before the write cannot cache it afterwards.
+     */
+    private void commit(List<String> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return;
+        }
+        sessionCache.advanceFlushEpochs(sessionIds);
+        List<String> keys = new ArrayList<>();
+        for (String sessionId : sessionIds) {
+            keys.add(INFLIGHT_PREFIX + sessionId);
+            HISTORY_TYPES.forEach(type -> keys.add(historyKey(INFLIGHT_PREFIX, sessionId, type)));
+        }
+        stringRedisTemplate.delete(keys);
+    }
+
+    private void markDirty(Collection<String> sessionIds) {
+        stringRedisTemplate.opsForSet().add(DIRTY_SESSIONS_KEY, sessionIds.toArray(new String[0]));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void apply(UserSession session, ActivityDelta delta) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(session);
+        for (ActivityType type : ActivityType.values()) {
+            if (type.getCounterField() != null) {
+                Integer current = (Integer) wrapper.getPropertyValue(type.getCounterField());
+                wrapper.setPropertyValue(type.getCounterField(),
+                        (int) ((current == null ? 0 : current) + delta.counter(type.getCounterField())));
+            }
+        }
+        for (ActivityType type : HISTORY_TYPES) {
+            List<ActivityEntry> added = delta.historyEntries(type);
+            if (!added.isEmpty()) {
+                wrapper.setPropertyValue(type.getHistoryField(), activityHistory.append(
+                        (List<ActivityEntry>) wrapper.getPropertyValue(type.getHistoryField()), added));
+            }
+            Long distinct = delta.distinctCounts().get(type);
+            Long current = (Long) wrapper.getPropertyValue(type.getDistinctCountField());
+            if (distinct != null && (current == null || distinct > current)) {
+                wrapper.setPropertyValue(type.getDistinctCountField(), distinct);
+            }
+        }
+
+        LocalDateTime lastActivity = delta.lastActivityTime();
+        if (lastActivity != null && (session.getLastActivityTime() == null || lastActivity.isAfter(session.getLastActivityTime()))) {
+            session.setLastActivityTime(lastActivity);
+            if (delta.currentPage() != null) {
+                session.setCurrentPage(delta.currentPage());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> asStrings(Object value) {
+        if (value == null) {
+            return List.of();
+        }
+        return value instanceof Collection<?> collection ? new ArrayList<>((Collection<String>) collection) : List.of();
+    }
+
+    private static String pendingKey(String sessionId) {
+        return PENDING_PREFIX + sessionId;
+    }
+
+    private static String historyKey(String prefix, String sessionId, ActivityType type) {
+        return prefix + sessionId + ":" + type.getKeySuffix();
+    }
+
+    /**
+     * Buffered activity for a single session; history entries are kept in their encoded Redis form
+     */
+    private record ActivityDelta(String sessionId, Map<String, String> counters,
+                                 Map<ActivityType, List<String>> history, Map<ActivityType, Long> distinctCounts) {
+
+        long counter(String field) {
+            String value = counters.get(field);
+            return value == null ? 0 : Long.parseLong(value);
+        }
+
+        List<ActivityEntry> historyEntries(ActivityType type) {
+            return history.getOrDefault(type, List.of()).stream()
+                    .map(SessionActivityHistory::decode)
+                    .toList();
+        }
+
+        LocalDateTime lastActivityTime() {
+            String value = counters.get(FIELD_LAST_ACTIVITY);
+            return value == null ? null
+                    : LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(value)), ZoneId.systemDefault());
+        }
+
+        String currentPage() {
+            return counters.get(FIELD_CURRENT_PAGE);
+        }
+
+        boolean hasChanges() {
+            return !counters.isEmpty() || history.values().stream().anyMatch(entries -> !entries.isEmpty());
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.smartshopai.sessioncache.infrastructure.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.smartshopai.sessioncache.domain.entity.UserSession;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Two-tier session cache: an in-process {@link SessionNearCache} (L1) in front of Redis (L2).
+ * In Redis each session is one hash with one JSON-encoded entry per field, so a partial update only
+ * rewrites the fields it touched. Every write invalidates the L1 entry on all replicas.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionHashCache {
+
+    private static final String SESSION_CACHE_PREFIX = "session:";
+    private static final String FLUSH_EPOCH_PREFIX = "session_flush_epoch:";
+
+    private static final List<String> SESSION_FIELDS = Arrays.stream(UserSession.class.getDeclaredFields())
+            .filter(field -> !Modifier.isStatic(field.getModifiers()))
+            .map(Field::getName)
+            .toList();
+
+    /**
+     * Only touches a session hash that is already cached; a partial hash must never be created.
+     * KEYS: session hash; ARGV: ttl seconds, then field/value pairs
+     */
+    private static final RedisScript<Long> PUT_FIELDS_IF_CACHED_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end
+            for i = 2, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end
+            redis.call('EXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+
+    /**
+     * Replaces the whole session hash atomically so readers never observe a half-written entry.
+     * KEYS: session hash; ARGV: ttl seconds, then field/value pairs
+     */
+    private static final RedisScript<Long> REPLACE_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[1])
+            for i = 2, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end
+            redis.call('EXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+
+    /**
+     * Like the replace script, but skipped when an activity flush committed after the caller read the epoch,
+     * because the session the caller loaded from Mongo may predate that flush.
+     * KEYS: session hash, flush epoch; ARGV: ttl seconds, expected epoch, then field/value pairs
+     */
+    private static final RedisScript<Long> REPLACE_IF_EPOCH_SCRIPT = new DefaultRedisScript<>("""
+            local epoch = redis.call('GET', KEYS[2]) or '0'
+            if epoch ~= ARGV[2] then return 0 end
+            redis.call('DEL', KEYS[1])
+            for i = 3, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end
+            redis.call('EXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+
+    /**
+     * Bumps the flush epoch of each session, then drops its cached hash.
+     * KEYS: flush epoch and session hash pairs; ARGV: ttl seconds
+     */
+    private static final RedisScript<Long> ADVANCE_EPOCH_SCRIPT = new DefaultRedisScript<>("""
+            for i = 1, #KEYS, 2 do
+                redis.call('INCR', KEYS[i])
+                redis.call('EXPIRE', KEYS[i], ARGV[1])
+                redis.call('DEL', KEYS[i + 1])
+            end
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final SessionNearCache nearCache;
+
+    @Value("${session.timeout-minutes:30}")
+    private long sessionTimeoutMinutes;
+
+    /**
+     * Returns a copy of the cached session, so callers may modify it freely
+     */
+    public Optional<UserSession> get(String sessionId) {
+        Optional<UserSession> local = nearCache.get(sessionId);
+        if (local.isPresent()) {
+            return local.map(UserSession::copy);
+        }
+
+        Optional<UserSession> remote = getFromRedis(sessionId);
+        remote.ifPresent(session -> nearCache.put(session.copy()));
+        return remote;
+    }
+
+    /**
+     * Current flush epoch of a session; read it before loading the session from the database
+     * and pass it to {@link #populate(UserSession, long)}
+     */
+    public long flushEpoch(String sessionId) {
+        String epoch = stringRedisTemplate.opsForValue().get(flushEpochKey(sessionId));
+        return epoch == null ? 0 : Long.parseLong(epoch);
+    }
+
+    /**
+     * Cache a session just loaded from the database without notifying other replicas.
+     * Nothing is cached if an activity flush committed since {@code flushEpoch} was read, since the
+     * loaded counters would then miss deltas that are no longer buffered in Redis.
+     */
+    public void populate(UserSession session, long flushEpoch) {
+        String sessionId = session.getSessionId();
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(ttlSeconds()));
+        args.add(String.valueOf(flushEpoch));
+        serialize(session, SESSION_FIELDS).forEach((field, value) -> {
+            args.add(field);
+            args.add(value);
+        });
+        Long cached = stringRedisTemplate.execute(REPLACE_IF_EPOCH_SCRIPT,
+                List.of(cacheKey(sessionId), flushEpochKey(sessionId)), args.toArray());
+        if (!Long.valueOf(1).equals(cached)) {
+            log.debug("Skipped caching session {} loaded before an activity flush", sessionId);
+            return;
+        }
+        nearCache.put(session.copy());
+        if (flushEpoch(sessionId) != flushEpoch) {
+            // A flush committed between the script and the local put, so its invalidation may have been missed
+            nearCache.invalidate(sessionId);
+        }
+    }
+
+    /**
+     * Mark that buffered activity of the given sessions reached the database and evict their cached copies,
+     * so a concurrent {@link #populate(UserSession, long)} of an older read does not cache stale counters
+     */
+    public void advanceFlushEpochs(Collection<String> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(sessionIds.size() * 2);
+        for (String sessionId : sessionIds) {
+            keys.add(flushEpochKey(sessionId));
+            keys.add(cacheKey(sessionId));
+        }
+        stringRedisTemplate.execute(ADVANCE_EPOCH_SCRIPT, keys, String.valueOf(ttlSeconds()));
+        nearCache.invalidate(sessionIds);
+    }
+
+    private Optional<UserSession> getFromRedis(String sessionId) {
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(cacheKey(sessionId));
+        if (entries.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            ObjectNode node = objectMapper.createObjectNode();
+            for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+                node.set((String) entry.getKey(), objectMapper.readTree((String) entry.getValue()));
+            }
+            return Optional.of(objectMapper.treeToValue(node, UserSession.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Evicting unreadable cached session: {}", sessionId, e);
+            evict(sessionId);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Cache the whole session, replacing any previous entry
+     */
+    public void put(UserSession session) {
+        execute(REPLACE_SCRIPT, session.getSessionId(), serialize(session, SESSION_FIELDS));
+        nearCache.invalidate(session.getSessionId());
+    }
+
+    /**
+     * Rewrite only the given fields of an already cached session
+     */
+    public void putFields(UserSession session, Collection<String> fields) {
+        Map<String, String> entries = serialize(session, fields);
+        if (entries.size() < fields.size()) {
+            // A field was cleared; dropping the entry is simpler than deleting hash fields selectively
+            evict(session.getSessionId());
+            return;
+        }
+        execute(PUT_FIELDS_IF_CACHED_SCRIPT, session.getSessionId(), entries);
+        nearCache.invalidate(session.getSessionId());
+    }
+
+    public void evict(String sessionId) {
+        stringRedisTemplate.delete(cacheKey(sessionId));
+        nearCache.invalidate(sessionId);
+    }
+
+    /**
+     * Evict many sessions with a single multi-key DEL
+     */
+    public void evictAll(Collection<String> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.delete(sessionIds.stream().map(SessionHashCache::cacheKey).toList());
+        nearCache.invalidate(sessionIds);
+    }
+
+    private void execute(RedisScript<Long> script, String sessionId, Map<String, String> entries) {
+        List<String> args = new ArrayList<>(1 + entries.size() * 2);
+        args.add(String.valueOf(ttlSeconds()));
+        entries.forEach((field, value) -> {
+            args.add(field);
+            args.add(value);
+        });
+        stringRedisTemplate.execute(script, List.of(cacheKey(sessionId)), args.toArray());
+    }
+
+    private Map<String, String> serialize(UserSession session, Collection<String> fields) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(session);
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (String field : fields) {
+            Object value = wrapper.getPropertyValue(field);
+            if (value == null) {
+                continue;
+            }
+            try {
+                entries.put(field, objectMapper.writeValueAsString(value));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Failed to serialize session field: " + field, e);
+            }
+        }
+        return entries;
+    }
+
+    private long ttlSeconds() {
+        return Duration.ofMinutes(sessionTimeoutMinutes).toSeconds();
+    }
+
+    static String cacheKey(String sessionId) {
+        return SESSION_CACHE_PREFIX + sessionId;
+    }
+
+    private static String flushEpochKey(String sessionId) {
+        return FLUSH_EPOCH_PREFIX + sessionId;
+    }
+}
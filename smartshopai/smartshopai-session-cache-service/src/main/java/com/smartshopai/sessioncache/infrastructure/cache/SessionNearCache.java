@@ -0,0 +1,121 @@
+package com.smartshopai.sessioncache.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartshopai.sessioncache.domain.entity.UserSession;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * In-process L1 cache in front of the Redis session hash.
+ * Entries are bounded in size and live for a short TTL; writes on any replica publish the affected
+ * session IDs so every other replica drops its local copy.
+ */
+@Slf4j
+@Component
+public class SessionNearCache implements MessageListener {
+
+    private static final String MESSAGE_SEPARATOR = "\n";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Identifies this replica so it can ignore its own invalidation messages
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Cache<String, UserSession> cache;
+    private final String invalidationChannel;
+
+    private Counter localInvalidations;
+    private Counter remoteInvalidations;
+
+    public SessionNearCache(StringRedisTemplate stringRedisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            MeterRegistry meterRegistry,
+                            @Value("${cache.session.near.max-size:10000}") long maxSize,
+                            @Value("${cache.session.near.ttl-ms:5000}") long ttlMillis,
+                            @Value("${cache.session.near.invalidation-channel:session_invalidation}") String invalidationChannel) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.meterRegistry = meterRegistry;
+        this.invalidationChannel = invalidationChannel;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+    }
+
+    @PostConstruct
+    void initialize() {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "session.near-cache");
+        localInvalidations = Counter.builder("session.near-cache.invalidations")
+                .tag("source", "local")
+                .register(meterRegistry);
+        remoteInvalidations = Counter.builder("session.near-cache.invalidations")
+                .tag("source", "remote")
+                .register(meterRegistry);
+        listenerContainer.addMessageListener(this, new ChannelTopic(invalidationChannel));
+    }
+
+    public Optional<UserSession> get(String sessionId) {
+        return Optional.ofNullable(cache.getIfPresent(sessionId));
+    }
+
+    public void put(UserSession session) {
+        cache.put(session.getSessionId(), session);
+    }
+
+    /**
+     * Drop the session locally and on every other replica
+     */
+    public void invalidate(String sessionId) {
+        invalidate(List.of(sessionId));
+    }
+
+    public void invalidate(Collection<String> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return;
+        }
+        cache.invalidateAll(sessionIds);
+        localInvalidations.increment(sessionIds.size());
+        try {
+            stringRedisTemplate.convertAndSend(invalidationChannel,
+                    instanceId + MESSAGE_SEPARATOR + String.join(MESSAGE_SEPARATOR, sessionIds));
+        } catch (Exception e) {
+            // Other replicas still converge once their entries expire
+            log.warn("Failed to publish session invalidation for {} sessions", sessionIds.size(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(MESSAGE_SEPARATOR);
+        if (parts.length < 2 || instanceId.equals(parts[0])) {
+            return;
+        }
+        List<String> sessionIds = List.of(parts).subList(1, parts.length);
+        cache.invalidateAll(sessionIds);
+        remoteInvalidations.increment(sessionIds.size());
+    }
+}
@@ -0,0 +1,131 @@
+package com.smartshopai.sessioncache.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Maps authentication tokens to their session so validation is a single Redis GET.
+ * Entries are keyed by the SHA-256 of the token, hold "sessionId|expiryMillis" and expire together with
+ * the token. Rejected tokens are remembered in a small in-process negative cache so repeated bad tokens
+ * never leave the JVM.
+ */
+@Slf4j
+@Component
+public class SessionTokenIndex {
+
+    private static final String TOKEN_PREFIX = "session_token:";
+    private static final String VALUE_SEPARATOR = "|";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, Boolean> rejectedTokens;
+
+    public SessionTokenIndex(StringRedisTemplate stringRedisTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${session.token-index.negative-cache.max-size:100000}") long negativeCacheSize,
+                             @Value("${session.token-index.negative-cache.ttl-ms:10000}") long negativeCacheTtlMillis) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.rejectedTokens = Caffeine.newBuilder()
+                .maximumSize(negativeCacheSize)
+                .expireAfterWrite(Duration.ofMillis(negativeCacheTtlMillis))
+                .recordStats()
+                .build();
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        CaffeineCacheMetrics.monitor(meterRegistry, rejectedTokens, "session.token-index.negative-cache");
+    }
+
+    /**
+     * Session owning the token, if the token is indexed and not yet expired
+     */
+    public Optional<String> findSessionId(String token) {
+        String value = stringRedisTemplate.opsForValue().get(key(hash(token)));
+        if (value == null) {
+            return Optional.empty();
+        }
+        int separator = value.lastIndexOf(VALUE_SEPARATOR);
+        long expiryMillis = Long.parseLong(value.substring(separator + 1));
+        if (System.currentTimeMillis() >= expiryMillis) {
+            return Optional.empty();
+        }
+        return Optional.of(value.substring(0, separator));
+    }
+
+    public boolean isRejected(String token) {
+        return rejectedTokens.getIfPresent(hash(token)) != null;
+    }
+
+    public void reject(String token) {
+        rejectedTokens.put(hash(token), Boolean.TRUE);
+    }
+
+    /**
+     * Index the token until its expiry; tokens that are already expired are not indexed
+     */
+    public void index(String sessionId, String token, LocalDateTime expiryTime) {
+        if (token == null || expiryTime == null) {
+            return;
+        }
+        String tokenHash = hash(token);
+        rejectedTokens.invalidate(tokenHash);
+
+        long expiryMillis = expiryTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long ttlMillis = expiryMillis - System.currentTimeMillis();
+        if (ttlMillis <= 0) {
+            return;
+        }
+        stringRedisTemplate.opsForValue().set(key(tokenHash),
+                sessionId + VALUE_SEPARATOR + expiryMillis, Duration.ofMillis(ttlMillis));
+    }
+
+    public void remove(String token) {
+        if (token != null) {
+            removeAll(List.of(token));
+        }
+    }
+
+    public void removeAll(Collection<String> tokens) {
+        List<String> keys = tokens.stream()
+                .filter(Objects::nonNull)
+                .map(token -> key(hash(token)))
+                .toList();
+        if (!keys.isEmpty()) {
+            stringRedisTemplate.delete(keys);
+        }
+    }
+
+    private static String key(String tokenHash) {
+        return TOKEN_PREFIX + tokenHash;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
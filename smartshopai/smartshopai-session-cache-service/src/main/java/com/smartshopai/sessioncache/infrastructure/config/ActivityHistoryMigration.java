@@ -0,0 +1,71 @@
+package com.smartshopai.sessioncache.infrastructure.config;
+
+import com.mongodb.client.MongoCollection;
+import com.smartshopai.sessioncache.domain.entity.ActivityType;
+import com.smartshopai.sessioncache.domain.entity.UserSession;
+import com.smartshopai.sessioncache.infrastructure.cache.SessionActivityHistory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * One-off conversion of activity history stored as plain strings, from before entries carried a timestamp.
+ *
+ * Legacy sessions hold visitedPages, searchedTerms and viewedProducts as sets of strings, which no longer
+ * map onto ActivityEntry. Each string is wrapped as {value, timestamp} using the session's last activity
+ * time, the history is capped to the configured size and the distinct count is seeded from the legacy set.
+ * Only documents whose history still starts with a string match, so once converted each run is a no-op.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ActivityHistoryMigration implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+    private final SessionActivityHistory activityHistory;
+
+    @Value("${session.migration.activity-history:true}")
+    private boolean enabled;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        MongoCollection<Document> sessions = mongoTemplate.getCollection(mongoTemplate.getCollectionName(UserSession.class));
+        for (ActivityType type : ActivityType.values()) {
+            if (type.hasHistory()) {
+                convert(sessions, type.getHistoryField(), type.getDistinctCountField());
+            }
+        }
+    }
+
+    private void convert(MongoCollection<Document> sessions, String historyField, String distinctField) {
+        Document entries = new Document("$map", new Document("input",
+                new Document("$slice", List.of("$" + historyField, -activityHistory.getHistorySize())))
+                .append("as", "item")
+                .append("in", new Document("$cond", List.of(
+                        new Document("$eq", List.of(new Document("$type", "$$item"), "string")),
+                        new Document("value", "$$item")
+                                .append("timestamp", new Document("$ifNull", List.of("$lastActivityTime", "$$NOW"))),
+                        "$$item"))));
+        // Both expressions read the unconverted document, so the distinct count sees the whole legacy set
+        Document converted = new Document(historyField, entries)
+                .append(distinctField, new Document("$ifNull", List.of("$" + distinctField,
+                        new Document("$toLong", new Document("$size", "$" + historyField)))));
+
+        long modified = sessions.updateMany(
+                new Document(historyField + ".0", new Document("$type", "string")),
+                List.of(new Document("$set", converted))).getModifiedCount();
+        if (modified > 0) {
+            log.info("Converted legacy {} history of {} sessions to timestamped entries", historyField, modified);
+        }
+    }
+}
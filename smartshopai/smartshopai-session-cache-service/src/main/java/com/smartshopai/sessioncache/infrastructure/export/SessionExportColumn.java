@@ -0,0 +1,52 @@
+package com.smartshopai.sessioncache.infrastructure.export;
+
+import com.smartshopai.sessioncache.domain.entity.UserSession;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Columns written by every export format, in output order.
+ * Only scalar fields are exported; activity history and free-form maps stay out of bulk exports.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum SessionExportColumn {
+
+    SESSION_ID("sessionId", UserSession::getSessionId),
+    USER_ID("userId", UserSession::getUserId),
+    STATUS("status", UserSession::getStatus),
+    DEVICE_TYPE("deviceType", UserSession::getDeviceType),
+    BROWSER("browser", UserSession::getBrowser),
+    OPERATING_SYSTEM("operatingSystem", UserSession::getOperatingSystem),
+    IP_ADDRESS("ipAddress", UserSession::getIpAddress),
+    START_TIME("startTime", UserSession::getStartTime),
+    LAST_ACTIVITY_TIME("lastActivityTime", UserSession::getLastActivityTime),
+    END_TIME("endTime", UserSession::getEndTime),
+    DURATION_SECONDS("durationSeconds", UserSession::getDurationSeconds),
+    PAGE_VIEWS("pageViews", UserSession::getPageViews),
+    CLICKS("clicks", UserSession::getClicks),
+    SEARCHES("searches", UserSession::getSearches),
+    DISTINCT_PAGES("distinctPages", UserSession::getDistinctPages),
+    DISTINCT_SEARCH_TERMS("distinctSearchTerms", UserSession::getDistinctSearchTerms),
+    DISTINCT_PRODUCTS("distinctProducts", UserSession::getDistinctProducts),
+    IS_AUTHENTICATED("isAuthenticated", UserSession::getIsAuthenticated);
+
+    private final String field;
+    private final Function<UserSession, Object> extractor;
+
+    /**
+     * Column value as a String, Number, Boolean or null; timestamps are ISO-8601 strings
+     */
+    public Object valueOf(UserSession session) {
+        Object value = extractor.apply(session);
+        return value instanceof LocalDateTime timestamp ? timestamp.toString() : value;
+    }
+
+    public static String[] fields() {
+        return Arrays.stream(values()).map(SessionExportColumn::getField).toArray(String[]::new);
+    }
+}
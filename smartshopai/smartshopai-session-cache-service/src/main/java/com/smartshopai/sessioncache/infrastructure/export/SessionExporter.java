@@ -0,0 +1,223 @@
+package com.smartshopai.sessioncache.infrastructure.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartshopai.sessioncache.domain.entity.SessionExportCriteria;
+import com.smartshopai.sessioncache.domain.entity.SessionExportFormat;
+import com.smartshopai.sessioncache.domain.entity.UserSession;
+import com.smartshopai.sessioncache.domain.repository.SessionExportRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams sessions from a Mongo cursor straight into an export encoding.
+ * Memory use is bounded by the cursor batch and, for the columnar format, one row group; the export is
+ * never materialized.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionExporter implements SessionExportRepository {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final SessionExportColumn[] COLUMNS = SessionExportColumn.values();
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${session.export.cursor-batch-size:1000}")
+    private int cursorBatchSize;
+
+    @Value("${session.export.row-group-size:10000}")
+    private int rowGroupSize;
+
+    private Query buildQuery(SessionExportCriteria exportCriteria) {
+        Criteria criteria = new Criteria();
+        exportCriteria.equalTo().forEach((field, values) -> {
+            if (values.size() == 1) {
+                criteria.and(field).is(values.getFirst());
+            } else {
+                criteria.and(field).in(values);
+            }
+        });
+        LocalDateTime from = exportCriteria.startTimeFrom();
+        LocalDateTime to = exportCriteria.startTimeTo();
+        if (from != null && to != null) {
+            criteria.and("startTime").gte(from).lt(to);
+        } else if (from != null) {
+            criteria.and("startTime").gte(from);
+        } else if (to != null) {
+            criteria.and("startTime").lt(to);
+        }
+
+        Query query = Query.query(criteria).cursorBatchSize(cursorBatchSize);
+        query.fields().include(SessionExportColumn.fields());
+        return query;
+    }
+
+    @Override
+    public long export(SessionExportCriteria criteria, SessionExportFormat format, boolean gzip, OutputStream outputStream) throws IOException {
+        Query query = buildQuery(criteria);
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(outputStream, BUFFER_SIZE) : null;
+        OutputStream out = new BufferedOutputStream(gzip ? gzipStream : outputStream, BUFFER_SIZE);
+
+        long rows = 0;
+        try (Stream<UserSession> sessions = mongoTemplate.stream(query, UserSession.class)) {
+            RowWriter writer = switch (format) {
+                case CSV -> new CsvRowWriter(out);
+                case NDJSON -> new NdjsonRowWriter(out);
+                case COLUMNAR -> new ColumnarRowWriter(out);
+            };
+            for (UserSession session : (Iterable<UserSession>) sessions::iterator) {
+                writer.write(session);
+                rows++;
+            }
+            writer.finish();
+        }
+
+        out.flush();
+        if (gzipStream != null) {
+            gzipStream.finish();
+        }
+        outputStream.flush();
+        log.info("Exported {} sessions as {}{}", rows, format, gzip ? " (gzip)" : "");
+        return rows;
+    }
+
+    private interface RowWriter {
+
+        void write(UserSession session) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            writer.write(String.join(",", SessionExportColumn.fields()));
+            writer.write('\n');
+        }
+
+        @Override
+        public void write(UserSession session) throws IOException {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = COLUMNS[i].valueOf(session);
+                if (value != null) {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(UserSession session) throws IOException {
+            generator.writeStartObject();
+            for (SessionExportColumn column : COLUMNS) {
+                generator.writeFieldName(column.getField());
+                generator.writeObject(column.valueOf(session));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    /**
+     * Buffers up to rowGroupSize sessions and writes them as one
+     * {"rows": n, "columns": {"field": [...], ...}} line
+     */
+    private final class ColumnarRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+        private final List<UserSession> rowGroup = new ArrayList<>(rowGroupSize);
+
+        ColumnarRowWriter(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(UserSession session) throws IOException {
+            rowGroup.add(session);
+            if (rowGroup.size() >= rowGroupSize) {
+                writeRowGroup();
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!rowGroup.isEmpty()) {
+                writeRowGroup();
+            }
+            generator.flush();
+        }
+
+        private void writeRowGroup() throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("rows", rowGroup.size());
+            generator.writeObjectFieldStart("columns");
+            for (SessionExportColumn column : COLUMNS) {
+                generator.writeArrayFieldStart(column.getField());
+                for (UserSession session : rowGroup) {
+                    generator.writeObject(column.valueOf(session));
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            rowGroup.clear();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.smartshopai.sessioncache.infrastructure.metrics;
+
+import com.smartshopai.sessioncache.domain.entity.UserSession;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live session metrics kept in striped in-memory counters.
+ * Counters are updated on session start, end and expiry, so reads are O(1). Every replica only sees its
+ * own events, so the counters are periodically reconciled against Mongo count queries to correct drift.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionMetrics {
+
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final LongAdder activeSessions = new LongAdder();
+    private final Map<String, LongAdder> activeByDeviceType = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> activeByBrowser = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> activeByOperatingSystem = new ConcurrentHashMap<>();
+
+    // Daily figures, reset when the day rolls over
+    private final LongAdder sessionsStartedToday = new LongAdder();
+    private final LongAdder sessionsCompletedToday = new LongAdder();
+    private final LongAdder durationSecondsToday = new LongAdder();
+    private volatile LocalDate currentDay = LocalDate.now();
+
+    @PostConstruct
+    void registerGauges() {
+        Gauge.builder("session.active", activeSessions, LongAdder::sum)
+                .description("Active sessions")
+                .register(meterRegistry);
+        Gauge.builder("session.started.today", sessionsStartedToday, LongAdder::sum)
+                .description("Sessions started since midnight")
+                .register(meterRegistry);
+    }
+
+    public void onSessionStarted(UserSession session) {
+        rollOverIfNewDay();
+        activeSessions.increment();
+        sessionsStartedToday.increment();
+        adjustDimensions(session, 1);
+    }
+
+    public void onSessionEnded(UserSession session) {
+        rollOverIfNewDay();
+        activeSessions.decrement();
+        adjustDimensions(session, -1);
+        recordCompleted(session.getDurationSeconds());
+    }
+
+    /**
+     * Record sessions expired by the sweeper; only their dimensions and start time are needed
+     */
+    public void onSessionsExpired(Collection<UserSession> sessions, LocalDateTime endTime) {
+        rollOverIfNewDay();
+        for (UserSession session : sessions) {
+            activeSessions.decrement();
+            adjustDimensions(session, -1);
+            recordCompleted(session.getStartTime() != null
+                    ? ChronoUnit.SECONDS.between(session.getStartTime(), endTime)
+                    : null);
+        }
+    }
+
+    public long getActiveSessions() {
+        return activeSessions.sum();
+    }
+
+    public long getSessionsStartedToday() {
+        rollOverIfNewDay();
+        return sessionsStartedToday.sum();
+    }
+
+    public double getAverageSessionDurationToday() {
+        rollOverIfNewDay();
+        long completed = sessionsCompletedToday.sum();
+        return completed == 0 ? 0.0 : (double) durationSecondsToday.sum() / completed;
+    }
+
+    public long getActiveSessionsByDeviceType(String deviceType) {
+        return valueOf(activeByDeviceType, deviceType);
+    }
+
+    public Map<String, Long> getActiveSessionsByDeviceType() {
+        return snapshot(activeByDeviceType);
+    }
+
+    public Map<String, Long> getActiveSessionsByBrowser() {
+        return snapshot(activeByBrowser);
+    }
+
+    public Map<String, Long> getActiveSessionsByOperatingSystem() {
+        return snapshot(activeByOperatingSystem);
+    }
+
+    /**
+     * Replace the counters with authoritative values from Mongo
+     */
+    @Scheduled(fixedDelayString = "${session.metrics.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        try {
+            LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
+            long active = mongoTemplate.count(Query.query(Criteria.where("status").is("ACTIVE")), UserSession.class);
+            Map<String, Long> byDeviceType = countActiveBy("deviceType");
+            Map<String, Long> byBrowser = countActiveBy("browser");
+            Map<String, Long> byOperatingSystem = countActiveBy("operatingSystem");
+            long startedToday = mongoTemplate.count(
+                    Query.query(Criteria.where("startTime").gte(startOfDay)), UserSession.class);
+
+            Document completedToday = mongoTemplate.aggregate(Aggregation.newAggregation(
+                            Aggregation.match(Criteria.where("endTime").gte(startOfDay).and("durationSeconds").ne(null)),
+                            Aggregation.group().count().as("count").sum("durationSeconds").as("totalDuration")),
+                    UserSession.class, Document.class).getUniqueMappedResult();
+
+            currentDay = startOfDay.toLocalDate();
+            reset(activeSessions, active);
+            reset(sessionsStartedToday, startedToday);
+            reset(sessionsCompletedToday, completedToday != null ? ((Number) completedToday.get("count")).longValue() : 0);
+            reset(durationSecondsToday, completedToday != null ? ((Number) completedToday.get("totalDuration")).longValue() : 0);
+            replace(activeByDeviceType, byDeviceType, "deviceType");
+            replace(activeByBrowser, byBrowser, "browser");
+            replace(activeByOperatingSystem, byOperatingSystem, "operatingSystem");
+
+            log.debug("Reconciled session metrics: {} active, {} started today", active, startedToday);
+        } catch (Exception e) {
+            log.warn("Session metrics reconciliation failed; keeping in-memory counters", e);
+        }
+    }
+
+    private Map<String, Long> countActiveBy(String field) {
+        Map<String, Long> counts = new HashMap<>();
+        mongoTemplate.aggregate(Aggregation.newAggregation(
+                        Aggregation.match(Criteria.where("status").is("ACTIVE")),
+                        Aggregation.group(field).count().as("count")),
+                UserSession.class, Document.class)
+                .forEach(result -> counts.merge(dimension((String) result.get("_id")),
+                        ((Number) result.get("count")).longValue(), Long::sum));
+        return counts;
+    }
+
+    private void adjustDimensions(UserSession session, long delta) {
+        counter(activeByDeviceType, session.getDeviceType(), "deviceType").add(delta);
+        counter(activeByBrowser, session.getBrowser(), "browser").add(delta);
+        counter(activeByOperatingSystem, session.getOperatingSystem(), "operatingSystem").add(delta);
+    }
+
+    private void recordCompleted(Long durationSeconds) {
+        if (durationSeconds == null) {
+            return;
+        }
+        sessionsCompletedToday.increment();
+        durationSecondsToday.add(durationSeconds);
+    }
+
+    private void rollOverIfNewDay() {
+        LocalDate today = LocalDate.now();
+        if (today.equals(currentDay)) {
+            return;
+        }
+        synchronized (this) {
+            if (!today.equals(currentDay)) {
+                sessionsStartedToday.reset();
+                sessionsCompletedToday.reset();
+                durationSecondsToday.reset();
+                currentDay = today;
+            }
+        }
+    }
+
+    private LongAdder counter(Map<String, LongAdder> counters, String value, String dimension) {
+        return counters.computeIfAbsent(dimension(value), key -> {
+            LongAdder adder = new LongAdder();
+            Gauge.builder("session.active.by." + dimension, adder, LongAdder::sum)
+                    .tag(dimension, key)
+                    .register(meterRegistry);
+            return adder;
+        });
+    }
+
+    private void replace(Map<String, LongAdder> counters, Map<String, Long> values, String dimension) {
+        counters.forEach((key, adder) -> {
+            if (!values.containsKey(key)) {
+                adder.reset();
+            }
+        });
+        values.forEach((key, value) -> reset(counter(counters, key, dimension), value));
+    }
+
+    private static void reset(LongAdder adder, long value) {
+        adder.reset();
+        adder.add(value);
+    }
+
+    private static long valueOf(Map<String, LongAdder> counters, String value) {
+        LongAdder adder = counters.get(dimension(value));
+        return adder == null ? 0 : adder.sum();
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((key, adder) -> snapshot.put(key, adder.sum()));
+        return snapshot;
+    }
+
+    private static String dimension(String value) {
+        return value == null || value.isBlank() ? UNKNOWN : value;
+    }
+}
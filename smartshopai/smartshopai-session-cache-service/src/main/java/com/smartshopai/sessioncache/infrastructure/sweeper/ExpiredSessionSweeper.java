@@ -0,0 +1,205 @@
+package com.smartshopai.sessioncache.infrastructure.sweeper;
+
+import com.smartshopai.sessioncache.domain.entity.UserSession;
+import com.smartshopai.sessioncache.infrastructure.cache.SessionHashCache;
+import com.smartshopai.sessioncache.infrastructure.cache.SessionTokenIndex;
+import com.smartshopai.sessioncache.infrastructure.metrics.SessionMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Expires idle sessions in constant memory.
+ *
+ * The collection is split into {@link UserSession#SWEEP_SHARDS} shards by the stored sweepShard field.
+ * A replica only sweeps a shard while it holds that shard's Redis lease, so replicas sweep different
+ * shards concurrently. Within a shard, expired sessions are read one page at a time off the
+ * (status, sweepShard, lastActivityTime) index, expired with a single updateMany that stamps a claim id,
+ * and only the sessions carrying that id are evicted from Redis in batched calls.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExpiredSessionSweeper {
+
+    private static final String LEASE_PREFIX = "session_sweep_lease:";
+    private static final String USER_SESSIONS_PREFIX = "user_sessions:";
+
+    /**
+     * KEYS: lease key; ARGV: owner token, lease millis
+     */
+    private static final RedisScript<Long> EXTEND_LEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end
+            return 0
+            """, Long.class);
+
+    private static final RedisScript<Long> RELEASE_LEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end
+            return 0
+            """, Long.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final SessionHashCache sessionCache;
+    private final SessionTokenIndex tokenIndex;
+    private final SessionMetrics sessionMetrics;
+
+    @Value("${session.timeout-minutes:30}")
+    private long sessionTimeoutMinutes;
+
+    @Value("${session.sweeper.page-size:1000}")
+    private int pageSize;
+
+    @Value("${session.sweeper.lease-ms:120000}")
+    private long leaseMillis;
+
+    /**
+     * Sweep every shard this replica can lease
+     *
+     * @return number of sessions expired by this replica
+     */
+    public long sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(sessionTimeoutMinutes);
+        // Start at a random shard so concurrently running replicas rarely contend for the same lease
+        int offset = ThreadLocalRandom.current().nextInt(UserSession.SWEEP_SHARDS);
+        long expired = 0;
+
+        for (int i = 0; i < UserSession.SWEEP_SHARDS; i++) {
+            int shard = (offset + i) % UserSession.SWEEP_SHARDS;
+            String leaseKey = LEASE_PREFIX + shard;
+            String token = UUID.randomUUID().toString();
+            if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                    .setIfAbsent(leaseKey, token, Duration.ofMillis(leaseMillis)))) {
+                continue;
+            }
+            try {
+                expired += sweepShard(shard, cutoff, leaseKey, token);
+            } catch (DataAccessException e) {
+                log.error("Failed to sweep session shard {}", shard, e);
+            } finally {
+                stringRedisTemplate.execute(RELEASE_LEASE_SCRIPT, List.of(leaseKey), token);
+            }
+        }
+        return expired;
+    }
+
+    private long sweepShard(int shard, LocalDateTime cutoff, String leaseKey, String token) {
+        long expired = 0;
+        while (true) {
+            List<UserSession> page = mongoTemplate.find(expiredPageQuery(shard, cutoff), UserSession.class);
+            if (page.isEmpty()) {
+                return expired;
+            }
+
+            List<String> sessionIds = page.stream().map(UserSession::getSessionId).toList();
+            LocalDateTime now = LocalDateTime.now();
+            String claimId = UUID.randomUUID().toString();
+            // Re-check status and activity so a session touched since the read is left alone
+            Query claim = Query.query(Criteria.where("sessionId").in(sessionIds)
+                    .and("status").is("ACTIVE")
+                    .and("lastActivityTime").lt(cutoff));
+            AggregationUpdate expire = AggregationUpdate.update()
+                    .set("status").toValue("EXPIRED")
+                    .set("endTime").toValue(now)
+                    .set("updatedAt").toValue(now)
+                    .set("sweepClaim").toValue(claimId)
+                    // Each set is its own pipeline stage, so endTime below is the value assigned above
+                    .set("durationSeconds").toValue(DateOperators.dateOf("startTime").diffValueOf("endTime", "second"));
+            long modified = mongoTemplate.updateMulti(claim, expire, UserSession.class).getModifiedCount();
+            expired += modified;
+
+            // Only sessions this update actually expired are evicted and counted
+            List<UserSession> claimed = modified == page.size() ? page : claimed(page, sessionIds, claimId);
+            evict(claimed);
+            sessionMetrics.onSessionsExpired(claimed, now);
+
+            if (page.size() < pageSize) {
+                return expired;
+            }
+            Long extended = stringRedisTemplate.execute(EXTEND_LEASE_SCRIPT, List.of(leaseKey), token, String.valueOf(leaseMillis));
+            if (extended == null || extended == 0) {
+                log.warn("Lost sweep lease for shard {}; leaving the rest to another replica", shard);
+                return expired;
+            }
+        }
+    }
+
+    /**
+     * Next page of expired sessions in a shard, projected to the fields needed for eviction and metrics.
+     * Shard 0 also picks up sessions created before sharding was introduced.
+     */
+    private Query expiredPageQuery(int shard, LocalDateTime cutoff) {
+        Criteria criteria = Criteria.where("status").is("ACTIVE");
+        if (shard == 0) {
+            criteria.and("sweepShard").in(Arrays.asList(0, null));
+        } else {
+            criteria.and("sweepShard").is(shard);
+        }
+        criteria.and("lastActivityTime").lt(cutoff);
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "lastActivityTime"))
+                .limit(pageSize);
+        query.fields().include("sessionId", "userId", "startTime", "deviceType", "browser", "operatingSystem",
+                "authenticationToken");
+        return query;
+    }
+
+    /**
+     * Sessions of the page stamped with this update's claim id
+     */
+    private List<UserSession> claimed(List<UserSession> page, List<String> sessionIds, String claimId) {
+        Query query = Query.query(Criteria.where("sessionId").in(sessionIds).and("sweepClaim").is(claimId));
+        query.fields().include("sessionId");
+        Set<String> claimedIds = new HashSet<>();
+        mongoTemplate.find(query, UserSession.class).forEach(session -> claimedIds.add(session.getSessionId()));
+        return page.stream().filter(session -> claimedIds.contains(session.getSessionId())).toList();
+    }
+
+    private void evict(List<UserSession> page) {
+        if (page.isEmpty()) {
+            return;
+        }
+        List<String> sessionIds = new ArrayList<>(page.size());
+        page.forEach(session -> sessionIds.add(session.getSessionId()));
+        sessionCache.evictAll(sessionIds);
+        tokenIndex.removeAll(page.stream().map(UserSession::getAuthenticationToken).toList());
+
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> redis = (RedisOperations<String, Object>) operations;
+                for (UserSession session : page) {
+                    redis.opsForSet().remove(USER_SESSIONS_PREFIX + session.getUserId(), session.getSessionId());
+                }
+                return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package com.smartshopai.sessioncache.infrastructure.useragent;
+
+import java.util.Locale;
+
+/**
+ * Derives a session's device type, browser and operating system from its User-Agent header.
+ * Only the coarse families the session dimensions report are recognised; anything else is left null.
+ */
+public final class UserAgentParser {
+
+    private UserAgentParser() {
+    }
+
+    public static ClientInfo parse(String userAgent) {
+        if (userAgent == null || userAgent.isBlank()) {
+            return new ClientInfo(null, null, null);
+        }
+        String ua = userAgent.toLowerCase(Locale.ROOT);
+        return new ClientInfo(deviceType(ua), browser(ua), operatingSystem(ua));
+    }
+
+    private static String deviceType(String ua) {
+        if (ua.contains("ipad") || ua.contains("tablet") || (ua.contains("android") && !ua.contains("mobile"))) {
+            return "TABLET";
+        }
+        if (ua.contains("mobi") || ua.contains("iphone") || ua.contains("ipod")) {
+            return "MOBILE";
+        }
+        return "DESKTOP";
+    }
+
+    /**
+     * Checked most specific first: Edge, Opera and Samsung Internet also announce Chrome and Safari
+     */
+    private static String browser(String ua) {
+        if (ua.contains("edg/") || ua.contains("edga/") || ua.contains("edgios/")) {
+            return "Edge";
+        }
+        if (ua.contains("opr/") || ua.contains("opera")) {
+            return "Opera";
+        }
+        if (ua.contains("samsungbrowser/")) {
+            return "Samsung Internet";
+        }
+        if (ua.contains("firefox/") || ua.contains("fxios/")) {
+            return "Firefox";
+        }
+        if (ua.contains("chrome/") || ua.contains("crios/")) {
+            return "Chrome";
+        }
+        if (ua.contains("safari/")) {
+            return "Safari";
+        }
+        if (ua.contains("msie ") || ua.contains("trident/")) {
+            return "Internet Explorer";
+        }
+        return null;
+    }
+
+    private static String operatingSystem(String ua) {
+        if (ua.contains("windows")) {
+            return "Windows";
+        }
+        if (ua.contains("iphone") || ua.contains("ipad") || ua.contains("ipod")) {
+            return "iOS";
+        }
+        if (ua.contains("mac os x") || ua.contains("macintosh")) {
+            return "macOS";
+        }
+        if (ua.contains("android")) {
+            return "Android";
+        }
+        if (ua.contains("cros")) {
+            return "Chrome OS";
+        }
+        if (ua.contains("linux")) {
+            return "Linux";
+        }
+        return null;
+    }
+
+    /**
+     * Client dimensions of a session; each may be null when the header does not reveal it
+     */
+    public record ClientInfo(String deviceType, String browser, String operatingSystem) {
+    }
+}
@@ -6,15 +6,18 @@ import com.smartshopai.sessioncache.application.dto.request.UpdateSessionRequest
 import com.smartshopai.sessioncache.application.dto.request.TrackActivityRequest;
 import com.smartshopai.sessioncache.application.dto.response.UserSessionResponse;
 import com.smartshopai.sessioncache.application.service.SessionApplicationService;
+import com.smartshopai.sessioncache.domain.entity.SessionExportFormat;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
@@ -308,16 +311,20 @@ public class SessionController {
     @PostMapping("/export")
     @PreAuthorize("hasRole('ADMIN') or hasRole('ANALYST')")
     @Operation(summary = "Export session data", description = "Exports session data in specified format")
-    public ResponseEntity<byte[]> exportSessionData(
+    public ResponseEntity<StreamingResponseBody> exportSessionData(
             @RequestParam String format,
-            @RequestBody Map<String, Object> filters) {
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestBody(required = false) Map<String, Object> filters) {
         log.info("Exporting session data in format: {}", format);
         
-        byte[] data = sessionApplicationService.exportSessionData(format, filters);
+        SessionExportFormat exportFormat = SessionExportFormat.from(format);
+        StreamingResponseBody body = sessionApplicationService.exportSessionData(exportFormat, filters, gzip);
         
+        String filename = "session_export." + exportFormat.getFileExtension() + (gzip ? ".gz" : "");
         return ResponseEntity.ok()
-                .header("Content-Disposition", "attachment; filename=session_export." + format.toLowerCase())
-                .body(data);
+                .header("Content-Disposition", "attachment; filename=" + filename)
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+                .body(body);
     }
 
     @GetMapping("/metrics/real-time")
@@ -0,0 +1,204 @@
+package com.smartshopai.sessioncache.domain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mongodb.MongoClientSettings;
+import com.smartshopai.sessioncache.domain.entity.ActivityEntry;
+import com.smartshopai.sessioncache.domain.entity.UserSession;
+import com.smartshopai.sessioncache.domain.repository.SessionExportRepository;
+import com.smartshopai.sessioncache.domain.repository.UserSessionRepository;
+import com.smartshopai.sessioncache.infrastructure.cache.SessionActivityHistory;
+import com.smartshopai.sessioncache.infrastructure.cache.SessionActivityWriteBehind;
+import com.smartshopai.sessioncache.infrastructure.cache.SessionHashCache;
+import com.smartshopai.sessioncache.infrastructure.cache.SessionNearCache;
+import com.smartshopai.sessioncache.infrastructure.cache.SessionTokenIndex;
+import com.smartshopai.sessioncache.infrastructure.metrics.SessionMetrics;
+import com.smartshopai.sessioncache.infrastructure.sweeper.ExpiredSessionSweeper;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bytes written to MongoDB and Redis per session update, partial updates against the whole-document saves
+ * they replaced, on a session carrying a full activity history, cookies and analytics data.
+ */
+class SessionPartialUpdateBenchmarkTest {
+
+    private static final String SESSION_ID = "session-1";
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final RecordingRedisTemplate redis = new RecordingRedisTemplate();
+    private MappingMongoConverter converter;
+    private MongoMappingContext mappingContext;
+    private SessionHashCache sessionCache;
+    private SessionServiceImpl sessionService;
+    private UserSession stored;
+    private Update lastUpdate;
+
+    @BeforeEach
+    void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        sessionCache = new SessionHashCache(redis, objectMapper, mock(SessionNearCache.class));
+        ReflectionTestUtils.setField(sessionCache, "sessionTimeoutMinutes", 30L);
+
+        stored = populatedSession();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(UserSession.class))).thenAnswer(invocation -> {
+            lastUpdate = invocation.getArgument(1);
+            UserSession updated = stored.copy();
+            BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(updated);
+            lastUpdate.getUpdateObject().get("$set", Document.class).forEach(wrapper::setPropertyValue);
+            return updated;
+        });
+
+        @SuppressWarnings("unchecked")
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        sessionService = new SessionServiceImpl(mock(UserSessionRepository.class), redisTemplate, mongoTemplate,
+                sessionCache, mock(SessionActivityWriteBehind.class), mock(SessionActivityHistory.class),
+                mock(ExpiredSessionSweeper.class), mock(SessionMetrics.class), mock(SessionTokenIndex.class),
+                mock(SessionExportRepository.class));
+    }
+
+    @Test
+    void partialUpdatesWriteAFractionOfTheWholeDocument() {
+        Map<String, Object> aiContext = Map.of("intent", "compare", "lastQuery", "noise cancelling headphones",
+                "candidates", List.of("p-1", "p-2", "p-3"));
+        Map<String, Object> recommendations = Map.of("items", List.of("p-10", "p-11", "p-12", "p-13"),
+                "model", "hybrid-v2");
+        Map<String, Object> preferences = Map.of("currency", "TRY", "language", "tr", "priceSensitivity", 0.7);
+        Map<String, Object> sessionData = Map.of("cartSize", 2, "checkoutStep", "shipping");
+
+        measure("updateAIContext", sessionService::updateAIContext, aiContext);
+        measure("updateRecommendations", sessionService::updateRecommendations, recommendations);
+        measure("updateUserPreferences", sessionService::updateUserPreferences, preferences);
+        measure("updateSessionData", sessionService::updateSessionData, sessionData);
+    }
+
+    private void measure(String operation, BiFunction<String, Map<String, Object>, UserSession> update,
+                         Map<String, Object> value) {
+        redis.bytes = 0;
+        UserSession updated = update.apply(SESSION_ID, value);
+        long partialMongo = bsonSize(new UpdateMapper(converter).getMappedObject(lastUpdate.getUpdateObject(),
+                mappingContext.getPersistentEntity(UserSession.class)));
+        long partialRedis = redis.bytes;
+
+        // What the update used to write: the whole document to MongoDB and the whole session to Redis
+        Document whole = new Document();
+        converter.write(updated, whole);
+        long fullMongo = bsonSize(whole);
+        redis.bytes = 0;
+        sessionCache.put(updated);
+        long fullRedis = redis.bytes;
+
+        System.out.printf("BENCH session %s: MongoDB %d bytes (whole document %d), Redis %d bytes (whole session %d)%n",
+                operation, partialMongo, fullMongo, partialRedis, fullRedis);
+        assertThat(partialMongo * 5).isLessThan(fullMongo);
+        assertThat(partialRedis * 5).isLessThan(fullRedis);
+    }
+
+    private static long bsonSize(Document document) {
+        return new RawBsonDocument(document, new DocumentCodec(MongoClientSettings.getDefaultCodecRegistry()))
+                .getByteBuffer().remaining();
+    }
+
+    private static UserSession populatedSession() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ActivityEntry> pages = new ArrayList<>();
+        List<ActivityEntry> terms = new ArrayList<>();
+        List<ActivityEntry> products = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            pages.add(new ActivityEntry("https://smartshop.example/category/electronics/page-" + i, now.minusMinutes(i)));
+            terms.add(new ActivityEntry("wireless headphones model " + i, now.minusMinutes(i)));
+            products.add(new ActivityEntry("product-" + (1000 + i), now.minusMinutes(i)));
+        }
+        Map<String, String> cookies = new HashMap<>();
+        Map<String, Object> analytics = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            cookies.put("cookie_" + i, "v" + i + "-0123456789abcdef0123456789abcdef");
+            analytics.put("event_" + i, Map.of("count", i, "lastSeen", now.toString()));
+        }
+        return UserSession.builder()
+                .id("64b7f0c2a1b2c3d4e5f60718")
+                .sessionId(SESSION_ID)
+                .userId("user-1")
+                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 Chrome/126.0 Safari/537.36")
+                .ipAddress("203.0.113.7")
+                .status("ACTIVE")
+                .startTime(now.minusHours(1))
+                .lastActivityTime(now)
+                .pageViews(50)
+                .clicks(120)
+                .searches(50)
+                .visitedPages(pages)
+                .searchedTerms(terms)
+                .viewedProducts(products)
+                .sessionData(new HashMap<>(Map.of("cartSize", 1)))
+                .cookies(cookies)
+                .aiContext(new HashMap<>())
+                .recommendations(new HashMap<>())
+                .userPreferences(new HashMap<>())
+                .analyticsData(analytics)
+                .metrics(new HashMap<>(Map.of("engagement", 0.8)))
+                .createdAt(now.minusHours(1))
+                .updatedAt(now)
+                .build();
+    }
+
+    /**
+     * Counts the bytes of the arguments every cache script sends to Redis
+     */
+    private static final class RecordingRedisTemplate extends StringRedisTemplate {
+
+        private long bytes;
+
+        @Override
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            keys.forEach(key -> bytes += key.getBytes(StandardCharsets.UTF_8).length);
+            for (Object arg : args) {
+                bytes += arg.toString().getBytes(StandardCharsets.UTF_8).length;
+            }
+            return null;
+        }
+    }
+}